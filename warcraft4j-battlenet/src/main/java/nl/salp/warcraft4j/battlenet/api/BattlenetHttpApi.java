@@ -19,11 +19,13 @@
 
 package nl.salp.warcraft4j.battlenet.api;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import nl.salp.warcraft4j.Locale;
 import nl.salp.warcraft4j.Region;
 import nl.salp.warcraft4j.battlenet.BattlenetRegion;
 import nl.salp.warcraft4j.battlenet.BattlenetLocale;
+import nl.salp.warcraft4j.io.PooledHttpClient;
 import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -31,7 +33,6 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.lang.String.format;
 
@@ -60,32 +62,61 @@ public class BattlenetHttpApi extends BattlenetApi {
     private static final String PARAMETER_LOCALE = "locale";
     /** The parameter name for the API key parameter. */
     private static final String PARAMETER_API_KEY = "apikey";
+    /** The HTTP client to execute the requests with. */
+    private final PooledHttpClient httpClient;
 
     /**
-     * Create a new BattlenetHttpService with the default region and locale.
+     * Create a new BattlenetHttpService with the default region and locale, using the default {@link PooledHttpClient}.
      */
     public BattlenetHttpApi() {
+        this(PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new BattlenetHttpService with the default region and locale.
+     *
+     * @param httpClient The HTTP client to execute the requests with.
+     *
+     * @throws IllegalArgumentException When the HTTP client is {@code null}.
+     */
+    @Inject
+    public BattlenetHttpApi(PooledHttpClient httpClient) throws IllegalArgumentException {
         super();
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a Battle.NET API without an HTTP client."));
     }
 
     /**
-     * Create a new BattlenetHttpService.
+     * Create a new BattlenetHttpService, using the default {@link PooledHttpClient}.
      *
      * @param region   The region to retrieve the data from.
      * @param language The language to get the data in.
      */
     public BattlenetHttpApi(Region region, Locale language) {
+        this(region, language, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new BattlenetHttpService.
+     *
+     * @param region     The region to retrieve the data from.
+     * @param language   The language to get the data in.
+     * @param httpClient The HTTP client to execute the requests with.
+     *
+     * @throws IllegalArgumentException When the HTTP client is {@code null}.
+     */
+    public BattlenetHttpApi(Region region, Locale language, PooledHttpClient httpClient) throws IllegalArgumentException {
         super(region, language);
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a Battle.NET API without an HTTP client."));
     }
 
     @Override
     protected <T> String execute(BattlenetRegion region, BattlenetLocale locale, BattlenetApiRequest<T> method) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            URI methodUri = createUri(region, locale, method);
-            LOGGER.debug("Calling Battle.NET method {} with URI {}", method.getClass().getName(), methodUri.toASCIIString());
-            HttpUriRequest request = new HttpGet(methodUri);
-            return execute(request, httpClient);
-        }
+        URI methodUri = createUri(region, locale, method);
+        LOGGER.debug("Calling Battle.NET method {} with URI {}", method.getClass().getName(), methodUri.toASCIIString());
+        HttpUriRequest request = new HttpGet(methodUri);
+        return execute(request, httpClient.getClient());
     }
 
     /**
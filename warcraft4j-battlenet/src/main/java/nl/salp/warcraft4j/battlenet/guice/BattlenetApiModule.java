@@ -26,6 +26,7 @@ import nl.salp.warcraft4j.battlenet.api.wow.WowBattlenetApi;
 import nl.salp.warcraft4j.battlenet.api.wow.WowBattlenetApiImpl;
 import nl.salp.warcraft4j.battlenet.api.BattlenetHttpApi;
 import nl.salp.warcraft4j.battlenet.api.JsonApiResultParser;
+import nl.salp.warcraft4j.io.PooledHttpClient;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -62,6 +63,7 @@ public class BattlenetApiModule extends AbstractModule {
         } else {
             bind(BattlenetApiConfig.class).toProvider(new BattlenetApiConfigFileProvider(configFile));
         }
+        bind(PooledHttpClient.class).toInstance(PooledHttpClient.getDefault());
         bind(BattlenetApi.class).to(BattlenetHttpApi.class);
         bind(JsonApiResultParser.class).to(JacksonJsonApiResultParser.class);
         bind(WowBattlenetApi.class).to(WowBattlenetApiImpl.class);
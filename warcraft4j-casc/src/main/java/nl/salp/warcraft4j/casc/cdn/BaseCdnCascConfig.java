@@ -117,7 +117,7 @@ public abstract class BaseCdnCascConfig implements CdnCascConfig {
      *
      * @return The build configuration.
      */
-    protected final KeyBasedConfiguration getBuildConfig() {
+    protected final synchronized KeyBasedConfiguration getBuildConfig() {
         if (buildConfig == null) {
             String buildConfigKey = getBuildConfigKey()
                     .orElseThrow(() -> new CascParsingException("No build configuration file checksum available."));
@@ -132,7 +132,7 @@ public abstract class BaseCdnCascConfig implements CdnCascConfig {
      *
      * @return The CDN configuration.
      */
-    protected final KeyBasedConfiguration getCdnConfig() {
+    protected final synchronized KeyBasedConfiguration getCdnConfig() {
         if (cdnConfig == null) {
             String cdnConfigKey = getCdnConfigKey()
                     .orElseThrow(() -> new CascParsingException("No CDN configuration file checksum available."));
@@ -19,8 +19,12 @@
 package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.util.Checksum;
+
+import java.nio.ByteBuffer;
 
 import static java.lang.String.format;
+import static nl.salp.warcraft4j.hash.Hashes.MD5;
 
 /**
  * TODO Add description.
@@ -32,21 +36,45 @@ class BlteChunk {
     private final long compressedSize;
     private final long decompressedSize;
     private final DataDecompressor decompressorSupplier;
-    private byte[] data;
-    private boolean compressed;
+    private final byte[] data;
+    /** The offset of the compressed data in the data array. */
+    private final int dataOffset;
+    /** The checksum of the complete data array, {@code null} if the data is not verified by the chunk. */
+    private final Checksum checksum;
+    /** Flag indicating that the data has been verified against the checksum. */
+    private volatile boolean verified;
 
     public BlteChunk(long compressedSize, byte[] data, DataDecompressor decompressorSupplier) {
         this(compressedSize, VARIABLE_SIZE, data, decompressorSupplier);
     }
 
     public BlteChunk(long compressedSize, long decompressedSize, byte[] data, DataDecompressor decompressorSupplier) {
+        this(data, 0, decompressedSize, null, decompressorSupplier);
         if (data.length != compressedSize) {
             throw new CascParsingException(format("Error creating BLTE chunk, compressed data is %d bytes with %d bytes expected", data.length, compressedSize));
         }
-        this.compressedSize = compressedSize;
+    }
+
+    /**
+     * Create a new chunk from the raw chunk data, verifying the raw data against a checksum before the data is decompressed.
+     *
+     * @param data                 The raw chunk data.
+     * @param dataOffset           The offset of the compressed data in the raw chunk data (i.e. after the compression type).
+     * @param decompressedSize     The decompressed size, {@link #VARIABLE_SIZE} when unknown.
+     * @param checksum             The checksum of the raw chunk data, {@code null} when the data is not verified.
+     * @param decompressorSupplier The decompressor for the compressed data.
+     *
+     * @throws CascParsingException When the offset is not within the data.
+     */
+    public BlteChunk(byte[] data, int dataOffset, long decompressedSize, Checksum checksum, DataDecompressor decompressorSupplier) throws CascParsingException {
+        if (dataOffset < 0 || dataOffset > data.length) {
+            throw new CascParsingException(format("Error creating BLTE chunk, compressed data offset %d is outside the %d bytes of chunk data", dataOffset, data.length));
+        }
+        this.compressedSize = data.length - dataOffset;
         this.decompressedSize = decompressedSize;
         this.data = data;
-        this.compressed = true;
+        this.dataOffset = dataOffset;
+        this.checksum = checksum;
         this.decompressorSupplier = decompressorSupplier;
     }
 
@@ -62,14 +90,55 @@ class BlteChunk {
         return decompressedSize == VARIABLE_SIZE;
     }
 
-    public byte[] getData() {
-        if (compressed) {
-            data = decompressorSupplier.decompress(data, 0, data.length, decompressedSize);
-            if (!isDecompressedSizeVariable() && data.length != decompressedSize) {
-                throw new CascParsingException(format("Error decompressing BLTE chunk, decompressed data is %d bytes with %d bytes expected", data.length, decompressedSize));
+    /**
+     * Verify the raw chunk data against the checksum of the chunk, if it has one and wasn't verified before.
+     *
+     * @throws CascParsingException When the data does not match the checksum.
+     */
+    public void verify() throws CascParsingException {
+        if (checksum != null && !verified) {
+            Checksum dataChecksum = new Checksum(MD5.hash(data));
+            if (!checksum.equals(dataChecksum)) {
+                throw new CascParsingException(format("Error parsing BLTE chunk, mismatching checksum (got %s, expected %s)", dataChecksum, checksum));
             }
-            compressed = false;
+            verified = true;
+        }
+    }
+
+    /**
+     * Decompress the data of the chunk.
+     * <p>
+     * The chunk only keeps its compressed data, so every call decompresses the data again. The returned array can be shared with the chunk for
+     * uncompressed data and must not be modified.
+     *
+     * @return The decompressed data.
+     *
+     * @throws CascParsingException When the data does not match the checksum, could not be decompressed or has an unexpected decompressed size.
+     */
+    public byte[] getData() throws CascParsingException {
+        verify();
+        byte[] decompressed = decompressorSupplier.decompress(data, dataOffset, compressedSize, decompressedSize);
+        if (!isDecompressedSizeVariable() && decompressed.length != decompressedSize) {
+            throw new CascParsingException(format("Error decompressing BLTE chunk, decompressed data is %d bytes with %d bytes expected", decompressed.length, decompressedSize));
+        }
+        return decompressed;
+    }
+
+    /**
+     * Decompress the data of the chunk into a buffer, starting at the current position of the buffer.
+     *
+     * @param target The buffer, which must have enough remaining space for the decompressed data.
+     *
+     * @return The number of decompressed bytes.
+     *
+     * @throws CascParsingException When the data does not match the checksum, could not be decompressed, does not fit in the buffer or has an unexpected size.
+     */
+    public int getData(ByteBuffer target) throws CascParsingException {
+        verify();
+        int length = decompressorSupplier.decompress(data, dataOffset, compressedSize, target);
+        if (!isDecompressedSizeVariable() && length != decompressedSize) {
+            throw new CascParsingException(format("Error decompressing BLTE chunk, decompressed data is %d bytes with %d bytes expected", length, decompressedSize));
         }
-        return data;
+        return length;
     }
 }
@@ -20,7 +20,6 @@ package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.ContentChecksum;
-import nl.salp.warcraft4j.hash.Hashes;
 import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
@@ -31,18 +30,26 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
-import static java.lang.String.format;
-
 /**
- * TODO Add description.
+ * {@link DataReader} for the decompressed data of a BLTE encoded file.
+ * <p>
+ * Chunks are only decompressed when they are read from. When a content checksum is provided, the decompressed data is validated against it
+ * while it is being decompressed for reading, failing at the latest when the end of the data is reached.
+ * <p>
+ * When an executor is provided, multi-chunk files of at least {@link #PARALLEL_THRESHOLD} bytes of decompressed data are decoded in parallel, with
+ * the chunks following the chunk that is being read being decompressed ahead on the executor.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.BlteFileDataReader
  */
 public class BlteDataReader implements DataReader {
     /** The logger. */
     protected static final Logger LOGGER = LoggerFactory.getLogger(BlteDataReader.class);
+    /** The minimum decompressed size of a multi-chunk file for its chunks to be decoded in parallel (256KB). */
+    public static final long PARALLEL_THRESHOLD = 256 * 1024;
     private final ContentChecksum contentChecksum;
     private final BlteFile blteFile;
     private final DataReader parsedDataReader;
@@ -56,39 +63,52 @@ public class BlteDataReader implements DataReader {
     }
 
     public BlteDataReader(Supplier<DataReader> rawDataReader, long fileSize, ContentChecksum contentChecksum) {
-        this.contentChecksum = contentChecksum;
-        this.blteFile = parseBlteFile(rawDataReader, fileSize);
-        validateData();
-        this.parsedDataReader = blteFile.getDataReader().get();
+        this(rawDataReader, fileSize, contentChecksum, null);
     }
 
     public BlteDataReader(Supplier<DataReader> rawDataReader, long fileSize, long offset, long length, ContentChecksum contentChecksum) {
+        this(rawDataReader, fileSize, offset, length, contentChecksum, null);
+    }
+
+    /**
+     * Create a new reader for all decompressed data of a BLTE file.
+     *
+     * @param rawDataReader   The supplier for the reader of the BLTE file.
+     * @param fileSize        The size of the BLTE file.
+     * @param contentChecksum The expected checksum of the decompressed data, or {@code null} to not validate the data.
+     * @param executor        The executor to decode large multi-chunk files in parallel with, or {@code null} to decode sequentially.
+     */
+    public BlteDataReader(Supplier<DataReader> rawDataReader, long fileSize, ContentChecksum contentChecksum, Executor executor) {
         this.contentChecksum = contentChecksum;
-        this.blteFile = parseBlteFile(rawDataReader, fileSize);
-        validateData();
-        this.parsedDataReader = blteFile.getDataReader(offset, length).get();
+        this.blteFile = parseBlteFile(rawDataReader, fileSize, executor);
+        this.parsedDataReader = new BlteFileDataReader(blteFile, contentChecksum);
     }
 
-    private BlteFile parseBlteFile(Supplier<DataReader> rawDataReader, long fileSize) throws CascParsingException {
+    /**
+     * Create a new reader for a part of the decompressed data of a BLTE file.
+     *
+     * @param rawDataReader   The supplier for the reader of the BLTE file.
+     * @param fileSize        The size of the BLTE file.
+     * @param offset          The offset in the decompressed data where the readable data starts.
+     * @param length          The number of readable bytes.
+     * @param contentChecksum The expected checksum of all decompressed data, or {@code null} to not validate the data.
+     * @param executor        The executor to decode large multi-chunk files in parallel with, or {@code null} to decode sequentially.
+     */
+    public BlteDataReader(Supplier<DataReader> rawDataReader, long fileSize, long offset, long length, ContentChecksum contentChecksum,
+                          Executor executor) {
+        this.contentChecksum = contentChecksum;
+        this.blteFile = parseBlteFile(rawDataReader, fileSize, executor);
+        this.parsedDataReader = new BlteFileDataReader(blteFile, offset, length, contentChecksum);
+    }
+
+    private BlteFile parseBlteFile(Supplier<DataReader> rawDataReader, long fileSize, Executor executor) throws CascParsingException {
         try (DataReader reader = rawDataReader.get()) {
-            return new BlteFileParser().parse(reader, fileSize);
+            return new BlteFileParser(executor, PARALLEL_THRESHOLD).parse(reader, fileSize);
         } catch (IOException e) {
             throw new CascParsingException(e);
         }
     }
 
-    private void validateData() throws CascParsingException {
-        if (contentChecksum != null) {
-            ContentChecksum decompressedChecksum = new ContentChecksum(Hashes.MD5.hash(blteFile.decompress()));
-            LOGGER.trace("Validating BLTE data with checksum {} against expected checksum {}", decompressedChecksum, contentChecksum.toHexString());
-            if (!contentChecksum.equals(decompressedChecksum)) {
-                throw new CascParsingException(format("Porbably corrupt BLTE data with checksum %s while %s was expected.",
-                        decompressedChecksum.toHexString(), contentChecksum.toHexString()));
-            }
-        }
-
-    }
-
     public Optional<ContentChecksum> getContentChecksum() {
         return Optional.ofNullable(contentChecksum);
     }
@@ -118,7 +138,7 @@ public class BlteDataReader implements DataReader {
      */
     @Override
     public boolean isRandomAccessSupported() {
-        return parsedDataReader.hasRemaining();
+        return parsedDataReader.isRandomAccessSupported();
     }
 
     /**
@@ -201,6 +221,54 @@ public class BlteDataReader implements DataReader {
         return parsedDataReader.read(dataType, position, byteOrder);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte readByte() throws DataReadingException {
+        return parsedDataReader.readByte();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readShort(ByteOrder byteOrder) throws DataReadingException {
+        return parsedDataReader.readShort(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readInt(ByteOrder byteOrder) throws DataReadingException {
+        return parsedDataReader.readInt(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readUnsignedInt(ByteOrder byteOrder) throws DataReadingException {
+        return parsedDataReader.readUnsignedInt(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong(ByteOrder byteOrder) throws DataReadingException {
+        return parsedDataReader.readLong(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readBytes(byte[] target, int offset, int length) throws DataReadingException, IndexOutOfBoundsException {
+        parsedDataReader.readBytes(target, offset, length);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -19,15 +19,18 @@
 package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
-import nl.salp.warcraft4j.io.ByteArrayDataReader;
 import nl.salp.warcraft4j.io.DataReader;
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
@@ -41,9 +44,23 @@ public class BlteFile {
     /** The logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(BlteFile.class);
     private final List<BlteChunk> chunks;
+    /** The executor for decompressing the chunks in parallel, {@code null} when the chunks are decompressed sequentially. */
+    private final Executor executor;
 
     public BlteFile(List<BlteChunk> chunks) {
+        this(chunks, null);
+    }
+
+    /**
+     * Create a new BLTE file.
+     *
+     * @param chunks   The chunks of the file.
+     * @param executor The executor to verify and decompress the chunks in parallel when decompressing the complete file, or {@code null} to
+     *                 decompress the chunks sequentially.
+     */
+    public BlteFile(List<BlteChunk> chunks, Executor executor) {
         this.chunks = chunks;
+        this.executor = executor;
     }
 
     public long getCompressedSize() {
@@ -62,18 +79,47 @@ public class BlteFile {
         return chunks.size();
     }
 
+    /**
+     * Get the executor to decompress the chunks of the file in parallel with.
+     *
+     * @return Optional containing the executor, empty when the chunks are decompressed sequentially.
+     */
+    Optional<Executor> getExecutor() {
+        return Optional.ofNullable(executor);
+    }
+
+    /**
+     * Get a chunk of the file.
+     *
+     * @param index The index of the chunk.
+     *
+     * @return The chunk.
+     *
+     * @throws IndexOutOfBoundsException When the file has no chunk with the index.
+     */
+    BlteChunk getChunk(int index) throws IndexOutOfBoundsException {
+        return chunks.get(index);
+    }
+
+    /**
+     * Get a supplier for seekable readers of the decompressed data, only decompressing the chunks that are read from.
+     *
+     * @return The reader supplier.
+     */
     public Supplier<DataReader> getDataReader() {
-        return () -> new ByteArrayDataReader(decompress());
+        return () -> new BlteFileDataReader(this);
     }
 
+    /**
+     * Get a supplier for seekable readers of a part of the decompressed data, only decompressing the chunks that are read from.
+     *
+     * @param offset The offset in the decompressed data where the readable data starts.
+     * @param length The number of readable bytes.
+     *
+     * @return The reader supplier.
+     */
     public Supplier<DataReader> getDataReader(long offset, long length) {
-        return () -> {
-            byte[] data = decompress();
-            if (offset + length > data.length) {
-                throw new CascParsingException(format("Unable to create a reader from offset %d and data length %d for a blte file with %d bytes of data.", offset, length, data.length));
-            }
-            return new ByteArrayDataReader(ArrayUtils.subarray(data, (int) offset, (int) length));
-        };
+        return () -> new BlteFileDataReader(this, offset, length);
     }
 
     public byte[] decompress() {
@@ -82,6 +128,19 @@ public class BlteFile {
             throw new CascParsingException(format("Unable to decompress %d bytes of BLTE data into a single byte array.", decompressedSize));
         }
         int size = (int) decompressedSize;
+        if (chunks.stream().noneMatch(BlteChunk::isDecompressedSizeVariable)) {
+            if (executor != null && chunks.size() > 1) {
+                return decompressParallel(size);
+            }
+            byte[] data = new byte[size];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            for (int i = 0; i < chunks.size(); i++) {
+                int length = chunks.get(i).getData(buffer);
+                LOGGER.trace("Decompressed chunk {} with {} bytes of data to {} bytes", i, chunks.get(i).getCompressedSize(), length);
+            }
+            LOGGER.trace("Decompressed BLTE file to {} bytes of data in {} chunks to {} of data.", getCompressedSize(), chunks.size(), data.length);
+            return data;
+        }
         try (ByteArrayOutputStream out = new ByteArrayOutputStream(size)) {
             for (int i = 0; i < chunks.size(); i++) {
                 BlteChunk chunk = chunks.get(i);
@@ -100,4 +159,35 @@ public class BlteFile {
             throw new CascParsingException(format("Error compressing %d bytes BLTE file with %d chunks", decompressedSize, chunks.size()), e);
         }
     }
+
+    /**
+     * Verify and decompress all chunks in parallel, with every chunk writing its data directly at its offset in the output.
+     *
+     * @param size The total decompressed size of all chunks.
+     *
+     * @return The decompressed data.
+     *
+     * @throws CascParsingException When a chunk could not be verified or decompressed.
+     */
+    private byte[] decompressParallel(int size) throws CascParsingException {
+        byte[] data = new byte[size];
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[chunks.size()];
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            BlteChunk chunk = chunks.get(i);
+            ByteBuffer target = ByteBuffer.wrap(data, offset, (int) chunk.getDecompressedSize());
+            tasks[i] = CompletableFuture.runAsync(() -> chunk.getData(target), executor);
+            offset += chunk.getDecompressedSize();
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CascParsingException) {
+                throw (CascParsingException) e.getCause();
+            }
+            throw new CascParsingException(format("Error decompressing %d bytes BLTE file with %d chunks", size, chunks.size()), e.getCause());
+        }
+        LOGGER.trace("Decompressed BLTE file to {} bytes of data in {} chunks to {} of data in parallel.", getCompressedSize(), chunks.size(), data.length);
+        return data;
+    }
 }
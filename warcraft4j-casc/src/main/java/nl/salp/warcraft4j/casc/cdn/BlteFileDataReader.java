@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.io.BaseDataReader;
+import nl.salp.warcraft4j.io.DataReadingException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.Optional;
+
+import static java.lang.String.format;
+import static org.apache.commons.codec.digest.DigestUtils.getMd5Digest;
+
+/**
+ * Seekable {@link nl.salp.warcraft4j.io.DataReader} for the decompressed data of a {@link BlteFile}.
+ * <p>
+ * The chunk table of the file is used to map a position in the decompressed data to the chunk containing it, and only the chunks that are actually
+ * read from are decompressed. The most recently used decompressed chunks are kept in a small bounded cache, making the cost of positioning and
+ * reading proportional to the data that is read instead of the size of the file. The reader supports files of more than 2GB of decompressed data.
+ * <p>
+ * When a content checksum is provided, the MD5 checksum of the decompressed data is calculated from the chunks as they are decompressed for
+ * reading, instead of decompressing the file a second time. Chunks that are skipped are only decompressed for the checksum when a later chunk is
+ * read. The checksum is verified as soon as the last chunk has been decompressed, and at the latest when the end of the readable data is reached.
+ * <p>
+ * When the BLTE file is decoded in parallel, the chunks following the chunk that is being read are decompressed ahead on the executor of the file
+ * while the current chunk is being read.
+ * <p>
+ * The reader is not thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.BlteFile
+ */
+class BlteFileDataReader extends BaseDataReader {
+    /** The maximum number of decompressed chunks that are cached. */
+    private static final int CHUNK_CACHE_SIZE = 4;
+    /** The number of chunks following the chunk being read that are decompressed ahead when decoding in parallel. */
+    private static final int READ_AHEAD_CHUNKS = CHUNK_CACHE_SIZE - 1;
+    /** The BLTE file. */
+    private final BlteFile blteFile;
+    /** The start offsets of the chunks in the decompressed data, with the total decompressed size as last element. */
+    private final long[] chunkOffsets;
+    /** The offset in the decompressed data where the readable data starts. */
+    private final long offset;
+    /** The number of readable bytes. */
+    private final long length;
+    /** The most recently used decompressed chunks, indexed by chunk number. */
+    private final Map<Integer, byte[]> chunkCache;
+    /** The chunks that are being decompressed ahead of reading, indexed by chunk number. */
+    private final Map<Integer, CompletableFuture<byte[]>> readAhead;
+    /** The expected checksum of the decompressed data, {@code null} when the data is not validated. */
+    private final ContentChecksum contentChecksum;
+    /** The digest for calculating the checksum of the decompressed data, {@code null} when the data is not (or no longer) validated. */
+    private MessageDigest digest;
+    /** The number of chunks that have been added to the digest. */
+    private int digestedChunks;
+    /** The position in the readable data. */
+    private long position;
+    /** The number of the chunk that was last read from. */
+    private int currentChunk;
+    /** The decompressed data of the chunk that was last read from. */
+    private byte[] currentChunkData;
+
+    /**
+     * Create a new reader for all decompressed data of a BLTE file.
+     *
+     * @param blteFile The BLTE file.
+     *
+     * @throws IllegalArgumentException When the BLTE file is {@code null}.
+     * @throws CascParsingException     When the size of the decompressed data could not be determined.
+     */
+    public BlteFileDataReader(BlteFile blteFile) throws IllegalArgumentException, CascParsingException {
+        this(blteFile, 0, -1, null);
+    }
+
+    /**
+     * Create a new reader for all decompressed data of a BLTE file, validating the decompressed data against a checksum.
+     *
+     * @param blteFile        The BLTE file.
+     * @param contentChecksum The expected checksum of the decompressed data, or {@code null} to not validate the data.
+     *
+     * @throws IllegalArgumentException When the BLTE file is {@code null}.
+     * @throws CascParsingException     When the size of the decompressed data could not be determined or the data of a single chunk file does not
+     *                                  match the checksum.
+     */
+    public BlteFileDataReader(BlteFile blteFile, ContentChecksum contentChecksum) throws IllegalArgumentException, CascParsingException {
+        this(blteFile, 0, -1, contentChecksum);
+    }
+
+    /**
+     * Create a new reader for a part of the decompressed data of a BLTE file.
+     *
+     * @param blteFile The BLTE file.
+     * @param offset   The offset in the decompressed data where the readable data starts.
+     * @param length   The number of readable bytes, or a negative number for all data from the offset.
+     *
+     * @throws IllegalArgumentException When the BLTE file is {@code null} or the offset is negative.
+     * @throws CascParsingException     When the size of the decompressed data could not be determined or the requested data is not available.
+     */
+    public BlteFileDataReader(BlteFile blteFile, long offset, long length) throws IllegalArgumentException, CascParsingException {
+        this(blteFile, offset, length, null);
+    }
+
+    /**
+     * Create a new reader for a part of the decompressed data of a BLTE file, validating all decompressed data of the file against a checksum.
+     *
+     * @param blteFile        The BLTE file.
+     * @param offset          The offset in the decompressed data where the readable data starts.
+     * @param length          The number of readable bytes, or a negative number for all data from the offset.
+     * @param contentChecksum The expected checksum of all decompressed data of the file, or {@code null} to not validate the data.
+     *
+     * @throws IllegalArgumentException When the BLTE file is {@code null} or the offset is negative.
+     * @throws CascParsingException     When the size of the decompressed data could not be determined, the requested data is not available or the
+     *                                  data of a single chunk file does not match the checksum.
+     */
+    public BlteFileDataReader(BlteFile blteFile, long offset, long length, ContentChecksum contentChecksum) throws IllegalArgumentException,
+            CascParsingException {
+        this.blteFile = Optional.ofNullable(blteFile)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a BLTE data reader for a null BLTE file."));
+        if (offset < 0) {
+            throw new IllegalArgumentException(format("Unable to create a BLTE data reader from offset %d.", offset));
+        }
+        this.chunkCache = new LinkedHashMap<Integer, byte[]>(CHUNK_CACHE_SIZE + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > CHUNK_CACHE_SIZE;
+            }
+        };
+        this.readAhead = new HashMap<>();
+        this.contentChecksum = contentChecksum;
+        this.digest = contentChecksum == null ? null : getMd5Digest();
+        this.currentChunk = -1;
+        this.chunkOffsets = calculateChunkOffsets();
+        long decompressedSize = chunkOffsets[chunkOffsets.length - 1];
+        long dataLength = length < 0 ? decompressedSize - offset : length;
+        if (offset + dataLength > decompressedSize) {
+            throw new CascParsingException(format("Unable to create a reader from offset %d and data length %d for a BLTE file with %d bytes of data.",
+                    offset, dataLength, decompressedSize));
+        }
+        this.offset = offset;
+        this.length = dataLength;
+        updateChecksum(-1, null);
+    }
+
+    /**
+     * Calculate the start offsets of the chunks in the decompressed data.
+     * <p>
+     * Chunks without a known decompressed size (i.e. the chunk of a single chunk file) are decompressed to determine their size, keeping the
+     * decompressed data in the cache for subsequent reads.
+     *
+     * @return The start offsets of all chunks, followed by the total decompressed size.
+     *
+     * @throws CascParsingException When a chunk could not be decompressed.
+     */
+    private long[] calculateChunkOffsets() throws CascParsingException {
+        int chunkCount = blteFile.getChunkCount();
+        long[] offsets = new long[chunkCount + 1];
+        for (int i = 0; i < chunkCount; i++) {
+            BlteChunk chunk = blteFile.getChunk(i);
+            long chunkSize = chunk.isDecompressedSizeVariable() ? getChunkData(i).length : chunk.getDecompressedSize();
+            offsets[i + 1] = offsets[i] + chunkSize;
+        }
+        return offsets;
+    }
+
+    /**
+     * Get the decompressed data of a chunk, decompressing it when it is not cached.
+     *
+     * @param chunk The number of the chunk.
+     *
+     * @return The decompressed data.
+     *
+     * @throws CascParsingException When the chunk could not be decompressed.
+     */
+    private byte[] getChunkData(int chunk) throws CascParsingException {
+        if (chunk != currentChunk) {
+            byte[] data = chunkCache.get(chunk);
+            if (data == null) {
+                data = decompress(chunk);
+                chunkCache.put(chunk, data);
+            }
+            readAhead(chunk);
+            updateChecksum(chunk, data);
+            currentChunk = chunk;
+            currentChunkData = data;
+        }
+        return currentChunkData;
+    }
+
+    /**
+     * Decompress a chunk, using the data decompressed ahead when available.
+     *
+     * @param chunk The number of the chunk.
+     *
+     * @return The decompressed data.
+     *
+     * @throws CascParsingException When the chunk could not be decompressed.
+     */
+    private byte[] decompress(int chunk) throws CascParsingException {
+        CompletableFuture<byte[]> pending = readAhead.remove(chunk);
+        if (pending == null) {
+            return blteFile.getChunk(chunk).getData();
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CascParsingException) {
+                throw (CascParsingException) e.getCause();
+            }
+            throw new CascParsingException(format("Error decompressing chunk %d of a BLTE file", chunk), e.getCause());
+        }
+    }
+
+    /**
+     * Start decompressing the chunks following a chunk on the executor of the BLTE file, discarding read ahead chunks outside of the read ahead
+     * window.
+     *
+     * @param chunk The number of the chunk that is being read.
+     */
+    private void readAhead(int chunk) {
+        Executor executor = blteFile.getExecutor().orElse(null);
+        if (executor == null) {
+            return;
+        }
+        int last = Math.min(chunk + READ_AHEAD_CHUNKS, blteFile.getChunkCount() - 1);
+        Iterator<Map.Entry<Integer, CompletableFuture<byte[]>>> pending = readAhead.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<Integer, CompletableFuture<byte[]>> entry = pending.next();
+            if (entry.getKey() <= chunk || entry.getKey() > last) {
+                entry.getValue().cancel(false);
+                pending.remove();
+            }
+        }
+        for (int i = chunk + 1; i <= last; i++) {
+            if (!chunkCache.containsKey(i) && !readAhead.containsKey(i)) {
+                BlteChunk blteChunk = blteFile.getChunk(i);
+                readAhead.put(i, CompletableFuture.supplyAsync(blteChunk::getData, executor));
+            }
+        }
+    }
+
+    /**
+     * Add the decompressed data of all chunks up to and including a chunk to the checksum, verifying the checksum once all chunks are added.
+     * <p>
+     * Chunks before the chunk that have not been added yet are decompressed (without caching them) and added first.
+     *
+     * @param chunk The number of the chunk.
+     * @param data  The decompressed data of the chunk, or {@code null} to decompress the chunk when it still needs to be added.
+     *
+     * @throws CascParsingException When a chunk could not be decompressed or the data does not match the checksum.
+     */
+    private void updateChecksum(int chunk, byte[] data) throws CascParsingException {
+        if (digest == null) {
+            return;
+        }
+        int chunkCount = blteFile.getChunkCount();
+        while (digestedChunks <= chunk && digestedChunks < chunkCount) {
+            byte[] chunkData = digestedChunks == chunk && data != null ? data : chunkCache.get(digestedChunks);
+            digest.update(chunkData != null ? chunkData : decompress(digestedChunks));
+            digestedChunks++;
+        }
+        if (digestedChunks == chunkCount) {
+            ContentChecksum checksum = new ContentChecksum(digest.digest());
+            digest = null;
+            if (!contentChecksum.equals(checksum)) {
+                throw new CascParsingException(format("Probably corrupt BLTE data with checksum %s while %s was expected.",
+                        checksum.toHexString(), contentChecksum.toHexString()));
+            }
+        }
+    }
+
+    /**
+     * Get the number of the chunk containing a position in the decompressed data.
+     *
+     * @param dataPosition The position in the decompressed data, which must be before the end of the data.
+     *
+     * @return The number of the last chunk starting at or before the position.
+     */
+    private int getChunkIndex(long dataPosition) {
+        if (currentChunk >= 0 && dataPosition >= chunkOffsets[currentChunk] && dataPosition < chunkOffsets[currentChunk + 1]) {
+            return currentChunk;
+        }
+        int low = 0;
+        int high = chunkOffsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunkOffsets[mid] <= dataPosition) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setPosition(long position) throws DataReadingException {
+        this.position = position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int readData(ByteBuffer buffer) throws DataReadingException {
+        if (position >= length) {
+            return -1;
+        }
+        int read = 0;
+        try {
+            while (buffer.hasRemaining() && position < length) {
+                long dataPosition = offset + position;
+                int chunk = getChunkIndex(dataPosition);
+                byte[] data = getChunkData(chunk);
+                int chunkPosition = (int) (dataPosition - chunkOffsets[chunk]);
+                int available = (int) Math.min(Math.min(data.length - chunkPosition, buffer.remaining()), length - position);
+                buffer.put(data, chunkPosition, available);
+                position += available;
+                read += available;
+            }
+            if (position == length) {
+                updateChecksum(blteFile.getChunkCount() - 1, null);
+            }
+        } catch (CascParsingException e) {
+            throw new DataReadingException(e);
+        }
+        return read;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long position() {
+        return position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRandomAccessSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        readAhead.values().forEach(pending -> pending.cancel(false));
+        readAhead.clear();
+        chunkCache.clear();
+        currentChunk = -1;
+        currentChunkData = null;
+    }
+}
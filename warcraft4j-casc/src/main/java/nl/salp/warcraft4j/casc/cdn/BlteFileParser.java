@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteOrder;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.US_ASCII;
@@ -42,6 +43,43 @@ public class BlteFileParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(BlteFileParser.class);
     /** The BLTE file magic String. */
     private static final String MAGIC_STRING = "BLTE";
+    /** The executor for verifying and decompressing chunks in parallel, {@code null} for sequential decoding. */
+    private final Executor executor;
+    /** The minimum decompressed size of a multi-chunk file for its chunks to be decoded in parallel. */
+    private final long parallelThreshold;
+
+    /**
+     * Create a new parser for BLTE files that are verified while parsing and decompressed sequentially.
+     */
+    public BlteFileParser() {
+        this(null);
+    }
+
+    /**
+     * Create a new parser for BLTE files that are verified and decompressed in parallel.
+     * <p>
+     * The checksums of the chunks of multi-chunk files are not verified while parsing, but when the chunks are decompressed. When the complete
+     * file is decompressed, the chunks are verified and decompressed in parallel on the executor.
+     *
+     * @param executor The executor, or {@code null} for sequential decoding.
+     */
+    public BlteFileParser(Executor executor) {
+        this(executor, 0);
+    }
+
+    /**
+     * Create a new parser for BLTE files that are verified and decompressed in parallel when they are large enough.
+     * <p>
+     * Multi-chunk files with at least the threshold of decompressed data are decoded in parallel on the executor, smaller files are decompressed
+     * sequentially since the parallel decoding would cost more than it gains. The chunk checksums are verified when the chunks are decompressed.
+     *
+     * @param executor          The executor, or {@code null} for sequential decoding.
+     * @param parallelThreshold The minimum decompressed size of a multi-chunk file for its chunks to be decoded in parallel.
+     */
+    public BlteFileParser(Executor executor, long parallelThreshold) {
+        this.executor = executor;
+        this.parallelThreshold = parallelThreshold;
+    }
 
     /**
      * Read a BLTE file from a {@link DataReader}.
@@ -75,7 +113,7 @@ public class BlteFileParser {
         if (multiChunk) {
             chunkCount = readMultiChunkCount(reader);
             LOGGER.trace("Parsing {}-byte BLTE multi-chunk file with {} chunks", fileSize, chunkCount);
-            parser = new BlteMultiChunkParser(chunkCount);
+            parser = new BlteMultiChunkParser(chunkCount, executor == null);
         } else {
             chunkCount = 1;
             LOGGER.trace("Parsing {}-byte BLTE single chunk file", fileSize);
@@ -86,11 +124,13 @@ public class BlteFileParser {
         if (chunks.size() != chunkCount) {
             throw new DataParsingException(format("Parsed %d chunks of data from BLTE file while %d chunks were expected.", chunks.size(), chunkCount));
         }
+        long decompressedSize = chunks.stream().mapToLong(BlteChunk::getDecompressedSize).sum();
         LOGGER.trace("Successfully parsed {} bytes file from BLTE file with {} bytes of data from {} chunk(s)",
                 chunks.stream().mapToLong(BlteChunk::getCompressedSize).sum(),
-                chunks.stream().mapToLong(BlteChunk::getDecompressedSize).sum(),
+                decompressedSize,
                 chunkCount);
-        return new BlteFile(chunks);
+        boolean parallel = executor != null && chunkCount > 1 && decompressedSize >= parallelThreshold;
+        return new BlteFile(chunks, parallel ? executor : null);
     }
 
     /**
@@ -23,16 +23,11 @@ import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
 import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
-import nl.salp.warcraft4j.util.Checksum;
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteOrder;
 
-import static java.lang.String.format;
-import static nl.salp.warcraft4j.hash.Hashes.MD5;
-
 /**
  * TODO Document class.
  *
@@ -42,8 +37,23 @@ class BlteMultiChunkParser extends BlteChunkParser {
     /** The logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(BlteMultiChunkParser.class);
 
+    /** Flag indicating that the chunk checksums are verified while parsing instead of when the chunks are decompressed. */
+    private final boolean verifyWhileParsing;
+
     public BlteMultiChunkParser(int chunkCount) {
+        this(chunkCount, true);
+    }
+
+    /**
+     * Create a new parser.
+     *
+     * @param chunkCount         The number of chunks to parse.
+     * @param verifyWhileParsing {@code true} to verify the chunk checksums while parsing, {@code false} to defer the verification until the chunks
+     *                           are decompressed, allowing the verification to be done in parallel.
+     */
+    public BlteMultiChunkParser(int chunkCount, boolean verifyWhileParsing) {
         super(chunkCount);
+        this.verifyWhileParsing = verifyWhileParsing;
     }
 
     @Override
@@ -65,16 +75,13 @@ class BlteMultiChunkParser extends BlteChunkParser {
         long decompressedSize = header.getDecompressedSize();
         byte[] chunkData = reader.readNext(DataTypeFactory.getByteArray((int) compressedSize));
         char compressionType = (char) chunkData[0];
-        byte[] data = ArrayUtils.subarray(chunkData, 1, chunkData.length);
-        Checksum checksum = header.getChecksum();
-        Checksum dataChecksum = new Checksum(MD5.hash(chunkData));
-        LOGGER.trace("Comparing data checksum MD5[{}] from {} ({}) bytes of data with expected checksum MD5[{}]",
-                dataChecksum, chunkData.length, compressedSize, checksum);
-        if (!checksum.equals(dataChecksum)) {
-            throw new CascParsingException(format("Error parsing BLTE chunk with compression %s, mismatching checksum (got %s, expected %s)", compressionType, dataChecksum, checksum));
+        BlteChunk chunk = new BlteChunk(chunkData, 1, decompressedSize, header.getChecksum(), getDecompressor(compressionType));
+        if (verifyWhileParsing) {
+            LOGGER.trace("Verifying {} ({}) bytes of data with compression {} against expected checksum MD5[{}]",
+                    chunkData.length, compressedSize, compressionType, header.getChecksum());
+            chunk.verify();
         }
-
-        return new BlteChunk(data.length, decompressedSize, data, getDecompressor(compressionType));
+        return chunk;
     }
 
 }
@@ -23,7 +23,6 @@ import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
 import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,11 +58,10 @@ class BlteSingleChunkParser extends BlteChunkParser {
     protected BlteChunk parseChunk(DataReader reader, BlteChunkHeader header) throws DataReadingException, DataParsingException, CascParsingException {
         long compressedSize = header.getCompressedSize();
         byte[] chunkData = reader.readNext(DataTypeFactory.getByteArray((int) compressedSize));
-        char compressionType = (char) chunkData[0];
-        byte[] data = ArrayUtils.subarray(chunkData, 1, chunkData.length);
-        if (data.length != compressedSize - 1) {
-            throw new CascParsingException(format("Error parsing BLTE chunk, got %d bytes of compressed data instead of %d bytes", data.length, compressedSize));
+        if (chunkData.length != compressedSize || chunkData.length == 0) {
+            throw new CascParsingException(format("Error parsing BLTE chunk, got %d bytes of chunk data instead of %d bytes", chunkData.length, compressedSize));
         }
-        return new BlteChunk(data.length, data, getDecompressor(compressionType));
+        char compressionType = (char) chunkData[0];
+        return new BlteChunk(chunkData, 1, BlteChunk.VARIABLE_SIZE, null, getDecompressor(compressionType));
     }
 }
@@ -104,6 +104,24 @@ public class CascRootEntry implements RootEntry {
         return blockFlags;
     }
 
+    /**
+     * Get the unknown data parsed from the block.
+     *
+     * @return The unknown block data.
+     */
+    public long getBlockUnknown() {
+        return blockUnknown;
+    }
+
+    /**
+     * Get the unknown data parsed from the entry.
+     *
+     * @return The unknown entry data.
+     */
+    public long getEntryUnknown() {
+        return entryUnknown;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,606 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.io.MappedFile;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * Snapshot of the parsed {@link Index}, {@link EncodingFile} and {@link RootFile} of a CASC, stored on disk for fast initialisation of a context.
+ * <p>
+ * A snapshot is identified by a key that is derived from the build, CDN, encoding and root references of the CASC it was created from. A stored
+ * snapshot is only used when both its format version and its key match, so any change to the referenced CASC data invalidates it.
+ * <p>
+ * The snapshot file is a big endian binary file that is memory mapped for reading. It starts with a header containing a magic number, the format
+ * version and the key, followed by the index, encoding and root sections and ends with the magic number again. The sections store the
+ * primitive columns of the {@link Index}, {@link EncodingFile} and {@link RootFile} as-is, so they are loaded with bulk copies from the mapping
+ * into the on-heap arrays of the loaded files, after which the mapping is released. Snapshots are written to a temporary file that replaces the
+ * previous snapshot in a single move, so a partially written snapshot is never read. Contexts parsing the encoding file lazily read snapshots
+ * without their encoding section, which is then skipped instead of loaded.
+ *
+ * @author Barre Dijkstra
+ */
+public class CascSnapshot {
+    /** The logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CascSnapshot.class);
+    /** The magic number at the start and end of a snapshot file ({@code W4JS}). */
+    private static final int MAGIC = 0x57344A53;
+    /** The version of the snapshot format, to be incremented on every change to the stored data. */
+    static final int FORMAT_VERSION = 3;
+    /** The key of the snapshot. */
+    private final String key;
+    /** The index. */
+    private final Index index;
+    /** The encoding file, {@code null} when the snapshot was read without it. */
+    private final EncodingFile encoding;
+    /** The root file. */
+    private final RootFile rootFile;
+
+    /**
+     * Create a new snapshot.
+     *
+     * @param key      The key identifying the CASC data of the snapshot.
+     * @param index    The index.
+     * @param encoding The encoding file.
+     * @param rootFile The root file.
+     *
+     * @throws IllegalArgumentException When not all data was provided.
+     */
+    public CascSnapshot(String key, Index index, EncodingFile encoding, RootFile rootFile) throws IllegalArgumentException {
+        this(key, index, Optional.of(Optional.ofNullable(encoding)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CASC snapshot without an encoding file."))), rootFile);
+    }
+
+    /**
+     * Create a new snapshot.
+     *
+     * @param key      The key identifying the CASC data of the snapshot.
+     * @param index    The index.
+     * @param encoding Optional with the encoding file, empty for a snapshot read without its encoding section.
+     * @param rootFile The root file.
+     *
+     * @throws IllegalArgumentException When not all data was provided.
+     */
+    private CascSnapshot(String key, Index index, Optional<EncodingFile> encoding, RootFile rootFile) throws IllegalArgumentException {
+        this.key = Optional.ofNullable(key)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CASC snapshot without a key."));
+        this.index = Optional.ofNullable(index)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CASC snapshot without an index."));
+        this.encoding = encoding.orElse(null);
+        this.rootFile = Optional.ofNullable(rootFile)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CASC snapshot without a root file."));
+    }
+
+    /**
+     * Get the key identifying the CASC data of the snapshot.
+     *
+     * @return The key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the index.
+     *
+     * @return The index.
+     */
+    public Index getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the encoding file.
+     *
+     * @return Optional with the encoding file, empty if the snapshot was read without its encoding section.
+     */
+    public Optional<EncodingFile> getEncoding() {
+        return Optional.ofNullable(encoding);
+    }
+
+    /**
+     * Get the root file.
+     *
+     * @return The root file.
+     */
+    public RootFile getRootFile() {
+        return rootFile;
+    }
+
+    /**
+     * Read a stored snapshot.
+     *
+     * @param file The snapshot file.
+     * @param key  The key the snapshot is required to have.
+     *
+     * @return Optional with the snapshot, empty if there is no readable snapshot with the same format version and key.
+     */
+    public static Optional<CascSnapshot> read(Path file, String key) {
+        return read(file, key, true);
+    }
+
+    /**
+     * Read a stored snapshot.
+     *
+     * @param file         The snapshot file.
+     * @param key          The key the snapshot is required to have.
+     * @param withEncoding {@code false} to skip the encoding section instead of loading the encoding file.
+     *
+     * @return Optional with the snapshot, empty if there is no readable snapshot with the same format version and key.
+     */
+    public static Optional<CascSnapshot> read(Path file, String key, boolean withEncoding) {
+        Optional<CascSnapshot> snapshot = Optional.empty();
+        if (file != null && key != null && Files.isRegularFile(file) && Files.isReadable(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                try {
+                    snapshot = read(data, key, withEncoding, file);
+                } finally {
+                    MappedFile.unmap(data);
+                }
+            } catch (IOException | CascParsingException | IllegalArgumentException e) {
+                LOGGER.warn(format("Ignoring unreadable CASC snapshot %s", file), e);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Read a snapshot from its data.
+     *
+     * @param data         The snapshot data.
+     * @param key          The key the snapshot is required to have.
+     * @param withEncoding {@code false} to skip the encoding section.
+     * @param file         The snapshot file.
+     *
+     * @return Optional with the snapshot, empty if the snapshot has a different format version or key.
+     *
+     * @throws CascParsingException When the snapshot data is truncated or invalid.
+     */
+    private static Optional<CascSnapshot> read(ByteBuffer data, String key, boolean withEncoding, Path file) throws CascParsingException {
+        try {
+            return readSections(data, key, withEncoding, file);
+        } catch (BufferUnderflowException e) {
+            throw new CascParsingException(format("Truncated CASC snapshot %s", file), e);
+        }
+    }
+
+    /**
+     * Read the header and sections of a snapshot.
+     *
+     * @param data         The snapshot data.
+     * @param key          The key the snapshot is required to have.
+     * @param withEncoding {@code false} to skip the encoding section.
+     * @param file         The snapshot file.
+     *
+     * @return Optional with the snapshot, empty if the snapshot has a different format version or key.
+     *
+     * @throws BufferUnderflowException When the snapshot data is truncated.
+     * @throws CascParsingException     When the snapshot data is invalid.
+     */
+    private static Optional<CascSnapshot> readSections(ByteBuffer data, String key, boolean withEncoding, Path file)
+            throws BufferUnderflowException, CascParsingException {
+        if (data.getInt() != MAGIC) {
+            throw new CascParsingException("No CASC snapshot header found");
+        }
+        int version = data.getInt();
+        String snapshotKey = readString(data);
+        Optional<CascSnapshot> snapshot;
+        if (version != FORMAT_VERSION) {
+            LOGGER.debug("Ignoring CASC snapshot {} with format version {} instead of {}", file, version, FORMAT_VERSION);
+            snapshot = Optional.empty();
+        } else if (!key.equals(snapshotKey)) {
+            LOGGER.debug("Ignoring outdated CASC snapshot {} with key {} instead of {}", file, snapshotKey, key);
+            snapshot = Optional.empty();
+        } else {
+            Index index = readIndex(data);
+            Optional<EncodingFile> encoding;
+            if (withEncoding) {
+                encoding = Optional.of(readEncoding(data));
+            } else {
+                skipEncoding(data);
+                encoding = Optional.empty();
+            }
+            RootFile rootFile = readRoot(data);
+            if (data.getInt() != MAGIC) {
+                throw new CascParsingException("No CASC snapshot footer found");
+            }
+            LOGGER.debug("Read CASC snapshot {} with {} index entries, {} encoding entries and {} root hashes", file, index.getEntryCount(),
+                    encoding.map(EncodingFile::getEntryCount).orElse(0), rootFile.getHashCount());
+            snapshot = Optional.of(new CascSnapshot(snapshotKey, index, encoding, rootFile));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Write the snapshot to a file, replacing the existing file if present.
+     *
+     * @param file The snapshot file.
+     *
+     * @throws IOException           When writing the snapshot failed.
+     * @throws IllegalStateException When the snapshot was read without its encoding section.
+     */
+    public void write(Path file) throws IOException, IllegalStateException {
+        if (encoding == null) {
+            throw new IllegalStateException(format("Unable to write CASC snapshot %s without an encoding file", key));
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, String.valueOf(file.getFileName()), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, key);
+                writeIndex(out, index);
+                writeEncoding(out, encoding);
+                writeRoot(out, rootFile);
+                out.writeInt(MAGIC);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.debug("Wrote CASC snapshot {} with key {}", file, key);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Write the index section.
+     *
+     * @param out   The output to write to.
+     * @param index The index.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeIndex(DataOutputStream out, Index index) throws IOException {
+        int count = index.getEntryCount();
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(index.getKeyPrefix(i));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeByte(index.getKeySuffix(i));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeShort(index.getFileNumber(i));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(((index.getDataFileOffset(i) & 0xFFFFFFFFL) << 32) | index.getFileSize(i));
+        }
+    }
+
+    /**
+     * Read the index section.
+     *
+     * @param data The data to read from.
+     *
+     * @return The index.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the data is invalid.
+     */
+    private static Index readIndex(ByteBuffer data) throws BufferUnderflowException, CascParsingException {
+        int count = readCount(data, Long.BYTES + Byte.BYTES + Short.BYTES + Long.BYTES);
+        long[] keys = new long[count];
+        byte[] keySuffixes = new byte[count];
+        short[] fileNumbers = new short[count];
+        long[] locations = new long[count];
+        data.asLongBuffer().get(keys);
+        data.position(data.position() + Long.BYTES * count);
+        data.get(keySuffixes);
+        data.asShortBuffer().get(fileNumbers);
+        data.position(data.position() + Short.BYTES * count);
+        data.asLongBuffer().get(locations);
+        data.position(data.position() + Long.BYTES * count);
+        return new Index(keys, keySuffixes, fileNumbers, locations);
+    }
+
+    /**
+     * Write the encoding section.
+     *
+     * @param out      The output to write to.
+     * @param encoding The encoding file.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeEncoding(DataOutputStream out, EncodingFile encoding) throws IOException {
+        int count = encoding.getEntryCount();
+        out.writeInt(count);
+        LongBuffer keys = encoding.getKeys();
+        while (keys.hasRemaining()) {
+            out.writeLong(keys.get());
+        }
+        IntBuffer fileSizes = encoding.getFileSizes();
+        while (fileSizes.hasRemaining()) {
+            out.writeInt(fileSizes.get());
+        }
+        int[] multiKeyPositions = encoding.getMultiKeyPositions();
+        int[] additionalKeyOffsets = encoding.getAdditionalKeyOffsets();
+        long[] additionalFileKeys = encoding.getAdditionalFileKeys();
+        out.writeInt(multiKeyPositions.length);
+        for (int i = 0; i < multiKeyPositions.length; i++) {
+            out.writeInt(multiKeyPositions[i]);
+            out.writeInt(additionalKeyOffsets[i + 1] - additionalKeyOffsets[i]);
+            for (int key = additionalKeyOffsets[i]; key < additionalKeyOffsets[i + 1]; key++) {
+                out.writeLong(additionalFileKeys[key]);
+            }
+        }
+    }
+
+    /**
+     * Read the encoding section.
+     *
+     * @param data The data to read from.
+     *
+     * @return The encoding file.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the data is invalid.
+     */
+    private static EncodingFile readEncoding(ByteBuffer data) throws BufferUnderflowException, CascParsingException {
+        int count = readCount(data, EncodingFile.KEY_STRIDE * Long.BYTES + Integer.BYTES);
+        long[] keys = readLongs(data, count * EncodingFile.KEY_STRIDE);
+        int[] fileSizes = readInts(data, count);
+        int multiKeyCount = readCount(data, 2 * Integer.BYTES);
+        int[] multiKeyPositions = new int[multiKeyCount];
+        int[] additionalKeyOffsets = new int[multiKeyCount + 1];
+        long[] additionalFileKeys = new long[multiKeyCount * 2];
+        for (int i = 0; i < multiKeyCount; i++) {
+            multiKeyPositions[i] = data.getInt();
+            int keyCount = readCount(data, Long.BYTES);
+            int offset = additionalKeyOffsets[i];
+            if (offset + keyCount > additionalFileKeys.length) {
+                additionalFileKeys = Arrays.copyOf(additionalFileKeys, Math.max(offset + keyCount, additionalFileKeys.length * 2));
+            }
+            data.asLongBuffer().get(additionalFileKeys, offset, keyCount);
+            data.position(data.position() + keyCount * Long.BYTES);
+            additionalKeyOffsets[i + 1] = offset + keyCount;
+        }
+        return new EncodingFile(LongBuffer.wrap(keys), IntBuffer.wrap(fileSizes), multiKeyPositions, additionalKeyOffsets,
+                Arrays.copyOf(additionalFileKeys, additionalKeyOffsets[multiKeyCount]));
+    }
+
+    /**
+     * Skip the encoding section without loading the encoding file.
+     *
+     * @param data The data to read from.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the data is invalid.
+     */
+    private static void skipEncoding(ByteBuffer data) throws BufferUnderflowException, CascParsingException {
+        int count = readCount(data, EncodingFile.KEY_STRIDE * Long.BYTES + Integer.BYTES);
+        data.position(data.position() + count * (EncodingFile.KEY_STRIDE * Long.BYTES + Integer.BYTES));
+        int multiKeyCount = readCount(data, 2 * Integer.BYTES);
+        for (int i = 0; i < multiKeyCount; i++) {
+            data.getInt();
+            int keyCount = readCount(data, Long.BYTES);
+            data.position(data.position() + keyCount * Long.BYTES);
+        }
+    }
+
+    /**
+     * Write the root section.
+     *
+     * @param out      The output to write to.
+     * @param rootFile The root file.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeRoot(DataOutputStream out, RootFile rootFile) throws IOException {
+        long[] hashes = rootFile.getFilenameHashes();
+        out.writeInt(hashes.length);
+        writeLongs(out, hashes);
+        writeInts(out, rootFile.getOffsets());
+        out.writeInt(rootFile.getEntryCount());
+        writeLongs(out, rootFile.getContentChecksums());
+        writeInts(out, rootFile.getFlags());
+        writeInts(out, rootFile.getBlockUnknowns());
+        writeInts(out, rootFile.getEntryUnknowns());
+    }
+
+    /**
+     * Read the root section.
+     *
+     * @param data The data to read from.
+     *
+     * @return The root file.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the data is invalid.
+     */
+    private static RootFile readRoot(ByteBuffer data) throws BufferUnderflowException, CascParsingException {
+        int hashCount = readCount(data, Long.BYTES + Integer.BYTES);
+        long[] hashes = readLongs(data, hashCount);
+        int[] offsets = readInts(data, hashCount + 1);
+        int entryCount = readCount(data, 2 * Long.BYTES + 3 * Integer.BYTES);
+        long[] contentChecksums = readLongs(data, entryCount * 2);
+        int[] flags = readInts(data, entryCount);
+        int[] blockUnknowns = readInts(data, entryCount);
+        int[] entryUnknowns = readInts(data, entryCount);
+        if (offsets[hashCount] != entryCount) {
+            throw new CascParsingException(format("Invalid snapshot root section with %d entries for %d entry offsets", entryCount, offsets[hashCount]));
+        }
+        return new RootFile(hashes, offsets, contentChecksums, flags, blockUnknowns, entryUnknowns);
+    }
+
+    /**
+     * Write an array of longs.
+     *
+     * @param out    The output to write to.
+     * @param values The values.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Write an array of ints.
+     *
+     * @param out    The output to write to.
+     * @param values The values.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Read an array of longs with a bulk copy.
+     *
+     * @param data  The data to read from.
+     * @param count The number of longs to read.
+     *
+     * @return The longs.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     */
+    private static long[] readLongs(ByteBuffer data, int count) throws BufferUnderflowException {
+        long[] values = new long[count];
+        data.asLongBuffer().get(values);
+        data.position(data.position() + Long.BYTES * count);
+        return values;
+    }
+
+    /**
+     * Read an array of ints with a bulk copy.
+     *
+     * @param data  The data to read from.
+     * @param count The number of ints to read.
+     *
+     * @return The ints.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     */
+    private static int[] readInts(ByteBuffer data, int count) throws BufferUnderflowException {
+        int[] values = new int[count];
+        data.asIntBuffer().get(values);
+        data.position(data.position() + Integer.BYTES * count);
+        return values;
+    }
+
+    /**
+     * Read the number of elements of a section.
+     *
+     * @param data   The data to read from.
+     * @param stride The number of bytes stored for every element.
+     *
+     * @return The number of elements.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the elements can't be present in the remaining data.
+     */
+    private static int readCount(ByteBuffer data, int stride) throws BufferUnderflowException, CascParsingException {
+        int count = data.getInt();
+        if (count < 0 || (long) count * stride > data.remaining()) {
+            throw new CascParsingException(format("Invalid snapshot element count %d for %d byte elements with %d bytes remaining", count, stride,
+                    data.remaining()));
+        }
+        return count;
+    }
+
+    /**
+     * Read a number of bytes.
+     *
+     * @param data   The data to read from.
+     * @param length The number of bytes to read.
+     *
+     * @return The bytes.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     */
+    private static byte[] readBytes(ByteBuffer data, int length) throws BufferUnderflowException {
+        byte[] value = new byte[length];
+        data.get(value);
+        return value;
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string.
+     *
+     * @param out   The output to write to.
+     * @param value The string.
+     *
+     * @throws IOException When writing failed.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    /**
+     * Read a length-prefixed UTF-8 string.
+     *
+     * @param data The data to read from.
+     *
+     * @return The string.
+     *
+     * @throws BufferUnderflowException When the data is truncated.
+     * @throws CascParsingException     When the length of the string is invalid.
+     */
+    private static String readString(ByteBuffer data) throws BufferUnderflowException, CascParsingException {
+        return new String(readBytes(data, readCount(data, Byte.BYTES)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("key", key)
+                .append("index", index)
+                .append("encoding", encoding)
+                .append("rootFile", rootFile)
+                .toString();
+    }
+}
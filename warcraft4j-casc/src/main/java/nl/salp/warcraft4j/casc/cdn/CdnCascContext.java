@@ -23,16 +23,20 @@ import nl.salp.warcraft4j.Locale;
 import nl.salp.warcraft4j.Region;
 import nl.salp.warcraft4j.casc.*;
 import nl.salp.warcraft4j.config.Warcraft4jConfig;
-import nl.salp.warcraft4j.hash.JenkinsHash;
 import nl.salp.warcraft4j.io.CompositeDataReader;
 import nl.salp.warcraft4j.io.DataReader;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -42,24 +46,40 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 /**
  * CDN based CASC context for accessing CASC stored files and their reference trees.
+ * <p>
+ * The context is thread-safe. The index, encoding and root files are each parsed once on first use on the executor of the context, with the index
+ * and encoding files being parsed concurrently when the root file is requested.
+ * <p>
+ * A context can hold resources, such as opened data files, for as long as it is used. The context should be closed by its owner once it is no
+ * longer used, after which it, and the data readers it provided, should not be used anymore.
  *
  * @author Barre Dijkstra
  */
-public abstract class CdnCascContext {
+public abstract class CdnCascContext implements Closeable {
     /** The logger. */
     protected static final Logger LOGGER = LoggerFactory.getLogger(CdnCascContext.class);
+    /** The name of the directory in the cache directory to store snapshots in. */
+    private static final String SNAPSHOT_DIRECTORY = "snapshots";
+    /** The filename hasher for the calling thread, reusing its normalisation buffer between filenames. */
+    private static final ThreadLocal<FilenameHasher> FILENAME_HASHER = ThreadLocal.withInitial(FilenameHasher::new);
     /** The {@link Warcraft4jConfig} the context has been initialised with. */
     private final Warcraft4jConfig warcraft4jConfig;
     /** The resolved filename hashes, indexed by the filename. */
     private final Map<String, Long> hashes;
     /** The resolved filenames, indexed by the filename hashes. */
     private final Map<Long, String> filenames;
-    /** The parsed index file(s). */
-    private Index index;
-    /** The parsed encoding file. */
-    private EncodingFile encoding;
-    /** The parsed root file. */
-    private RootFile rootFile;
+    /** The task providing the parsed index file(s). */
+    private final AtomicReference<CompletableFuture<Index>> index;
+    /** The task providing the parsed encoding file. */
+    private final AtomicReference<CompletableFuture<EncodingFile>> encoding;
+    /** The task providing the parsed root file. */
+    private final AtomicReference<CompletableFuture<RootFile>> rootFile;
+    /** The lock for checking the stored snapshot. */
+    private final Object snapshotLock;
+    /** Flag indicating if the stored snapshot has been checked for the parsed files. */
+    private volatile boolean snapshotChecked;
+    /** Flag indicating if the parsed files are stored in an up-to-date snapshot. */
+    private final AtomicBoolean snapshotStored;
 
     /**
      * Create a new CdnCascContext.
@@ -71,8 +91,13 @@ public abstract class CdnCascContext {
                 warcraft4jConfig.getBranch(), warcraft4jConfig.getRegion(), warcraft4jConfig.getLocale(), warcraft4jConfig.getWowInstallationDirectory(),
                 warcraft4jConfig.isOnline(), warcraft4jConfig.isCaching());
         this.warcraft4jConfig = warcraft4jConfig;
-        this.hashes = new HashMap<>();
-        this.filenames = new HashMap<>();
+        this.hashes = new ConcurrentHashMap<>();
+        this.filenames = new ConcurrentHashMap<>();
+        this.index = new AtomicReference<>();
+        this.encoding = new AtomicReference<>();
+        this.rootFile = new AtomicReference<>();
+        this.snapshotLock = new Object();
+        this.snapshotStored = new AtomicBoolean();
     }
 
     /**
@@ -100,6 +125,8 @@ public abstract class CdnCascContext {
 
     /**
      * Parse the encoding file.
+     * <p>
+     * When lazy encoding is enabled in the configuration, only the segment table is parsed and the entry segments are parsed on demand.
      *
      * @return The parsed encoding file.
      *
@@ -109,9 +136,12 @@ public abstract class CdnCascContext {
         Supplier<DataReader> readerSupplier = getEncodingReader();
         LOGGER.debug("Initialising encoding file (fileKey: {}, fileSize: {}).", getCdnCascConfig().getStorageEncodingFileChecksum(), getCdnCascConfig()
                 .getStorageEncodingFileSize());
+        if (warcraft4jConfig.isLazyEncoding()) {
+            return new EncodingFileParser(getExecutor()).parseLazily(readerSupplier, getCdnCascConfig().getExtractedEncodingFileSize());
+        }
         try (DataReader reader = readerSupplier.get()) {
-            EncodingFile encodingFile = new EncodingFileParser().parse(reader, getCdnCascConfig().getExtractedEncodingFileSize());
-            return encodingFile;
+            return new EncodingFileParser(getExecutor(), warcraft4jConfig.isOffHeapEncoding())
+                    .parse(reader, getCdnCascConfig().getExtractedEncodingFileSize());
         } catch (IOException e) {
             throw new CascParsingException(format("Error parsing encoding file %s", getCdnCascConfig().getExtractedEncodingFileChecksum().toHexString()), e);
         }
@@ -125,6 +155,20 @@ public abstract class CdnCascContext {
      * @throws CascParsingException When parsing of the rootFile failed.
      */
     protected RootFile parseRoot() throws CascParsingException {
+        RootFileBuilder builder = new RootFileBuilder();
+        visitRootEntries(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Read the root file, passing every entry to a visitor without creating objects for the entries or storing them in the context.
+     *
+     * @param visitor The visitor for the root entries.
+     *
+     * @throws CascParsingException     When reading the root file failed.
+     * @throws IllegalArgumentException When no visitor was provided.
+     */
+    public final void visitRootEntries(RootFileVisitor visitor) throws CascParsingException, IllegalArgumentException {
         ContentChecksum contentChecksum = Optional.of(getCdnCascConfig().getRootContentChecksum())
                 .orElseThrow(() -> new CascParsingException("No checksum found for root file"));
         FileKey fileKey = getFileKey(contentChecksum)
@@ -132,28 +176,44 @@ public abstract class CdnCascContext {
         IndexEntry indexEntry = getIndexEntry(fileKey)
                 .orElseThrow(() -> new CascParsingException(format("No index entry found for root file entry %s with key %s", contentChecksum.toHexString(), fileKey
                         .toHexString())));
-        LOGGER.debug("Initialising root file (contentChecksum: {}, fileKey: {}) from {} bytes of data in data.{} at offset {}",
+        LOGGER.debug("Reading root file (contentChecksum: {}, fileKey: {}) from {} bytes of data in data.{} at offset {}",
                 contentChecksum.toHexString(), fileKey.toHexString(), indexEntry.getFileSize(), format("%03d", indexEntry.getFileNumber()), indexEntry.getDataFileOffset());
 
         try (DataReader reader = getFileDataReader(indexEntry, contentChecksum)) {
-            return new RootFileParser().parse(reader);
+            new RootFileParser().parse(reader, visitor);
         } catch (IOException e) {
             throw new CascParsingException(format("Error parsing root file from data file %d at offset %d", indexEntry.getFileNumber(), indexEntry.getDataFileOffset()), e);
         }
     }
 
     /**
-     * Get the parsed encoding file.
+     * Get the parsed encoding file, parsing it once on first access.
      *
      * @return The parsed encoding file.
+     *
+     * @throws CascParsingException When parsing failed.
+     */
+    protected final EncodingFile getEncoding() throws CascParsingException {
+        return await(getEncodingTask());
+    }
+
+    /**
+     * Get the task providing the parsed encoding file, starting it on the executor if not yet started.
+     *
+     * @return The task.
      */
-    protected final EncodingFile getEncoding() {
-        if (encoding == null) {
+    private CompletableFuture<EncodingFile> getEncodingTask() {
+        loadSnapshot();
+        return initialise(encoding, () -> CompletableFuture.supplyAsync(() -> {
             LOGGER.debug("Parsing encoding file");
-            encoding = parseEncoding();
-            LOGGER.debug("Successfully initialised encoding file with {} entries", encoding.getEntryCount());
-        }
-        return encoding;
+            EncodingFile encodingFile = parseEncoding();
+            if (encodingFile instanceof LazyEncodingFile) {
+                LOGGER.debug("Successfully initialised lazily parsed encoding file");
+            } else {
+                LOGGER.debug("Successfully initialised encoding file with {} entries", encodingFile.getEntryCount());
+            }
+            return encodingFile;
+        }, getExecutor()));
     }
 
     /**
@@ -200,19 +260,29 @@ public abstract class CdnCascContext {
     protected abstract Index parseIndex() throws CascParsingException;
 
     /**
-     * Get the parsed index.
+     * Get the parsed index, parsing it once on first access.
      *
      * @return The index.
      *
      * @throws CascParsingException When parsing failed.
      */
     protected final Index getIndex() throws CascParsingException {
-        if (index == null) {
+        return await(getIndexTask());
+    }
+
+    /**
+     * Get the task providing the parsed index, starting it on the executor if not yet started.
+     *
+     * @return The task.
+     */
+    private CompletableFuture<Index> getIndexTask() {
+        loadSnapshot();
+        return initialise(index, () -> CompletableFuture.supplyAsync(() -> {
             LOGGER.debug("Parsing index files");
-            index = parseIndex();
-            LOGGER.debug("Successfully initialised index files with {} entries", index.getEntryCount());
-        }
-        return index;
+            Index parsedIndex = parseIndex();
+            LOGGER.debug("Successfully initialised index files with {} entries", parsedIndex.getEntryCount());
+            return parsedIndex;
+        }, getExecutor()));
     }
 
     /**
@@ -256,17 +326,242 @@ public abstract class CdnCascContext {
     }
 
     /**
-     * Get the parsed rootFile.
+     * Get the parsed rootFile, parsing it once on first access.
+     * <p>
+     * The index and encoding file are parsed concurrently before parsing the root file. When the configured locale maps to a {@link CascLocale},
+     * only the entries for that locale are kept (see {@link RootFile#getLocaleView(CascLocale)}). The entries of other locales are then not
+     * available through the context, so {@link #getRootEntries()}, {@link #getContentChecksums(long)}, {@link #getHashes()} and the extraction of
+     * files only cover the configured locale. The full root file is only kept when no locale is configured.
+     * </p>
      *
      * @return The {@link RootFile}.
+     *
+     * @throws CascParsingException When parsing failed.
+     */
+    protected final RootFile getRootFile() throws CascParsingException {
+        return await(getRootFileTask());
+    }
+
+    /**
+     * Get the task providing the parsed root file, starting it (and the index and encoding tasks it depends on) if not yet started.
+     * <p>
+     * A new snapshot is stored in the background once the root file has been parsed.
+     *
+     * @return The task.
      */
-    protected final RootFile getRootFile() {
-        if (rootFile == null) {
-            LOGGER.debug("Parsing rootFile");
-            rootFile = parseRoot();
-            LOGGER.debug("Successfully initialised root file with {} entries", rootFile.getHashCount());
+    private CompletableFuture<RootFile> getRootFileTask() {
+        loadSnapshot();
+        return initialise(rootFile, () -> {
+            CompletableFuture<RootFile> task = getIndexTask().thenCombineAsync(getEncodingTask(), (parsedIndex, parsedEncoding) -> {
+                LOGGER.debug("Parsing rootFile");
+                RootFile parsedRootFile = toLocaleView(parseRoot());
+                LOGGER.debug("Successfully initialised root file with {} entries", parsedRootFile.getHashCount());
+                return parsedRootFile;
+            }, getExecutor());
+            task.thenRunAsync(this::storeSnapshot, getExecutor());
+            return task;
+        });
+    }
+
+    /**
+     * Get the view of a root file containing only the entries for the configured locale.
+     *
+     * @param parsedRootFile The parsed root file.
+     *
+     * @return The view for the configured locale, or the parsed root file if no locale is configured or the locale is not available in the CASC.
+     */
+    private RootFile toLocaleView(RootFile parsedRootFile) {
+        return getRootLocale()
+                .map(parsedRootFile::getLocaleView)
+                .orElse(parsedRootFile);
+    }
+
+    /**
+     * Get the locale the root file is restricted to.
+     *
+     * @return Optional containing the configured locale, or an empty optional if the full root file is kept.
+     */
+    private Optional<CascLocale> getRootLocale() {
+        return Optional.ofNullable(getLocale())
+                .flatMap(locale -> CascLocale.getLocale(locale.name()));
+    }
+
+    /**
+     * Get the executor to parse the CASC files with.
+     * <p>
+     * The parsing tasks running on the executor submit their own subtasks to it and wait for them. A {@link ForkJoinPool} compensates for workers
+     * that are blocked waiting for a subtask, which a fixed size thread pool can't, so only fork/join pools are supported. Override to parse the
+     * files with a dedicated pool (e.g. with a lower parallelism) instead of the common pool.
+     *
+     * @return The executor, the common {@link ForkJoinPool} by default.
+     */
+    protected ForkJoinPool getExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Close the context, releasing the resources held by it.
+     * <p>
+     * The default implementation holds no resources and does nothing.
+     *
+     * @throws IOException When releasing a resource failed.
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Get the task for a parsed file, starting it if no task is available.
+     * <p>
+     * Only a single task is started for concurrent callers. A task that fails is removed after informing its callers, so the next call starts a new
+     * task.
+     *
+     * @param file    The reference holding the task for the file.
+     * @param starter The function starting a new task.
+     * @param <T>     The type of the parsed file.
+     *
+     * @return The task.
+     */
+    private static <T> CompletableFuture<T> initialise(AtomicReference<CompletableFuture<T>> file, Supplier<CompletableFuture<T>> starter) {
+        CompletableFuture<T> task = file.get();
+        if (task == null) {
+            CompletableFuture<T> newTask = new CompletableFuture<>();
+            if (file.compareAndSet(null, newTask)) {
+                try {
+                    starter.get().whenComplete((result, error) -> {
+                        if (error != null) {
+                            file.compareAndSet(newTask, null);
+                            newTask.completeExceptionally(error);
+                        } else {
+                            newTask.complete(result);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    file.compareAndSet(newTask, null);
+                    newTask.completeExceptionally(e);
+                }
+                task = newTask;
+            } else {
+                task = file.get();
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Wait for the result of a task.
+     *
+     * @param task The task.
+     * @param <T>  The type of the result.
+     *
+     * @return The result of the task.
+     *
+     * @throws CascParsingException When the task failed.
+     */
+    private static <T> T await(CompletableFuture<T> task) throws CascParsingException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CascParsingException("Error initialising the CASC context", cause);
+        }
+    }
+
+    /**
+     * Get the path of the file to store the snapshot of the parsed index, encoding and root files in.
+     * <p>
+     * Snapshots are stored in the {@code snapshots} directory of the cache directory and are only used when caching is enabled.
+     *
+     * @return Optional with the snapshot file, empty if snapshots are not used.
+     */
+    protected Optional<Path> getSnapshotFile() {
+        Optional<Path> file;
+        if (warcraft4jConfig.isCaching() && warcraft4jConfig.getCacheDirectory() != null) {
+            String filename = format("%s-%s-%s.snapshot", getClass().getSimpleName(), getCdnCascConfig().getRegionCode(), getBranch()).toLowerCase();
+            file = Optional.of(warcraft4jConfig.getCacheDirectory().resolve(Paths.get(SNAPSHOT_DIRECTORY, filename)));
+        } else {
+            file = Optional.empty();
+        }
+        return file;
+    }
+
+    /**
+     * Get the key identifying the CASC data of a snapshot, changing with every change to the build, CDN, encoding or root file references or to
+     * the locale the root file is filtered for.
+     *
+     * @return The snapshot key.
+     *
+     * @throws CascParsingException When the CASC configuration could not be read.
+     */
+    protected String getSnapshotKey() throws CascParsingException {
+        CdnCascConfig config = getCdnCascConfig();
+        return String.join("|",
+                config.getVersion(),
+                config.getBuildConfigKey().orElse(""),
+                config.getCdnConfigKey().orElse(""),
+                config.getStorageEncodingFileChecksum().toHexString(),
+                config.getRootContentChecksum().toHexString(),
+                String.valueOf(getLocale()));
+    }
+
+    /**
+     * Load the parsed index, encoding and root files from the stored snapshot if an up-to-date snapshot is available.
+     * <p>
+     * The encoding section of the snapshot is skipped when the encoding file is parsed lazily, keeping the encoding file from being loaded in full.
+     */
+    private void loadSnapshot() {
+        if (!snapshotChecked) {
+            synchronized (snapshotLock) {
+                if (!snapshotChecked) {
+                    try {
+                        Optional<Path> file = getSnapshotFile();
+                        if (file.isPresent()) {
+                            boolean lazyEncoding = warcraft4jConfig.isLazyEncoding();
+                            Optional<CascSnapshot> snapshot = CascSnapshot.read(file.get(), getSnapshotKey(), !lazyEncoding);
+                            if (snapshot.isPresent()) {
+                                LOGGER.debug("Initialising index{} and root files from snapshot {}", lazyEncoding ? "" : ", encoding", file.get());
+                                index.set(CompletableFuture.completedFuture(snapshot.get().getIndex()));
+                                snapshot.get().getEncoding()
+                                        .map(encodingFile -> warcraft4jConfig.isOffHeapEncoding() ? encodingFile.toOffHeap() : encodingFile)
+                                        .ifPresent(encodingFile -> encoding.set(CompletableFuture.completedFuture(encodingFile)));
+                                rootFile.set(CompletableFuture.completedFuture(snapshot.get().getRootFile()));
+                                snapshotStored.set(true);
+                            }
+                        }
+                    } catch (CascParsingException e) {
+                        LOGGER.warn("Unable to check the CASC snapshot, parsing all files", e);
+                    }
+                    snapshotChecked = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Store the parsed index, encoding and root files in a new snapshot, requiring all files to have been parsed.
+     */
+    private void storeSnapshot() {
+        if (snapshotStored.compareAndSet(false, true)) {
+            try {
+                Optional<Path> file = getSnapshotFile();
+                if (file.isPresent() && getEncoding() instanceof LazyEncodingFile) {
+                    LOGGER.debug("Not storing a CASC snapshot for a lazily parsed encoding file");
+                } else if (file.isPresent()) {
+                    new CascSnapshot(getSnapshotKey(), getIndex(), getEncoding(), getRootFile()).write(file.get());
+                }
+            } catch (IOException | CascParsingException e) {
+                LOGGER.warn("Unable to store the CASC snapshot", e);
+            }
         }
-        return rootFile;
     }
 
     /**
@@ -405,10 +700,11 @@ public abstract class CdnCascContext {
     public Optional<Long> getHash(String filename) {
         Optional<Long> hash;
         String cleanedFilename = cleanFilename(filename);
+        Long resolvedHash = isEmpty(cleanedFilename) ? null : hashes.get(cleanedFilename);
         if (isEmpty(cleanedFilename)) {
             hash = Optional.empty();
-        } else if (hashes.containsKey(cleanedFilename)) {
-            hash = Optional.of(hashes.get(cleanedFilename));
+        } else if (resolvedHash != null) {
+            hash = Optional.of(resolvedHash);
         } else {
             long filenameHash = hashFilename(cleanedFilename);
             if (getRootFile().isEntryAvailable(filenameHash)) {
@@ -467,15 +763,44 @@ public abstract class CdnCascContext {
 
     /**
      * Get the content checksums associated for a hash.
+     * <p>
+     * When a locale is configured, only the checksums of the entries for the configured locale are returned (see {@link #getRootFile()}).
+     * </p>
      *
      * @param filenameHash The hash to get the checksums for.
      *
-     * @return List containing all checksums for the hash or an empty list if no checksums were associated with the hash.
+     * @return List containing the checksums for the hash in the root file of the context or an empty list if no checksums were associated with the
+     * hash.
      */
     public List<ContentChecksum> getContentChecksums(long filenameHash) {
         return getRootFile().getContentChecksums(filenameHash);
     }
 
+    /**
+     * Get the content checksums associated with a hash for a single locale.
+     * <p>
+     * When a locale is configured, the context only keeps the entries for that locale (see {@link #getRootFile()}) and only the configured locale
+     * can be requested. Any locale can be requested when no locale is configured.
+     * </p>
+     *
+     * @param filenameHash The hash to get the checksums for.
+     * @param locale       The locale.
+     *
+     * @return List containing the checksums for the hash and locale or an empty list if no checksums were associated with the hash for the locale.
+     *
+     * @throws IllegalArgumentException When a locale is configured and the requested locale is not the configured locale.
+     * @see RootFile#getLocaleView(CascLocale)
+     */
+    public List<ContentChecksum> getContentChecksums(long filenameHash, CascLocale locale) throws IllegalArgumentException {
+        Optional<CascLocale> rootLocale = getRootLocale();
+        if (rootLocale.isPresent() && rootLocale.get() != locale) {
+            throw new IllegalArgumentException(format("Root entries for locale %s are not available, only the entries for the configured locale %s are "
+                    + "kept.", locale, rootLocale.get()));
+        }
+        return rootLocale.isPresent() ? getRootFile().getContentChecksums(filenameHash)
+                : getRootFile().getLocaleView(locale).getContentChecksums(filenameHash);
+    }
+
     /**
      * Get the file key for a content checksum.
      *
@@ -540,6 +865,59 @@ public abstract class CdnCascContext {
         return getDataReaderProvider().getDataReader(dataFile, dataFileOffset, fileSize);
     }
 
+    /**
+     * Get suppliers for the raw data readers for multiple files referenced by index entries, allowing the reading of files that are stored in the
+     * same data file to be combined.
+     *
+     * @param entries The index entries.
+     *
+     * @return The suppliers for the readers, in the order of the index entries.
+     *
+     * @throws CascParsingException       When the data readers could not be created.
+     * @throws CascEntryNotFoundException When there is no data for an index entry.
+     */
+    public List<Supplier<DataReader>> getDataReaders(List<IndexEntry> entries) throws CascParsingException, CascEntryNotFoundException {
+        Map<String, List<Integer>> dataFileEntries = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            IndexEntry entry = entries.get(i);
+            String dataFile = getDataFileUri(entry)
+                    .orElseThrow(() -> new CascEntryNotFoundException(format("Unable to get the data reader for entry %s in data file %d", entry.getFileKey(), entry.getFileNumber())));
+            dataFileEntries.computeIfAbsent(dataFile, f -> new ArrayList<>()).add(i);
+        }
+        List<Supplier<DataReader>> readers = new ArrayList<>(Collections.nCopies(entries.size(), null));
+        for (Map.Entry<String, List<Integer>> dataFile : dataFileEntries.entrySet()) {
+            List<Integer> positions = dataFile.getValue();
+            long[] offsets = new long[positions.size()];
+            long[] sizes = new long[positions.size()];
+            for (int i = 0; i < positions.size(); i++) {
+                IndexEntry entry = entries.get(positions.get(i));
+                offsets[i] = entry.getDataFileOffset();
+                sizes[i] = entry.getFileSize();
+            }
+            List<Supplier<DataReader>> dataFileReaders = getDataReaders(dataFile.getKey(), offsets, sizes);
+            for (int i = 0; i < positions.size(); i++) {
+                readers.set(positions.get(i), dataFileReaders.get(i));
+            }
+        }
+        return readers;
+    }
+
+    /**
+     * Get suppliers for the raw data readers for multiple files inside the same data file.
+     *
+     * @param dataFile        The path of the data file.
+     * @param dataFileOffsets The offsets of the start of the data of the files in the data file.
+     * @param fileSizes       The sizes of the contained files.
+     *
+     * @return The suppliers for the readers, in the order of the offsets.
+     *
+     * @throws CascParsingException When the data readers could not be created.
+     */
+    protected List<Supplier<DataReader>> getDataReaders(String dataFile, long[] dataFileOffsets, long[] fileSizes) throws CascParsingException {
+        LOGGER.trace("Getting data readers for {} files in data file {}", dataFileOffsets.length, dataFile);
+        return getDataReaderProvider().getDataReaders(dataFile, dataFileOffsets, fileSizes);
+    }
+
     /**
      * Get the URI for the data file that contains the index entry.
      *
@@ -627,9 +1005,13 @@ public abstract class CdnCascContext {
                     .map(IndexEntry::getFileKey)
                     .map(FileKey::toHexString)
                     .collect(Collectors.joining(",")));
-            List<Supplier<? extends DataReader>> dataReaders = indexEntries.stream()
-                    .map(this::getFileDataReaderSupplier)
-                    .collect(Collectors.toList());
+            List<Supplier<DataReader>> rawDataReaders = getDataReaders(indexEntries);
+            List<Supplier<? extends DataReader>> dataReaders = new ArrayList<>(indexEntries.size());
+            for (int i = 0; i < indexEntries.size(); i++) {
+                Supplier<DataReader> rawDataReader = rawDataReaders.get(i);
+                long fileSize = indexEntries.get(i).getFileSize();
+                dataReaders.add(() -> new BlteDataReader(rawDataReader, fileSize, null, getExecutor()));
+            }
             dataReader = new CompositeDataReader(dataReaders);
         }
         return dataReader;
@@ -651,7 +1033,7 @@ public abstract class CdnCascContext {
         }
         LOGGER.trace("Getting BLTE data reader for {} (uri: {}, datafile: {}, offset: {}, datasize: {})", indexEntry.getFileKey().toHexString(),
                 getDataFileUri(indexEntry).orElse("#error#"), indexEntry.getFileNumber(), indexEntry.getDataFileOffset(), indexEntry.getFileSize());
-        return new BlteDataReader(getDataReader(indexEntry), indexEntry.getFileSize());
+        return new BlteDataReader(getDataReader(indexEntry), indexEntry.getFileSize(), null, getExecutor());
     }
 
     /**
@@ -672,7 +1054,7 @@ public abstract class CdnCascContext {
         LOGGER.trace("Getting BLTE data reader for {} with checksum {} (uri: {}, datafile: {}, offset: {}, datasize: {})", indexEntry.getFileKey().toHexString(),
                 contentChecksum.toHexString(), getDataFileUri(indexEntry).orElse("#error#"), indexEntry.getFileNumber(),
                 indexEntry.getDataFileOffset(), indexEntry.getFileSize());
-        return new BlteDataReader(getDataReader(indexEntry), indexEntry.getFileSize(), contentChecksum);
+        return new BlteDataReader(getDataReader(indexEntry), indexEntry.getFileSize(), contentChecksum, getExecutor());
     }
 
     /**
@@ -740,14 +1122,6 @@ public abstract class CdnCascContext {
      * @return The hash.
      */
     public static long hashFilename(String filename) {
-        long hash;
-        if (isEmpty(filename)) {
-            hash = 0;
-        } else {
-            ;
-            byte[] data = cleanFilename(filename).getBytes(StandardCharsets.US_ASCII);
-            hash = JenkinsHash.hashLittle2(data, data.length);
-        }
-        return hash;
+        return FILENAME_HASHER.get().hash(filename);
     }
 }
@@ -20,6 +20,8 @@ package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
 
+import java.nio.ByteBuffer;
+
 /**
  * TODO Add description.
  *
@@ -29,4 +31,18 @@ interface DataDecompressor {
     byte[] decompress(byte[] data, long compressedSize, long decompressedSize) throws CascParsingException;
 
     byte[] decompress(byte[] data, long dataOffset, long dataLength, long decompressedSize) throws CascParsingException;
+
+    /**
+     * Decompress data into a buffer, writing the decompressed data from the current position of the buffer.
+     *
+     * @param data       The array containing the compressed data.
+     * @param dataOffset The offset of the compressed data in the array.
+     * @param dataLength The length of the compressed data.
+     * @param target     The buffer to write the decompressed data to, which must have enough remaining space for all decompressed data.
+     *
+     * @return The number of decompressed bytes written to the buffer.
+     *
+     * @throws CascParsingException When the data could not be decompressed or the decompressed data doesn't fit in the buffer.
+     */
+    int decompress(byte[] data, long dataOffset, long dataLength, ByteBuffer target) throws CascParsingException;
 }
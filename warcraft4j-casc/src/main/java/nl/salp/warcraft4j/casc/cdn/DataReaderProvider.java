@@ -21,8 +21,12 @@ package nl.salp.warcraft4j.casc.cdn;
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
+import static java.lang.String.format;
+
 /**
  * TODO Document class.
  *
@@ -32,4 +36,29 @@ public interface DataReaderProvider {
     Supplier<DataReader> getDataReader(String uri) throws CascParsingException;
 
     Supplier<DataReader> getDataReader(String uri, long offset, long length) throws CascParsingException;
+
+    /**
+     * Get the suppliers for the readers of multiple segments of the same file.
+     * <p>
+     * Implementations can combine the reading of segments, e.g. by reading adjacent segments at once. By default, a reader is provided per segment
+     * using {@link #getDataReader(String, long, long)}.
+     *
+     * @param uri     The URI of the file.
+     * @param offsets The offsets of the segments in the file.
+     * @param lengths The lengths of the segments.
+     *
+     * @return The suppliers for the readers, in the order of the segments.
+     *
+     * @throws CascParsingException When the number of offsets and lengths differ or the readers could not be created.
+     */
+    default List<Supplier<DataReader>> getDataReaders(String uri, long[] offsets, long[] lengths) throws CascParsingException {
+        if (offsets == null || lengths == null || offsets.length != lengths.length) {
+            throw new CascParsingException(format("Unable to get the data readers for %s without an offset and length for every segment.", uri));
+        }
+        List<Supplier<DataReader>> readers = new ArrayList<>(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            readers.add(getDataReader(uri, offsets[i], lengths[i]));
+        }
+        return readers;
+    }
 }
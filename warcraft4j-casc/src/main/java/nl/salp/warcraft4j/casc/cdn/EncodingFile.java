@@ -18,55 +18,380 @@
  */
 package nl.salp.warcraft4j.casc.cdn;
 
+import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.ContentChecksum;
 import nl.salp.warcraft4j.casc.EncodingEntry;
 import nl.salp.warcraft4j.casc.FileKey;
-import nl.salp.warcraft4j.util.Checksum;
+import nl.salp.warcraft4j.util.DataTypeUtil;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.*;
 
 /**
- * TODO Document class.
+ * Compact encoding table, referencing the file keys and file size for the content checksum of a file.
+ * <p>
+ * The 16-byte content checksums and the first 16-byte file key of every entry are stored as consecutive {@code long} pairs, sorted by content
+ * checksum, and are looked up with a binary search. The rare entries with more than one file key keep their additional keys in a side table of
+ * primitive arrays. The entries can be stored either on the heap or in native memory (see {@link EncodingFileBuilder#build(boolean)}). Looking up
+ * the position of a content checksum and the file size does not allocate any objects, {@link EncodingEntry} instances are only created when
+ * requested.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.EncodingFileBuilder
  */
 public class EncodingFile {
-    private final Map<Checksum, EncodingEntry> entries;
+    /** The length of the content checksums and file keys in bytes. */
+    static final int KEY_LENGTH = 16;
+    /** The number of longs stored per entry (content checksum and first file key). */
+    static final int KEY_STRIDE = 4;
+    /** The content checksums and first file keys, as 4 longs per entry. */
+    private final LongBuffer keys;
+    /** The (unsigned) file sizes. */
+    private final IntBuffer fileSizes;
+    /** The sorted positions of the entries with more than one file key. */
+    private final int[] multiKeyPositions;
+    /** The offsets of the additional file keys of the entries with more than one file key, with the total number of longs as last element. */
+    private final int[] additionalKeyOffsets;
+    /** The additional file keys (as 2 longs per key) of the entries with more than one file key, in the order of the entries. */
+    private final long[] additionalFileKeys;
 
-    public EncodingFile(List<EncodingEntry> entries) {
-        this.entries = new HashMap<>();
-        entries.stream()
-                .filter(e -> e != null)
-                .filter(e -> e.getContentChecksum() != null)
-                .forEach(e -> {
-                    if (!this.entries.containsKey(e.getContentChecksum())) {
-                        this.entries.put(e.getContentChecksum(), e);
-                    }
-                });
+    /**
+     * Create a new encoding file from encoding entries.
+     * <p>
+     * When multiple entries are provided for the same content checksum, the first entry is used.
+     *
+     * @param entries The encoding entries.
+     *
+     * @throws CascParsingException     When the entries are {@code null}.
+     * @throws IllegalArgumentException When an entry contains data that can't be stored.
+     */
+    public EncodingFile(List<EncodingEntry> entries) throws CascParsingException, IllegalArgumentException {
+        this(toBuilder(entries));
+    }
+
+    /**
+     * Create a new encoding file from the entries of a builder.
+     *
+     * @param builder The builder.
+     */
+    private EncodingFile(EncodingFileBuilder builder) {
+        EncodingFile encodingFile = builder.build();
+        this.keys = encodingFile.keys;
+        this.fileSizes = encodingFile.fileSizes;
+        this.multiKeyPositions = encodingFile.multiKeyPositions;
+        this.additionalKeyOffsets = encodingFile.additionalKeyOffsets;
+        this.additionalFileKeys = encodingFile.additionalFileKeys;
+    }
+
+    /**
+     * Create a new encoding file from sorted entry data without duplicate content checksums.
+     *
+     * @param keys               The content checksums and first file keys, as 4 longs per entry.
+     * @param fileSizes          The (unsigned) file sizes.
+     * @param multiKeyPositions    The sorted positions of the entries with more than one file key.
+     * @param additionalKeyOffsets The offsets of the additional file keys of the entries with more than one file key, with the total number of
+     *                             longs as last element.
+     * @param additionalFileKeys   The additional file keys (as 2 longs per key) of the entries with more than one file key.
+     */
+    EncodingFile(LongBuffer keys, IntBuffer fileSizes, int[] multiKeyPositions, int[] additionalKeyOffsets, long[] additionalFileKeys) {
+        this.keys = keys;
+        this.fileSizes = fileSizes;
+        this.multiKeyPositions = multiKeyPositions;
+        this.additionalKeyOffsets = additionalKeyOffsets;
+        this.additionalFileKeys = additionalFileKeys;
+    }
+
+    /**
+     * Create a copy of the encoding file with the entries stored in native memory outside of the heap.
+     *
+     * @return The copy, or the encoding file itself when its entries are already stored outside of the heap.
+     */
+    EncodingFile toOffHeap() {
+        if (keys.isDirect() && fileSizes.isDirect()) {
+            return this;
+        }
+        LongBuffer offHeapKeys = ByteBuffer.allocateDirect(keys.limit() * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        offHeapKeys.put(getKeys()).clear();
+        IntBuffer offHeapFileSizes = ByteBuffer.allocateDirect(fileSizes.limit() * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        offHeapFileSizes.put(getFileSizes()).clear();
+        return new EncodingFile(offHeapKeys, offHeapFileSizes, multiKeyPositions, additionalKeyOffsets, additionalFileKeys);
+    }
+
+    /**
+     * Create a builder containing encoding entries.
+     *
+     * @param entries The encoding entries.
+     *
+     * @return The builder.
+     *
+     * @throws CascParsingException     When the entries are {@code null}.
+     * @throws IllegalArgumentException When an entry contains data that can't be stored.
+     */
+    private static EncodingFileBuilder toBuilder(List<EncodingEntry> entries) throws CascParsingException, IllegalArgumentException {
+        List<EncodingEntry> encodingEntries = Optional.ofNullable(entries)
+                .orElseThrow(() -> new CascParsingException("Can't create an encoding file from null encoding entries."));
+        EncodingFileBuilder builder = new EncodingFileBuilder(encodingEntries.size());
+        encodingEntries.stream()
+                .filter(e -> e != null && e.getContentChecksum() != null)
+                .forEach(builder::add);
+        return builder;
+    }
+
+    /**
+     * Compare two 16-byte keys, split in two big endian longs, as unsigned values.
+     *
+     * @param high1 The first 8 bytes of the first key.
+     * @param low1  The last 8 bytes of the first key.
+     * @param high2 The first 8 bytes of the second key.
+     * @param low2  The last 8 bytes of the second key.
+     *
+     * @return A negative value, zero or a positive value when the first key is smaller than, equal to or bigger than the second key.
+     */
+    static int compareKeys(long high1, long low1, long high2, long low2) {
+        int cmp = Long.compareUnsigned(high1, high2);
+        if (cmp == 0) {
+            cmp = Long.compareUnsigned(low1, low2);
+        }
+        return cmp;
+    }
+
+    /**
+     * Convert a 16-byte key, split in two big endian longs, to a byte array.
+     *
+     * @param high The first 8 bytes of the key.
+     * @param low  The last 8 bytes of the key.
+     *
+     * @return The key.
+     */
+    static byte[] toKey(long high, long low) {
+        byte[] key = new byte[KEY_LENGTH];
+        for (int i = 7; i >= 0; i--) {
+            key[i] = (byte) high;
+            key[i + 8] = (byte) low;
+            high >>>= 8;
+            low >>>= 8;
+        }
+        return key;
+    }
+
+    /**
+     * Get the position of the entry for a content checksum.
+     *
+     * @param contentChecksum The content checksum.
+     *
+     * @return The position of the entry or {@code -1} if there is no entry for the content checksum.
+     */
+    public int indexOf(ContentChecksum contentChecksum) {
+        return contentChecksum == null ? -1 : indexOf(contentChecksum.getChecksum());
+    }
+
+    /**
+     * Get the position of the entry for a 16-byte content checksum.
+     *
+     * @param contentChecksum The content checksum.
+     *
+     * @return The position of the entry or {@code -1} if there is no entry for the content checksum.
+     */
+    public int indexOf(byte[] contentChecksum) {
+        int position = -1;
+        if (contentChecksum != null && contentChecksum.length == KEY_LENGTH) {
+            long high = DataTypeUtil.toLong(contentChecksum, 0);
+            position = indexOf(high, DataTypeUtil.toLong(contentChecksum, 8));
+        }
+        return position;
+    }
+
+    /**
+     * Get the position of the entry for a content checksum, split in two big endian longs.
+     *
+     * @param high The first 8 bytes of the content checksum.
+     * @param low  The last 8 bytes of the content checksum.
+     *
+     * @return The position of the entry or {@code -1} if there is no entry for the content checksum.
+     */
+    int indexOf(long high, long low) {
+        int position = -1;
+        int first = 0;
+        int last = getEntryCount() - 1;
+        while (first <= last && position < 0) {
+            int mid = (first + last) >>> 1;
+            int index = mid * KEY_STRIDE;
+            int cmp = compareKeys(keys.get(index), keys.get(index + 1), high, low);
+            if (cmp < 0) {
+                first = mid + 1;
+            } else if (cmp > 0) {
+                last = mid - 1;
+            } else {
+                position = mid;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Get the content checksum of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The content checksum.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public ContentChecksum getContentChecksum(int position) throws IndexOutOfBoundsException {
+        int index = position * KEY_STRIDE;
+        return new ContentChecksum(toKey(keys.get(index), keys.get(index + 1)));
+    }
+
+    /**
+     * Get the first file key of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The first file key.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public FileKey getFirstFileKey(int position) throws IndexOutOfBoundsException {
+        int index = position * KEY_STRIDE;
+        return new FileKey(toKey(keys.get(index + 2), keys.get(index + 3)));
+    }
+
+    /**
+     * Get all file keys of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The file keys.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public List<FileKey> getFileKeys(int position) throws IndexOutOfBoundsException {
+        FileKey firstFileKey = getFirstFileKey(position);
+        int multiKeyIndex = Arrays.binarySearch(multiKeyPositions, position);
+        List<FileKey> fileKeys;
+        if (multiKeyIndex < 0) {
+            fileKeys = Collections.singletonList(firstFileKey);
+        } else {
+            int start = additionalKeyOffsets[multiKeyIndex];
+            int end = additionalKeyOffsets[multiKeyIndex + 1];
+            fileKeys = new ArrayList<>(1 + (end - start) / 2);
+            fileKeys.add(firstFileKey);
+            for (int i = start; i < end; i += 2) {
+                fileKeys.add(new FileKey(toKey(additionalFileKeys[i], additionalFileKeys[i + 1])));
+            }
+        }
+        return fileKeys;
+    }
+
+    /**
+     * Get the file size of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The file size.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public long getFileSize(int position) throws IndexOutOfBoundsException {
+        return fileSizes.get(position) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Get the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The entry.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public EncodingEntry getEntry(int position) throws IndexOutOfBoundsException {
+        return new CascEncodingEntry(getFileSize(position), getContentChecksum(position), getFileKeys(position));
     }
 
     protected Optional<EncodingEntry> getEncodingEntry(ContentChecksum contentChecksum) {
-        return Optional.ofNullable(entries.get(contentChecksum));
+        int position = indexOf(contentChecksum);
+        return position < 0 ? Optional.empty() : Optional.of(getEntry(position));
     }
 
     public Optional<Long> getFileSize(ContentChecksum contentChecksum) {
-        return getEncodingEntry(contentChecksum).map(EncodingEntry::getFileSize);
+        int position = indexOf(contentChecksum);
+        return position < 0 ? Optional.empty() : Optional.of(getFileSize(position));
     }
 
     public Optional<FileKey> getFileKey(ContentChecksum contentChecksum) {
-        // FIXME Return first only or return (potentially) all?
-        return getEncodingEntry(contentChecksum).map(EncodingEntry::getFirstFileKey);
+        int position = indexOf(contentChecksum);
+        return position < 0 ? Optional.empty() : Optional.of(getFirstFileKey(position));
     }
 
     public Collection<EncodingEntry> getEntries() {
-        return entries.values();
+        return new AbstractList<EncodingEntry>() {
+            @Override
+            public EncodingEntry get(int index) {
+                return getEntry(index);
+            }
+
+            @Override
+            public int size() {
+                return getEntryCount();
+            }
+        };
     }
 
     public int getEntryCount() {
-        return entries.size();
+        return fileSizes.limit();
+    }
+
+    /**
+     * Get the stored content checksums and first file keys.
+     *
+     * @return Read-only view on the keys, as 4 longs per entry.
+     */
+    LongBuffer getKeys() {
+        return keys.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the stored (unsigned) file sizes.
+     *
+     * @return Read-only view on the file sizes.
+     */
+    IntBuffer getFileSizes() {
+        return fileSizes.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the sorted positions of the entries with more than one file key.
+     *
+     * @return The positions.
+     */
+    int[] getMultiKeyPositions() {
+        return multiKeyPositions;
+    }
+
+    /**
+     * Get the offsets of the additional file keys of the entries with more than one file key.
+     *
+     * @return The offsets in {@link #getAdditionalFileKeys()}, in the order of {@link #getMultiKeyPositions()}, with the total number of longs as
+     * last element.
+     */
+    int[] getAdditionalKeyOffsets() {
+        return additionalKeyOffsets;
+    }
+
+    /**
+     * Get the additional file keys of the entries with more than one file key.
+     *
+     * @return The additional file keys (as 2 longs per key), in the order of {@link #getMultiKeyPositions()}.
+     */
+    long[] getAdditionalFileKeys() {
+        return additionalFileKeys;
     }
 
     @Override
@@ -82,8 +407,8 @@ public class EncodingFile {
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("entries", entries.size())
-                .append("checksums", entries.values().stream().map(EncodingEntry::getFileKeys).mapToInt(List::size).sum())
+                .append("entries", getEntryCount())
+                .append("multiKeyEntries", multiKeyPositions.length)
                 .toString();
     }
 }
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.EncodingEntry;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.util.DataTypeUtil;
+import nl.salp.warcraft4j.util.SortUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Builder for creating a compact {@link EncodingFile} from (raw) encoding entry data.
+ * <p>
+ * Entries are collected in primitive arrays and only sorted once when the encoding file is built, with the additional file keys of the entries
+ * with more than one file key being collected in a primitive side table. When multiple entries are added for the same content checksum, the first
+ * added entry is kept. The builder is not thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.EncodingFile
+ */
+public class EncodingFileBuilder {
+    /** The default initial capacity. */
+    private static final int DEFAULT_CAPACITY = 1024;
+    /** The maximum file size that can be stored. */
+    private static final long MAX_FILE_SIZE = 0xFFFFFFFFL;
+    /** The content checksums and first file keys, as 4 longs per entry. */
+    private long[] keys;
+    /** The (unsigned) file sizes. */
+    private int[] fileSizes;
+    /** The (ascending) entry numbers of the entries with more than one file key. */
+    private int[] multiKeyEntries;
+    /** The offsets of the additional file keys of the entries with more than one file key, with the total number of longs as last element. */
+    private int[] additionalKeyOffsets;
+    /** The additional file keys (as 2 longs per key) of the entries with more than one file key, in the order of the entries. */
+    private long[] additionalFileKeys;
+    /** The number of added entries. */
+    private int size;
+    /** The number of added entries with more than one file key. */
+    private int multiKeySize;
+
+    /**
+     * Create a new builder.
+     */
+    public EncodingFileBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new builder.
+     *
+     * @param expectedEntries The expected number of entries.
+     *
+     * @throws IllegalArgumentException When the expected number of entries is negative.
+     */
+    public EncodingFileBuilder(int expectedEntries) throws IllegalArgumentException {
+        if (expectedEntries < 0) {
+            throw new IllegalArgumentException(format("Unable to create an encoding file builder for %d entries.", expectedEntries));
+        }
+        this.keys = new long[expectedEntries * EncodingFile.KEY_STRIDE];
+        this.fileSizes = new int[expectedEntries];
+        this.multiKeyEntries = new int[0];
+        this.additionalKeyOffsets = new int[1];
+        this.additionalFileKeys = new long[0];
+    }
+
+    /**
+     * Add an encoding entry.
+     *
+     * @param entry The entry.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the entry is {@code null} or contains values that can't be stored.
+     */
+    public EncodingFileBuilder add(EncodingEntry entry) throws IllegalArgumentException {
+        if (entry == null || entry.getContentChecksum() == null || entry.getFileKeys() == null || entry.getFileKeys().isEmpty()) {
+            throw new IllegalArgumentException("Unable to add an encoding entry without a content checksum and file keys.");
+        }
+        List<FileKey> entryKeys = entry.getFileKeys();
+        byte[] fileKeys = new byte[entryKeys.size() * EncodingFile.KEY_LENGTH];
+        for (int i = 0; i < entryKeys.size(); i++) {
+            byte[] fileKey = entryKeys.get(i).getChecksum();
+            if (fileKey.length != EncodingFile.KEY_LENGTH) {
+                throw new IllegalArgumentException(format("Unable to add an encoding entry with a %d byte file key.", fileKey.length));
+            }
+            System.arraycopy(fileKey, 0, fileKeys, i * EncodingFile.KEY_LENGTH, EncodingFile.KEY_LENGTH);
+        }
+        return add(entry.getContentChecksum().getChecksum(), 0, entry.getFileSize(), fileKeys, 0, entryKeys.size());
+    }
+
+    /**
+     * Add the data for an encoding entry.
+     *
+     * @param contentKey       The array containing the 16-byte content checksum.
+     * @param contentKeyOffset The offset of the content checksum in the array.
+     * @param fileSize         The size of the file.
+     * @param fileKeys         The array containing the consecutive 16-byte file keys.
+     * @param fileKeysOffset   The offset of the first file key in the array.
+     * @param fileKeyCount     The number of file keys.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the provided values can't be stored.
+     */
+    public EncodingFileBuilder add(byte[] contentKey, int contentKeyOffset, long fileSize, byte[] fileKeys, int fileKeysOffset, int fileKeyCount)
+            throws IllegalArgumentException {
+        if (contentKey == null || contentKeyOffset < 0 || contentKey.length - contentKeyOffset < ContentChecksum.CHECKSUM_LENGTH) {
+            throw new IllegalArgumentException("Unable to add an encoding entry without a 16-byte content checksum.");
+        }
+        if (fileKeyCount < 1 || fileKeys == null || fileKeysOffset < 0 || fileKeys.length - fileKeysOffset < fileKeyCount * EncodingFile.KEY_LENGTH) {
+            throw new IllegalArgumentException(format("Unable to add an encoding entry with %d file keys.", fileKeyCount));
+        }
+        if (fileSize < 0 || fileSize > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException(format("Unable to add an encoding entry with file size %d.", fileSize));
+        }
+        ensureCapacity(size + 1);
+        int keyIndex = size * EncodingFile.KEY_STRIDE;
+        keys[keyIndex] = DataTypeUtil.toLong(contentKey, contentKeyOffset);
+        keys[keyIndex + 1] = DataTypeUtil.toLong(contentKey, contentKeyOffset + 8);
+        keys[keyIndex + 2] = DataTypeUtil.toLong(fileKeys, fileKeysOffset);
+        keys[keyIndex + 3] = DataTypeUtil.toLong(fileKeys, fileKeysOffset + 8);
+        fileSizes[size] = (int) fileSize;
+        if (fileKeyCount > 1) {
+            int additionalKeys = (fileKeyCount - 1) * 2;
+            int offset = additionalKeyOffsets[multiKeySize];
+            ensureMultiKeyCapacity(multiKeySize + 1, offset + additionalKeys);
+            for (int i = 0; i < additionalKeys; i++) {
+                additionalFileKeys[offset + i] = DataTypeUtil.toLong(fileKeys, fileKeysOffset + EncodingFile.KEY_LENGTH + i * 8);
+            }
+            multiKeyEntries[multiKeySize] = size;
+            multiKeySize++;
+            additionalKeyOffsets[multiKeySize] = offset + additionalKeys;
+        }
+        size++;
+        return this;
+    }
+
+    /**
+     * Add all entries from another builder, keeping the entries already added when both builders contain the same content checksum.
+     *
+     * @param builder The builder to add the entries from.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the builder is {@code null}.
+     */
+    public EncodingFileBuilder addAll(EncodingFileBuilder builder) throws IllegalArgumentException {
+        if (builder == null) {
+            throw new IllegalArgumentException("Unable to add the entries of a null encoding file builder.");
+        }
+        ensureCapacity(size + builder.size);
+        System.arraycopy(builder.keys, 0, keys, size * EncodingFile.KEY_STRIDE, builder.size * EncodingFile.KEY_STRIDE);
+        System.arraycopy(builder.fileSizes, 0, fileSizes, size, builder.size);
+        int offset = additionalKeyOffsets[multiKeySize];
+        ensureMultiKeyCapacity(multiKeySize + builder.multiKeySize, offset + builder.additionalKeyOffsets[builder.multiKeySize]);
+        System.arraycopy(builder.additionalFileKeys, 0, additionalFileKeys, offset, builder.additionalKeyOffsets[builder.multiKeySize]);
+        for (int i = 0; i < builder.multiKeySize; i++) {
+            multiKeyEntries[multiKeySize + i] = size + builder.multiKeyEntries[i];
+            additionalKeyOffsets[multiKeySize + i + 1] = offset + builder.additionalKeyOffsets[i + 1];
+        }
+        multiKeySize += builder.multiKeySize;
+        size += builder.size;
+        return this;
+    }
+
+    /**
+     * Get the number of added entries, including entries with duplicate content checksums.
+     *
+     * @return The number of added entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Build the encoding file from the added entries, storing the entries on the heap.
+     *
+     * @return The encoding file.
+     */
+    public EncodingFile build() {
+        return build(false);
+    }
+
+    /**
+     * Build the encoding file from the added entries.
+     *
+     * @param offHeap {@code true} to store the entries in native memory outside of the heap.
+     *
+     * @return The encoding file.
+     */
+    public EncodingFile build(boolean offHeap) {
+        int[] order = SortUtil.sortedPermutation(size, this::compareEntries);
+        int unique = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || compareEntries(order[i], order[i - 1]) != 0) {
+                order[unique++] = order[i];
+            }
+        }
+        LongBuffer sortedKeys;
+        IntBuffer sortedFileSizes;
+        if (offHeap) {
+            sortedKeys = ByteBuffer.allocateDirect(unique * EncodingFile.KEY_STRIDE * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+            sortedFileSizes = ByteBuffer.allocateDirect(unique * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } else {
+            sortedKeys = LongBuffer.allocate(unique * EncodingFile.KEY_STRIDE);
+            sortedFileSizes = IntBuffer.allocate(unique);
+        }
+        int[] multiKeyPositions = new int[multiKeySize];
+        int[] sortedKeyOffsets = new int[multiKeySize + 1];
+        long[] sortedAdditionalFileKeys = new long[additionalKeyOffsets[multiKeySize]];
+        int multiKeyCount = 0;
+        for (int i = 0; i < unique; i++) {
+            int entry = order[i];
+            sortedKeys.put(keys, entry * EncodingFile.KEY_STRIDE, EncodingFile.KEY_STRIDE);
+            sortedFileSizes.put(fileSizes[entry]);
+            int multiKeyIndex = multiKeySize == 0 ? -1 : Arrays.binarySearch(multiKeyEntries, 0, multiKeySize, entry);
+            if (multiKeyIndex >= 0) {
+                int start = additionalKeyOffsets[multiKeyIndex];
+                int length = additionalKeyOffsets[multiKeyIndex + 1] - start;
+                int offset = sortedKeyOffsets[multiKeyCount];
+                System.arraycopy(additionalFileKeys, start, sortedAdditionalFileKeys, offset, length);
+                multiKeyPositions[multiKeyCount] = i;
+                multiKeyCount++;
+                sortedKeyOffsets[multiKeyCount] = offset + length;
+            }
+        }
+        sortedKeys.clear();
+        sortedFileSizes.clear();
+        return new EncodingFile(sortedKeys, sortedFileSizes, Arrays.copyOf(multiKeyPositions, multiKeyCount),
+                Arrays.copyOf(sortedKeyOffsets, multiKeyCount + 1), Arrays.copyOf(sortedAdditionalFileKeys, sortedKeyOffsets[multiKeyCount]));
+    }
+
+    /**
+     * Compare the content checksums of two added entries.
+     *
+     * @param a The number of the first entry.
+     * @param b The number of the second entry.
+     *
+     * @return A negative value, zero or a positive value when the first content checksum is smaller than, equal to or bigger than the second.
+     */
+    private int compareEntries(int a, int b) {
+        int indexA = a * EncodingFile.KEY_STRIDE;
+        int indexB = b * EncodingFile.KEY_STRIDE;
+        return EncodingFile.compareKeys(keys[indexA], keys[indexA + 1], keys[indexB], keys[indexB + 1]);
+    }
+
+    /**
+     * Make sure that the builder can hold a minimum number of entries, growing the storage if needed.
+     *
+     * @param capacity The minimum number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > fileSizes.length) {
+            int newCapacity = Math.max(capacity, Math.max(DEFAULT_CAPACITY, fileSizes.length + (fileSizes.length >> 1)));
+            keys = Arrays.copyOf(keys, newCapacity * EncodingFile.KEY_STRIDE);
+            fileSizes = Arrays.copyOf(fileSizes, newCapacity);
+        }
+    }
+
+    /**
+     * Make sure that the side table can hold a minimum number of entries with more than one file key and additional file keys, growing the storage
+     * if needed.
+     *
+     * @param entries The minimum number of entries with more than one file key.
+     * @param longs   The minimum number of longs for the additional file keys.
+     */
+    private void ensureMultiKeyCapacity(int entries, int longs) {
+        if (entries > multiKeyEntries.length) {
+            int newCapacity = Math.max(entries, Math.max(16, multiKeyEntries.length + (multiKeyEntries.length >> 1)));
+            multiKeyEntries = Arrays.copyOf(multiKeyEntries, newCapacity);
+            additionalKeyOffsets = Arrays.copyOf(additionalKeyOffsets, newCapacity + 1);
+        }
+        if (longs > additionalFileKeys.length) {
+            int newCapacity = Math.max(longs, Math.max(32, additionalFileKeys.length + (additionalFileKeys.length >> 1)));
+            additionalFileKeys = Arrays.copyOf(additionalFileKeys, newCapacity);
+        }
+    }
+}
@@ -19,34 +19,41 @@
 package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
-import nl.salp.warcraft4j.casc.ContentChecksum;
-import nl.salp.warcraft4j.casc.EncodingEntry;
-import nl.salp.warcraft4j.casc.FileKey;
 import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
 import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import nl.salp.warcraft4j.util.DataTypeUtil;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import static java.lang.String.format;
-import static nl.salp.warcraft4j.hash.Hashes.MD5;
 import static nl.salp.warcraft4j.util.DataTypeUtil.byteArrayToHexString;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 /**
- * TODO Add description.
+ * Parser for the encoding file, mapping content checksums to the file keys of the (encoded) data.
+ * <p>
+ * The fixed size entry segments are validated against their MD5 checksum and decoded concurrently on an executor.
  *
  * @author Barre Dijkstra
  */
@@ -59,9 +66,183 @@ public class EncodingFileParser {
     private static final int CHECKSUM_SIZE = 0x10;
     private static final int HEADER_SIZE = 22;
     private static final int SEGMENT_ENTRY_SIZE = 22;
+    private static final int SEGMENT_ENTRY_HEADER_SIZE = 6;
     private static final int SEGMENT_SIZE = 0x1000;
+    /** The number of segments that are validated and parsed per task. */
+    private static final int SEGMENTS_PER_TASK = 64;
+    /** The executor to parse the segments with. */
+    private final Executor executor;
+    /** Flag indicating if the parsed encoding file should be stored outside of the heap. */
+    private final boolean offHeap;
 
+    /**
+     * Create a new instance, parsing the segments using the common {@link ForkJoinPool}.
+     */
+    public EncodingFileParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param executor The executor to parse the segments with, which has to be a {@link ForkJoinPool} when parsing from a task running on the
+     *                 executor itself, since the parsing waits for the segments to be parsed.
+     *
+     * @throws IllegalArgumentException When no executor was provided.
+     */
+    public EncodingFileParser(Executor executor) throws IllegalArgumentException {
+        this(executor, false);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param executor The executor to parse the segments with, which has to be a {@link ForkJoinPool} when parsing from a task running on the
+     *                 executor itself, since the parsing waits for the segments to be parsed.
+     * @param offHeap  {@code true} if the fully parsed encoding file should be stored in native memory outside of the heap.
+     *
+     * @throws IllegalArgumentException When no executor was provided.
+     */
+    public EncodingFileParser(Executor executor, boolean offHeap) throws IllegalArgumentException {
+        this.executor = Optional.ofNullable(executor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create an EncodingFileParser without an executor."));
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Parse all entries of the encoding file.
+     *
+     * @param reader           The reader, positioned at the start of the encoding file.
+     * @param encodingFileSize The size of the encoding file.
+     *
+     * @return The parsed encoding file.
+     *
+     * @throws DataReadingException When reading the encoding file failed.
+     * @throws DataParsingException When parsing a value failed.
+     * @throws CascParsingException When the encoding file is invalid.
+     */
     public EncodingFile parse(DataReader reader, long encodingFileSize) throws DataReadingException, DataParsingException, CascParsingException {
+        long startOffset = reader.position();
+        List<EncodingFileSegmentChecksum> segmentChecksums = parseSegmentTable(reader, encodingFileSize);
+
+        long entryStartPosition = reader.position();
+        LOGGER.trace("Parsing {} encoding file entry segments from offset {}", segmentChecksums.size(), entryStartPosition - startOffset);
+        EncodingFileBuilder builder = parseSegments(segmentChecksums, reader);
+        LOGGER.trace("Parsed and validated {} encoding file entry segments from position {} to {} ({} bytes)",
+                segmentChecksums.size(), entryStartPosition, reader.position(), reader.position() - entryStartPosition);
+
+        EncodingFile encodingFile = builder.build(offHeap);
+        LOGGER.trace("Successfully parsed encoding file with {} entries from {} segments", encodingFile.getEntryCount(), segmentChecksums.size());
+        return encodingFile;
+    }
+
+    /**
+     * Parse the encoding file lazily, caching {@link LazyEncodingFile#DEFAULT_CACHED_SEGMENTS} parsed segments.
+     *
+     * @param readerSupplier   The supplier for readers positioned at the start of the encoding file.
+     * @param encodingFileSize The size of the encoding file.
+     *
+     * @return The lazily parsed encoding file.
+     *
+     * @throws DataReadingException When reading the encoding file failed.
+     * @throws DataParsingException When parsing a value failed.
+     * @throws CascParsingException When the encoding file is invalid.
+     * @see #parseLazily(Supplier, long, int)
+     */
+    public LazyEncodingFile parseLazily(Supplier<DataReader> readerSupplier, long encodingFileSize)
+            throws DataReadingException, DataParsingException, CascParsingException {
+        return parseLazily(readerSupplier, encodingFileSize, LazyEncodingFile.DEFAULT_CACHED_SEGMENTS);
+    }
+
+    /**
+     * Parse the encoding file lazily, only reading the segment table up front.
+     * <p>
+     * The entry segments are read, validated and parsed when a content checksum in the segment is looked up, using a new reader from the supplier
+     * for every segment that is not cached.
+     *
+     * @param readerSupplier   The supplier for readers positioned at the start of the encoding file.
+     * @param encodingFileSize The size of the encoding file.
+     * @param cachedSegments   The maximum number of parsed segments to cache.
+     *
+     * @return The lazily parsed encoding file.
+     *
+     * @throws DataReadingException When reading the encoding file failed.
+     * @throws DataParsingException When parsing a value failed.
+     * @throws CascParsingException When the encoding file is invalid.
+     */
+    public LazyEncodingFile parseLazily(Supplier<DataReader> readerSupplier, long encodingFileSize, int cachedSegments)
+            throws DataReadingException, DataParsingException, CascParsingException {
+        List<EncodingFileSegmentChecksum> segmentChecksums;
+        long segmentsPosition;
+        try (DataReader reader = readerSupplier.get()) {
+            segmentChecksums = parseSegmentTable(reader, encodingFileSize);
+            segmentsPosition = reader.position();
+        } catch (IOException e) {
+            throw new CascParsingException("Error parsing the encoding file segment table", e);
+        }
+        long[] segmentKeys = new long[segmentChecksums.size() * 2];
+        for (int i = 0; i < segmentChecksums.size(); i++) {
+            byte[] firstContentChecksum = segmentChecksums.get(i).getFirstFileChecksum();
+            segmentKeys[i * 2] = DataTypeUtil.toLong(firstContentChecksum, 0);
+            segmentKeys[i * 2 + 1] = DataTypeUtil.toLong(firstContentChecksum, 8);
+        }
+        LOGGER.trace("Parsed segment table for {} encoding file segments", segmentChecksums.size());
+        return new LazyEncodingFile(segmentKeys,
+                segment -> parseSegment(readerSupplier, segmentsPosition, segment, segmentChecksums),
+                () -> {
+                    try (DataReader reader = readerSupplier.get()) {
+                        return parse(reader, encodingFileSize);
+                    } catch (IOException e) {
+                        throw new CascParsingException("Error parsing the encoding file", e);
+                    }
+                },
+                cachedSegments);
+    }
+
+    /**
+     * Read, validate and parse a single segment.
+     *
+     * @param readerSupplier   The supplier for readers positioned at the start of the encoding file.
+     * @param segmentsPosition The position of the first segment in the reader.
+     * @param segmentNumber    The number of the segment.
+     * @param segmentChecksums The checksums of all segments.
+     *
+     * @return The entries of the segment.
+     *
+     * @throws DataReadingException When reading the segment failed.
+     * @throws CascParsingException When the segment is invalid.
+     */
+    private EncodingFile parseSegment(Supplier<DataReader> readerSupplier, long segmentsPosition, int segmentNumber,
+                                      List<EncodingFileSegmentChecksum> segmentChecksums) throws DataReadingException, CascParsingException {
+        byte[] segmentData = new byte[SEGMENT_SIZE];
+        try (DataReader reader = readerSupplier.get()) {
+            long position = segmentsPosition + (long) segmentNumber * SEGMENT_SIZE;
+            if (reader.isRandomAccessSupported()) {
+                reader.position(position);
+            } else {
+                reader.skip(position - reader.position());
+            }
+            reader.readBytes(segmentData, 0, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new CascParsingException(format("Error reading encoding file segment %d", segmentNumber), e);
+        }
+        return parseBatch(segmentNumber, segmentData, segmentChecksums).build();
+    }
+
+    /**
+     * Parse the header, strings and segment table of the encoding file, leaving the reader positioned at the first entry segment.
+     *
+     * @param reader           The reader, positioned at the start of the encoding file.
+     * @param encodingFileSize The size of the encoding file.
+     *
+     * @return The checksums of the entry segments.
+     *
+     * @throws DataReadingException When reading the encoding file failed.
+     * @throws DataParsingException When parsing a value failed.
+     * @throws CascParsingException When the encoding file is invalid.
+     */
+    private List<EncodingFileSegmentChecksum> parseSegmentTable(DataReader reader, long encodingFileSize)
+            throws DataReadingException, DataParsingException, CascParsingException {
         LOGGER.trace("Parsing {}-byte encoding file", encodingFileSize);
         if (reader.remaining() < encodingFileSize) {
             throw new CascParsingException(format("Tried to read a %d-byte encoding file from a stream with %d-bytes remaining.", encodingFileSize, reader.remaining()));
@@ -99,38 +280,7 @@ public class EncodingFileParser {
         if (reader.position() != (segmentStartPosition + (header.getSegmentCount() * SEGMENT_CHECKSUMS_SIZE))) {
             throw new CascParsingException(format("Error reading segment checksums, ended up on offset %d instead of %d", reader.position(), segmentStartPosition));
         }
-
-        long entryStartPosition = reader.position();
-        LOGGER.trace("Parsing {} encoding file entry segments from offset {}", header.getSegmentCount(), entryStartPosition - startOffset);
-        List<EncodingFileSegment> segments = parseSegments(header.getSegmentCount(), reader);
-        LOGGER.trace("Parsed {} encoding file entry segments from position {} to {} ({} bytes)",
-                header.getSegmentCount(), entryStartPosition, reader.position(), reader.position() - entryStartPosition);
-        if (segments.size() != segmentChecksums.size()) {
-            throw new CascParsingException(format("Retrieved %d encoding file segments and %d segment checksums with %d segments expected.",
-                    segments.size(), segmentChecksums.size(), header.getSegmentCount()));
-        }
-
-        LOGGER.trace("Validating data integrity of {} segments", segments.size());
-        List<Boolean> segmentValidity = IntStream.range(0, segments.size())
-                .mapToObj(i -> validateSegment(segments.get(i), segmentChecksums.get(i)))
-                .collect(Collectors.toList());
-        if (segmentValidity.stream().anyMatch(valid -> valid == false)) {
-            IntStream.range(0, segments.size())
-                    .filter(index -> segmentValidity.get(index) == false)
-                    .forEach(i -> LOGGER.trace("segment {} has checksum {} calculated with {} expected",
-                                    i, byteArrayToHexString(segments.get(i).getChecksum()), byteArrayToHexString(segmentChecksums.get(i).getSegmentChecksum()))
-                    );
-            long invalidSegments = IntStream.range(0, segmentValidity.size()).filter(index -> segmentValidity.get(index) == false).count();
-            throw new CascParsingException(format("Encoding file has %d invalid segments out of %d segments.", invalidSegments, segments.size()));
-        }
-        LOGGER.trace("Validated data integrity of {} segments", segments.size());
-
-        List<EncodingEntry> entries = segments.stream()
-                .map(EncodingFileSegment::getEntries)
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-        LOGGER.trace("Successfully parsed encoding file with {} entries from {} segments", entries.size(), header.getSegmentCount());
-        return new EncodingFile(entries);
+        return segmentChecksums;
     }
 
     private EncodingFileHeader parseHeader(DataReader reader) throws DataReadingException, DataParsingException, CascParsingException {
@@ -180,50 +330,130 @@ public class EncodingFileParser {
         return segmentChecksums;
     }
 
-    private List<EncodingFileSegment> parseSegments(long segmentCount, DataReader reader) throws DataReadingException, DataParsingException, CascParsingException {
-        List<EncodingFileSegment> segments = new ArrayList<>((int) segmentCount);
-        for (int i = 0; i < segmentCount; i++) {
-            long segmentStart = reader.position();
-            EncodingFileSegment segment = parseSegment(reader);
-            LOGGER.trace("Parsed encoding file segment {} with checksum {} and {} entries from position {} to {} ({} bytes)",
-                    i, byteArrayToHexString(segment.getChecksum()), segment.getEntries().size(), segmentStart, reader.position(), reader.position() - segmentStart);
-            segments.add(segment);
+    /**
+     * Parse and validate the entry segments.
+     * <p>
+     * The segments are read sequentially in batches of {@link #SEGMENTS_PER_TASK} segments, with every batch being validated and decoded on the
+     * executor while the next batch is read. The first segment that fails validation fails the parsing without waiting for the other batches.
+     *
+     * @param segmentChecksums The checksums of the segments.
+     * @param reader           The reader, positioned at the start of the first segment.
+     *
+     * @return Builder with the entries of all segments, added in segment order.
+     *
+     * @throws DataReadingException When reading the segments failed.
+     * @throws CascParsingException When one of the segments is invalid.
+     */
+    private EncodingFileBuilder parseSegments(List<EncodingFileSegmentChecksum> segmentChecksums, DataReader reader)
+            throws DataReadingException, CascParsingException {
+        int segmentCount = segmentChecksums.size();
+        List<CompletableFuture<EncodingFileBuilder>> batches = new ArrayList<>((segmentCount + SEGMENTS_PER_TASK - 1) / SEGMENTS_PER_TASK);
+        CompletableFuture<EncodingFileBuilder> failure = new CompletableFuture<>();
+        for (int firstSegment = 0; firstSegment < segmentCount && !failure.isDone(); firstSegment += SEGMENTS_PER_TASK) {
+            int batchStart = firstSegment;
+            int batchSize = Math.min(SEGMENTS_PER_TASK, segmentCount - firstSegment);
+            byte[] batchData = new byte[batchSize * SEGMENT_SIZE];
+            reader.readBytes(batchData, 0, batchData.length);
+            CompletableFuture<EncodingFileBuilder> batch = CompletableFuture.supplyAsync(
+                    () -> failure.isDone() ? null : parseBatch(batchStart, batchData, segmentChecksums), executor);
+            batch.whenComplete((result, e) -> {
+                if (e != null) {
+                    failure.completeExceptionally(e);
+                }
+            });
+            batches.add(batch);
+        }
+        CompletableFuture.anyOf(CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[batches.size()])), failure)
+                .handle((result, e) -> result)
+                .join();
+        EncodingFileBuilder builder = new EncodingFileBuilder();
+        if (failure.isDone()) {
+            getResult(failure);
+        }
+        for (CompletableFuture<EncodingFileBuilder> batch : batches) {
+            builder.addAll(getResult(batch));
+        }
+        return builder;
+    }
+
+    /**
+     * Validate and parse a batch of segments.
+     *
+     * @param firstSegment     The number of the first segment in the batch.
+     * @param batchData        The data of the segments in the batch.
+     * @param segmentChecksums The checksums of all segments.
+     *
+     * @return Builder with the entries of the segments in the batch.
+     *
+     * @throws CascParsingException When one of the segments is invalid.
+     */
+    private EncodingFileBuilder parseBatch(int firstSegment, byte[] batchData, List<EncodingFileSegmentChecksum> segmentChecksums)
+            throws CascParsingException {
+        EncodingFileBuilder builder = new EncodingFileBuilder();
+        MessageDigest digest = DigestUtils.getMd5Digest();
+        for (int offset = 0; offset < batchData.length; offset += SEGMENT_SIZE) {
+            int segmentNumber = firstSegment + offset / SEGMENT_SIZE;
+            EncodingFileSegmentChecksum segmentChecksum = segmentChecksums.get(segmentNumber);
+            EncodingFileSegment segment = parseSegment(batchData, offset, digest, builder);
+            if (!validateSegment(segment, segmentChecksum)) {
+                throw new CascParsingException(format("Encoding file segment %d has checksum %s calculated with %s expected.",
+                        segmentNumber, byteArrayToHexString(segment.getChecksum()), byteArrayToHexString(segmentChecksum.getSegmentChecksum())));
+            }
+            LOGGER.trace("Parsed encoding file segment {} with checksum {} and {} entries", segmentNumber, byteArrayToHexString(segment.getChecksum()),
+                    segment.getEntryCount());
         }
-        return segments;
+        return builder;
     }
 
-    private EncodingFileSegment parseSegment(DataReader reader) throws DataReadingException, DataParsingException, CascParsingException {
-        long segmentStart = reader.position();
-        byte[] segmentChecksum = MD5.hash(reader.readNext(DataTypeFactory.getByteArray(SEGMENT_SIZE)));
-        LOGGER.trace("Calculated checksum {} over {} byte segment from position {} to {}, reading entries from position {}",
-                byteArrayToHexString(segmentChecksum), SEGMENT_SIZE, segmentStart, reader.position(), segmentStart);
-        reader.position(segmentStart);
-        List<EncodingEntry> entries = new ArrayList<>();
+    /**
+     * Wait for the result of a segment parsing task.
+     *
+     * @param task The task.
+     *
+     * @return The parsed entries.
+     *
+     * @throws CascParsingException When parsing the segments failed.
+     */
+    private static EncodingFileBuilder getResult(CompletableFuture<EncodingFileBuilder> task) throws CascParsingException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CascParsingException) {
+                throw (CascParsingException) e.getCause();
+            }
+            throw new CascParsingException("Error parsing encoding file segments", e.getCause());
+        }
+    }
 
+    private EncodingFileSegment parseSegment(byte[] segmentData, int segmentOffset, MessageDigest digest, EncodingFileBuilder builder)
+            throws CascParsingException {
+        digest.update(segmentData, segmentOffset, SEGMENT_SIZE);
+        byte[] segmentChecksum = digest.digest();
+        ByteBuffer data = ByteBuffer.wrap(segmentData, segmentOffset, SEGMENT_SIZE);
+        byte[] firstContentChecksum = null;
+        int entryCount = 0;
         int keyCount;
-
-        while ((keyCount = reader.readNext(DataTypeFactory.getUnsignedShort(), ByteOrder.LITTLE_ENDIAN)) != 0) {
-            long fileSize = reader.readNext(DataTypeFactory.getUnsignedInteger(), ByteOrder.BIG_ENDIAN);
-            byte[] checksum = reader.readNext(DataTypeFactory.getByteArray(CHECKSUM_SIZE));
-
-            List<FileKey> keys = new ArrayList<>();
-            for (int keyIndex = 0; keyIndex < keyCount; keyIndex++) {
-                byte[] key = reader.readNext(DataTypeFactory.getByteArray(CHECKSUM_SIZE));
-                keys.add(new FileKey(key));
+        while (data.remaining() >= SEGMENT_ENTRY_HEADER_SIZE && (keyCount = data.order(ByteOrder.LITTLE_ENDIAN).getShort() & 0xFFFF) != 0) {
+            long fileSize = data.order(ByteOrder.BIG_ENDIAN).getInt() & 0xFFFFFFFFL;
+            int checksumOffset = data.position();
+            int keysOffset = checksumOffset + CHECKSUM_SIZE;
+            if (keysOffset + keyCount * CHECKSUM_SIZE > segmentOffset + SEGMENT_SIZE) {
+                throw new CascParsingException(format("Encoding file segment entry with %d keys exceeds the segment size.", keyCount));
             }
-            EncodingEntry entry = new CascEncodingEntry(fileSize, new ContentChecksum(checksum), keys);
-            entries.add(entry);
-        }
-        while (reader.hasRemaining() && reader.peek(DataTypeFactory.getByte()) == 0) {
-            reader.skip(1);
+            builder.add(segmentData, checksumOffset, fileSize, segmentData, keysOffset, keyCount);
+            if (firstContentChecksum == null) {
+                firstContentChecksum = Arrays.copyOfRange(segmentData, checksumOffset, keysOffset);
+            }
+            data.position(keysOffset + keyCount * CHECKSUM_SIZE);
+            entryCount++;
         }
-        return new EncodingFileSegment(entries, segmentChecksum);
+        return new EncodingFileSegment(segmentChecksum, firstContentChecksum, entryCount);
     }
 
     private boolean validateSegment(EncodingFileSegment segment, EncodingFileSegmentChecksum segmentChecksum) {
         return ((segment != null) && (segmentChecksum != null))
                 && (Arrays.equals(segment.getChecksum(), segmentChecksum.getSegmentChecksum())
-                && ((segment.getEntries().size() == 0) || Arrays.equals(segment.getEntries().get(0).getContentChecksum().getChecksum(), segmentChecksum.getFirstFileChecksum()))
+                && ((segment.getEntryCount() == 0) || Arrays.equals(segment.getFirstContentChecksum(), segmentChecksum.getFirstFileChecksum()))
         );
     }
 
@@ -303,19 +533,25 @@ public class EncodingFileParser {
      */
     private static class EncodingFileSegment {
         private final byte[] checksum;
-        private final List<EncodingEntry> entries;
+        private final byte[] firstContentChecksum;
+        private final int entryCount;
 
-        public EncodingFileSegment(List<EncodingEntry> entries, byte[] checksum) {
-            this.entries = entries;
+        public EncodingFileSegment(byte[] checksum, byte[] firstContentChecksum, int entryCount) {
             this.checksum = checksum;
+            this.firstContentChecksum = firstContentChecksum;
+            this.entryCount = entryCount;
         }
 
         public byte[] getChecksum() {
             return checksum;
         }
 
-        public List<EncodingEntry> getEntries() {
-            return entries;
+        public byte[] getFirstContentChecksum() {
+            return firstContentChecksum;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
         }
 
         @Override
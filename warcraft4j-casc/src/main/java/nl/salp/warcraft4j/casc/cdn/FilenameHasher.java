@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.hash.JenkinsHash;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.lang.String.format;
+
+/**
+ * Hasher for CASC filenames, producing the same hashes as {@link CdnCascContext#hashFilename(String)}.
+ * <p>
+ * Filenames are normalised (upper-cased, with '/' replaced by '\') into a reusable buffer before they are hashed, avoiding the creation of
+ * intermediate strings and arrays for every filename. ASCII characters are upper-cased independent of the default locale, other characters are
+ * converted the same way as {@link CdnCascContext#hashFilename(String)} does. Instances are not thread-safe; the static bulk methods split the
+ * filenames into batches that are each hashed with their own hasher on an executor.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.FilenameHashes
+ */
+public class FilenameHasher {
+    /** The number of filenames that are hashed per task when hashing in parallel. */
+    private static final int FILENAMES_PER_TASK = 4096;
+    /** The initial size of the normalisation buffer. */
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+    /** The buffer for the normalised filenames. */
+    private byte[] buffer;
+
+    /**
+     * Create a new hasher.
+     */
+    public FilenameHasher() {
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Hash a filename.
+     *
+     * @param filename The filename.
+     *
+     * @return The hash or {@code 0} when the filename is empty.
+     */
+    public long hash(CharSequence filename) {
+        if (filename == null || filename.length() == 0) {
+            return 0;
+        }
+        int length = filename.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = filename.charAt(i);
+            if (c >= 0x80) {
+                return hashNonAscii(filename.toString());
+            }
+            buffer[i] = normalise((byte) c);
+        }
+        return JenkinsHash.hashLittle2(buffer, 0, length);
+    }
+
+    /**
+     * Hash a filename that is stored as single-byte characters in an array, with bytes outside the ASCII range being treated as unmappable
+     * characters.
+     *
+     * @param data   The array containing the filename.
+     * @param offset The offset of the filename in the array.
+     * @param length The length of the filename.
+     *
+     * @return The hash or {@code 0} when the filename is empty.
+     *
+     * @throws IllegalArgumentException When the offset and length are outside the array.
+     */
+    public long hash(byte[] data, int offset, int length) throws IllegalArgumentException {
+        if (data == null || offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IllegalArgumentException(format("Unable to hash a filename of %d bytes at offset %d.", length, offset));
+        }
+        if (length == 0) {
+            return 0;
+        }
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            byte b = data[offset + i];
+            buffer[i] = b < 0 ? (byte) '?' : normalise(b);
+        }
+        return JenkinsHash.hashLittle2(buffer, 0, length);
+    }
+
+    /**
+     * Hash a list of filenames.
+     *
+     * @param filenames The filenames.
+     *
+     * @return The hashes in the order of the filenames, with {@code 0} for empty filenames.
+     *
+     * @throws IllegalArgumentException When the filenames are {@code null}.
+     */
+    public long[] hash(List<? extends CharSequence> filenames) throws IllegalArgumentException {
+        if (filenames == null) {
+            throw new IllegalArgumentException("Unable to hash a null list of filenames.");
+        }
+        long[] hashes = new long[filenames.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(filenames.get(i));
+        }
+        return hashes;
+    }
+
+    /**
+     * Hash a list of filenames in parallel on the common fork/join pool.
+     *
+     * @param filenames The filenames, which should not be modified while they are being hashed.
+     *
+     * @return The hashes in the order of the filenames, with {@code 0} for empty filenames.
+     *
+     * @throws IllegalArgumentException When the filenames are {@code null}.
+     */
+    public static long[] hashAll(List<? extends CharSequence> filenames) throws IllegalArgumentException {
+        return hashAll(filenames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Hash a list of filenames in parallel.
+     *
+     * @param filenames The filenames, which should not be modified while they are being hashed.
+     * @param executor  The executor to hash the filenames on.
+     *
+     * @return The hashes in the order of the filenames, with {@code 0} for empty filenames.
+     *
+     * @throws IllegalArgumentException When the filenames or executor are {@code null}.
+     */
+    public static long[] hashAll(List<? extends CharSequence> filenames, Executor executor) throws IllegalArgumentException {
+        if (filenames == null) {
+            throw new IllegalArgumentException("Unable to hash a null list of filenames.");
+        }
+        long[] hashes = new long[filenames.size()];
+        forEachBatch(hashes.length, executor, (hasher, i) -> hashes[i] = hasher.hash(filenames.get(i)));
+        return hashes;
+    }
+
+    /**
+     * Read and hash all filenames from a listfile in parallel on the common fork/join pool.
+     *
+     * @param listFile The listfile, containing a filename per line.
+     *
+     * @return The non-empty filenames of the listfile with their hashes.
+     *
+     * @throws IOException              When reading the listfile failed.
+     * @throws IllegalArgumentException When the listfile is {@code null}.
+     * @see #hashListFile(Path, Executor)
+     */
+    public static FilenameHashes hashListFile(Path listFile) throws IOException, IllegalArgumentException {
+        return hashListFile(listFile, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Read and hash all filenames from a listfile in parallel.
+     * <p>
+     * The filenames are read as ASCII lines with the surrounding whitespace removed, skipping empty lines. The lines are hashed directly from the
+     * data of the listfile without creating intermediate strings.
+     *
+     * @param listFile The listfile, containing a filename per line.
+     * @param executor The executor to hash the filenames on.
+     *
+     * @return The non-empty filenames of the listfile with their hashes, in the order of the listfile.
+     *
+     * @throws IOException              When reading the listfile failed.
+     * @throws IllegalArgumentException When the listfile or executor are {@code null}.
+     */
+    public static FilenameHashes hashListFile(Path listFile, Executor executor) throws IOException, IllegalArgumentException {
+        if (listFile == null) {
+            throw new IllegalArgumentException("Unable to hash the filenames of a null listfile.");
+        }
+        byte[] data = Files.readAllBytes(listFile);
+        int[] lines = new int[64];
+        int lineCount = 0;
+        int position = 0;
+        while (position < data.length) {
+            int end = position;
+            while (end < data.length && data[end] != '\n' && data[end] != '\r') {
+                end++;
+            }
+            int start = position;
+            int last = end;
+            while (start < last && isWhitespace(data[start])) {
+                start++;
+            }
+            while (last > start && isWhitespace(data[last - 1])) {
+                last--;
+            }
+            if (last > start) {
+                if ((lineCount << 1) + 2 > lines.length) {
+                    lines = Arrays.copyOf(lines, lines.length << 1);
+                }
+                lines[lineCount << 1] = start;
+                lines[(lineCount << 1) + 1] = last - start;
+                lineCount++;
+            }
+            position = end + 1;
+        }
+        int[] lineData = lines;
+        String[] filenames = new String[lineCount];
+        long[] hashes = new long[lineCount];
+        forEachBatch(lineCount, executor, (hasher, i) -> {
+            int offset = lineData[i << 1];
+            int length = lineData[(i << 1) + 1];
+            filenames[i] = new String(data, offset, length, StandardCharsets.US_ASCII);
+            hashes[i] = hasher.hash(data, offset, length);
+        });
+        return new FilenameHashes(filenames, hashes);
+    }
+
+    /**
+     * Hash a filename containing non-ASCII characters in the same way as {@link CdnCascContext#hashFilename(String)}.
+     *
+     * @param filename The filename.
+     *
+     * @return The hash.
+     */
+    private static long hashNonAscii(String filename) {
+        byte[] data = filename.replace('/', '\\').toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        return JenkinsHash.hashLittle2(data, 0, data.length);
+    }
+
+    /**
+     * Normalise an ASCII character for hashing.
+     *
+     * @param c The character.
+     *
+     * @return The normalised character.
+     */
+    private static byte normalise(byte c) {
+        byte normalised;
+        if (c >= 'a' && c <= 'z') {
+            normalised = (byte) (c - ('a' - 'A'));
+        } else if (c == '/') {
+            normalised = '\\';
+        } else {
+            normalised = c;
+        }
+        return normalised;
+    }
+
+    /**
+     * Check if a byte is whitespace that is removed from the lines of a listfile, matching {@link String#trim()}.
+     *
+     * @param b The byte.
+     *
+     * @return {@code true} if the byte is whitespace.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Make sure that the normalisation buffer can hold a filename.
+     *
+     * @param length The length of the filename.
+     */
+    private void ensureCapacity(int length) {
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length << 1)];
+        }
+    }
+
+    /**
+     * Process a number of filenames in batches on an executor, using a hasher per batch.
+     *
+     * @param size     The number of filenames.
+     * @param executor The executor.
+     * @param task     The task to execute for every filename.
+     *
+     * @throws IllegalArgumentException When the executor is {@code null}.
+     */
+    private static void forEachBatch(int size, Executor executor, BatchTask task) throws IllegalArgumentException {
+        Executor exec = Optional.ofNullable(executor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to hash filenames without an executor."));
+        if (size <= FILENAMES_PER_TASK) {
+            runBatch(0, size, task);
+        } else {
+            int batches = (size + FILENAMES_PER_TASK - 1) / FILENAMES_PER_TASK;
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[batches];
+            for (int batch = 0; batch < batches; batch++) {
+                int first = batch * FILENAMES_PER_TASK;
+                int last = Math.min(size, first + FILENAMES_PER_TASK);
+                futures[batch] = CompletableFuture.runAsync(() -> runBatch(first, last, task), exec);
+            }
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Process a batch of filenames with a new hasher.
+     *
+     * @param first The position of the first filename (inclusive).
+     * @param last  The position of the last filename (exclusive).
+     * @param task  The task to execute for every filename.
+     */
+    private static void runBatch(int first, int last, BatchTask task) {
+        FilenameHasher hasher = new FilenameHasher();
+        for (int i = first; i < last; i++) {
+            task.process(hasher, i);
+        }
+    }
+
+    /**
+     * Task for processing a single filename of a batch.
+     */
+    @FunctionalInterface
+    private interface BatchTask {
+        /**
+         * Process a filename.
+         *
+         * @param hasher The hasher of the batch.
+         * @param index  The position of the filename.
+         */
+        void process(FilenameHasher hasher, int index);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filenames with their hashes, as created by a {@link FilenameHasher}.
+ * <p>
+ * The hashes are stored in a primitive array in the same order as the filenames.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.FilenameHasher
+ */
+public class FilenameHashes {
+    /** The filenames. */
+    private final List<String> filenames;
+    /** The hashes of the filenames, in the order of the filenames. */
+    private final long[] hashes;
+
+    /**
+     * Create a new instance.
+     *
+     * @param filenames The filenames.
+     * @param hashes    The hashes of the filenames, in the order of the filenames.
+     *
+     * @throws IllegalArgumentException When the number of filenames and hashes differ.
+     */
+    FilenameHashes(String[] filenames, long[] hashes) throws IllegalArgumentException {
+        if (filenames.length != hashes.length) {
+            throw new IllegalArgumentException("Unable to create filename hashes with a different number of filenames and hashes.");
+        }
+        this.filenames = Collections.unmodifiableList(Arrays.asList(filenames));
+        this.hashes = hashes;
+    }
+
+    /**
+     * Get the number of filenames.
+     *
+     * @return The number of filenames.
+     */
+    public int size() {
+        return hashes.length;
+    }
+
+    /**
+     * Get the filenames.
+     *
+     * @return Unmodifiable list with the filenames.
+     */
+    public List<String> getFilenames() {
+        return filenames;
+    }
+
+    /**
+     * Get the filename at a position.
+     *
+     * @param index The position.
+     *
+     * @return The filename.
+     *
+     * @throws IndexOutOfBoundsException When the position is invalid.
+     */
+    public String getFilename(int index) throws IndexOutOfBoundsException {
+        return filenames.get(index);
+    }
+
+    /**
+     * Get the hash of the filename at a position.
+     *
+     * @param index The position.
+     *
+     * @return The hash.
+     *
+     * @throws IndexOutOfBoundsException When the position is invalid.
+     */
+    public long getHash(int index) throws IndexOutOfBoundsException {
+        return hashes[index];
+    }
+
+    /**
+     * Get a copy of the hashes, in the order of the filenames.
+     *
+     * @return The hashes.
+     */
+    public long[] getHashes() {
+        return hashes.clone();
+    }
+}
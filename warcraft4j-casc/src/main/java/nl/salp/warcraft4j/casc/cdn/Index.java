@@ -21,68 +21,307 @@ package nl.salp.warcraft4j.casc.cdn;
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.FileKey;
 import nl.salp.warcraft4j.casc.IndexEntry;
-import nl.salp.warcraft4j.util.Checksum;
+import nl.salp.warcraft4j.util.DataTypeUtil;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
+import static java.lang.String.format;
+
 /**
- * TODO Document class.
+ * Compact index of all {@link IndexEntry} data, referencing the data file segment for a file key.
+ * <p>
+ * The (9-byte) file keys are stored sorted in primitive arrays together with the packed data file number, offset and size of each entry, and are
+ * looked up with a binary search. Looking up the location of a file key via {@link #indexOf(byte[])} and the primitive getters does not allocate
+ * any objects, {@link IndexEntry} instances are only created when requested.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.IndexBuilder
  */
 public class Index {
-    /** The logger. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(Index.class);
-    private final Map<FileKey, IndexEntry> entries;
+    /** The first 8 bytes of the sorted file keys. */
+    private final long[] keys;
+    /** The 9th byte of the sorted file keys. */
+    private final byte[] keySuffixes;
+    /** The (unsigned) data file numbers. */
+    private final short[] fileNumbers;
+    /** The data file offsets (high 32 bits) and file sizes (low 32 bits). */
+    private final long[] locations;
+
+    /**
+     * Create a new index from index entries.
+     * <p>
+     * When multiple entries are provided for the same file key, the first entry is used.
+     *
+     * @param indexEntries The index entries.
+     *
+     * @throws CascParsingException When the index entries are {@code null} or contain entries without a CDN data file reference.
+     */
+    public Index(Collection<IndexEntry> indexEntries) throws CascParsingException {
+        this(toBuilder(indexEntries));
+    }
+
+    /**
+     * Create a new index from the entries of a builder.
+     *
+     * @param builder The builder.
+     */
+    private Index(IndexBuilder builder) {
+        Index index = builder.build();
+        this.keys = index.keys;
+        this.keySuffixes = index.keySuffixes;
+        this.fileNumbers = index.fileNumbers;
+        this.locations = index.locations;
+    }
+
+    /**
+     * Create a new index from sorted entry data without duplicate keys.
+     *
+     * @param keys        The first 8 bytes of the sorted file keys.
+     * @param keySuffixes The 9th byte of the sorted file keys.
+     * @param fileNumbers The (unsigned) data file numbers.
+     * @param locations   The data file offsets (high 32 bits) and file sizes (low 32 bits).
+     */
+    Index(long[] keys, byte[] keySuffixes, short[] fileNumbers, long[] locations) {
+        this.keys = keys;
+        this.keySuffixes = keySuffixes;
+        this.fileNumbers = fileNumbers;
+        this.locations = locations;
+    }
 
-    public Index(Collection<IndexEntry> indexEntries) {
-        this.entries = new HashMap<>();
-        Optional.ofNullable(indexEntries)
-                .orElseThrow(() -> new CascParsingException("Can't create a file index from null index entries."))
-                .forEach(this::addEntry);
+    /**
+     * Create a builder containing index entries.
+     *
+     * @param indexEntries The index entries.
+     *
+     * @return The builder.
+     *
+     * @throws CascParsingException When the index entries are {@code null} or contain entries without a CDN data file reference.
+     */
+    private static IndexBuilder toBuilder(Collection<IndexEntry> indexEntries) throws CascParsingException {
+        Collection<IndexEntry> entries = Optional.ofNullable(indexEntries)
+                .orElseThrow(() -> new CascParsingException("Can't create a file index from null index entries."));
+        IndexBuilder builder = new IndexBuilder(entries.size());
+        entries.stream()
+                .filter(e -> e != null && e.getFileKey() != null)
+                .map(e -> {
+                    if (!(e instanceof CascIndexEntry)) {
+                        throw new CascParsingException(format("Can't create a file index from a %s entry without a CDN data file reference.", e.getClass().getName()));
+                    }
+                    return (CascIndexEntry) e;
+                })
+                .forEach(builder::add);
+        return builder;
     }
 
-    private void addEntry(IndexEntry entry) {
-        if (!entries.containsKey(entry.getFileKey())) {
-            entries.put(entry.getFileKey(), entry);
+    /**
+     * Compare two file keys, split in the first 8 bytes and the 9th byte, as unsigned values.
+     *
+     * @param key1       The first 8 bytes of the first key.
+     * @param keySuffix1 The 9th byte of the first key.
+     * @param key2       The first 8 bytes of the second key.
+     * @param keySuffix2 The 9th byte of the second key.
+     *
+     * @return A negative value, zero or a positive value when the first key is smaller than, equal to or bigger than the second key.
+     */
+    static int compareKeys(long key1, byte keySuffix1, long key2, byte keySuffix2) {
+        int cmp = Long.compareUnsigned(key1, key2);
+        if (cmp == 0) {
+            cmp = Integer.compare(keySuffix1 & 0xFF, keySuffix2 & 0xFF);
         }
+        return cmp;
     }
 
-    public Optional<IndexEntry> getEntry(FileKey fileKey) {
-        Checksum cs = fileKey;
-        if (cs.length() > 9) {
-            cs = fileKey.trim(9);
+    /**
+     * Get the position of the entry for a file key.
+     *
+     * @param fileKey The file key.
+     *
+     * @return The position of the entry or {@code -1} if there is no entry for the file key.
+     */
+    public int indexOf(FileKey fileKey) {
+        return fileKey == null ? -1 : indexOf(fileKey.getFileKey());
+    }
+
+    /**
+     * Get the position of the entry for a file key, only using the first 9 bytes of the key.
+     *
+     * @param key The file key.
+     *
+     * @return The position of the entry or {@code -1} if there is no entry for the file key.
+     */
+    public int indexOf(byte[] key) {
+        int position = -1;
+        if (key != null && key.length >= FileKey.FILEKEY_LENGTH) {
+            long keyValue = DataTypeUtil.toLong(key, 0);
+            byte keySuffix = key[8];
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high && position < 0) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareKeys(keys[mid], keySuffixes[mid], keyValue, keySuffix);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    position = mid;
+                }
+            }
         }
-        return Optional.ofNullable(entries.get(cs));
+        return position;
+    }
+
+    /**
+     * Get the file key of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The 9-byte file key.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public FileKey getFileKey(int position) throws IndexOutOfBoundsException {
+        byte[] key = new byte[FileKey.FILEKEY_LENGTH];
+        long value = keys[position];
+        for (int i = 7; i >= 0; i--) {
+            key[i] = (byte) value;
+            value >>>= 8;
+        }
+        key[8] = keySuffixes[position];
+        return new FileKey(key);
+    }
+
+    /**
+     * Get the first 8 bytes of the file key of the entry at a position as a big endian long.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The first 8 bytes of the file key.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    long getKeyPrefix(int position) throws IndexOutOfBoundsException {
+        return keys[position];
+    }
+
+    /**
+     * Get the 9th byte of the file key of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The 9th byte of the file key.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    byte getKeySuffix(int position) throws IndexOutOfBoundsException {
+        return keySuffixes[position];
+    }
+
+    /**
+     * Get the data file number of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The data file number.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public int getFileNumber(int position) throws IndexOutOfBoundsException {
+        return fileNumbers[position] & 0xFFFF;
+    }
+
+    /**
+     * Get the data file offset of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The data file offset.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public int getDataFileOffset(int position) throws IndexOutOfBoundsException {
+        return (int) (locations[position] >>> 32);
+    }
+
+    /**
+     * Get the file size of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The file size.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public long getFileSize(int position) throws IndexOutOfBoundsException {
+        return locations[position] & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Get the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The entry.
+     *
+     * @throws IndexOutOfBoundsException When there is no entry at the position.
+     */
+    public IndexEntry getEntry(int position) throws IndexOutOfBoundsException {
+        return new CascIndexEntry(getFileKey(position), getFileNumber(position), getDataFileOffset(position), getFileSize(position));
+    }
+
+    public Optional<IndexEntry> getEntry(FileKey fileKey) {
+        int position = indexOf(fileKey);
+        return position < 0 ? Optional.empty() : Optional.of(getEntry(position));
     }
 
     public Collection<IndexEntry> getEntries() {
-        return Collections.unmodifiableCollection(entries.values());
+        return new AbstractList<IndexEntry>() {
+            @Override
+            public IndexEntry get(int index) {
+                return getEntry(index);
+            }
+
+            @Override
+            public int size() {
+                return getEntryCount();
+            }
+        };
     }
 
     public Optional<Integer> getDataFileNumber(FileKey fileKey) {
-        return getEntry(fileKey).map(IndexEntry::getFileNumber);
+        int position = indexOf(fileKey);
+        return position < 0 ? Optional.empty() : Optional.of(getFileNumber(position));
     }
 
     public Optional<Integer> getDataOffset(FileKey fileKey) {
-        return getEntry(fileKey).map(IndexEntry::getDataFileOffset);
+        int position = indexOf(fileKey);
+        return position < 0 ? Optional.empty() : Optional.of(getDataFileOffset(position));
     }
 
     public Optional<Long> getDataSize(FileKey fileKey) {
-        return getEntry(fileKey).map(IndexEntry::getFileSize);
+        int position = indexOf(fileKey);
+        return position < 0 ? Optional.empty() : Optional.of(getFileSize(position));
     }
 
     public Collection<FileKey> getFileKeys() {
-        return Collections.unmodifiableSet(entries.keySet());
+        return new AbstractList<FileKey>() {
+            @Override
+            public FileKey get(int index) {
+                return getFileKey(index);
+            }
+
+            @Override
+            public int size() {
+                return getEntryCount();
+            }
+        };
     }
 
     public int getEntryCount() {
-        return entries.size();
+        return keys.length;
     }
 
     @Override
@@ -98,7 +337,7 @@ public class Index {
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("entries", entries.size())
+                .append("entries", keys.length)
                 .build();
     }
 }
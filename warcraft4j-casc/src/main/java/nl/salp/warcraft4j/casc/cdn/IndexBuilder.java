@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.util.DataTypeUtil;
+import nl.salp.warcraft4j.util.SortUtil;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Builder for creating a compact {@link Index} from (raw) index entry data.
+ * <p>
+ * Entries are collected in primitive arrays and only sorted once when the index is built. When multiple entries are added for the same file key,
+ * the first added entry is kept. The builder is not thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.Index
+ */
+public class IndexBuilder {
+    /** The default initial capacity. */
+    private static final int DEFAULT_CAPACITY = 1024;
+    /** The maximum file number that can be stored. */
+    private static final int MAX_FILE_NUMBER = 0xFFFF;
+    /** The maximum file size that can be stored. */
+    private static final long MAX_FILE_SIZE = 0xFFFFFFFFL;
+    /** The first 8 bytes of the file keys. */
+    private long[] keys;
+    /** The 9th byte of the file keys. */
+    private byte[] keySuffixes;
+    /** The data file numbers. */
+    private short[] fileNumbers;
+    /** The packed data file offsets and file sizes. */
+    private long[] locations;
+    /** The number of added entries. */
+    private int size;
+
+    /**
+     * Create a new builder.
+     */
+    public IndexBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new builder.
+     *
+     * @param expectedEntries The expected number of entries.
+     *
+     * @throws IllegalArgumentException When the expected number of entries is negative.
+     */
+    public IndexBuilder(int expectedEntries) throws IllegalArgumentException {
+        if (expectedEntries < 0) {
+            throw new IllegalArgumentException(format("Unable to create an index builder for %d entries.", expectedEntries));
+        }
+        this.keys = new long[expectedEntries];
+        this.keySuffixes = new byte[expectedEntries];
+        this.fileNumbers = new short[expectedEntries];
+        this.locations = new long[expectedEntries];
+    }
+
+    /**
+     * Add an index entry.
+     *
+     * @param entry The entry.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the entry is {@code null} or contains values that can't be stored.
+     */
+    public IndexBuilder add(CascIndexEntry entry) throws IllegalArgumentException {
+        if (entry == null || entry.getFileKey() == null) {
+            throw new IllegalArgumentException("Unable to add a null index entry.");
+        }
+        return add(entry.getFileKey().getFileKey(), 0, entry.getFileNumber(), entry.getDataFileOffset(), entry.getFileSize());
+    }
+
+    /**
+     * Add the data for an index entry.
+     *
+     * @param key            The array containing the file key (of at least 9 bytes from the offset).
+     * @param keyOffset      The offset of the file key in the array.
+     * @param fileNumber     The number of the data file containing the file.
+     * @param dataFileOffset The offset in the data file where the file data starts.
+     * @param fileSize       The size of the file data in the data file.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the provided values can't be stored.
+     */
+    public IndexBuilder add(byte[] key, int keyOffset, int fileNumber, int dataFileOffset, long fileSize) throws IllegalArgumentException {
+        if (key == null || keyOffset < 0 || key.length - keyOffset < FileKey.FILEKEY_LENGTH) {
+            throw new IllegalArgumentException("Unable to add an index entry without a 9-byte file key.");
+        }
+        return add(DataTypeUtil.toLong(key, keyOffset), key[keyOffset + 8], fileNumber, dataFileOffset, fileSize);
+    }
+
+    /**
+     * Add the data for an index entry with a file key that is split in its first 8 bytes and its 9th byte.
+     *
+     * @param keyPrefix      The first 8 bytes of the file key as a big endian long.
+     * @param keySuffix      The 9th byte of the file key.
+     * @param fileNumber     The number of the data file containing the file.
+     * @param dataFileOffset The offset in the data file where the file data starts.
+     * @param fileSize       The size of the file data in the data file.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the provided values can't be stored.
+     */
+    public IndexBuilder add(long keyPrefix, byte keySuffix, int fileNumber, int dataFileOffset, long fileSize) throws IllegalArgumentException {
+        if (fileNumber < 0 || fileNumber > MAX_FILE_NUMBER) {
+            throw new IllegalArgumentException(format("Unable to add an index entry for data file number %d.", fileNumber));
+        }
+        if (fileSize < 0 || fileSize > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException(format("Unable to add an index entry with file size %d.", fileSize));
+        }
+        ensureCapacity(size + 1);
+        keys[size] = keyPrefix;
+        keySuffixes[size] = keySuffix;
+        fileNumbers[size] = (short) fileNumber;
+        locations[size] = ((dataFileOffset & 0xFFFFFFFFL) << 32) | fileSize;
+        size++;
+        return this;
+    }
+
+    /**
+     * Add all entries from another builder, keeping the entries already added when both builders contain the same file key.
+     *
+     * @param builder The builder to add the entries from.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the builder is {@code null}.
+     */
+    public IndexBuilder addAll(IndexBuilder builder) throws IllegalArgumentException {
+        if (builder == null) {
+            throw new IllegalArgumentException("Unable to add the entries of a null index builder.");
+        }
+        ensureCapacity(size + builder.size);
+        System.arraycopy(builder.keys, 0, keys, size, builder.size);
+        System.arraycopy(builder.keySuffixes, 0, keySuffixes, size, builder.size);
+        System.arraycopy(builder.fileNumbers, 0, fileNumbers, size, builder.size);
+        System.arraycopy(builder.locations, 0, locations, size, builder.size);
+        size += builder.size;
+        return this;
+    }
+
+    /**
+     * Get the number of added entries, including entries with duplicate file keys.
+     *
+     * @return The number of added entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Build the index from the added entries.
+     *
+     * @return The index.
+     */
+    public Index build() {
+        int[] order = SortUtil.sortedPermutation(size, (a, b) -> Index.compareKeys(keys[a], keySuffixes[a], keys[b], keySuffixes[b]));
+        int unique = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || !isSameKey(order[i], order[i - 1])) {
+                order[unique++] = order[i];
+            }
+        }
+        long[] sortedKeys = new long[unique];
+        byte[] sortedKeySuffixes = new byte[unique];
+        short[] sortedFileNumbers = new short[unique];
+        long[] sortedLocations = new long[unique];
+        for (int i = 0; i < unique; i++) {
+            int entry = order[i];
+            sortedKeys[i] = keys[entry];
+            sortedKeySuffixes[i] = keySuffixes[entry];
+            sortedFileNumbers[i] = fileNumbers[entry];
+            sortedLocations[i] = locations[entry];
+        }
+        return new Index(sortedKeys, sortedKeySuffixes, sortedFileNumbers, sortedLocations);
+    }
+
+    /**
+     * Check if two added entries have the same file key.
+     *
+     * @param a The position of the first entry.
+     * @param b The position of the second entry.
+     *
+     * @return {@code true} if both entries have the same file key.
+     */
+    private boolean isSameKey(int a, int b) {
+        return keys[a] == keys[b] && keySuffixes[a] == keySuffixes[b];
+    }
+
+    /**
+     * Make sure that the builder can hold a minimum number of entries, growing the storage if needed.
+     *
+     * @param capacity The minimum number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, Math.max(DEFAULT_CAPACITY, keys.length + (keys.length >> 1)));
+            keys = Arrays.copyOf(keys, newCapacity);
+            keySuffixes = Arrays.copyOf(keySuffixes, newCapacity);
+            fileNumbers = Arrays.copyOf(fileNumbers, newCapacity);
+            locations = Arrays.copyOf(locations, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.EncodingEntry;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.util.DataTypeUtil;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Encoding file that only keeps the segment table in memory and parses the segments containing the requested content checksums on demand.
+ * <p>
+ * The encoding entries are stored in fixed size segments that are sorted by content checksum, with the first content checksum of every segment
+ * being available in the segment table. Looking up a content checksum only parses the single segment that can contain it, keeping a limited number
+ * of parsed segments in a least-recently-used cache. Operations that require all entries (like {@link #getEntries()} or the position based
+ * methods) parse the full encoding file once.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.EncodingFileParser#parseLazily(Supplier, long, int)
+ */
+public class LazyEncodingFile extends EncodingFile {
+    /** The default number of parsed segments that are cached. */
+    public static final int DEFAULT_CACHED_SEGMENTS = 256;
+    /** The first content checksum of every segment, as 2 longs per segment. */
+    private final long[] segmentKeys;
+    /** The function parsing a segment by its number. */
+    private final IntFunction<EncodingFile> segmentParser;
+    /** The supplier parsing the full encoding file. */
+    private final Supplier<EncodingFile> fileParser;
+    /** The cached parsed segments, in least-recently-used order. */
+    private final Map<Integer, EncodingFile> segments;
+    /** The fully parsed encoding file, {@code null} until all entries are requested. */
+    private volatile EncodingFile encodingFile;
+
+    /**
+     * Create a new instance.
+     *
+     * @param segmentKeys    The first content checksum of every segment, as 2 longs per segment.
+     * @param segmentParser  The function parsing a segment by its number.
+     * @param fileParser     The supplier parsing the full encoding file.
+     * @param cachedSegments The maximum number of parsed segments to cache.
+     *
+     * @throws IllegalArgumentException When one of the arguments is invalid.
+     */
+    LazyEncodingFile(long[] segmentKeys, IntFunction<EncodingFile> segmentParser, Supplier<EncodingFile> fileParser, int cachedSegments)
+            throws IllegalArgumentException {
+        super(LongBuffer.allocate(0), IntBuffer.allocate(0), new int[0], new int[1], new long[0]);
+        if (segmentKeys == null || segmentKeys.length % 2 != 0) {
+            throw new IllegalArgumentException("Unable to create a lazy encoding file without valid segment keys.");
+        }
+        if (cachedSegments < 1) {
+            throw new IllegalArgumentException(format("Unable to create a lazy encoding file caching %d segments.", cachedSegments));
+        }
+        this.segmentKeys = segmentKeys;
+        this.segmentParser = Optional.ofNullable(segmentParser)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a lazy encoding file without a segment parser."));
+        this.fileParser = Optional.ofNullable(fileParser)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a lazy encoding file without a file parser."));
+        this.segments = new LinkedHashMap<Integer, EncodingFile>(cachedSegments + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, EncodingFile> eldest) {
+                return size() > cachedSegments;
+            }
+        };
+    }
+
+    /**
+     * Get the number of segments.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return segmentKeys.length / 2;
+    }
+
+    /**
+     * Get the number of parsed segments that are currently cached.
+     *
+     * @return The number of cached segments.
+     */
+    public int getCachedSegmentCount() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * Get the number of the segment that can contain a content checksum, being the last segment starting with a smaller or equal content checksum.
+     *
+     * @param high The first 8 bytes of the content checksum.
+     * @param low  The last 8 bytes of the content checksum.
+     *
+     * @return The segment number or {@code -1} if the content checksum is smaller than the first content checksum of the first segment.
+     */
+    private int getSegmentNumber(long high, long low) {
+        int first = 0;
+        int last = getSegmentCount() - 1;
+        while (first <= last) {
+            int mid = (first + last) >>> 1;
+            if (compareKeys(segmentKeys[mid * 2], segmentKeys[mid * 2 + 1], high, low) <= 0) {
+                first = mid + 1;
+            } else {
+                last = mid - 1;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Get a parsed segment, parsing and caching it when it's not cached.
+     *
+     * @param segmentNumber The number of the segment.
+     *
+     * @return The parsed segment.
+     *
+     * @throws CascParsingException When the segment could not be parsed.
+     */
+    private EncodingFile getSegment(int segmentNumber) throws CascParsingException {
+        EncodingFile segment;
+        synchronized (segments) {
+            segment = segments.get(segmentNumber);
+        }
+        if (segment == null) {
+            segment = segmentParser.apply(segmentNumber);
+            synchronized (segments) {
+                segments.put(segmentNumber, segment);
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Get the parsed segment that can contain a content checksum.
+     *
+     * @param contentChecksum The content checksum.
+     *
+     * @return Optional with the parsed segment, empty if no segment can contain the content checksum.
+     *
+     * @throws CascParsingException When the segment could not be parsed.
+     */
+    private Optional<EncodingFile> getSegment(ContentChecksum contentChecksum) throws CascParsingException {
+        Optional<EncodingFile> segment = Optional.empty();
+        if (contentChecksum != null && contentChecksum.getChecksum().length == KEY_LENGTH) {
+            byte[] checksum = contentChecksum.getChecksum();
+            int segmentNumber = getSegmentNumber(DataTypeUtil.toLong(checksum, 0), DataTypeUtil.toLong(checksum, 8));
+            if (segmentNumber >= 0) {
+                segment = Optional.of(getSegment(segmentNumber));
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Get the fully parsed encoding file, parsing it on first use.
+     *
+     * @return The parsed encoding file.
+     *
+     * @throws CascParsingException When the encoding file could not be parsed.
+     */
+    private EncodingFile getEncodingFile() throws CascParsingException {
+        EncodingFile file = encodingFile;
+        if (file == null) {
+            synchronized (this) {
+                file = encodingFile;
+                if (file == null) {
+                    file = fileParser.get();
+                    encodingFile = file;
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Optional<EncodingEntry> getEncodingEntry(ContentChecksum contentChecksum) {
+        return getSegment(contentChecksum).flatMap(segment -> segment.getEncodingEntry(contentChecksum));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Long> getFileSize(ContentChecksum contentChecksum) {
+        return getSegment(contentChecksum).flatMap(segment -> segment.getFileSize(contentChecksum));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<FileKey> getFileKey(ContentChecksum contentChecksum) {
+        return getSegment(contentChecksum).flatMap(segment -> segment.getFileKey(contentChecksum));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public int indexOf(ContentChecksum contentChecksum) {
+        return getEncodingFile().indexOf(contentChecksum);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public int indexOf(byte[] contentChecksum) {
+        return getEncodingFile().indexOf(contentChecksum);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    int indexOf(long high, long low) {
+        return getEncodingFile().indexOf(high, low);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public ContentChecksum getContentChecksum(int position) throws IndexOutOfBoundsException {
+        return getEncodingFile().getContentChecksum(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public FileKey getFirstFileKey(int position) throws IndexOutOfBoundsException {
+        return getEncodingFile().getFirstFileKey(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public List<FileKey> getFileKeys(int position) throws IndexOutOfBoundsException {
+        return getEncodingFile().getFileKeys(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public long getFileSize(int position) throws IndexOutOfBoundsException {
+        return getEncodingFile().getFileSize(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public EncodingEntry getEntry(int position) throws IndexOutOfBoundsException {
+        return getEncodingFile().getEntry(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public Collection<EncodingEntry> getEntries() {
+        return getEncodingFile().getEntries();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    public int getEntryCount() {
+        return getEncodingFile().getEntryCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    LongBuffer getKeys() {
+        return getEncodingFile().getKeys();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    IntBuffer getFileSizes() {
+        return getEncodingFile().getFileSizes();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    int[] getMultiKeyPositions() {
+        return getEncodingFile().getMultiKeyPositions();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Lazily parsed encoding files only keep the cached segments in memory and are therefore not copied.
+     */
+    @Override
+    EncodingFile toOffHeap() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    int[] getAdditionalKeyOffsets() {
+        return getEncodingFile().getAdditionalKeyOffsets();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Requires the full encoding file to be parsed.
+     */
+    @Override
+    long[] getAdditionalFileKeys() {
+        return getEncodingFile().getAdditionalFileKeys();
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("segments", getSegmentCount())
+                .append("cachedSegments", getCachedSegmentCount())
+                .append("parsed", encodingFile != null)
+                .toString();
+    }
+}
@@ -19,10 +19,12 @@
 package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import static java.lang.String.format;
 
 /**
@@ -45,10 +47,41 @@ class RawDataDecompressor implements DataDecompressor {
 
     @Override
     public byte[] decompress(byte[] data, long dataOffset, long dataLength, long decompressedSize) throws CascParsingException {
-        if (decompressedSize != 0 && data.length != decompressedSize) {
-            throw new CascParsingException(format("Error parsing raw BLTE file chunk, got %d bytes of compressed data instead of %d", data.length, decompressedSize));
+        validate(data, dataOffset, dataLength, decompressedSize);
+        LOGGER.trace("Returning {} bytes raw BLTE file chunk as data.", dataLength);
+        if (dataOffset == 0 && dataLength == data.length) {
+            return data;
+        }
+        return Arrays.copyOfRange(data, (int) dataOffset, (int) (dataOffset + dataLength));
+    }
+
+    @Override
+    public int decompress(byte[] data, long dataOffset, long dataLength, ByteBuffer target) throws CascParsingException {
+        validate(data, dataOffset, dataLength, BlteChunk.VARIABLE_SIZE);
+        if (dataLength > target.remaining()) {
+            throw new CascParsingException(format("Unable to copy %d bytes of raw BLTE file chunk data to a buffer with %d bytes available.", dataLength, target.remaining()));
+        }
+        target.put(data, (int) dataOffset, (int) dataLength);
+        LOGGER.trace("Copied {} bytes raw BLTE file chunk to the buffer.", dataLength);
+        return (int) dataLength;
+    }
+
+    /**
+     * Validate that the raw data is within the array and, if known, matches the decompressed size.
+     *
+     * @param data             The array containing the data.
+     * @param dataOffset       The offset of the data in the array.
+     * @param dataLength       The length of the data.
+     * @param decompressedSize The expected size of the data, {@code 0} if unknown.
+     *
+     * @throws CascParsingException When the data is not within the array or doesn't match the decompressed size.
+     */
+    private static void validate(byte[] data, long dataOffset, long dataLength, long decompressedSize) throws CascParsingException {
+        if (data == null || dataOffset < 0 || dataLength < 0 || dataOffset + dataLength > data.length) {
+            throw new CascParsingException(format("Unable to read %d bytes of raw BLTE file chunk data from offset %d.", dataLength, dataOffset));
+        }
+        if (decompressedSize != 0 && dataLength != decompressedSize) {
+            throw new CascParsingException(format("Error parsing raw BLTE file chunk, got %d bytes of compressed data instead of %d", dataLength, decompressedSize));
         }
-        LOGGER.trace("Returning {} bytes raw BLTE file chunk as data.", data.length);
-        return ArrayUtils.subarray(data, (int) dataOffset, (int) dataLength);
     }
-}
\ No newline at end of file
+}
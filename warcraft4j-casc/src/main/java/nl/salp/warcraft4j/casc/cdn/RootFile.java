@@ -18,71 +18,464 @@
  */
 package nl.salp.warcraft4j.casc.cdn;
 
+import nl.salp.warcraft4j.casc.CascLocale;
 import nl.salp.warcraft4j.casc.ContentChecksum;
 import nl.salp.warcraft4j.casc.RootEntry;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * TODO Document class.
+ * Compact root table, referencing the content checksums of the files for the hash of a filename.
+ * <p>
+ * The entries are stored in parallel primitive arrays, sorted by filename hash, with the entries of a filename hash forming a consecutive range.
+ * The range of a filename hash is found through an open addressing hash table, so looking up the entries of a filename hash does not box the hash.
+ * {@link RootEntry} instances are only created when requested. Views containing only the entries for a single {@link CascLocale} are created once
+ * and reused (see {@link #getLocaleView(CascLocale)}).
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFileBuilder
  */
 public class RootFile {
-    private final Map<Long, List<RootEntry>> entries;
+    /** The multiplier for spreading the filename hashes over the hash table. */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    /** The unique filename hashes, sorted. */
+    private final long[] hashes;
+    /** The position of the first entry for every filename hash, followed by the number of entries. */
+    private final int[] offsets;
+    /** The content checksums, as 2 longs per entry. */
+    private final long[] contentChecksums;
+    /** The (unsigned 32-bit locale) flags of the entries. */
+    private final int[] flags;
+    /** The (unsigned 32-bit) unknown block data of the entries. */
+    private final int[] blockUnknowns;
+    /** The (unsigned 32-bit) unknown entry data of the entries. */
+    private final int[] entryUnknowns;
+    /** The open addressing hash table, holding the position of a filename hash plus one for every used slot. */
+    private final int[] slots;
+    /** The created locale views. */
+    private final ConcurrentMap<CascLocale, RootFile> localeViews;
 
+    /**
+     * Create a new root file from root entries, grouped by filename hash.
+     *
+     * @param entries The root entries.
+     *
+     * @throws IllegalArgumentException When no entries were provided or an entry contains data that can't be stored.
+     */
     public RootFile(Map<Long, List<RootEntry>> entries) throws IllegalArgumentException {
-        this.entries = Optional.ofNullable(entries)
+        this(toBuilder(entries).build());
+    }
+
+    /**
+     * Create a new root file, sharing the data of another root file.
+     *
+     * @param rootFile The root file.
+     */
+    private RootFile(RootFile rootFile) {
+        this.hashes = rootFile.hashes;
+        this.offsets = rootFile.offsets;
+        this.contentChecksums = rootFile.contentChecksums;
+        this.flags = rootFile.flags;
+        this.blockUnknowns = rootFile.blockUnknowns;
+        this.entryUnknowns = rootFile.entryUnknowns;
+        this.slots = rootFile.slots;
+        this.localeViews = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a new root file from entry data that is sorted by filename hash.
+     *
+     * @param hashes           The unique filename hashes, sorted.
+     * @param offsets          The position of the first entry for every filename hash, followed by the number of entries.
+     * @param contentChecksums The content checksums, as 2 longs per entry.
+     * @param flags            The (unsigned 32-bit locale) flags of the entries.
+     * @param blockUnknowns    The (unsigned 32-bit) unknown block data of the entries.
+     * @param entryUnknowns    The (unsigned 32-bit) unknown entry data of the entries.
+     */
+    RootFile(long[] hashes, int[] offsets, long[] contentChecksums, int[] flags, int[] blockUnknowns, int[] entryUnknowns) {
+        this.hashes = hashes;
+        this.offsets = offsets;
+        this.contentChecksums = contentChecksums;
+        this.flags = flags;
+        this.blockUnknowns = blockUnknowns;
+        this.entryUnknowns = entryUnknowns;
+        this.slots = createSlots(hashes);
+        this.localeViews = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a builder containing root entries.
+     *
+     * @param entries The root entries, grouped by filename hash.
+     *
+     * @return The builder.
+     *
+     * @throws IllegalArgumentException When no entries were provided or an entry contains data that can't be stored.
+     */
+    private static RootFileBuilder toBuilder(Map<Long, List<RootEntry>> entries) throws IllegalArgumentException {
+        Map<Long, List<RootEntry>> rootEntries = Optional.ofNullable(entries)
                 .filter(m -> !m.isEmpty())
                 .orElseThrow(() -> new IllegalArgumentException("Can't initialise the root with no entries."));
+        RootFileBuilder builder = new RootFileBuilder(rootEntries.size());
+        rootEntries.values().stream()
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .forEach(builder::add);
+        return builder;
+    }
+
+    /**
+     * Create the open addressing hash table for filename hashes, with a load factor of at most 0.5.
+     *
+     * @param hashes The unique filename hashes.
+     *
+     * @return The hash table.
+     */
+    private static int[] createSlots(long[] hashes) {
+        int capacity = Integer.highestOneBit(Math.max(1, hashes.length) * 2 - 1) << 1;
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < hashes.length; i++) {
+            int slot = getSlot(hashes[i], mask);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Get the initial hash table slot for a filename hash.
+     *
+     * @param hash The filename hash.
+     * @param mask The mask for the size of the hash table.
+     *
+     * @return The slot.
+     */
+    private static int getSlot(long hash, int mask) {
+        long spread = hash * HASH_MULTIPLIER;
+        return (int) (spread ^ (spread >>> 32)) & mask;
+    }
+
+    /**
+     * Get the position of a filename hash.
+     *
+     * @param hash The filename hash.
+     *
+     * @return The position of the filename hash or {@code -1} if the filename hash is not available.
+     */
+    private int indexOf(long hash) {
+        int mask = slots.length - 1;
+        int slot = getSlot(hash, mask);
+        int position = -1;
+        while (slots[slot] != 0 && position < 0) {
+            if (hashes[slots[slot] - 1] == hash) {
+                position = slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return position;
     }
 
     public long getHashCount() {
-        return entries.size();
+        return hashes.length;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return flags.length;
     }
 
     public Set<Long> getHashes() {
-        return Collections.unmodifiableSet(entries.keySet());
+        return new AbstractSet<Long>() {
+            @Override
+            public Iterator<Long> iterator() {
+                return new Iterator<Long>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < hashes.length;
+                    }
+
+                    @Override
+                    public Long next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return hashes[position++];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Long && indexOf((Long) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return hashes.length;
+            }
+        };
     }
 
     public boolean isEntryAvailable(long hash) {
-        return entries.containsKey(hash) && !getEntries(hash).isEmpty();
+        return indexOf(hash) >= 0;
+    }
+
+    /**
+     * Get the entry at a position.
+     *
+     * @param hash     The filename hash of the entry.
+     * @param position The position of the entry.
+     *
+     * @return The entry.
+     */
+    private RootEntry getEntry(long hash, int position) {
+        return new CascRootEntry(hash, getContentChecksum(position), flags[position] & 0xFFFFFFFFL, blockUnknowns[position] & 0xFFFFFFFFL,
+                entryUnknowns[position] & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the content checksum of the entry at a position.
+     *
+     * @param position The position of the entry.
+     *
+     * @return The content checksum.
+     */
+    private ContentChecksum getContentChecksum(int position) {
+        return new ContentChecksum(EncodingFile.toKey(contentChecksums[position * 2], contentChecksums[position * 2 + 1]));
     }
 
     protected List<RootEntry> getEntries(long hash) {
-        return entries.getOrDefault(hash, Collections.emptyList());
+        int index = indexOf(hash);
+        List<RootEntry> entries;
+        if (index < 0) {
+            entries = Collections.emptyList();
+        } else {
+            int first = offsets[index];
+            int size = offsets[index + 1] - first;
+            entries = new AbstractList<RootEntry>() {
+                @Override
+                public RootEntry get(int i) {
+                    if (i < 0 || i >= size) {
+                        throw new IndexOutOfBoundsException();
+                    }
+                    return getEntry(hash, first + i);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entries;
     }
 
     public List<ContentChecksum> getContentChecksums(long hash) {
-        return getEntries(hash).stream()
-                .map(RootEntry::getContentChecksum)
-                .collect(Collectors.toList());
+        int index = indexOf(hash);
+        List<ContentChecksum> checksums;
+        if (index < 0) {
+            checksums = Collections.emptyList();
+        } else {
+            checksums = new ArrayList<>(offsets[index + 1] - offsets[index]);
+            for (int position = offsets[index]; position < offsets[index + 1]; position++) {
+                checksums.add(getContentChecksum(position));
+            }
+        }
+        return checksums;
     }
 
     public Collection<RootEntry> getEntries() {
-        return entries.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        return new AbstractList<RootEntry>() {
+            @Override
+            public RootEntry get(int position) {
+                if (position < 0 || position >= flags.length) {
+                    throw new IndexOutOfBoundsException();
+                }
+                int index = Arrays.binarySearch(offsets, position);
+                return getEntry(hashes[index < 0 ? -index - 2 : index], position);
+            }
+
+            @Override
+            public int size() {
+                return flags.length;
+            }
+        };
+    }
+
+    /**
+     * Get a view of the root file only containing the entries for a locale.
+     * <p>
+     * The view is created on first request and shared by all following requests for the same locale. Entries match a locale when all flags of the
+     * locale are set for the entry; {@link CascLocale#ALL} returns the full root file and {@link CascLocale#NONE} only matches entries without
+     * flags.
+     *
+     * @param locale The locale.
+     *
+     * @return The root file with the entries for the locale.
+     *
+     * @throws IllegalArgumentException When the locale is {@code null}.
+     */
+    public RootFile getLocaleView(CascLocale locale) throws IllegalArgumentException {
+        if (locale == null) {
+            throw new IllegalArgumentException("Unable to create a root file view for a null locale.");
+        }
+        return locale == CascLocale.ALL ? this : localeViews.computeIfAbsent(locale, this::filter);
+    }
+
+    /**
+     * Create a root file containing only the entries for a locale.
+     *
+     * @param locale The locale.
+     *
+     * @return The root file with the entries for the locale.
+     */
+    private RootFile filter(CascLocale locale) {
+        int flag = (int) locale.getFlag();
+        int count = 0;
+        int hashCount = 0;
+        for (int index = 0; index < hashes.length; index++) {
+            int matching = 0;
+            for (int position = offsets[index]; position < offsets[index + 1]; position++) {
+                if (isMatching(flags[position], flag)) {
+                    matching++;
+                }
+            }
+            count += matching;
+            hashCount += matching > 0 ? 1 : 0;
+        }
+        long[] viewHashes = new long[hashCount];
+        int[] viewOffsets = new int[hashCount + 1];
+        long[] viewContentChecksums = new long[count * 2];
+        int[] viewFlags = new int[count];
+        int[] viewBlockUnknowns = new int[count];
+        int[] viewEntryUnknowns = new int[count];
+        int viewHash = 0;
+        int viewPosition = 0;
+        for (int index = 0; index < hashes.length; index++) {
+            int first = viewPosition;
+            for (int position = offsets[index]; position < offsets[index + 1]; position++) {
+                if (isMatching(flags[position], flag)) {
+                    viewContentChecksums[viewPosition * 2] = contentChecksums[position * 2];
+                    viewContentChecksums[viewPosition * 2 + 1] = contentChecksums[position * 2 + 1];
+                    viewFlags[viewPosition] = flags[position];
+                    viewBlockUnknowns[viewPosition] = blockUnknowns[position];
+                    viewEntryUnknowns[viewPosition] = entryUnknowns[position];
+                    viewPosition++;
+                }
+            }
+            if (viewPosition > first) {
+                viewHashes[viewHash] = hashes[index];
+                viewOffsets[viewHash] = first;
+                viewHash++;
+            }
+        }
+        viewOffsets[hashCount] = count;
+        return new RootFile(viewHashes, viewOffsets, viewContentChecksums, viewFlags, viewBlockUnknowns, viewEntryUnknowns);
+    }
+
+    /**
+     * Check if the flags of an entry match the flag of a locale.
+     *
+     * @param entryFlags The flags of the entry.
+     * @param localeFlag The flag of the locale.
+     *
+     * @return {@code true} if the entry matches the locale.
+     */
+    private static boolean isMatching(int entryFlags, int localeFlag) {
+        return localeFlag == 0 ? entryFlags == 0 : (entryFlags & localeFlag) == localeFlag;
+    }
+
+    /**
+     * Get the unique filename hashes.
+     *
+     * @return The sorted filename hashes.
+     */
+    long[] getFilenameHashes() {
+        return hashes;
+    }
+
+    /**
+     * Get the position of the first entry for every filename hash.
+     *
+     * @return The positions, followed by the number of entries.
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Get the content checksums of the entries.
+     *
+     * @return The content checksums, as 2 longs per entry.
+     */
+    long[] getContentChecksums() {
+        return contentChecksums;
+    }
+
+    /**
+     * Get the (locale) flags of the entries.
+     *
+     * @return The unsigned 32-bit flags.
+     */
+    int[] getFlags() {
+        return flags;
+    }
+
+    /**
+     * Get the unknown block data of the entries.
+     *
+     * @return The unsigned 32-bit block data.
+     */
+    int[] getBlockUnknowns() {
+        return blockUnknowns;
+    }
+
+    /**
+     * Get the unknown entry data of the entries.
+     *
+     * @return The unsigned 32-bit entry data.
+     */
+    int[] getEntryUnknowns() {
+        return entryUnknowns;
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Arrays.hashCode(hashes);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return EqualsBuilder.reflectionEquals(this, obj);
+        boolean equal = this == obj;
+        if (!equal && obj != null && getClass() == obj.getClass()) {
+            RootFile other = (RootFile) obj;
+            equal = Arrays.equals(hashes, other.hashes)
+                    && Arrays.equals(offsets, other.offsets)
+                    && Arrays.equals(contentChecksums, other.contentChecksums)
+                    && Arrays.equals(flags, other.flags)
+                    && Arrays.equals(blockUnknowns, other.blockUnknowns)
+                    && Arrays.equals(entryUnknowns, other.entryUnknowns);
+        }
+        return equal;
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("entries", entries.size())
+                .append("hashes", hashes.length)
+                .append("entries", flags.length)
                 .toString();
     }
 }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.RootEntry;
+import nl.salp.warcraft4j.util.DataTypeUtil;
+import nl.salp.warcraft4j.util.SortUtil;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Builder for creating a compact {@link RootFile} from (raw) root entry data.
+ * <p>
+ * Entries are collected in primitive arrays and only sorted once (by filename hash) when the root file is built. Entries for the same filename hash
+ * keep the order in which they were added. The builder is not thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFile
+ */
+public class RootFileBuilder {
+    /** The default initial capacity. */
+    private static final int DEFAULT_CAPACITY = 1024;
+    /** The maximum value of the 32-bit flags and unknown values. */
+    private static final long MAX_VALUE = 0xFFFFFFFFL;
+    /** The filename hashes. */
+    private long[] filenameHashes;
+    /** The content checksums, as 2 longs per entry. */
+    private long[] contentChecksums;
+    /** The (locale) flags. */
+    private int[] flags;
+    /** The unknown block data. */
+    private int[] blockUnknowns;
+    /** The unknown entry data. */
+    private int[] entryUnknowns;
+    /** The number of added entries. */
+    private int size;
+
+    /**
+     * Create a new builder.
+     */
+    public RootFileBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new builder.
+     *
+     * @param expectedEntries The expected number of entries.
+     *
+     * @throws IllegalArgumentException When the expected number of entries is negative.
+     */
+    public RootFileBuilder(int expectedEntries) throws IllegalArgumentException {
+        if (expectedEntries < 0) {
+            throw new IllegalArgumentException(format("Unable to create a root file builder for %d entries.", expectedEntries));
+        }
+        this.filenameHashes = new long[expectedEntries];
+        this.contentChecksums = new long[expectedEntries * 2];
+        this.flags = new int[expectedEntries];
+        this.blockUnknowns = new int[expectedEntries];
+        this.entryUnknowns = new int[expectedEntries];
+    }
+
+    /**
+     * Add a root entry.
+     *
+     * @param entry The entry.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the entry is {@code null} or contains values that can't be stored.
+     */
+    public RootFileBuilder add(RootEntry entry) throws IllegalArgumentException {
+        if (entry == null || entry.getContentChecksum() == null) {
+            throw new IllegalArgumentException("Unable to add a null root entry.");
+        }
+        long blockUnknown = 0;
+        long entryUnknown = 0;
+        if (entry instanceof CascRootEntry) {
+            blockUnknown = ((CascRootEntry) entry).getBlockUnknown();
+            entryUnknown = ((CascRootEntry) entry).getEntryUnknown();
+        }
+        return add(entry.getFilenameHash(), entry.getContentChecksum().getChecksum(), 0, entry.getFlags(), blockUnknown, entryUnknown);
+    }
+
+    /**
+     * Add the data for a root entry.
+     *
+     * @param filenameHash          The hash of the filename.
+     * @param contentChecksum       The array containing the content checksum (of at least 16 bytes from the offset).
+     * @param contentChecksumOffset The offset of the content checksum in the array.
+     * @param flags                 The (locale) flags of the entry as an unsigned 32-bit value.
+     * @param blockUnknown          The unknown block data as an unsigned 32-bit value.
+     * @param entryUnknown          The unknown entry data as an unsigned 32-bit value.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the provided values can't be stored.
+     */
+    public RootFileBuilder add(long filenameHash, byte[] contentChecksum, int contentChecksumOffset, long flags, long blockUnknown, long entryUnknown)
+            throws IllegalArgumentException {
+        if (contentChecksum == null || contentChecksumOffset < 0 || contentChecksum.length - contentChecksumOffset < ContentChecksum.CHECKSUM_LENGTH) {
+            throw new IllegalArgumentException("Unable to add a root entry without a 16-byte content checksum.");
+        }
+        if (!isUnsignedInt(flags) || !isUnsignedInt(blockUnknown) || !isUnsignedInt(entryUnknown)) {
+            throw new IllegalArgumentException(format("Unable to add a root entry with flags %d, block data %d and entry data %d.",
+                    flags, blockUnknown, entryUnknown));
+        }
+        ensureCapacity(size + 1);
+        filenameHashes[size] = filenameHash;
+        contentChecksums[size * 2] = DataTypeUtil.toLong(contentChecksum, contentChecksumOffset);
+        contentChecksums[size * 2 + 1] = DataTypeUtil.toLong(contentChecksum, contentChecksumOffset + 8);
+        this.flags[size] = (int) flags;
+        blockUnknowns[size] = (int) blockUnknown;
+        entryUnknowns[size] = (int) entryUnknown;
+        size++;
+        return this;
+    }
+
+    /**
+     * Add all entries from another builder.
+     *
+     * @param builder The builder to add the entries from.
+     *
+     * @return The builder instance.
+     *
+     * @throws IllegalArgumentException When the builder is {@code null}.
+     */
+    public RootFileBuilder addAll(RootFileBuilder builder) throws IllegalArgumentException {
+        if (builder == null) {
+            throw new IllegalArgumentException("Unable to add the entries of a null root file builder.");
+        }
+        ensureCapacity(size + builder.size);
+        System.arraycopy(builder.filenameHashes, 0, filenameHashes, size, builder.size);
+        System.arraycopy(builder.contentChecksums, 0, contentChecksums, size * 2, builder.size * 2);
+        System.arraycopy(builder.flags, 0, flags, size, builder.size);
+        System.arraycopy(builder.blockUnknowns, 0, blockUnknowns, size, builder.size);
+        System.arraycopy(builder.entryUnknowns, 0, entryUnknowns, size, builder.size);
+        size += builder.size;
+        return this;
+    }
+
+    /**
+     * Get the number of added entries.
+     *
+     * @return The number of added entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Build the root file from the added entries.
+     *
+     * @return The root file.
+     *
+     * @throws IllegalArgumentException When no entries were added.
+     */
+    public RootFile build() throws IllegalArgumentException {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can't initialise the root with no entries.");
+        }
+        int[] order = SortUtil.sortedPermutation(size, (a, b) -> Long.compare(filenameHashes[a], filenameHashes[b]));
+        int hashCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || filenameHashes[order[i]] != filenameHashes[order[i - 1]]) {
+                hashCount++;
+            }
+        }
+        long[] sortedHashes = new long[hashCount];
+        int[] offsets = new int[hashCount + 1];
+        long[] sortedContentChecksums = new long[size * 2];
+        int[] sortedFlags = new int[size];
+        int[] sortedBlockUnknowns = new int[size];
+        int[] sortedEntryUnknowns = new int[size];
+        int hash = -1;
+        for (int i = 0; i < size; i++) {
+            int entry = order[i];
+            if (i == 0 || filenameHashes[entry] != filenameHashes[order[i - 1]]) {
+                hash++;
+                sortedHashes[hash] = filenameHashes[entry];
+                offsets[hash] = i;
+            }
+            sortedContentChecksums[i * 2] = contentChecksums[entry * 2];
+            sortedContentChecksums[i * 2 + 1] = contentChecksums[entry * 2 + 1];
+            sortedFlags[i] = flags[entry];
+            sortedBlockUnknowns[i] = blockUnknowns[entry];
+            sortedEntryUnknowns[i] = entryUnknowns[entry];
+        }
+        offsets[hashCount] = size;
+        return new RootFile(sortedHashes, offsets, sortedContentChecksums, sortedFlags, sortedBlockUnknowns, sortedEntryUnknowns);
+    }
+
+    /**
+     * Check if a value can be stored as an unsigned 32-bit value.
+     *
+     * @param value The value.
+     *
+     * @return {@code true} if the value can be stored.
+     */
+    private static boolean isUnsignedInt(long value) {
+        return value >= 0 && value <= MAX_VALUE;
+    }
+
+    /**
+     * Make sure that the builder can hold a minimum number of entries, growing the storage if needed.
+     *
+     * @param capacity The minimum number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > filenameHashes.length) {
+            int newCapacity = Math.max(capacity, Math.max(DEFAULT_CAPACITY, filenameHashes.length + (filenameHashes.length >> 1)));
+            filenameHashes = Arrays.copyOf(filenameHashes, newCapacity);
+            contentChecksums = Arrays.copyOf(contentChecksums, newCapacity * 2);
+            flags = Arrays.copyOf(flags, newCapacity);
+            blockUnknowns = Arrays.copyOf(blockUnknowns, newCapacity);
+            entryUnknowns = Arrays.copyOf(entryUnknowns, newCapacity);
+        }
+    }
+}
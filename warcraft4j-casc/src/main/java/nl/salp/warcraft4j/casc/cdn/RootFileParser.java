@@ -20,70 +20,96 @@ package nl.salp.warcraft4j.casc.cdn;
 
 import nl.salp.warcraft4j.casc.CascLocale;
 import nl.salp.warcraft4j.casc.ContentChecksum;
-import nl.salp.warcraft4j.casc.RootEntry;
 import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
-import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
+import static java.lang.String.format;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
 /**
- * TODO Add description.
+ * Parser for the root file, mapping filename hashes to the content checksums of the files.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFileBuilder
  */
 public class RootFileParser {
     /** The logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(RootFileParser.class);
+    /** The size of a block header, holding the unknown block value and the block flags. */
+    private static final int BLOCK_HEADER_SIZE = 8;
+    /** The size of the data for a single entry, holding the unknown entry value, the content checksum and the filename hash. */
+    private static final int ENTRY_SIZE = 4 + ContentChecksum.CHECKSUM_LENGTH + 8;
 
 
+    /**
+     * Parse all entries of the root file.
+     *
+     * @param reader The reader, positioned at the start of the root file.
+     *
+     * @return The parsed root file.
+     *
+     * @throws DataReadingException When reading the root file failed.
+     * @throws DataParsingException When parsing a value failed.
+     */
     public RootFile parse(DataReader reader) throws DataReadingException, DataParsingException {
         LOGGER.trace("Parsing root file");
-        Map<Long, List<RootEntry>> entries = parseEntryBlocks(reader);
-        LOGGER.trace("Parsed root with {} entries", entries.size());
-        return new RootFile(entries);
+        RootFileBuilder builder = new RootFileBuilder();
+        parse(reader, builder::add);
+        LOGGER.trace("Parsed root with {} entries", builder.size());
+        return builder.build();
     }
 
-    private Map<Long, List<RootEntry>> parseEntryBlocks(DataReader reader) throws DataReadingException, DataParsingException {
-        Map<Long, List<RootEntry>> entries = new HashMap<>();
+    /**
+     * Parse the root file, passing every entry to a visitor instead of collecting the entries.
+     *
+     * @param reader  The reader, positioned at the start of the root file.
+     * @param visitor The visitor for the entries.
+     *
+     * @throws DataReadingException     When reading the root file failed.
+     * @throws DataParsingException     When parsing a value failed or a block contains more entries than the remaining data.
+     * @throws IllegalArgumentException When no visitor was provided.
+     */
+    public void parse(DataReader reader, RootFileVisitor visitor) throws DataReadingException, DataParsingException, IllegalArgumentException {
+        if (visitor == null) {
+            throw new IllegalArgumentException("Unable to parse a root file without a visitor.");
+        }
+        byte[] contentChecksum = new byte[ContentChecksum.CHECKSUM_LENGTH];
+        long[] entryUnknown = new long[0];
         long totalEntries = 0;
         long totalReadEntries = 0;
         LOGGER.trace("Reading entries from position {} ({} bytes remaining)", reader.position(), reader.remaining());
         while (reader.remaining() > 4) {
-            long entryCount = reader.readNext(DataTypeFactory.getUnsignedInteger(), LITTLE_ENDIAN);
+            long entryCount = reader.readUnsignedInt(LITTLE_ENDIAN);
+            if (entryCount > 0 && entryCount * ENTRY_SIZE > reader.remaining() - BLOCK_HEADER_SIZE) {
+                throw new DataParsingException(format("Root file block at position %d has %d entries, exceeding the %d remaining bytes",
+                        reader.position() - 4, entryCount, reader.remaining()));
+            }
             if (entryCount > 0) {
                 LOGGER.trace("Reading {} entries from position {} ({} bytes remaining)", entryCount, reader.position(), reader.remaining());
                 totalEntries += entryCount;
-                long blockUnknown = reader.readNext(DataTypeFactory.getUnsignedInteger(), LITTLE_ENDIAN);
-                long blockFlags = reader.readNext(DataTypeFactory.getUnsignedInteger(), LITTLE_ENDIAN);
+                long blockUnknown = reader.readUnsignedInt(LITTLE_ENDIAN);
+                long blockFlags = reader.readUnsignedInt(LITTLE_ENDIAN);
 
                 if (!CascLocale.getLocale(blockFlags).isPresent()) {
                     LOGGER.warn("Unable to find a locale for root entry flag {} ({})", Long.toBinaryString(blockFlags), blockFlags);
                 }
-                List<Long> entryUnknown = new ArrayList<>();
-                for (long i = 0; i < entryCount; i++) {
-                    entryUnknown.add(reader.readNext(DataTypeFactory.getUnsignedInteger(), LITTLE_ENDIAN));
+                if (entryUnknown.length < entryCount) {
+                    entryUnknown = new long[(int) entryCount];
+                }
+                for (int i = 0; i < entryCount; i++) {
+                    entryUnknown[i] = reader.readUnsignedInt(LITTLE_ENDIAN);
                 }
-                for (long i = 0; i < entryCount; i++) {
-                    byte[] contentChecksum = reader.readNext(DataTypeFactory.getByteArray(16));
-                    long filenameHash = reader.readNext(DataTypeFactory.getLong(), LITTLE_ENDIAN);
-                    if (!entries.containsKey(filenameHash)) {
-                        entries.put(filenameHash, new ArrayList<>());
-                    }
-                    entries.get(filenameHash).add(new CascRootEntry(filenameHash, new ContentChecksum(contentChecksum), blockFlags, blockUnknown, entryUnknown.get((int) i)));
+                for (int i = 0; i < entryCount; i++) {
+                    reader.readBytes(contentChecksum, 0, contentChecksum.length);
+                    long filenameHash = reader.readLong(LITTLE_ENDIAN);
+                    visitor.visit(filenameHash, contentChecksum, 0, blockFlags, blockUnknown, entryUnknown[i]);
                     totalReadEntries++;
                 }
                 LOGGER.trace("Read {} entries from {} calculated, on position {}", totalReadEntries, totalEntries, reader.position());
             }
         }
-        return entries;
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+/**
+ * Visitor for the entries of a root file, called for every entry while the root file is parsed without creating objects for the entries.
+ * <p>
+ * The content checksum is passed in a buffer that is reused for the following entries, so its contents are only valid during the call.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFileParser#parse(nl.salp.warcraft4j.io.DataReader, RootFileVisitor)
+ */
+@FunctionalInterface
+public interface RootFileVisitor {
+    /**
+     * Visit a root entry.
+     *
+     * @param filenameHash          The hash of the filename.
+     * @param contentChecksum       The buffer containing the 16-byte content checksum.
+     * @param contentChecksumOffset The offset of the content checksum in the buffer.
+     * @param flags                 The (locale) flags of the entry as an unsigned 32-bit value.
+     * @param blockUnknown          The unknown block data as an unsigned 32-bit value.
+     * @param entryUnknown          The unknown entry data as an unsigned 32-bit value.
+     */
+    void visit(long filenameHash, byte[] contentChecksum, int contentChecksumOffset, long flags, long blockUnknown, long entryUnknown);
+}
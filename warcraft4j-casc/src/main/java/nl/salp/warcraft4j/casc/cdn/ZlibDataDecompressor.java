@@ -22,48 +22,164 @@ import nl.salp.warcraft4j.casc.CascParsingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
+import static java.lang.String.format;
+
 /**
- * TODO Add description.
+ * {@link DataDecompressor} implementation for zlib compressed data.
+ * <p>
+ * Every thread reuses its own {@link Inflater} and scratch buffer, and data with a known decompressed size is inflated directly into an array of
+ * that size, avoiding intermediate allocations for every decompressed chunk.
  *
  * @author Barre Dijkstra
  */
 class ZlibDataDecompressor implements DataDecompressor {
+    /** The size of the scratch buffer and the initial size of the output for data with an unknown decompressed size. */
     private static final int BLOCK_SIZE = 4096;
     /** The logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(ZlibDataDecompressor.class);
+    /** The inflater of the current thread. */
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(false));
+    /** The scratch buffer of the current thread, used for inflating into buffers without an accessible array. */
+    private static final ThreadLocal<byte[]> SCRATCH_BUFFER = ThreadLocal.withInitial(() -> new byte[BLOCK_SIZE]);
 
+    /**
+     * {@inheritDoc}
+     */
     @Override
     public byte[] decompress(byte[] data, long compressedSize, long decompressedSize) throws CascParsingException {
         return decompress(data, 0, compressedSize, decompressedSize);
     }
 
+    /**
+     * {@inheritDoc}
+     */
     @Override
     public byte[] decompress(byte[] data, long offset, long compressedSize, long decompressedSize) throws CascParsingException {
-        try {
-            Inflater decompresser = new Inflater(false);
-            decompresser.setInput(data, (int) offset, data.length);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            long resultLength = 0;
-            while (!decompresser.finished()) {
-                byte[] result = new byte[BLOCK_SIZE];
-                int blockLength = decompresser.inflate(result);
-                out.write(result, 0, blockLength);
-                resultLength += blockLength;
+        if (decompressedSize < 0 || decompressedSize > Integer.MAX_VALUE) {
+            throw new CascParsingException(format("Unable to decompress a BLTE chunk to %d bytes of data.", decompressedSize));
+        }
+        Inflater inflater = getInflater(data, offset, compressedSize);
+        byte[] result;
+        if (decompressedSize == BlteChunk.VARIABLE_SIZE) {
+            result = new byte[BLOCK_SIZE];
+            int resultLength = 0;
+            while (!inflater.finished()) {
+                if (resultLength == result.length) {
+                    result = Arrays.copyOf(result, result.length << 1);
+                }
+                resultLength += inflate(inflater, result, resultLength, result.length - resultLength);
             }
-            byte[] result = out.toByteArray();
-            decompresser.end();
-            if (decompressedSize != 0 && resultLength != decompressedSize && (compressedSize != decompressedSize)) {
-                throw new CascParsingException(String.format("Decompressed BLTE chunk to a %d bytes output while %d bytes were specified.", resultLength, decompressedSize));
+            result = Arrays.copyOf(result, resultLength);
+        } else {
+            result = new byte[(int) decompressedSize];
+            int resultLength = inflateFully(inflater, result, 0, result.length);
+            if (resultLength != decompressedSize) {
+                throw new CascParsingException(format("Decompressed BLTE chunk to a %d bytes output while %d bytes were specified.", resultLength, decompressedSize));
             }
-            LOGGER.trace("Decompressed {} byte gzip'd BLTE file chunk to {} bytes of data.", data.length, result.length);
-            return result;
+        }
+        LOGGER.trace("Decompressed {} byte gzip'd BLTE file chunk to {} bytes of data.", compressedSize, result.length);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int decompress(byte[] data, long dataOffset, long dataLength, ByteBuffer target) throws CascParsingException {
+        Inflater inflater = getInflater(data, dataOffset, dataLength);
+        int resultLength;
+        if (target.hasArray()) {
+            resultLength = inflateFully(inflater, target.array(), target.arrayOffset() + target.position(), target.remaining());
+            target.position(target.position() + resultLength);
+        } else {
+            byte[] scratch = SCRATCH_BUFFER.get();
+            resultLength = 0;
+            while (!inflater.finished()) {
+                int length = inflate(inflater, scratch, 0, Math.max(1, Math.min(scratch.length, target.remaining())));
+                if (length > target.remaining()) {
+                    throw new CascParsingException(format("Decompressed BLTE chunk exceeds the %d bytes available in the output buffer.", resultLength));
+                }
+                target.put(scratch, 0, length);
+                resultLength += length;
+            }
+        }
+        LOGGER.trace("Decompressed {} byte gzip'd BLTE file chunk to {} bytes of data.", dataLength, resultLength);
+        return resultLength;
+    }
+
+    /**
+     * Get the (reset) inflater of the current thread, initialised with the data to inflate.
+     *
+     * @param data       The array containing the compressed data.
+     * @param dataOffset The offset of the compressed data in the array.
+     * @param dataLength The length of the compressed data.
+     *
+     * @return The inflater.
+     *
+     * @throws CascParsingException When the compressed data is not within the array.
+     */
+    private static Inflater getInflater(byte[] data, long dataOffset, long dataLength) throws CascParsingException {
+        if (data == null || dataOffset < 0 || dataLength < 0 || dataOffset + dataLength > data.length) {
+            throw new CascParsingException(format("Unable to decompress %d bytes of BLTE chunk data from offset %d.", dataLength, dataOffset));
+        }
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(data, (int) dataOffset, (int) dataLength);
+        return inflater;
+    }
+
+    /**
+     * Inflate data into an array until the data is fully inflated, failing when the data doesn't fit in the available space.
+     *
+     * @param inflater The inflater.
+     * @param target   The array to inflate the data into.
+     * @param offset   The offset in the array to start writing at.
+     * @param length   The available space in the array.
+     *
+     * @return The number of inflated bytes.
+     *
+     * @throws CascParsingException When the data could not be inflated or exceeds the available space.
+     */
+    private static int inflateFully(Inflater inflater, byte[] target, int offset, int length) throws CascParsingException {
+        int resultLength = 0;
+        while (!inflater.finished()) {
+            if (resultLength == length) {
+                if (inflate(inflater, SCRATCH_BUFFER.get(), 0, 1) > 0) {
+                    throw new CascParsingException(format("Decompressed BLTE chunk exceeds the %d bytes available for the output.", length));
+                }
+            } else {
+                resultLength += inflate(inflater, target, offset + resultLength, length - resultLength);
+            }
+        }
+        return resultLength;
+    }
+
+    /**
+     * Inflate data into an array, failing when no progress can be made.
+     *
+     * @param inflater The inflater.
+     * @param target   The array to inflate the data into.
+     * @param offset   The offset in the array to start writing at.
+     * @param length   The maximum number of bytes to inflate.
+     *
+     * @return The number of inflated bytes, which is only {@code 0} when the data was fully inflated or the length is {@code 0}.
+     *
+     * @throws CascParsingException When the data could not be inflated or is incomplete.
+     */
+    private static int inflate(Inflater inflater, byte[] target, int offset, int length) throws CascParsingException {
+        try {
+            int inflated = inflater.inflate(target, offset, length);
+            if (inflated == 0 && !inflater.finished() && length > 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new CascParsingException("Unable to decompress incomplete BLTE chunk data.");
+            }
+            return inflated;
         } catch (DataFormatException e) {
             throw new CascParsingException(e);
         }
     }
-
 }
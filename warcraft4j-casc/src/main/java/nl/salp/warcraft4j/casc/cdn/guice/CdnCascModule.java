@@ -26,15 +26,40 @@ import nl.salp.warcraft4j.casc.cdn.CdnCascService;
 import nl.salp.warcraft4j.casc.cdn.local.LocalCdnCascContext;
 import nl.salp.warcraft4j.casc.cdn.online.OnlineCdnCascContext;
 import nl.salp.warcraft4j.config.Warcraft4jConfig;
+import nl.salp.warcraft4j.io.PooledHttpClient;
+
+import java.util.Optional;
 
 /**
  * Guice module that binds the the CDN implementation to the CASC module, being either online or local depending on the Warcraft4J configuration.
  * <p>
- * Requires a bound {@link Warcraft4jConfig}.
+ * Requires a bound {@link Warcraft4jConfig}. Online contexts read the CDN files with the {@link PooledHttpClient} the module was created with.
  *
  * @author Barre Dijkstra
  */
 public class CdnCascModule extends AbstractModule {
+    /** The HTTP client for online contexts. */
+    private final PooledHttpClient httpClient;
+
+    /**
+     * Create a new module, using the default {@link PooledHttpClient} for online contexts.
+     */
+    public CdnCascModule() {
+        this(PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new module.
+     *
+     * @param httpClient The HTTP client for online contexts.
+     *
+     * @throws IllegalArgumentException When the HTTP client is {@code null}.
+     */
+    public CdnCascModule(PooledHttpClient httpClient) throws IllegalArgumentException {
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CDN CASC module without an HTTP client."));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -47,7 +72,7 @@ public class CdnCascModule extends AbstractModule {
             public CdnCascContext get() {
                 Warcraft4jConfig config = configProvider.get();
                 if (config.isOnline()) {
-                    return new OnlineCdnCascContext(config);
+                    return new OnlineCdnCascContext(config, httpClient);
                 } else {
                     return new LocalCdnCascContext(config);
                 }
@@ -20,12 +20,20 @@ package nl.salp.warcraft4j.casc.cdn.local;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
+import nl.salp.warcraft4j.io.BufferedDataReader;
 import nl.salp.warcraft4j.io.DataReader;
-import nl.salp.warcraft4j.io.FileDataReader;
+import nl.salp.warcraft4j.io.SharedFileChannel;
+import nl.salp.warcraft4j.io.SharedFileDataReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
@@ -33,29 +41,62 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * {@link DataReaderProvider} for reading files from the file system.
+ * <p>
+ * Every file is opened only once, with the channel being shared by all readers for the file using positional reads. The channels are kept open
+ * until the provider is closed. The readers read the data ahead in a window to avoid a read on the file for every value. The provider is
+ * thread-safe.
  *
  * @author Barre Dijkstra
  * @see nl.salp.warcraft4j.casc.cdn.DataReaderProvider
  */
-public class FileDataReaderProvider implements DataReaderProvider {
+public class FileDataReaderProvider implements DataReaderProvider, Closeable {
+    /** The logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileDataReaderProvider.class);
+    /** The open channels, indexed by their URI. */
+    private final Map<String, SharedFileChannel> channels = new ConcurrentHashMap<>();
+
     /**
      * {@inheritDoc}
+     * <p>
+     * The positions of the reader are relative to the start of the file.
      *
      * @param uri The path of the file, either absolute or relative.
      */
     @Override
     public Supplier<DataReader> getDataReader(String uri) throws CascParsingException {
-        return () -> new FileDataReader(toPath(uri));
+        return () -> new BufferedDataReader(new SharedFileDataReader(getChannel(uri)));
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The positions of the reader are relative to the offset.
      *
      * @param uri The path of the file, either absolute or relative.
      */
     @Override
     public Supplier<DataReader> getDataReader(String uri, long offset, long length) throws CascParsingException {
-        return () -> new FileDataReader(toPath(uri), offset, length);
+        return () -> new BufferedDataReader(new SharedFileDataReader(getChannel(uri), offset, length));
+    }
+
+    /**
+     * Get the shared channel for a file, opening the file if it isn't opened yet.
+     *
+     * @param uri The path of the file, either absolute or relative.
+     *
+     * @return The channel.
+     *
+     * @throws CascParsingException When the URI is invalid or does not point to a valid, readable file.
+     */
+    private SharedFileChannel getChannel(String uri) throws CascParsingException {
+        SharedFileChannel channel = channels.get(uri);
+        if (channel == null) {
+            channel = channels.computeIfAbsent(uri, u -> {
+                LOGGER.trace("Opening shared channel for file {}", u);
+                return new SharedFileChannel(toPath(u));
+            });
+        }
+        return channel;
     }
 
     /**
@@ -67,7 +108,7 @@ public class FileDataReaderProvider implements DataReaderProvider {
      *
      * @throws CascParsingException When the URI is invalid or does not point to a valid, readable file.
      */
-    private Path toPath(String uri) throws CascParsingException {
+    protected Path toPath(String uri) throws CascParsingException {
         if (isEmpty(uri)) {
             throw new CascParsingException("Can't create a file reader for an empty path.");
         }
@@ -80,4 +121,27 @@ public class FileDataReaderProvider implements DataReaderProvider {
         }
         return path;
     }
+
+    /**
+     * Close all opened files.
+     *
+     * @throws IOException When closing a file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (String uri : channels.keySet()) {
+            SharedFileChannel channel = channels.remove(uri);
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
 }
@@ -24,6 +24,7 @@ import nl.salp.warcraft4j.casc.cdn.CdnCascConfig;
 import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
 import nl.salp.warcraft4j.casc.cdn.KeyBasedConfiguration;
 import nl.salp.warcraft4j.config.Warcraft4jConfig;
+import nl.salp.warcraft4j.io.BufferedDataReader;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.FileDataReader;
 import org.slf4j.Logger;
@@ -92,7 +93,7 @@ public class LocalCdnCascConfig extends BaseCdnCascConfig implements CdnCascConf
      *
      * @return The parsed {@code build info} configuration.
      */
-    private KeyBasedConfiguration getBuildInfo() {
+    private synchronized KeyBasedConfiguration getBuildInfo() {
         if (buildInfo == null) {
             String path = getWarcraft4jConfig().getWowInstallationDirectory().resolve(FILENAME_BUILDINFO).toString();
             LOGGER.debug("Initialising build info from file {}", path);
@@ -134,7 +135,7 @@ public class LocalCdnCascConfig extends BaseCdnCascConfig implements CdnCascConf
     @Override
     protected Supplier<DataReader> getConfigDataReader(String checksum) {
         Path path = getWarcraft4jConfig().getWowInstallationDirectory().resolve(Paths.get("Data", "config", checksum.substring(0, 2), checksum.substring(2, 4), checksum));
-        return () -> new FileDataReader(path);
+        return () -> new BufferedDataReader(new FileDataReader(path));
     }
 
     /**
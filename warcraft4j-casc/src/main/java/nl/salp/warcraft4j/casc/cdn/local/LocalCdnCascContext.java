@@ -30,16 +30,22 @@ import nl.salp.warcraft4j.casc.cdn.Index;
 import nl.salp.warcraft4j.config.Warcraft4jConfig;
 import nl.salp.warcraft4j.io.DataReader;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
 
 /**
- * {@link CdnCascContext} implementation for an online CDN.
+ * {@link CdnCascContext} implementation for a local WoW installation.
+ * <p>
+ * The data files are opened on first use and kept open until the context is closed.
  *
  * @author Barre Dijkstra
  * @see nl.salp.warcraft4j.casc.cdn.CdnCascContext
@@ -48,6 +54,10 @@ import static java.lang.String.format;
 public class LocalCdnCascContext extends CdnCascContext {
     /** The CASC configuration. */
     private CdnCascConfig cdnCascConfig;
+    /** The provider for the data readers, sharing the opened (or memory mapped) files between readers. */
+    private final FileDataReaderProvider dataReaderProvider;
+    /** The resolved URIs of the data files, indexed by data file number. */
+    private final Map<Integer, Optional<String>> dataFileUris = new ConcurrentHashMap<>();
 
     /**
      * Create a new instance.
@@ -57,13 +67,14 @@ public class LocalCdnCascContext extends CdnCascContext {
     @Inject
     public LocalCdnCascContext(Warcraft4jConfig warcraft4jConfig) {
         super(warcraft4jConfig);
+        this.dataReaderProvider = warcraft4jConfig.isMemoryMapping() ? new MappedFileDataReaderProvider() : new FileDataReaderProvider();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public CdnCascConfig getCdnCascConfig() {
+    public synchronized CdnCascConfig getCdnCascConfig() {
         if (cdnCascConfig == null) {
             cdnCascConfig = new LocalCdnCascConfig(getWarcraft4jConfig(), getDataReaderProvider());
         }
@@ -93,7 +104,7 @@ public class LocalCdnCascContext extends CdnCascContext {
      */
     @Override
     protected DataReaderProvider getDataReaderProvider() {
-        return new FileDataReaderProvider();
+        return dataReaderProvider;
     }
 
     /**
@@ -105,12 +116,36 @@ public class LocalCdnCascContext extends CdnCascContext {
         return getDataReaderProvider().getDataReader(dataFile, dataFileOffset + 30, fileSize - 30);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<Supplier<DataReader>> getDataReaders(String dataFile, long[] dataFileOffsets, long[] fileSizes) throws CascParsingException {
+        long[] offsets = new long[dataFileOffsets.length];
+        long[] sizes = new long[fileSizes.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = dataFileOffsets[i] + 30;
+            sizes[i] = fileSizes[i] - 30;
+        }
+        return super.getDataReaders(dataFile, offsets, sizes);
+    }
+
+    /**
+     * Close the context, closing all opened data files.
+     *
+     * @throws IOException When closing a data file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        dataReaderProvider.close();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected Index parseIndex() throws CascParsingException {
-        return new LocalIndexParser(getWarcraft4jConfig().getWowInstallationDirectory()).parse();
+        return new LocalIndexParser(getWarcraft4jConfig().getWowInstallationDirectory(), getExecutor()).parse();
     }
 
     /**
@@ -120,13 +155,26 @@ public class LocalCdnCascContext extends CdnCascContext {
     protected Optional<String> getDataFileUri(IndexEntry entry) {
         Optional<String> uri;
         if (entry != null) {
-            String filename = format("data.%03d", entry.getFileNumber());
-            Path file = getWarcraft4jConfig().getWowInstallationDirectory().resolve(Paths.get("Data", "data", filename));
-            if (Files.exists(file) && Files.isReadable(file) && Files.isRegularFile(file)) {
-                uri = Optional.of(file.toString());
-            } else {
-                uri = Optional.empty();
-            }
+            uri = dataFileUris.computeIfAbsent(entry.getFileNumber(), this::resolveDataFileUri);
+        } else {
+            uri = Optional.empty();
+        }
+        return uri;
+    }
+
+    /**
+     * Resolve the URI of a data file, checking that the file exists and is readable.
+     *
+     * @param fileNumber The number of the data file.
+     *
+     * @return {@code Optional} of the data file URI, being empty if the data file is not available.
+     */
+    private Optional<String> resolveDataFileUri(int fileNumber) {
+        String filename = format("data.%03d", fileNumber);
+        Path file = getWarcraft4jConfig().getWowInstallationDirectory().resolve(Paths.get("Data", "data", filename));
+        Optional<String> uri;
+        if (Files.exists(file) && Files.isReadable(file) && Files.isRegularFile(file)) {
+            uri = Optional.of(file.toString());
         } else {
             uri = Optional.empty();
         }
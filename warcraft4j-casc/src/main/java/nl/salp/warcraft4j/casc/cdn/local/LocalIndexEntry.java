@@ -73,8 +73,8 @@ public class LocalIndexEntry extends CascIndexEntry {
      *
      * @return The file number for the index entry.
      */
-    private static int getFileNumber(short indexInfoHigh, long indexInfoLow) {
-        return ((byte) (indexInfoHigh << 2) | (((int) indexInfoLow & 0xC0000000) >>> 30));
+    static int getFileNumber(short indexInfoHigh, long indexInfoLow) {
+        return ((indexInfoHigh & 0xFF) << 2) | (((int) indexInfoLow & 0xC0000000) >>> 30);
     }
 
     /**
@@ -85,7 +85,7 @@ public class LocalIndexEntry extends CascIndexEntry {
      *
      * @return The data file offset.
      */
-    private static int getDataFileOffset(short indexInfoHigh, long indexInfoLow) {
+    static int getDataFileOffset(short indexInfoHigh, long indexInfoLow) {
         return (int) (indexInfoLow & 0x3FFFFFFF);
     }
 }
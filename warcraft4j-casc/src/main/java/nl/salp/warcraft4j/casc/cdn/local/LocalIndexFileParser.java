@@ -19,24 +19,20 @@
 package nl.salp.warcraft4j.casc.cdn.local;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
-import nl.salp.warcraft4j.casc.FileKey;
-import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.cdn.IndexBuilder;
 import nl.salp.warcraft4j.hash.JenkinsHash;
 import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
 import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
-import nl.salp.warcraft4j.util.Checksum;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 import java.util.function.Function;
 
 import static java.lang.String.format;
@@ -82,77 +78,108 @@ public class LocalIndexFileParser {
      * @throws DataReadingException When reading the entry data failed.
      * @throws DataParsingException When parsing the entry data failed.
      */
-    public LocalIndexFile parse(DataReader reader) throws DataReadingException, DataParsingException {
+    public LocalIndexFile parse(DataReader reader) throws CascParsingException, DataReadingException, DataParsingException {
+        byte[] data = reader.readNext(DataTypeFactory.getByteArray((int) reader.remaining()));
+        IndexBuilder builder = new IndexBuilder(data.length / ENTRY_SIZE);
+        parse(ByteBuffer.wrap(data), builder);
+        int fileNumber = fileNumberFunction.apply(file);
+        int fileVersion = fileVersionFunction.apply(file);
+        return new LocalIndexFile(file, fileNumber, fileVersion, new ArrayList<>(builder.build().getEntries()));
+    }
+
+    /**
+     * Parse the entries of an index file directly from its (memory mapped) data into a builder.
+     * <p>
+     * The entries are decoded from the buffer in a single pass using absolute reads, without allocating any objects per entry. The position and
+     * byte order of the provided buffer are not modified.
+     *
+     * @param data    The buffer with the data of the index file, starting at the position of the buffer.
+     * @param builder The builder to add the parsed entries to.
+     *
+     * @return The number of parsed entries.
+     *
+     * @throws CascParsingException When the file is invalid.
+     */
+    public int parse(ByteBuffer data, IndexBuilder builder) throws CascParsingException {
         LOGGER.trace("Parsing index file {}", file);
-        validateHeader(reader);
-        int dataHeaderLength = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.LITTLE_ENDIAN);
-        Checksum dataHeaderChecksum = new Checksum(reader.readNext(DataTypeFactory.getByteArray(4))); // ByteOrder.LITTLE_ENDIAN
-        // TODO Validate header based on the checksum.
-        IndexHeaderV2 header = parseHeader(reader);
+        ByteBuffer littleEndian = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer bigEndian = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int start = data.position();
+        validateHeader(littleEndian, start);
+        int dataHeaderLength = littleEndian.getInt(start);
+        // TODO Validate header based on the checksum at start + 4.
+        IndexHeaderV2 header = parseHeader(littleEndian, bigEndian, start + 8);
         LOGGER.trace("Parsed header {}", header);
-        reader.position((8 + dataHeaderLength + 0x0F) & 0xFFFFFFF0);
 
-        int dataLength = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.LITTLE_ENDIAN);
-        Checksum dataChecksum = new Checksum(reader.readNext(DataTypeFactory.getByteArray(4))); // ByteOrder.LITTLE_ENDIAN
-        // TODO Validate data based on the checksum.
+        int dataStart = start + ((8 + dataHeaderLength + 0x0F) & 0xFFFFFFF0);
+        requireData(data, dataStart, 8);
+        int dataLength = littleEndian.getInt(dataStart);
+        // TODO Validate data based on the checksum at dataStart + 4.
         int entryCount = (dataLength / ENTRY_SIZE);
-        LOGGER.trace("Parsing {} index file entries from {} bytes at position {}", entryCount, dataLength, reader.position());
-        List<IndexEntry> entries = parseEntries(reader, entryCount);
-
-        int fileNumber = fileNumberFunction.apply(file);
-        int fileVersion = fileVersionFunction.apply(file);
-        LOGGER.trace("Parsed index file {}, version {} with {} entries, expecting {} entries", fileNumber, fileVersion, entries.size(), entryCount);
-        return new LocalIndexFile(file, fileNumber, fileVersion, entries);
+        int entryStart = dataStart + 8;
+        requireData(data, entryStart, (long) entryCount * ENTRY_SIZE);
+        LOGGER.trace("Parsing {} index file entries from {} bytes at position {}", entryCount, dataLength, entryStart);
+        for (int i = 0, position = entryStart; i < entryCount; i++, position += ENTRY_SIZE) {
+            short indexInfoHigh = (short) (bigEndian.get(position + 9) & 0xFF);
+            long indexInfoLow = bigEndian.getInt(position + 10) & 0xFFFFFFFFL;
+            builder.add(bigEndian.getLong(position), bigEndian.get(position + 8),
+                    LocalIndexEntry.getFileNumber(indexInfoHigh, indexInfoLow),
+                    LocalIndexEntry.getDataFileOffset(indexInfoHigh, indexInfoLow),
+                    littleEndian.getInt(position + 14) & 0xFFFFFFFFL);
+        }
+        LOGGER.trace("Parsed {} entries from index file {}", entryCount, file);
+        return entryCount;
     }
 
     /**
      * Validate the index file header.
      *
-     * @param reader The reader to read the header data from.
+     * @param data  The little endian buffer to read the header data from.
+     * @param start The position of the header in the buffer.
      *
      * @throws CascParsingException When the header is invalid.
-     * @throws DataReadingException When reading the entry data failed.
-     * @throws DataParsingException When parsing the entry data failed.
      */
-    private void validateHeader(DataReader reader) throws CascParsingException, DataReadingException, DataParsingException {
-        long position = reader.position();
+    private void validateHeader(ByteBuffer data, int start) throws CascParsingException {
+        requireData(data, start, 8);
+        long headerLen = data.getInt(start) & 0xFFFFFFFFL;
+        int hash = data.getInt(start + 4);
+        requireData(data, start + 8, headerLen);
 
-        int headerLen = (int) reader.readNext(DataTypeFactory.getUnsignedInteger(), ByteOrder.LITTLE_ENDIAN).longValue();
-        int hash = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.LITTLE_ENDIAN);
+        byte[] header = new byte[(int) headerLen];
+        ByteBuffer headerData = data.duplicate();
+        headerData.position(start + 8);
+        headerData.get(header);
 
-        byte[] data = reader.readNext(DataTypeFactory.getByteArray(headerLen));
-
-        int h2 = JenkinsHash.hashLittle2b(data, headerLen);
+        int h2 = JenkinsHash.hashLittle2b(header, header.length);
         if (hash != h2) {
             throw new CascParsingException(format("Invalid index header hash %X -> %X", hash, h2));
         }
-
-        reader.position(position);
     }
 
     /**
-     * Read and parse the index file header.
+     * Parse the index file header.
      *
-     * @param reader The reader to read the header data from.
+     * @param littleEndian The little endian buffer to read the header data from.
+     * @param bigEndian    The big endian buffer to read the header data from.
+     * @param start        The position of the header in the buffers.
      *
      * @return The parsed index file header.
      *
      * @throws CascParsingException When the header is invalid.
-     * @throws DataReadingException When reading the entry data failed.
-     * @throws DataParsingException When parsing the entry data failed.
      */
-    private IndexHeaderV2 parseHeader(DataReader reader) throws CascParsingException, DataReadingException, DataParsingException {
-        int indexVersion = reader.readNext(DataTypeFactory.getUnsignedShort(), ByteOrder.LITTLE_ENDIAN);
+    private IndexHeaderV2 parseHeader(ByteBuffer littleEndian, ByteBuffer bigEndian, int start) throws CascParsingException {
+        requireData(littleEndian, start, 16);
+        int indexVersion = littleEndian.getShort(start) & 0xFFFF;
         if (indexVersion != 0x07) {
             throw new CascParsingException(format("Invalid index file header version 0x%02X, requires 0x07", indexVersion));
         }
-        byte keyIndex = reader.readNext(DataTypeFactory.getByte());
-        byte extraBytes = reader.readNext(DataTypeFactory.getByte());
-        byte spanSizeBytes = reader.readNext(DataTypeFactory.getByte());
-        byte spanOffsetBytes = reader.readNext(DataTypeFactory.getByte());
-        byte keyBytes = reader.readNext(DataTypeFactory.getByte());
-        byte segmentBits = reader.readNext(DataTypeFactory.getByte());
-        long maxFileOffset = reader.readNext(DataTypeFactory.getLong(), ByteOrder.BIG_ENDIAN);
+        byte keyIndex = littleEndian.get(start + 2);
+        byte extraBytes = littleEndian.get(start + 3);
+        byte spanSizeBytes = littleEndian.get(start + 4);
+        byte spanOffsetBytes = littleEndian.get(start + 5);
+        byte keyBytes = littleEndian.get(start + 6);
+        byte segmentBits = littleEndian.get(start + 7);
+        long maxFileOffset = bigEndian.getLong(start + 8);
         if (extraBytes != 0x00 || spanSizeBytes != 0x04 || spanOffsetBytes != 0x05 || keyBytes != 0x09) {
             throw new CascParsingException("Invalid index file header");
         }
@@ -160,47 +187,18 @@ public class LocalIndexFileParser {
     }
 
     /**
-     * Read an parse all available {@link IndexEntry} instances.
+     * Check that a buffer contains a range of data.
      *
-     * @param reader     The reader to read the entry data from.
-     * @param entryCount The number of entries avialable.
+     * @param data     The buffer.
+     * @param position The start position of the range.
+     * @param length   The length of the range.
      *
-     * @return The parsed entries.
-     *
-     * @throws DataReadingException When reading the entry data failed.
-     * @throws DataParsingException When parsing the entry data failed.
+     * @throws CascParsingException When the buffer doesn't contain the range.
      */
-    private List<IndexEntry> parseEntries(DataReader reader, int entryCount) throws DataReadingException, DataParsingException {
-        Set<Checksum> keys = new HashSet<>();
-        List<IndexEntry> entries = new ArrayList<>();
-        for (int i = 0; i < entryCount; i++) {
-            IndexEntry entry = parseEntry(reader);
-            if (entry != null && entry.getFileKey() != null && keys.add(entry.getFileKey())) {
-                entries.add(entry);
-            } else if (entry != null && entry.getFileKey() != null) {
-                LOGGER.trace("Skipping index entry for duplicate file key {}", entry.getFileKey());
-            }
+    private void requireData(ByteBuffer data, int position, long length) throws CascParsingException {
+        if (position < 0 || length < 0 || position + length > data.limit()) {
+            throw new CascParsingException(format("Index file %s is truncated, %d bytes required at position %d of %d", file, length, position, data.limit()));
         }
-        return entries;
-    }
-
-    /**
-     * Read and parse an {@link IndexEntry}.
-     *
-     * @param reader The reader to read the entry data from.
-     *
-     * @return The parsed entry.
-     *
-     * @throws DataReadingException When reading the entry data failed.
-     * @throws DataParsingException When parsing the entry data failed.
-     */
-    private IndexEntry parseEntry(DataReader reader) throws DataReadingException, DataParsingException {
-        byte[] fileKey = reader.readNext(DataTypeFactory.getByteArray(9));
-        short indexInfoHigh = reader.readNext(DataTypeFactory.getUnsignedByte());
-        long indexInfoLow = reader.readNext(DataTypeFactory.getUnsignedInteger(), ByteOrder.BIG_ENDIAN);
-        long fileSize = reader.readNext(DataTypeFactory.getUnsignedInteger(), ByteOrder.LITTLE_ENDIAN);
-        IndexEntry entry = new LocalIndexEntry(new FileKey(fileKey), indexInfoHigh, indexInfoLow, fileSize);
-        return entry;
     }
 
     /**
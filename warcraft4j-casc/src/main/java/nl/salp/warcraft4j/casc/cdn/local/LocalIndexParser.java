@@ -19,10 +19,8 @@
 package nl.salp.warcraft4j.casc.cdn.local;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
-import nl.salp.warcraft4j.casc.IndexEntry;
 import nl.salp.warcraft4j.casc.cdn.Index;
-import nl.salp.warcraft4j.io.DataReader;
-import nl.salp.warcraft4j.io.FileDataReader;
+import nl.salp.warcraft4j.casc.cdn.IndexBuilder;
 import nl.salp.warcraft4j.util.DataTypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,9 +28,15 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -48,45 +52,94 @@ public class LocalIndexParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(LocalIndexParser.class);
     /** The World of Warcraft installation directory. */
     private final Path installationDirectory;
+    /** The executor to parse the index files with. */
+    private final Executor executor;
 
     /**
-     * Create a new instance.
+     * Create a new instance, parsing the index files using the common {@link ForkJoinPool}.
      *
      * @param installationDirectory The World of Warcraft installation directory.
      */
     public LocalIndexParser(Path installationDirectory) {
+        this(installationDirectory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param installationDirectory The World of Warcraft installation directory.
+     * @param executor              The executor to parse the index files with, which has to be a {@link ForkJoinPool} when parsing from a task
+     *                              running on the executor itself, since the parsing waits for the index files to be parsed.
+     *
+     * @throws IllegalArgumentException When no executor was provided.
+     */
+    public LocalIndexParser(Path installationDirectory, Executor executor) throws IllegalArgumentException {
         this.installationDirectory = installationDirectory;
+        this.executor = Optional.ofNullable(executor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a LocalIndexParser without an executor."));
     }
 
     /**
      * Read and parse all index files into a {@link Index}.
+     * <p>
+     * The index files are parsed concurrently on the executor and merged in file number order, keeping the entry of the index file with the lowest
+     * file number when a file key is present in multiple index files.
      *
      * @return The index.
+     *
+     * @throws CascParsingException When parsing one of the index files failed.
      */
-    public Index parse() {
+    public Index parse() throws CascParsingException {
         LOGGER.trace("Parsing local index entries from {}.", installationDirectory);
-        Collection<Path> latestIndexFilePaths = getLatestIndexFilePaths();
-        List<LocalIndexFile> latestIndexFiles = latestIndexFilePaths.stream()
-                .map(LocalIndexParser::parse)
-                .collect(Collectors.toList());
-        List<IndexEntry> entries = latestIndexFiles.stream()
-                .map(LocalIndexFile::getEntries)
-                .flatMap(Collection::stream)
-                .distinct()
+        List<CompletableFuture<IndexBuilder>> parsedIndexFiles = getLatestIndexFilePaths().stream()
+                .sorted(Comparator.comparingInt(LocalIndexParser::parseFileNumber))
+                .map(path -> CompletableFuture.supplyAsync(() -> parse(path), executor))
                 .collect(Collectors.toList());
-        LOGGER.trace("Parsed {} index entries from {} index files.", entries.size(), latestIndexFiles.size());
-        return new Index(entries);
+        IndexBuilder builder = new IndexBuilder();
+        for (CompletableFuture<IndexBuilder> parsedIndexFile : parsedIndexFiles) {
+            builder.addAll(getResult(parsedIndexFile));
+        }
+        Index index = builder.build();
+        LOGGER.trace("Parsed {} index entries from {} index files.", index.getEntryCount(), parsedIndexFiles.size());
+        return index;
     }
 
     /**
-     * Parse a local index file to a {@link LocalIndexFile}.
+     * Wait for the result of an index file parsing task.
+     *
+     * @param task The task.
+     *
+     * @return The parsed entries of the index file.
+     *
+     * @throws CascParsingException When parsing the index file failed.
+     */
+    private static IndexBuilder getResult(CompletableFuture<IndexBuilder> task) throws CascParsingException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CascParsingException) {
+                throw (CascParsingException) e.getCause();
+            }
+            throw new CascParsingException("Error parsing index file", e.getCause());
+        }
+    }
+
+    /**
+     * Parse the entries of a local index file.
+     *
+     * @param path The path of the index file.
+     *
+     * @return Builder containing the parsed entries of the index file.
      *
-     * @return The parsed index file.
+     * @throws CascParsingException When parsing the index file failed.
      */
-    private static LocalIndexFile parse(Path path) {
-        try (DataReader reader = new FileDataReader(path)) {
+    private static IndexBuilder parse(Path path) throws CascParsingException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
             LOGGER.debug("Parsing index file {}", path);
-            return new LocalIndexFileParser(path, LocalIndexParser::parseFileNumber, LocalIndexParser::parseFileVersion).parse(reader);
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IndexBuilder builder = new IndexBuilder((int) (channel.size() / LocalIndexFileParser.ENTRY_SIZE));
+            new LocalIndexFileParser(path, LocalIndexParser::parseFileNumber, LocalIndexParser::parseFileVersion).parse(data, builder);
+            return builder;
         } catch (IOException e) {
             throw new CascParsingException(format("Error parsing index file %s", path), e);
         }
@@ -105,7 +158,7 @@ public class LocalIndexParser {
             Map<Integer, Path> latestFiles = new HashMap<>();
             for (Path p : scanner.getIndexFiles()) {
                 int fileNum = parseFileNumber(p);
-                if (!latestFiles.containsKey(fileNum) || parseFileVersion(p) > parseFileNumber(latestFiles.get(fileNum))) {
+                if (!latestFiles.containsKey(fileNum) || parseFileVersion(p) > parseFileVersion(latestFiles.get(fileNum))) {
                     LOGGER.trace("Using index file {} version {} instead of version {}", fileNum, parseFileVersion(p),
                             latestFiles.containsKey(fileNum) ? parseFileVersion(latestFiles.get(fileNum)) : 0);
                     latestFiles.put(fileNum, p);
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.local;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
+import nl.salp.warcraft4j.io.ByteBufferDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.MappedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataReaderProvider} for reading files from the file system, reading ranges of files from memory mapped files.
+ * <p>
+ * Every file that is read in ranges (i.e. the data files) is mapped once, with every range being read from a slice of the mapping without copying
+ * the data. Complete files (i.e. configuration files) are read as done by {@link FileDataReaderProvider}. The provider is thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.MappedFile
+ */
+public class MappedFileDataReaderProvider extends FileDataReaderProvider {
+    /** The logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileDataReaderProvider.class);
+    /** The mapped files, indexed by their URI. */
+    private final Map<String, MappedFile> mappedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The positions of the reader are relative to the offset. Ranges larger than {@link MappedFile#MAX_SLICE_SIZE} are read without memory mapping.
+     *
+     * @param uri The path of the file, either absolute or relative.
+     */
+    @Override
+    public Supplier<DataReader> getDataReader(String uri, long offset, long length) throws CascParsingException {
+        if (length > MappedFile.MAX_SLICE_SIZE) {
+            return super.getDataReader(uri, offset, length);
+        }
+        return () -> new ByteBufferDataReader(getMappedFile(uri).slice(offset, length));
+    }
+
+    /**
+     * Get the mapped file, mapping the file if it isn't mapped yet.
+     *
+     * @param uri The path of the file, either absolute or relative.
+     *
+     * @return The mapped file.
+     *
+     * @throws CascParsingException When the URI is invalid or does not point to a valid, readable file.
+     */
+    private MappedFile getMappedFile(String uri) throws CascParsingException {
+        MappedFile mappedFile = mappedFiles.get(uri);
+        if (mappedFile == null) {
+            mappedFile = mappedFiles.computeIfAbsent(uri, u -> {
+                LOGGER.trace("Memory mapping file {}", u);
+                return new MappedFile(toPath(u));
+            });
+        }
+        return mappedFile;
+    }
+
+    /**
+     * Close all opened and mapped files.
+     *
+     * @throws IOException When closing a file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (String uri : mappedFiles.keySet()) {
+            MappedFile mappedFile = mappedFiles.remove(uri);
+            try {
+                if (mappedFile != null) {
+                    mappedFile.close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        super.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
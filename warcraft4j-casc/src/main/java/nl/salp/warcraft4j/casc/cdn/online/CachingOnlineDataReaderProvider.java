@@ -21,29 +21,36 @@ package nl.salp.warcraft4j.casc.cdn.online;
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.cdn.CdnCascConfig;
 import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
-import nl.salp.warcraft4j.io.CachedHttpDataReader;
+import nl.salp.warcraft4j.io.BufferedDataReader;
 import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.DataReadingException;
 import nl.salp.warcraft4j.io.FileDataReader;
-import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import nl.salp.warcraft4j.io.PooledHttpClient;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.ByteChannel;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
-import static java.nio.file.StandardOpenOption.*;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
- * {@link DataReaderProvider} for reading files over HTTP, caching the files prior per version of the CASC the file is in.
+ * {@link DataReaderProvider} for reading files over HTTP, caching the files in a {@link CdnFileCache}.
  * <p>
- * This implementation has no cache-expiration or cleanup functionality and can consume quite a bit of drive space over time.
+ * CDN files are content-addressed, so the files are cached by their path relative to the CDN URL and are shared between versions of the CASC.
+ * The size of the cache is bounded, with the least recently used files being removed when the maximum size is exceeded. A cached file is pinned
+ * while a reader for it is open, so it is not removed while being read.
  * </p>
  *
  * @author Barre Dijkstra
@@ -51,15 +58,19 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 public class CachingOnlineDataReaderProvider implements DataReaderProvider {
     /** The logger. */
     protected static final Logger LOGGER = LoggerFactory.getLogger(CachingOnlineDataReaderProvider.class);
-    /** The size of chunks to use reading (cached) files. */
-    private static final int CACHE_CHUNK_SIZE = 4096;
-    /** The cache directory. */
-    private final Path cacheDirectory;
+    /** The name of the directory in the cache root directory to cache the CDN files in. */
+    private static final String CDN_CACHE_DIRECTORY = "cdn";
+    /** The size of the buffer for writing downloaded files to the cache. */
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    /** The cache. */
+    private final CdnFileCache cache;
     /** The CDN url. */
     private final String cdnUrl;
+    /** The HTTP client to read the files with. */
+    private final PooledHttpClient httpClient;
 
     /**
-     * Create a new instance.
+     * Create a new instance with an unbounded cache.
      *
      * @param cdnCascConfig      The {@link CdnCascConfig} to use.
      * @param cacheRootDirectory The path of the directory to cache all files in.
@@ -67,20 +78,68 @@ public class CachingOnlineDataReaderProvider implements DataReaderProvider {
      * @throws IllegalArgumentException When the cache directory is not available and could not be created.
      */
     public CachingOnlineDataReaderProvider(CdnCascConfig cdnCascConfig, Path cacheRootDirectory) throws IllegalArgumentException {
-        String versionDir = "v" + cdnCascConfig.getVersion().replace('.', '_');
-        this.cacheDirectory = cacheRootDirectory.resolve(versionDir);
-        this.cdnUrl = cdnCascConfig.getCdnUrl();
-        if (Files.notExists(cacheDirectory)) {
-            LOGGER.trace("Creating cache directory {}", cacheDirectory);
-            try {
-                Files.createDirectories(cacheDirectory);
-            } catch (IOException e) {
-                throw new IllegalArgumentException(format("Unable to create CDN cache directory %s", cacheDirectory), e);
-            }
-        } else {
-            LOGGER.trace("Using existing cache directory {}", cacheDirectory);
-        }
-        LOGGER.trace("Created cached CDN data reader for CDN URL {}, using cache directory {}", cdnUrl, cacheDirectory);
+        this(cdnCascConfig, cacheRootDirectory, 0);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cdnCascConfig      The {@link CdnCascConfig} to use.
+     * @param cacheRootDirectory The path of the directory to cache all files in.
+     * @param maxCacheSize       The maximum size of the cached files in bytes, {@code 0} or less for an unbounded cache.
+     *
+     * @throws IllegalArgumentException When the cache directory is not available and could not be created.
+     */
+    public CachingOnlineDataReaderProvider(CdnCascConfig cdnCascConfig, Path cacheRootDirectory, long maxCacheSize) throws IllegalArgumentException {
+        this(cdnCascConfig, cacheRootDirectory, maxCacheSize, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new instance with an unbounded cache.
+     *
+     * @param cdnCascConfig      The {@link CdnCascConfig} to use.
+     * @param cacheRootDirectory The path of the directory to cache all files in.
+     * @param httpClient         The HTTP client to read the files with.
+     *
+     * @throws IllegalArgumentException When the cache directory is not available and could not be created or the HTTP client is {@code null}.
+     */
+    public CachingOnlineDataReaderProvider(CdnCascConfig cdnCascConfig, Path cacheRootDirectory, PooledHttpClient httpClient) throws IllegalArgumentException {
+        this(cdnCascConfig, cacheRootDirectory, 0, httpClient);
+    }
+
+    /**
+     * Create a new instance, using the shared cache for the CDN cache directory in the cache root directory.
+     *
+     * @param cdnCascConfig      The {@link CdnCascConfig} to use.
+     * @param cacheRootDirectory The path of the directory to cache all files in.
+     * @param maxCacheSize       The maximum size of the cached files in bytes, {@code 0} or less for an unbounded cache.
+     * @param httpClient         The HTTP client to read the files with.
+     *
+     * @throws IllegalArgumentException When the cache directory is not available and could not be created or the HTTP client is {@code null}.
+     */
+    public CachingOnlineDataReaderProvider(CdnCascConfig cdnCascConfig, Path cacheRootDirectory, long maxCacheSize, PooledHttpClient httpClient)
+            throws IllegalArgumentException {
+        this(cdnCascConfig.getCdnUrl(), CdnFileCache.getInstance(Optional.ofNullable(cacheRootDirectory)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a caching online data reader provider without a cache directory."))
+                .resolve(CDN_CACHE_DIRECTORY), maxCacheSize), httpClient);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cdnUrl     The CDN URL.
+     * @param cache      The cache to cache the files in.
+     * @param httpClient The HTTP client to read the files with.
+     *
+     * @throws IllegalArgumentException When the cache or HTTP client is {@code null}.
+     */
+    public CachingOnlineDataReaderProvider(String cdnUrl, CdnFileCache cache, PooledHttpClient httpClient) throws IllegalArgumentException {
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a caching online data reader provider without an HTTP client."));
+        this.cache = Optional.ofNullable(cache)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a caching online data reader provider without a cache."));
+        this.cdnUrl = cdnUrl;
+        LOGGER.trace("Created cached CDN data reader for CDN URL {}, using cache directory {}", cdnUrl, cache.getDirectory());
     }
 
     /**
@@ -88,7 +147,7 @@ public class CachingOnlineDataReaderProvider implements DataReaderProvider {
      */
     @Override
     public Supplier<DataReader> getDataReader(String uri) throws CascParsingException {
-        return () -> new FileDataReader(getFile(uri));
+        return () -> open(uri, 0, Long.MAX_VALUE);
     }
 
     /**
@@ -96,90 +155,157 @@ public class CachingOnlineDataReaderProvider implements DataReaderProvider {
      */
     @Override
     public Supplier<DataReader> getDataReader(String uri, long offset, long length) throws CascParsingException {
-        return () -> new FileDataReader(getFile(uri), offset, length);
+        return () -> open(uri, offset, length);
     }
 
     /**
-     * Get the path of the cached version of a file, caching it when required.
+     * Open a reader for the cached version of a file, caching it when required.
+     * <p>
+     * When the cached file can not be opened (e.g. because it was removed from the cache in the meantime), the file is cached again. The cached
+     * file is pinned until the reader is closed.
+     * </p>
      *
-     * @param url The URL of the file.
+     * @param url    The URL of the file.
+     * @param offset The offset in the file to start reading at.
+     * @param length The maximum number of bytes to read.
      *
-     * @return The path of the cached file.
+     * @return The reader.
      *
      * @throws CascParsingException When caching the file failed or the URL is invalid.
      */
-    private Path getFile(String url) throws CascParsingException {
-        Path filePath;
-        if (isCached(url)) {
-            filePath = toCacheFile(url);
-        } else {
-            try {
-                filePath = cache(url);
-            } catch (IOException e) {
-                throw new CascParsingException(format("Error caching file %s", url), e);
-            }
+    private DataReader open(String url, long offset, long length) throws CascParsingException {
+        String key = toCacheKey(url);
+        try {
+            return open(getFile(url, key), offset, length);
+        } catch (IOException e) {
+            LOGGER.trace("Unable to open cached file {}, caching it again", key);
+            cache.remove(key);
+        }
+        try {
+            return open(getFile(url, key), offset, length);
+        } catch (IOException e) {
+            throw new CascParsingException(format("Error opening cached file %s", url), e);
         }
-        return filePath;
     }
 
     /**
-     * Cache a file, overwriting the previous version if existing.
+     * Open a reader for a pinned cached file, releasing the pin when the reader could not be opened.
      *
-     * @param url The URL of the file to cache.
+     * @param file   The pinned cached file.
+     * @param offset The offset in the file to start reading at.
+     * @param length The maximum number of bytes to read.
      *
-     * @return The path of the cached file.
+     * @return The reader, releasing the pin when closed.
      *
-     * @throws IOException When reading the file or writing the cached version of the file fails.
+     * @throws IOException When the file could not be opened.
      */
-    private Path cache(String url) throws IOException {
-        Path file = toCacheFile(url);
-        LOGGER.trace("Caching CDN file {} to {}", url, file);
-        if (!Files.exists(file.getParent())) {
-            LOGGER.trace("Creating directory structure {} to cache file {}", file.getParent(), file);
-            Files.createDirectories(file.getParent());
-        }
-        try (DataReader fileDataReader = new CachedHttpDataReader(url);
-             ByteChannel cachedFileChannel = Files.newByteChannel(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
-            long fileSize = 0;
-            while (fileDataReader.hasRemaining()) {
-                int chunkSize = (int) Math.min(CACHE_CHUNK_SIZE, fileDataReader.remaining());
-                ByteBuffer dataBuffer = ByteBuffer.wrap(fileDataReader.readNext(DataTypeFactory.getByteArray(chunkSize)));
-                while (dataBuffer.hasRemaining()) {
-                    fileSize += cachedFileChannel.write(dataBuffer);
-                }
+    private static DataReader open(CdnFileCache.CachedFile file, long offset, long length) throws IOException {
+        FileChannel channel = null;
+        try {
+            channel = file.openChannel();
+            return new PinnedDataReader(new FileDataReader(channel, offset, length), file);
+        } catch (IOException | DataReadingException e) {
+            if (channel != null) {
+                channel.close();
             }
-            LOGGER.trace("Cached {} byte CDN file {} to {}", fileSize, url, file);
+            file.close();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
         }
-        return file;
     }
 
     /**
-     * Check if a file is cached.
+     * Get the cached version of a file, caching it when required.
      *
      * @param url The URL of the file.
+     * @param key The cache key of the file.
      *
-     * @return {@code true} if the file is cached.
+     * @return The cached file, pinned until it is closed.
      *
-     * @throws CascParsingException When the provided URL is invalid or does not point to a valid file.
+     * @throws CascParsingException When caching the file failed.
+     */
+    private CdnFileCache.CachedFile getFile(String url, String key) throws CascParsingException {
+        try {
+            return cache.open(key, out -> download(url, out));
+        } catch (IOException e) {
+            throw new CascParsingException(format("Error caching file %s", url), e);
+        }
+    }
+
+    /**
+     * Download a file.
+     *
+     * @param url The URL of the file.
+     * @param out The stream to write the file to.
+     *
+     * @throws IOException When the file could not be downloaded completely.
      */
-    private boolean isCached(String url) throws CascParsingException {
-        Path file = toCacheFile(url);
-        return Files.exists(file) && Files.isRegularFile(file) && Files.isReadable(file);
+    private void download(String url, OutputStream out) throws IOException {
+        LOGGER.trace("Caching CDN file {}", url);
+        try (CloseableHttpResponse response = httpClient.getClient().execute(new HttpGet(URI.create(url)))) {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() > 300) {
+                throw new IOException(format("Error downloading %s: error %d: %s", url, statusLine.getStatusCode(), statusLine.getReasonPhrase()));
+            }
+            HttpEntity entity = response.getEntity();
+            long fileSize = 0;
+            try (InputStream in = entity.getContent()) {
+                byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                    fileSize += read;
+                }
+            }
+            if (entity.getContentLength() >= 0 && entity.getContentLength() != fileSize) {
+                throw new IOException(format("Incomplete download of %s: received %d of %d bytes", url, fileSize, entity.getContentLength()));
+            }
+        }
     }
 
     /**
-     * Convert the URL of a file to the path of the cached version (which might not exist).
+     * Convert the URL of a file to its key in the cache.
      *
      * @param url The URL of the file.
      *
-     * @return The path to the cached version of the file.
+     * @return The cache key of the file.
      *
      * @throws CascParsingException When the provided URL is invalid or does not point to a valid file.
      */
-    private Path toCacheFile(String url) throws CascParsingException {
+    private String toCacheKey(String url) throws CascParsingException {
         if (isEmpty(url) || !url.startsWith(cdnUrl) || url.equals(cdnUrl)) {
             throw new CascParsingException(format("%s is not a cacheable url.", url));
         }
-        return cacheDirectory.resolve(Paths.get(url.substring(cdnUrl.length() + 1)));
+        return url.substring(cdnUrl.length() + 1);
+    }
+
+    /**
+     * Buffered reader for a cached file, releasing the pin on the file when closed.
+     */
+    private static class PinnedDataReader extends BufferedDataReader {
+        /** The pinned cached file. */
+        private final CdnFileCache.CachedFile file;
+
+        /**
+         * Create a new instance.
+         *
+         * @param reader The reader for the cached file.
+         * @param file   The pinned cached file.
+         */
+        private PinnedDataReader(DataReader reader, CdnFileCache.CachedFile file) {
+            super(reader);
+            this.file = file;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                file.close();
+            }
+        }
     }
 }
@@ -0,0 +1,619 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.online;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Size-bounded disk cache for content-addressed CDN files.
+ * <p>
+ * Files are stored under their key (the path of the file relative to the CDN URL, e.g. {@code data/0a/1b/0a1b...}), which only depends on the
+ * contents of the file. The cache can therefore be shared between versions of a CASC. The cached files are tracked in an in-memory index, built
+ * from the cache directory on creation, so a cache hit does not touch the file system and only updates the order of use in the index. When the
+ * total size of the cached files exceeds the maximum size, the least recently used files are removed. The modification time of a file is only
+ * updated when the last pin on the file is released, and is used to restore the order of use when the cache directory is indexed again.
+ * </p>
+ * <p>
+ * Files that are opened through {@link #open(String)} or {@link #open(String, Loader)} are pinned until the returned {@link CachedFile} is closed.
+ * Pinned files are never evicted, and removing a pinned file only deletes it from disk once it is no longer pinned.
+ * </p>
+ * <p>
+ * Files are written to a temporary file first, which is renamed to the cached file once it is completely written. Temporary files left behind by an
+ * interrupted write are removed when the cache directory is indexed.
+ * </p>
+ *
+ * @author Barre Dijkstra
+ */
+public class CdnFileCache {
+    /** The logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CdnFileCache.class);
+    /** The suffix of files that are being written. */
+    private static final String TEMP_FILE_SUFFIX = ".part";
+    /** The shared cache instances, per cache directory. */
+    private static final Map<Path, CdnFileCache> INSTANCES = new ConcurrentHashMap<>();
+    /** The cache directory. */
+    private final Path directory;
+    /** The maximum size of the cached files in bytes, {@code 0} or less for an unbounded cache. */
+    private final long maxSize;
+    /** The sizes of the cached files, in least recently used order. */
+    private final LinkedHashMap<String, Long> entries;
+    /** The locks for the files that are being cached, preventing a file from being cached concurrently. */
+    private final Map<String, Object> loadLocks;
+    /** The number of times each pinned file is pinned, guarded by {@link #entries}. */
+    private final Map<String, Integer> pins;
+    /** The keys of the pinned files that are to be deleted once they are no longer pinned, guarded by {@link #entries}. */
+    private final Set<String> deferredDeletes;
+    /** The total size of the cached files in bytes. */
+    private long size;
+
+    /**
+     * Create a new instance, indexing the files already present in the cache directory.
+     *
+     * @param directory The cache directory, created when not existing.
+     * @param maxSize   The maximum size of the cached files in bytes, {@code 0} or less for an unbounded cache.
+     *
+     * @throws IllegalArgumentException When the cache directory could not be created or indexed.
+     */
+    public CdnFileCache(Path directory, long maxSize) throws IllegalArgumentException {
+        this.directory = Optional.ofNullable(directory)
+                .map(Path::toAbsolutePath)
+                .map(Path::normalize)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a CDN file cache without a directory."));
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true);
+        this.loadLocks = new ConcurrentHashMap<>();
+        this.pins = new HashMap<>();
+        this.deferredDeletes = new HashSet<>();
+        try {
+            Files.createDirectories(this.directory);
+            index();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(format("Unable to use CDN cache directory %s", this.directory), e);
+        }
+        evict();
+        LOGGER.trace("Using CDN cache directory {} with {} cached files totalling {} bytes", this.directory, entries.size(), size);
+    }
+
+    /**
+     * Get the shared cache for a directory, creating it when required.
+     *
+     * @param directory The cache directory.
+     * @param maxSize   The maximum size of the cached files in bytes, {@code 0} or less for an unbounded cache.
+     *
+     * @return The cache.
+     *
+     * @throws IllegalArgumentException When the cache directory could not be created or indexed, or when the shared cache for the directory was
+     *                                  created with a different maximum size.
+     */
+    public static CdnFileCache getInstance(Path directory, long maxSize) throws IllegalArgumentException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Unable to get a CDN file cache without a directory.");
+        }
+        CdnFileCache cache = INSTANCES.computeIfAbsent(directory.toAbsolutePath().normalize(), dir -> new CdnFileCache(dir, maxSize));
+        if (Math.max(0, cache.getMaxSize()) != Math.max(0, maxSize)) {
+            throw new IllegalArgumentException(format("CDN cache directory %s is already in use with a maximum size of %d bytes instead of %d bytes.",
+                    cache.getDirectory(), cache.getMaxSize(), maxSize));
+        }
+        return cache;
+    }
+
+    /**
+     * Index the files in the cache directory, removing incomplete files.
+     * <p>
+     * Files are considered to be used in order of their modification time.
+     * </p>
+     *
+     * @throws IOException When the directory could not be read.
+     */
+    private void index() throws IOException {
+        Map<Path, BasicFileAttributes> files = new HashMap<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    files.put(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        List<Path> paths = new ArrayList<>(files.keySet());
+        paths.sort(Comparator.comparing(file -> files.get(file).lastModifiedTime()));
+        for (Path file : paths) {
+            if (file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+                LOGGER.trace("Removing incomplete cached file {}", file);
+                Files.deleteIfExists(file);
+            } else {
+                long fileSize = files.get(file).size();
+                entries.put(toKey(file), fileSize);
+                size += fileSize;
+            }
+        }
+    }
+
+    /**
+     * Get a cached file.
+     *
+     * @param key The key of the file.
+     *
+     * @return Optional containing the path of the cached file if the file is cached.
+     *
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public Optional<Path> get(String key) throws IllegalArgumentException {
+        return lookup(key, false).map(CachedFile::getPath);
+    }
+
+    /**
+     * Get a cached file, caching it when not cached yet.
+     * <p>
+     * The file is not pinned, use {@link #open(String, Loader)} for files that are read from after they are returned.
+     * </p>
+     *
+     * @param key    The key of the file.
+     * @param loader The loader to write the file with when it is not cached.
+     *
+     * @return The path of the cached file.
+     *
+     * @throws IOException              When the file could not be loaded or written.
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public Path get(String key, Loader loader) throws IOException, IllegalArgumentException {
+        return load(key, loader, false).getPath();
+    }
+
+    /**
+     * Open a cached file, pinning it until the returned file is closed.
+     *
+     * @param key The key of the file.
+     *
+     * @return Optional containing the pinned file if the file is cached.
+     *
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public Optional<CachedFile> open(String key) throws IllegalArgumentException {
+        return lookup(key, true);
+    }
+
+    /**
+     * Open a cached file, caching it when not cached yet and pinning it until the returned file is closed.
+     *
+     * @param key    The key of the file.
+     * @param loader The loader to write the file with when it is not cached.
+     *
+     * @return The pinned file.
+     *
+     * @throws IOException              When the file could not be loaded or written.
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public CachedFile open(String key, Loader loader) throws IOException, IllegalArgumentException {
+        return load(key, loader, true);
+    }
+
+    /**
+     * Look up a cached file, marking it as used in the index.
+     *
+     * @param key The key of the file.
+     * @param pin {@code true} to pin the file.
+     *
+     * @return Optional containing the file if the file is cached.
+     *
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    private Optional<CachedFile> lookup(String key, boolean pin) throws IllegalArgumentException {
+        Path file = toFile(key);
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return Optional.empty();
+            }
+            if (pin) {
+                pins.merge(key, 1, Integer::sum);
+            }
+        }
+        return Optional.of(new CachedFile(key, file, pin));
+    }
+
+    /**
+     * Get a cached file, caching it when not cached yet.
+     *
+     * @param key    The key of the file.
+     * @param loader The loader to write the file with when it is not cached.
+     * @param pin    {@code true} to pin the file.
+     *
+     * @return The file.
+     *
+     * @throws IOException              When the file could not be loaded or written.
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    private CachedFile load(String key, Loader loader, boolean pin) throws IOException, IllegalArgumentException {
+        Optional<CachedFile> cached = lookup(key, pin);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                cached = lookup(key, pin);
+                return cached.isPresent() ? cached.get() : new CachedFile(key, store(key, loader, pin), pin);
+            }
+        } finally {
+            loadLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * Update the modification time of a cached file to mark it as recently used.
+     *
+     * @param file The file.
+     */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.trace("Unable to update the modification time of cached file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Cache a file, replacing the previously cached file if present.
+     *
+     * @param key    The key of the file.
+     * @param loader The loader to write the file with.
+     *
+     * @return The path of the cached file.
+     *
+     * @throws IOException              When the file could not be loaded or written.
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public Path put(String key, Loader loader) throws IOException, IllegalArgumentException {
+        return store(key, loader, false);
+    }
+
+    /**
+     * Cache a file, replacing the previously cached file if present.
+     *
+     * @param key    The key of the file.
+     * @param loader The loader to write the file with.
+     * @param pin    {@code true} to pin the file before it becomes eligible for eviction.
+     *
+     * @return The path of the cached file.
+     *
+     * @throws IOException              When the file could not be loaded or written.
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    private Path store(String key, Loader loader, boolean pin) throws IOException, IllegalArgumentException {
+        Path file = toFile(key);
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString() + ".", TEMP_FILE_SUFFIX);
+        try {
+            long fileSize;
+            try (FileChannel channel = FileChannel.open(tempFile, WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                loader.load(out);
+                out.flush();
+                channel.force(true);
+                fileSize = channel.size();
+            }
+            synchronized (entries) {
+                try {
+                    Files.move(tempFile, file, ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, file, REPLACE_EXISTING);
+                }
+                deferredDeletes.remove(key);
+                Long previousSize = entries.put(key, fileSize);
+                size += fileSize - (previousSize == null ? 0 : previousSize);
+                if (pin) {
+                    pins.merge(key, 1, Integer::sum);
+                }
+            }
+            LOGGER.trace("Cached {} byte file {} to {}", fileSize, key, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        evict();
+        return file;
+    }
+
+    /**
+     * Remove a file from the cache.
+     * <p>
+     * A pinned file is removed from the cache immediately, but is only deleted from disk once it is no longer pinned.
+     * </p>
+     *
+     * @param key The key of the file.
+     *
+     * @return {@code true} if the file was cached.
+     *
+     * @throws IllegalArgumentException When the key is invalid.
+     */
+    public boolean remove(String key) throws IllegalArgumentException {
+        Path file = toFile(key);
+        synchronized (entries) {
+            Long fileSize = entries.remove(key);
+            if (fileSize != null) {
+                size -= fileSize;
+            }
+            if (pins.containsKey(key)) {
+                LOGGER.trace("Deferring the deletion of pinned cached file {}", key);
+                deferredDeletes.add(key);
+            } else {
+                delete(file);
+            }
+            return fileSize != null;
+        }
+    }
+
+    /**
+     * Release a pin on a file, deleting the file when it was removed while pinned or marking it as recently used on disk otherwise.
+     *
+     * @param key The key of the file.
+     */
+    private void unpin(String key) {
+        Path file = toFile(key);
+        boolean unpinned;
+        boolean cached;
+        synchronized (entries) {
+            unpinned = pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null) == null;
+            if (unpinned && deferredDeletes.remove(key)) {
+                LOGGER.trace("Deleting removed cached file {} after it was unpinned", key);
+                delete(file);
+            }
+            cached = entries.containsKey(key);
+        }
+        if (unpinned) {
+            if (cached) {
+                touch(file);
+            }
+            evict();
+        }
+    }
+
+    /**
+     * Remove the least recently used files that are not pinned until the cache is within its maximum size, always keeping the most recently used
+     * file.
+     * <p>
+     * The files are deleted while holding the index lock, so a file can not be deleted after it has been cached again.
+     * </p>
+     */
+    private void evict() {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            int candidates = entries.size() - 1;
+            while (size > maxSize && candidates-- > 0) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (!pins.containsKey(eldest.getKey())) {
+                    LOGGER.trace("Evicting cached file {}", eldest.getKey());
+                    size -= eldest.getValue();
+                    iterator.remove();
+                    delete(toFile(eldest.getKey()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete a cached file.
+     *
+     * @param file The file.
+     */
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn(format("Unable to delete cached file %s", file), e);
+        }
+    }
+
+    /**
+     * Get the path of the cached file for a key.
+     *
+     * @param key The key.
+     *
+     * @return The path.
+     *
+     * @throws IllegalArgumentException When the key is empty or resolves to a file outside of the cache directory.
+     */
+    private Path toFile(String key) throws IllegalArgumentException {
+        if (key == null || key.isEmpty() || key.endsWith(TEMP_FILE_SUFFIX)) {
+            throw new IllegalArgumentException(format("%s is not a valid CDN cache key.", key));
+        }
+        Path file = directory.resolve(key).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException(format("CDN cache key %s resolves to a file outside of the cache directory.", key));
+        }
+        return file;
+    }
+
+    /**
+     * Get the key of a file in the cache directory.
+     *
+     * @param file The file.
+     *
+     * @return The key.
+     */
+    private String toKey(Path file) {
+        return directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Get the cache directory.
+     *
+     * @return The cache directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the maximum size of the cached files.
+     *
+     * @return The maximum size in bytes, {@code 0} or less for an unbounded cache.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the total size of the cached files.
+     *
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    /**
+     * Get the number of cached files.
+     *
+     * @return The number of cached files.
+     */
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the number of pinned files.
+     *
+     * @return The number of pinned files.
+     */
+    public int getPinnedCount() {
+        synchronized (entries) {
+            return pins.size();
+        }
+    }
+
+    /**
+     * A file in the cache, which is pinned in the cache until it is closed when it was opened through {@link #open(String)} or
+     * {@link #open(String, Loader)}.
+     */
+    public final class CachedFile implements Closeable {
+        /** The key of the file. */
+        private final String key;
+        /** The path of the file. */
+        private final Path path;
+        /** Flag indicating if the file still holds its pin. */
+        private final AtomicBoolean pinned;
+
+        /**
+         * Create a new instance.
+         *
+         * @param key    The key of the file.
+         * @param path   The path of the file.
+         * @param pinned {@code true} if the file is pinned.
+         */
+        private CachedFile(String key, Path path, boolean pinned) {
+            this.key = key;
+            this.path = path;
+            this.pinned = new AtomicBoolean(pinned);
+        }
+
+        /**
+         * Get the key of the file.
+         *
+         * @return The key.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Get the path of the file.
+         *
+         * @return The path.
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Open the file for reading, without checking the file first.
+         *
+         * @return The channel for reading the file.
+         *
+         * @throws IOException When the file could not be opened, e.g. because it no longer exists.
+         */
+        public FileChannel openChannel() throws IOException {
+            return FileChannel.open(path, READ);
+        }
+
+        /**
+         * Release the pin on the file, allowing it to be evicted or deleted. Closing the file more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (pinned.compareAndSet(true, false)) {
+                unpin(key);
+            }
+        }
+    }
+
+    /**
+     * Loader writing the contents of a file that is to be cached.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Write the contents of the file.
+         *
+         * @param out The stream to write the contents to, closed by the cache.
+         *
+         * @throws IOException When the contents could not be loaded or written.
+         */
+        void load(OutputStream out) throws IOException;
+    }
+}
@@ -99,7 +99,7 @@ public class OnlineCdnCascConfig extends BaseCdnCascConfig {
      *
      * @return The {@code CDNs} config.
      */
-    private KeyBasedConfiguration getCdns() {
+    private synchronized KeyBasedConfiguration getCdns() {
         if (cdns == null) {
             String uri = getDirectUrl(FILE_CDNS);
             LOGGER.trace("Initialising CDNs config from URI {}", uri);
@@ -126,7 +126,7 @@ public class OnlineCdnCascConfig extends BaseCdnCascConfig {
      *
      * @return The {@code versions} config.
      */
-    private KeyBasedConfiguration getVersions() {
+    private synchronized KeyBasedConfiguration getVersions() {
         if (versions == null) {
             String uri = getDirectUrl(FILE_VERSIONS);
             LOGGER.trace("Initialising versions config from URI {}", uri);
@@ -25,7 +25,9 @@ import nl.salp.warcraft4j.util.Checksum;
 import nl.salp.warcraft4j.casc.*;
 import nl.salp.warcraft4j.config.Warcraft4jConfig;
 import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.PooledHttpClient;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -41,24 +43,40 @@ import static java.lang.String.format;
 public class OnlineCdnCascContext extends CdnCascContext {
     /** The URI mask for data files. */
     private static final String MASK_FILES_DATA = "%s/data/%s/%s/%s";
+    /** The HTTP client to read the CDN files with. */
+    private final PooledHttpClient httpClient;
     /** The {@link CdnCascConfig}. */
     private CdnCascConfig cdnCascConfig;
 
     /**
-     * Create a new context instance.
+     * Create a new context instance, reading the CDN files with the default {@link PooledHttpClient}.
      *
      * @param warcraft4jConfig The {@link Warcraft4jConfig}.
      */
     @Inject
     public OnlineCdnCascContext(Warcraft4jConfig warcraft4jConfig) {
+        this(warcraft4jConfig, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new context instance.
+     *
+     * @param warcraft4jConfig The {@link Warcraft4jConfig}.
+     * @param httpClient       The HTTP client to read the CDN files with.
+     *
+     * @throws IllegalArgumentException When the HTTP client is {@code null}.
+     */
+    public OnlineCdnCascContext(Warcraft4jConfig warcraft4jConfig, PooledHttpClient httpClient) throws IllegalArgumentException {
         super(warcraft4jConfig);
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create an online CASC context without an HTTP client."));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public CdnCascConfig getCdnCascConfig() {
+    public synchronized CdnCascConfig getCdnCascConfig() {
         if (cdnCascConfig == null) {
             cdnCascConfig = new OnlineCdnCascConfig(getWarcraft4jConfig(), getDataReaderProvider());
         }
@@ -74,7 +92,7 @@ public class OnlineCdnCascContext extends CdnCascContext {
         String uri = getDataFileUri(encodingFileChecksum)
                 .orElseThrow(() -> new CascParsingException(format("Unable to get the URl for the encoding file with checksum %s", encodingFileChecksum.toHexString())));
         LOGGER.trace("Creating data supplier for {} byte encoding file {} from {}", getCdnCascConfig().getStorageEncodingFileSize(), encodingFileChecksum, uri);
-        return () -> new BlteDataReader(getDataReaderProvider().getDataReader(uri), getCdnCascConfig().getStorageEncodingFileSize());
+        return () -> new BlteDataReader(getDataReaderProvider().getDataReader(uri), getCdnCascConfig().getStorageEncodingFileSize(), null, getExecutor());
     }
 
     /**
@@ -82,7 +100,7 @@ public class OnlineCdnCascContext extends CdnCascContext {
      */
     @Override
     protected Index parseIndex() throws CascParsingException {
-        return new OnlineIndexParser(getCdnCascConfig(), getDataReaderProvider()).parse();
+        return new OnlineIndexParser(getCdnCascConfig(), getDataReaderProvider(), getExecutor()).parse();
     }
 
     /**
@@ -91,9 +109,10 @@ public class OnlineCdnCascContext extends CdnCascContext {
     @Override
     protected DataReaderProvider getDataReaderProvider() {
         if (getWarcraft4jConfig().isCaching() && cdnCascConfig != null) {
-            return new CachingOnlineDataReaderProvider(cdnCascConfig, getWarcraft4jConfig().getCacheDirectory());
+            return new CachingOnlineDataReaderProvider(cdnCascConfig, getWarcraft4jConfig().getCacheDirectory(), getWarcraft4jConfig().getCacheSize(),
+                    httpClient);
         } else {
-            return new OnlineDataReaderProvider();
+            return new OnlineDataReaderProvider(httpClient);
         }
     }
 
@@ -103,10 +122,11 @@ public class OnlineCdnCascContext extends CdnCascContext {
     @Override
     protected Optional<String> getDataFileUri(IndexEntry entry) {
         Optional<String> uri;
-        if (entry == null) {
+        List<FileKey> archives = cdnCascConfig.getArchiveChecksums();
+        if (entry == null || entry.getFileNumber() < 0 || entry.getFileNumber() >= archives.size()) {
             uri = Optional.empty();
         } else {
-            uri = getDataFileUri(entry.getFileKey());
+            uri = getDataFileUri(archives.get(entry.getFileNumber()));
         }
         return uri;
     }
@@ -18,24 +18,62 @@
  */
 package nl.salp.warcraft4j.casc.cdn.online;
 
+import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
+import nl.salp.warcraft4j.io.ByteBufferDataReader;
 import nl.salp.warcraft4j.io.CachedHttpDataReader;
 import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.PooledHttpClient;
+import nl.salp.warcraft4j.util.SortUtil;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
+import static java.lang.String.format;
+
 /**
  * {@link DataReaderProvider} for reading files over HTTP.
+ * <p>
+ * Segments of files are read with HTTP range requests. When multiple segments of a file are requested at once, adjacent and overlapping segments
+ * are combined into a single range request of at most {@link #MAX_COALESCED_LENGTH} bytes.
  *
  * @author Barre Dijkstra
  */
 public class OnlineDataReaderProvider implements DataReaderProvider {
+    /** The maximum number of bytes read by a single combined range request. */
+    public static final long MAX_COALESCED_LENGTH = 8 * 1024 * 1024;
+    /** The HTTP client to read the files with. */
+    private final PooledHttpClient httpClient;
+
+    /**
+     * Create a new instance, using the shared default HTTP client.
+     */
+    public OnlineDataReaderProvider() {
+        this(PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param httpClient The HTTP client to read the files with.
+     *
+     * @throws IllegalArgumentException When the HTTP client is {@code null}.
+     */
+    public OnlineDataReaderProvider(PooledHttpClient httpClient) throws IllegalArgumentException {
+        this.httpClient = Optional.ofNullable(httpClient)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create an online data reader provider without an HTTP client."));
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Supplier<DataReader> getDataReader(String url) {
-        return () -> new CachedHttpDataReader(url);
+        return () -> new CachedHttpDataReader(url, httpClient);
     }
 
     /**
@@ -43,6 +81,144 @@ public class OnlineDataReaderProvider implements DataReaderProvider {
      */
     @Override
     public Supplier<DataReader> getDataReader(String url, long offset, long length) {
-        return () -> new CachedHttpDataReader(url, offset, length);
+        return () -> new CachedHttpDataReader(url, offset, length, httpClient);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Supplier<DataReader>> getDataReaders(String url, long[] offsets, long[] lengths) throws CascParsingException {
+        if (offsets == null || lengths == null || offsets.length != lengths.length) {
+            throw new CascParsingException(format("Unable to get the data readers for %s without an offset and length for every segment.", url));
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0 || lengths[i] < 0) {
+                throw new CascParsingException(format("Unable to get a data reader for %s for %d bytes from offset %d.", url, lengths[i], offsets[i]));
+            }
+        }
+        int[] order = SortUtil.sortedPermutation(offsets.length, (a, b) -> Long.compare(offsets[a], offsets[b]));
+        Supplier<DataReader>[] readers = newSupplierArray(offsets.length);
+        int first = 0;
+        while (first < order.length) {
+            long start = offsets[order[first]];
+            long end = start + lengths[order[first]];
+            int last = first + 1;
+            while (last < order.length && offsets[order[last]] <= end
+                    && Math.max(end, offsets[order[last]] + lengths[order[last]]) - start <= MAX_COALESCED_LENGTH) {
+                end = Math.max(end, offsets[order[last]] + lengths[order[last]]);
+                last++;
+            }
+            if (last - first == 1) {
+                int segment = order[first];
+                readers[segment] = getDataReader(url, offsets[segment], lengths[segment]);
+            } else {
+                CoalescedRange range = new CoalescedRange(url, start, end - start, last - first, httpClient);
+                for (int i = first; i < last; i++) {
+                    int segment = order[i];
+                    int rangeSegment = i - first;
+                    readers[segment] = () -> range.getDataReader(rangeSegment, offsets[segment], lengths[segment]);
+                }
+            }
+            first = last;
+        }
+        return Arrays.asList(readers);
+    }
+
+    /**
+     * Create a new array for data reader suppliers.
+     *
+     * @param size The size of the array.
+     *
+     * @return The array.
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<DataReader>[] newSupplierArray(int size) {
+        return (Supplier<DataReader>[]) new Supplier[size];
+    }
+
+    /**
+     * A range of a file that contains multiple segments and is read with a single request.
+     * <p>
+     * The data is read when the first segment is opened and released once every segment has been opened at least once, after which it is read
+     * again when needed. Opening a segment again before the other segments were opened doesn't count towards releasing the data.
+     */
+    private static class CoalescedRange {
+        /** The URL of the file. */
+        private final String url;
+        /** The HTTP client to read the range with. */
+        private final PooledHttpClient httpClient;
+        /** The offset of the range in the file. */
+        private final long offset;
+        /** The length of the range. */
+        private final long length;
+        /** Flags for the segments in the range that have been opened since the data was read. */
+        private final boolean[] opened;
+        /** The number of segments that have not been opened since the data was read. */
+        private int pending;
+        /** The data of the range, {@code null} when not read. */
+        private byte[] data;
+
+        /**
+         * Create a new instance.
+         *
+         * @param url        The URL of the file.
+         * @param offset     The offset of the range in the file.
+         * @param length     The length of the range.
+         * @param segments   The number of segments in the range.
+         * @param httpClient The HTTP client to read the range with.
+         */
+        private CoalescedRange(String url, long offset, long length, int segments, PooledHttpClient httpClient) {
+            this.url = url;
+            this.httpClient = httpClient;
+            this.offset = offset;
+            this.length = length;
+            this.opened = new boolean[segments];
+        }
+
+        /**
+         * Get a reader for a segment in the range, reading the range if needed.
+         *
+         * @param segment       The number of the segment in the range.
+         * @param segmentOffset The offset of the segment in the file.
+         * @param segmentLength The length of the segment.
+         *
+         * @return The reader for the segment.
+         *
+         * @throws CascParsingException When reading the range failed.
+         */
+        private synchronized DataReader getDataReader(int segment, long segmentOffset, long segmentLength) throws CascParsingException {
+            byte[] rangeData = data;
+            if (rangeData == null) {
+                rangeData = read();
+                data = rangeData;
+                Arrays.fill(opened, false);
+                pending = opened.length;
+            }
+            if (!opened[segment]) {
+                opened[segment] = true;
+                if (--pending == 0) {
+                    data = null;
+                }
+            }
+            return new ByteBufferDataReader(ByteBuffer.wrap(rangeData, (int) (segmentOffset - offset), (int) segmentLength));
+        }
+
+        /**
+         * Read the data of the range.
+         *
+         * @return The data.
+         *
+         * @throws CascParsingException When reading the range failed.
+         */
+        private byte[] read() throws CascParsingException {
+            byte[] rangeData = new byte[(int) length];
+            try (DataReader reader = new CachedHttpDataReader(url, offset, length, httpClient)) {
+                reader.readBytes(rangeData, 0, rangeData.length);
+            } catch (IOException e) {
+                throw new CascParsingException(format("Error reading %d bytes from offset %d of %s", length, offset, url), e);
+            }
+            return rangeData;
+        }
     }
 }
@@ -22,10 +22,10 @@ import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.FileKey;
 import nl.salp.warcraft4j.casc.IndexEntry;
 import nl.salp.warcraft4j.casc.cdn.CascIndexEntry;
+import nl.salp.warcraft4j.casc.cdn.IndexBuilder;
 import nl.salp.warcraft4j.io.DataParsingException;
 import nl.salp.warcraft4j.io.DataReader;
 import nl.salp.warcraft4j.io.DataReadingException;
-import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +43,8 @@ import static java.lang.String.format;
  */
 public class OnlineIndexFileParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(OnlineIndexFileParser.class);
+    /** The length of the checksum of an entry. */
+    private static final int CHECKSUM_LENGTH = 16;
     private static final byte[] EMPTY_CHECKSUM = createEmptyChecksum();
 
     private final int fileNumber;
@@ -54,37 +56,79 @@ public class OnlineIndexFileParser {
     }
 
     public OnlineIndexFile parse(DataReader reader) throws DataReadingException, DataParsingException, CascParsingException {
+        List<IndexEntry> entries = new ArrayList<>();
+        parse(reader, (checksum, size, offset) -> entries.add(new CascIndexEntry(new FileKey(checksum.clone()), fileNumber, offset, size)));
+        return new OnlineIndexFile(fileNumber, fileKey, entries);
+    }
+
+    /**
+     * Parse the entries of an index file into an index builder, without creating an entry instance for every entry.
+     *
+     * @param reader  The reader for the index file.
+     * @param builder The builder to add the entries to.
+     *
+     * @throws DataReadingException When reading the index file failed.
+     * @throws DataParsingException When the index file data could not be parsed.
+     * @throws CascParsingException When the index file contains invalid entries.
+     */
+    public void parse(DataReader reader, IndexBuilder builder) throws DataReadingException, DataParsingException, CascParsingException {
+        parse(reader, (checksum, size, offset) -> builder.add(checksum, 0, fileNumber, offset, size));
+    }
+
+    /**
+     * Parse the entries of an index file.
+     *
+     * @param reader  The reader for the index file.
+     * @param visitor The visitor to pass the entries to.
+     *
+     * @throws DataReadingException When reading the index file failed.
+     * @throws DataParsingException When the index file data could not be parsed.
+     * @throws CascParsingException When the index file contains invalid entries.
+     */
+    private void parse(DataReader reader, EntryVisitor visitor) throws DataReadingException, DataParsingException, CascParsingException {
         long start = reader.position();
         reader.position(reader.remaining() - 12);
-        int count = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.LITTLE_ENDIAN);
+        int count = reader.readInt(ByteOrder.LITTLE_ENDIAN);
         reader.position(start);
-        List<IndexEntry> entries = new ArrayList<>(count);
+        byte[] checksum = new byte[CHECKSUM_LENGTH];
         for (int i = 0; i < count; i++) {
-            byte[] checksum = reader.readNext(DataTypeFactory.getByteArray(16));
+            reader.readBytes(checksum, 0, CHECKSUM_LENGTH);
             if (Arrays.equals(checksum, EMPTY_CHECKSUM)) {
-                checksum = reader.readNext(DataTypeFactory.getByteArray(16));
+                reader.readBytes(checksum, 0, CHECKSUM_LENGTH);
             }
             if (Arrays.equals(checksum, EMPTY_CHECKSUM)) {
                 throw new CascParsingException(format("Encountered empty checksum for entry %d in index file %d with file key %s.", i, fileNumber, fileKey.toHexString()));
             }
-            int size = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.BIG_ENDIAN);
+            int size = reader.readInt(ByteOrder.BIG_ENDIAN);
             if (size < 0) {
                 throw new CascParsingException(format("CDN index file %d (%s) has a negative size of %d for entry %d", fileNumber, fileKey.toHexString(), size, i));
             }
-            int offset = reader.readNext(DataTypeFactory.getInteger(), ByteOrder.BIG_ENDIAN);
+            int offset = reader.readInt(ByteOrder.BIG_ENDIAN);
             if (offset < 0) {
                 throw new CascParsingException(format("CDN index file %d (%s) has a negative offset of %d for entry %d", fileNumber, fileKey.toHexString(), offset, i));
             }
-
-            IndexEntry entry = new CascIndexEntry(new FileKey(checksum), fileNumber, size, offset);
-            entries.add(entry);
+            visitor.visit(checksum, size, offset);
         }
-        return new OnlineIndexFile(fileNumber, fileKey, entries);
     }
 
     private static byte[] createEmptyChecksum() {
-        byte[] checksum = new byte[16];
+        byte[] checksum = new byte[CHECKSUM_LENGTH];
         Arrays.fill(checksum, (byte) 0);
         return checksum;
     }
+
+    /**
+     * Visitor for the parsed entries of an index file.
+     */
+    @FunctionalInterface
+    private interface EntryVisitor {
+        /**
+         * Visit an entry.
+         *
+         * @param checksum The checksum (file key) of the entry, in a buffer that is reused for the next entry.
+         * @param size     The size of the file.
+         * @param offset   The offset of the file in the archive.
+         */
+        void visit(byte[] checksum, int size, int offset);
+    }
 }
@@ -20,68 +20,269 @@ package nl.salp.warcraft4j.casc.cdn.online;
 
 import nl.salp.warcraft4j.casc.CascParsingException;
 import nl.salp.warcraft4j.casc.FileKey;
-import nl.salp.warcraft4j.casc.IndexEntry;
 import nl.salp.warcraft4j.casc.cdn.CdnCascConfig;
 import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
 import nl.salp.warcraft4j.casc.cdn.Index;
+import nl.salp.warcraft4j.casc.cdn.IndexBuilder;
 import nl.salp.warcraft4j.io.DataReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 
 /**
- * TODO Add description.
+ * Parser for downloading and parsing all CDN index files of the archives of a CASC into an {@link Index}.
+ * <p>
+ * The index files are downloaded concurrently on dedicated download threads, with the downloaded index files being parsed on an executor while
+ * the other index files are still being downloaded. The download threads are shared by all parsers and stop when idle. The number of index files
+ * that are being downloaded or parsed is limited, bounding both the number of concurrent connections and the memory used for downloaded index
+ * files. Waiting for a download slot is a managed block, so a fork/join pool running the parser compensates for the waiting worker. The parsed index files are merged in archive order, keeping the
+ * entry of the archive with the lowest number when a file key is present in multiple archives.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.Index
  */
 public class OnlineIndexParser {
     /** The logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(OnlineIndexParser.class);
+    /** The URL mask for index files. */
     private static final String MASK_FILES_INDEX = "%s/data/%s/%s/%s.index";
+    /** The default maximum number of index files that are downloaded or parsed at the same time. */
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    /** The counter for the names of the download threads. */
+    private static final AtomicInteger DOWNLOAD_THREAD_COUNTER = new AtomicInteger();
+    /** The number of seconds after which an idle download thread stops. */
+    private static final long DOWNLOAD_THREAD_KEEP_ALIVE = 60;
+    /** The CDN configuration. */
     private final CdnCascConfig cdnCascConfig;
+    /** The provider for the readers of the index files. */
     private final DataReaderProvider dataReaderProvider;
+    /** The executor to parse the index files with. */
+    private final Executor executor;
+    /** The executor to download the index files with. */
+    private final Executor downloadExecutor;
+    /** The maximum number of index files that are downloaded or parsed at the same time. */
+    private final int maxInFlight;
 
+    /**
+     * Create a new instance, parsing the index files using the common {@link ForkJoinPool}.
+     *
+     * @param cdnCascConfig      The CDN configuration.
+     * @param dataReaderProvider The provider for the readers of the index files.
+     */
     public OnlineIndexParser(CdnCascConfig cdnCascConfig, DataReaderProvider dataReaderProvider) {
+        this(cdnCascConfig, dataReaderProvider, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cdnCascConfig      The CDN configuration.
+     * @param dataReaderProvider The provider for the readers of the index files.
+     * @param executor           The executor to parse the index files with.
+     *
+     * @throws IllegalArgumentException When no executor was provided.
+     */
+    public OnlineIndexParser(CdnCascConfig cdnCascConfig, DataReaderProvider dataReaderProvider, Executor executor) throws IllegalArgumentException {
+        this(cdnCascConfig, dataReaderProvider, executor, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cdnCascConfig      The CDN configuration.
+     * @param dataReaderProvider The provider for the readers of the index files.
+     * @param executor           The executor to parse the index files with.
+     * @param maxInFlight        The maximum number of index files that are downloaded or parsed at the same time.
+     *
+     * @throws IllegalArgumentException When no executor was provided or the maximum number of index files is not positive.
+     */
+    public OnlineIndexParser(CdnCascConfig cdnCascConfig, DataReaderProvider dataReaderProvider, Executor executor, int maxInFlight)
+            throws IllegalArgumentException {
+        this(cdnCascConfig, dataReaderProvider, executor, DownloadExecutorHolder.INSTANCE, maxInFlight);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cdnCascConfig      The CDN configuration.
+     * @param dataReaderProvider The provider for the readers of the index files.
+     * @param executor           The executor to parse the index files with.
+     * @param downloadExecutor   The executor to download the index files with, which is not shut down by the parser.
+     * @param maxInFlight        The maximum number of index files that are downloaded or parsed at the same time.
+     *
+     * @throws IllegalArgumentException When no executor was provided or the maximum number of index files is not positive.
+     */
+    public OnlineIndexParser(CdnCascConfig cdnCascConfig, DataReaderProvider dataReaderProvider, Executor executor, Executor downloadExecutor,
+                             int maxInFlight) throws IllegalArgumentException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException(format("Unable to create an OnlineIndexParser with %d index files in flight.", maxInFlight));
+        }
         this.cdnCascConfig = cdnCascConfig;
         this.dataReaderProvider = dataReaderProvider;
+        this.executor = Optional.ofNullable(executor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create an OnlineIndexParser without an executor."));
+        this.downloadExecutor = Optional.ofNullable(downloadExecutor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create an OnlineIndexParser without a download executor."));
+        this.maxInFlight = maxInFlight;
     }
 
+    /**
+     * Download and parse all index files into an {@link Index}.
+     *
+     * @return The index.
+     *
+     * @throws CascParsingException When downloading or parsing one of the index files failed.
+     */
     public Index parse() throws CascParsingException {
-        List<OnlineIndexFile> indices = new ArrayList<>();
         List<FileKey> indexFileKeys = cdnCascConfig.getArchiveChecksums();
         LOGGER.trace("Parsing index entries from {} index files.", indexFileKeys.size());
-        for (int i = 0; i < indexFileKeys.size(); i++) {
-            indices.add(parseIndexFile(i, indexFileKeys.get(i)));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        List<CompletableFuture<IndexBuilder>> parsedIndexFiles = new ArrayList<>(indexFileKeys.size());
+        for (int i = 0; i < indexFileKeys.size() && !failure.isDone(); i++) {
+            int fileNumber = i;
+            FileKey checksum = indexFileKeys.get(i);
+            String url = getUrl(checksum);
+            acquire(inFlight);
+            CompletableFuture<IndexBuilder> parsedIndexFile = CompletableFuture
+                    .supplyAsync(() -> download(fileNumber, checksum, url), downloadExecutor)
+                    .thenApplyAsync(reader -> parse(fileNumber, checksum, url, reader), executor);
+            parsedIndexFile.whenComplete((builder, e) -> {
+                inFlight.release();
+                if (e != null) {
+                    failure.completeExceptionally(e);
+                }
+            });
+            parsedIndexFiles.add(parsedIndexFile);
+        }
+        IndexBuilder builder = new IndexBuilder();
+        for (CompletableFuture<IndexBuilder> parsedIndexFile : parsedIndexFiles) {
+            builder.addAll(getResult(parsedIndexFile));
+        }
+        Index index = builder.build();
+        LOGGER.trace("Parsed {} index entries from {} index files.", index.getEntryCount(), parsedIndexFiles.size());
+        return index;
+    }
+
+    /**
+     * Acquire a permit for downloading an index file, waiting for a permit to become available.
+     * <p>
+     * The wait is a {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker) managed block}, allowing a fork/join pool to activate a spare
+     * worker while the calling worker waits.
+     *
+     * @param inFlight The semaphore with the permits.
+     *
+     * @throws CascParsingException When interrupted while waiting.
+     */
+    private static void acquire(Semaphore inFlight) throws CascParsingException {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    inFlight.acquire();
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return inFlight.tryAcquire();
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CascParsingException("Interrupted while waiting to download an index file.", e);
+        }
+    }
+
+    /**
+     * Wait for the result of an index file parsing task.
+     *
+     * @param task The task.
+     *
+     * @return The parsed entries of the index file.
+     *
+     * @throws CascParsingException When downloading or parsing the index file failed.
+     */
+    private static IndexBuilder getResult(CompletableFuture<IndexBuilder> task) throws CascParsingException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CascParsingException) {
+                throw (CascParsingException) e.getCause();
+            }
+            throw new CascParsingException("Error parsing CDN index file", e.getCause());
         }
-        Set<IndexEntry> indexEntries = indices.stream()
-                .map(OnlineIndexFile::getIndexEntries)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
-        LOGGER.trace("Parsed {} index entries from {} index files.", indexEntries.size(), indices.size());
-        return new Index(indexEntries);
     }
 
-    private OnlineIndexFile parseIndexFile(int index, FileKey checksum) {
-        OnlineIndexFile indexFile;
-        String url = getUrl(checksum);
-        try (DataReader dataReader = dataReaderProvider.getDataReader(url).get()) {
-            indexFile = new OnlineIndexFileParser(index, checksum).parse(dataReader);
+    /**
+     * Download an index file.
+     *
+     * @param fileNumber The number of the archive of the index file.
+     * @param checksum   The checksum of the archive.
+     * @param url        The URL of the index file.
+     *
+     * @return The reader for the downloaded index file.
+     *
+     * @throws CascParsingException When the index file could not be downloaded.
+     */
+    private DataReader download(int fileNumber, FileKey checksum, String url) throws CascParsingException {
+        try {
+            return dataReaderProvider.getDataReader(url).get();
+        } catch (CascParsingException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new CascParsingException(format("Error downloading CDN index file %d with key %s", fileNumber, checksum.toHexString()), e);
+        }
+    }
+
+    /**
+     * Parse a downloaded index file, closing the reader afterwards.
+     *
+     * @param fileNumber The number of the archive of the index file.
+     * @param checksum   The checksum of the archive.
+     * @param url        The URL of the index file.
+     * @param reader     The reader for the downloaded index file.
+     *
+     * @return Builder containing the parsed entries of the index file.
+     *
+     * @throws CascParsingException When the index file could not be parsed.
+     */
+    private static IndexBuilder parse(int fileNumber, FileKey checksum, String url, DataReader reader) throws CascParsingException {
+        IndexBuilder builder = new IndexBuilder();
+        try (DataReader dataReader = reader) {
+            new OnlineIndexFileParser(fileNumber, checksum).parse(dataReader, builder);
         } catch (IOException e) {
-            throw new CascParsingException(format("Error parsing CDN index file %d with key %s", index, checksum.toHexString()), e);
+            throw new CascParsingException(format("Error parsing CDN index file %d with key %s", fileNumber, checksum.toHexString()), e);
         }
-        LOGGER.trace("Parsed index file {} with checksum {} from {} resulting in {} entries", index, checksum, url, indexFile.getIndexEntries().size());
-        return indexFile;
+        LOGGER.trace("Parsed index file {} with checksum {} from {} resulting in {} entries", fileNumber, checksum, url, builder.size());
+        return builder;
     }
 
-    private String getUrl(FileKey fileKey) {
+    /**
+     * Get the URL of the index file of an archive.
+     *
+     * @param fileKey The checksum of the archive.
+     *
+     * @return The URL.
+     *
+     * @throws CascParsingException When the checksum is invalid.
+     */
+    private String getUrl(FileKey fileKey) throws CascParsingException {
         if (fileKey == null) {
             throw new CascParsingException("Unable to parse a CDN index file with a null key.");
         }
@@ -92,4 +293,28 @@ public class OnlineIndexParser {
         String keyString = fileKey.toHexString();
         return format(MASK_FILES_INDEX, cdnCascConfig.getCdnUrl(), keyString.substring(0, 2), keyString.substring(2, 4), keyString);
     }
-}
\ No newline at end of file
+
+    /**
+     * Holder for the shared download executor, created on first use.
+     */
+    private static class DownloadExecutorHolder {
+        /** The shared download executor, with daemon threads that stop when idle. */
+        private static final Executor INSTANCE = createDownloadExecutor();
+
+        /**
+         * Create the shared download executor.
+         *
+         * @return The executor.
+         */
+        private static Executor createDownloadExecutor() {
+            ThreadPoolExecutor downloadExecutor = new ThreadPoolExecutor(DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT, DOWNLOAD_THREAD_KEEP_ALIVE,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "w4j-index-download-" + DOWNLOAD_THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            downloadExecutor.allowCoreThreadTimeOut(true);
+            return downloadExecutor;
+        }
+    }
+}
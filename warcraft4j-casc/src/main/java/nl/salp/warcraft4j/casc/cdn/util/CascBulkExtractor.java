@@ -0,0 +1,505 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.util;
+
+import nl.salp.warcraft4j.casc.CascEntryNotFoundException;
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.cdn.BlteDataReader;
+import nl.salp.warcraft4j.casc.cdn.CdnCascContext;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.CompositeDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Engine for extracting a large number of files from a CASC.
+ * <p>
+ * The files are resolved to their index entries up front, after which the data segments are grouped by data file and sorted by their offset in
+ * the data file, allowing the data files to be read sequentially instead of seeking for every file. The segments are read in batches through
+ * {@link CdnCascContext#getDataReaders(List)} on the calling thread, allowing adjacent segments to be read together, and passed through a bounded
+ * pipeline, where the BLTE data is decoded and passed to a {@link CascExtractionSink} on an executor.
+ * <p>
+ * The memory used for the extraction is bounded by the number of bytes of raw data that is read but not processed yet, including the data of
+ * segments that is kept until the other segments of their file are read. When all data in flight is kept for files waiting for segments that are
+ * still to be read, the next segment is read regardless of the bound, since the data would otherwise never be released.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.util.CascExtractionSink
+ */
+public class CascBulkExtractor {
+    /** The logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CascBulkExtractor.class);
+    /** The default maximum number of bytes of raw data that is read but not processed yet (256MB). */
+    private static final long DEFAULT_MAX_BYTES_IN_FLIGHT = 256L * 1024 * 1024;
+    /** The maximum number of bytes of raw data that is requested in a single batch (4MB). */
+    private static final long MAX_BATCH_SIZE = 4L * 1024 * 1024;
+    /** The order in which segments are read, sorted by data file and offset in the data file. */
+    @SuppressWarnings("deprecation")
+    private static final Comparator<Segment> READ_ORDER = Comparator.<Segment>comparingInt(s -> s.entry.getFileNumber())
+            .thenComparingLong(s -> Integer.toUnsignedLong(s.entry.getDataFileOffset()));
+    /** The context to extract the files from. */
+    private final CdnCascContext context;
+    /** The executor to decode and process the files on. */
+    private final Executor executor;
+    /** The maximum number of bytes of raw data that is read but not processed yet. */
+    private final long maxBytesInFlight;
+
+    /**
+     * Create a new extractor, decoding the files on the common fork/join pool.
+     *
+     * @param context The context to extract the files from.
+     *
+     * @throws IllegalArgumentException When the context is {@code null}.
+     */
+    public CascBulkExtractor(CdnCascContext context) throws IllegalArgumentException {
+        this(context, ForkJoinPool.commonPool(), DEFAULT_MAX_BYTES_IN_FLIGHT);
+    }
+
+    /**
+     * Create a new extractor.
+     *
+     * @param context          The context to extract the files from.
+     * @param executor         The executor to decode and process the files on.
+     * @param maxBytesInFlight The maximum number of bytes of raw data that is read but not processed yet.
+     *
+     * @throws IllegalArgumentException When the context or executor is {@code null}, or the maximum number of bytes is not positive.
+     */
+    public CascBulkExtractor(CdnCascContext context, Executor executor, long maxBytesInFlight) throws IllegalArgumentException {
+        this.context = Optional.ofNullable(context)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a bulk extractor for a null context."));
+        this.executor = Optional.ofNullable(executor)
+                .orElseThrow(() -> new IllegalArgumentException("Unable to create a bulk extractor with a null executor."));
+        if (maxBytesInFlight < 1) {
+            throw new IllegalArgumentException(format("Unable to create a bulk extractor with at most %d bytes in flight.", maxBytesInFlight));
+        }
+        this.maxBytesInFlight = maxBytesInFlight;
+    }
+
+    /**
+     * Extract files, resolving their data from the context.
+     * <p>
+     * Files for which no (or not all) data is available are skipped.
+     *
+     * @param filenameHashes The hashes of the filenames of the files to extract.
+     * @param sink           The sink to pass the extracted files to.
+     *
+     * @return The number of extracted files.
+     *
+     * @throws CascExtractionException When extracting a file failed.
+     */
+    public int extract(Collection<Long> filenameHashes, CascExtractionSink sink) throws CascExtractionException {
+        Map<Long, List<IndexEntry>> files = filenameHashes.stream()
+                .distinct()
+                .collect(Collectors.toMap(h -> h, context::getIndexEntries));
+        return extract(files, sink);
+    }
+
+    /**
+     * Extract files from resolved data segments.
+     * <p>
+     * Files without data segments, or with data segments that are not available, are skipped. Files with multiple data segments are passed to the
+     * sink with the data of the segments concatenated in the order of the segments.
+     *
+     * @param files The data segments of the files to extract, indexed by the hash of the filename.
+     * @param sink  The sink to pass the extracted files to.
+     *
+     * @return The number of extracted files.
+     *
+     * @throws CascExtractionException When extracting a file failed.
+     */
+    public int extract(Map<Long, List<IndexEntry>> files, CascExtractionSink sink) throws CascExtractionException {
+        if (files == null || sink == null) {
+            throw new IllegalArgumentException("Unable to extract files without files or a sink.");
+        }
+        List<Segment> segments = new ArrayList<>();
+        files.forEach((hash, entries) -> {
+            if (entries == null || entries.isEmpty()) {
+                LOGGER.debug("Skipping extraction of file with hash {} without data.", hash);
+            } else {
+                PendingFile file = new PendingFile(hash, entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    segments.add(new Segment(file, i, entries.get(i)));
+                }
+            }
+        });
+        segments.sort(READ_ORDER);
+        LOGGER.debug("Extracting {} files with {} data segments.", files.size(), segments.size());
+
+        ByteBudget budget = new ByteBudget(maxBytesInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger extracted = new AtomicInteger();
+        long batchSize = Math.min(maxBytesInFlight, MAX_BATCH_SIZE);
+        int first = 0;
+        while (first < segments.size() && failure.get() == null) {
+            int last = first + 1;
+            long size = segments.get(first).entry.getFileSize();
+            while (last < segments.size() && size + segments.get(last).entry.getFileSize() <= batchSize) {
+                size += segments.get(last).entry.getFileSize();
+                last++;
+            }
+            List<Segment> batch = segments.subList(first, last);
+            try {
+                List<Supplier<DataReader>> readers = getDataReaders(batch);
+                for (int i = 0; i < batch.size() && failure.get() == null; i++) {
+                    Segment segment = batch.get(i);
+                    Supplier<DataReader> reader = readers.get(i);
+                    if (reader == null) {
+                        skip(segment, budget);
+                    } else {
+                        long segmentSize = segment.entry.getFileSize();
+                        budget.acquire(segmentSize);
+                        try {
+                            byte[] data = read(segment.entry, reader);
+                            CompletableFuture.runAsync(() -> process(segment, data, sink, extracted, budget), executor)
+                                    .whenComplete((result, e) -> {
+                                        if (e != null) {
+                                            failure.compareAndSet(null, e.getCause() != null ? e.getCause() : e);
+                                        }
+                                    });
+                        } catch (RuntimeException e) {
+                            budget.release(segmentSize, 0);
+                            throw e;
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+            first = last;
+        }
+        budget.awaitIdle();
+
+        Throwable e = failure.get();
+        if (e != null) {
+            throw e instanceof CascExtractionException ? (CascExtractionException) e : new CascExtractionException(format("Error extracting files: %s", e.getMessage()), e);
+        }
+        return extracted.get();
+    }
+
+    /**
+     * Get the suppliers for the readers of the raw data of a batch of data segments.
+     * <p>
+     * When the data of not all segments is available, the segments are resolved individually, leaving the supplier for the segments without
+     * data {@code null}.
+     *
+     * @param batch The data segments.
+     *
+     * @return The suppliers for the readers, in the order of the segments.
+     *
+     * @throws CascParsingException When the readers could not be created.
+     */
+    private List<Supplier<DataReader>> getDataReaders(List<Segment> batch) throws CascParsingException {
+        try {
+            return context.getDataReaders(batch.stream().map(s -> s.entry).collect(Collectors.toList()));
+        } catch (CascEntryNotFoundException e) {
+            List<Supplier<DataReader>> readers = new ArrayList<>(batch.size());
+            for (Segment segment : batch) {
+                try {
+                    readers.add(context.getDataReader(segment.entry));
+                } catch (CascEntryNotFoundException notFound) {
+                    readers.add(null);
+                }
+            }
+            return readers;
+        }
+    }
+
+    /**
+     * Skip the extraction of the file of a data segment for which no data is available.
+     *
+     * @param segment The data segment.
+     * @param budget  The budget for the data in flight.
+     */
+    private static void skip(Segment segment, ByteBudget budget) {
+        LOGGER.warn("Skipping extraction of file with hash {}, no data found for file key {}.", segment.file.hash, segment.entry.getFileKey().toHexString());
+        PendingFile file = segment.file;
+        file.skipped = true;
+        if (file.complete(0)) {
+            budget.release(0, file.size.get());
+        }
+    }
+
+    /**
+     * Read the raw (BLTE encoded) data of a data segment.
+     *
+     * @param entry  The index entry of the data segment.
+     * @param reader The supplier for the reader of the raw data.
+     *
+     * @return The raw data.
+     *
+     * @throws CascParsingException When the data could not be read.
+     */
+    private static byte[] read(IndexEntry entry, Supplier<DataReader> reader) throws CascParsingException {
+        if (entry.getFileSize() > Integer.MAX_VALUE) {
+            throw new CascParsingException(format("Unable to read a %d byte data segment for file key %s.", entry.getFileSize(), entry.getFileKey().toHexString()));
+        }
+        byte[] data = new byte[(int) entry.getFileSize()];
+        try (DataReader dataReader = reader.get()) {
+            dataReader.readBytes(data, 0, data.length);
+        } catch (IOException e) {
+            throw new CascParsingException(format("Error reading the data segment for file key %s", entry.getFileKey().toHexString()), e);
+        }
+        return data;
+    }
+
+    /**
+     * Decode a data segment and pass the file to the sink once all segments of the file are decoded.
+     * <p>
+     * The data of the segment is kept in the budget until all segments of the file are processed.
+     *
+     * @param segment   The segment.
+     * @param data      The raw data of the segment.
+     * @param sink      The sink.
+     * @param extracted The counter for the extracted files.
+     * @param budget    The budget for the data in flight.
+     *
+     * @throws CascExtractionException When the file could not be processed by the sink.
+     */
+    private static void process(Segment segment, byte[] data, CascExtractionSink sink, AtomicInteger extracted, ByteBudget budget)
+            throws CascExtractionException {
+        PendingFile file = segment.file;
+        long segmentSize = data.length;
+        boolean completed = false;
+        try {
+            try (DataReader reader = PendingFile.createReader(data)) {
+                file.sizes[segment.index] = reader.size();
+            } catch (IOException e) {
+                throw new CascExtractionException(format("Error decoding data segment of file with hash %d: %s", file.hash, e.getMessage()), e);
+            }
+            file.segments[segment.index] = data;
+            completed = file.complete(segmentSize);
+            if (!completed) {
+                budget.hold(segmentSize);
+            } else if (!file.skipped) {
+                try (DataReader reader = file.getDataReader()) {
+                    sink.accept(file.hash, reader);
+                    extracted.incrementAndGet();
+                } catch (IOException e) {
+                    throw new CascExtractionException(format("Error extracting file with hash %d: %s", file.hash, e.getMessage()), e);
+                }
+            }
+        } finally {
+            if (completed) {
+                budget.release(segmentSize, file.size.get() - segmentSize);
+            } else if (file.segments[segment.index] == null) {
+                budget.release(segmentSize, 0);
+            }
+        }
+    }
+
+    /**
+     * A file that is being extracted, keeping track of the decoded data segments.
+     */
+    private static class PendingFile {
+        /** The hash of the filename. */
+        private final long hash;
+        /** The raw (BLTE encoded) data of the segments. */
+        private final byte[][] segments;
+        /** The decoded sizes of the segments. */
+        private final long[] sizes;
+        /** The number of data segments that have not been decoded yet. */
+        private final AtomicInteger remaining;
+        /** The number of bytes of raw data of the decoded data segments. */
+        private final AtomicLong size;
+        /** Flag indicating that the file is skipped since not all of its data is available. */
+        private volatile boolean skipped;
+
+        /**
+         * Create a new instance.
+         *
+         * @param hash         The hash of the filename.
+         * @param segmentCount The number of data segments.
+         */
+        private PendingFile(long hash, int segmentCount) {
+            this.hash = hash;
+            this.segments = new byte[segmentCount][];
+            this.sizes = new long[segmentCount];
+            this.remaining = new AtomicInteger(segmentCount);
+            this.size = new AtomicLong();
+        }
+
+        /**
+         * Mark a data segment as completed.
+         *
+         * @param segmentSize The number of bytes of raw data of the segment.
+         *
+         * @return {@code true} if all data segments of the file are completed.
+         */
+        private boolean complete(long segmentSize) {
+            size.addAndGet(segmentSize);
+            return remaining.decrementAndGet() == 0;
+        }
+
+        /**
+         * Get the reader for the data of the file, which is only valid once all segments are decoded.
+         * <p>
+         * Every segment is decoded by a new reader each time the reader moves to it, so the reader can move back to a segment that it already left.
+         *
+         * @return The reader.
+         */
+        private DataReader getDataReader() {
+            if (segments.length == 1) {
+                return createReader(segments[0]);
+            }
+            List<Supplier<? extends DataReader>> readers = new ArrayList<>(segments.length);
+            for (byte[] segment : segments) {
+                readers.add(() -> createReader(segment));
+            }
+            return new CompositeDataReader(readers, sizes);
+        }
+
+        /**
+         * Create a reader decoding the raw data of a segment.
+         *
+         * @param data The raw (BLTE encoded) data.
+         *
+         * @return The reader.
+         */
+        private static DataReader createReader(byte[] data) {
+            return new BlteDataReader(() -> new ByteArrayDataReader(data), data.length);
+        }
+    }
+
+    /**
+     * Budget for the raw data in flight, distinguishing the data that is being processed from the data that is kept for files waiting for other
+     * segments.
+     */
+    private static class ByteBudget {
+        /** The maximum number of bytes in flight. */
+        private final long maxBytes;
+        /** The number of bytes that are being processed. */
+        private long active;
+        /** The number of bytes that are kept for files waiting for other segments. */
+        private long held;
+
+        /**
+         * Create a new instance.
+         *
+         * @param maxBytes The maximum number of bytes in flight.
+         */
+        private ByteBudget(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * Acquire bytes for processing, waiting until they fit in the budget or until no data is being processed anymore.
+         *
+         * @param bytes The number of bytes.
+         */
+        private synchronized void acquire(long bytes) {
+            boolean interrupted = false;
+            while (active > 0 && active + held + bytes > maxBytes) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            active += bytes;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Keep processed bytes for a file that is waiting for other segments.
+         *
+         * @param bytes The number of bytes.
+         */
+        private synchronized void hold(long bytes) {
+            active -= bytes;
+            held += bytes;
+            notifyAll();
+        }
+
+        /**
+         * Release bytes from the budget.
+         *
+         * @param activeBytes The number of bytes that were being processed.
+         * @param heldBytes   The number of bytes that were kept.
+         */
+        private synchronized void release(long activeBytes, long heldBytes) {
+            active -= activeBytes;
+            held -= heldBytes;
+            notifyAll();
+        }
+
+        /**
+         * Wait until no data is being processed anymore.
+         */
+        private synchronized void awaitIdle() {
+            boolean interrupted = false;
+            while (active > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A data segment of a file.
+     */
+    private static class Segment {
+        /** The file the segment belongs to. */
+        private final PendingFile file;
+        /** The index of the segment in the file. */
+        private final int index;
+        /** The index entry of the segment. */
+        private final IndexEntry entry;
+
+        /**
+         * Create a new instance.
+         *
+         * @param file  The file the segment belongs to.
+         * @param index The index of the segment in the file.
+         * @param entry The index entry of the segment.
+         */
+        private Segment(PendingFile file, int index, IndexEntry entry) {
+            this.file = file;
+            this.index = index;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.util;
+
+import nl.salp.warcraft4j.io.DataReader;
+
+import java.io.IOException;
+
+/**
+ * Destination for files extracted by a {@link CascBulkExtractor}.
+ * <p>
+ * Files are passed to the sink from multiple threads, so implementations have to be thread-safe.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.util.CascBulkExtractor
+ */
+@FunctionalInterface
+public interface CascExtractionSink {
+    /**
+     * Process an extracted file.
+     * <p>
+     * The reader is only valid for the duration of the call and is closed by the extractor afterwards.
+     *
+     * @param filenameHash The hash of the filename of the file.
+     * @param data         The reader for the (decoded) data of the file.
+     *
+     * @throws IOException When processing the file failed.
+     */
+    void accept(long filenameHash, DataReader data) throws IOException;
+}
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -81,11 +82,19 @@ public class CascFileExtractor {
                 .filter(h -> !files.containsKey(h))
                 .collect(Collectors.toMap(Function.identity(), this::getExtractionFilename)));
 
-        return files.keySet().stream()
-                .map(h -> extractFile(files.get(h), h))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
+        files.values().stream()
+                .filter(f -> !isWritableFile(f))
+                .findAny()
+                .ifPresent(f -> {
+                    throw new CascExtractionException(format("Unable to extract a file to %s, the path already exists and is not a file or not writable.", f));
+                });
+        Set<Path> extracted = ConcurrentHashMap.newKeySet();
+        new CascBulkExtractor(context).extract(files.keySet(), (hash, data) -> {
+            Path destination = files.get(hash);
+            writeFile(data, destination);
+            extracted.add(destination);
+        });
+        return extracted;
     }
 
     public Optional<Path> extractFile(String filename) throws CascExtractionException, DataReadingException, DataParsingException {
@@ -106,15 +115,8 @@ public class CascFileExtractor {
         Optional<Path> file;
         if (isWritableFile(destination)) {
             try {
-                Files.createDirectories(destination.getParent());
-                try (DataReader in = context.getFileDataReader(filenameHash);
-                     OutputStream out = Files.newOutputStream(destination, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
-                    while (in.hasRemaining()) {
-                        int chunkSize = (int) Math.min(CHUNK_SIZE, in.remaining());
-                        byte[] chunk = in.readNext(DataTypeFactory.getByteArray(chunkSize));
-                        out.write(chunk);
-                    }
-                    out.flush();
+                try (DataReader in = context.getFileDataReader(filenameHash)) {
+                    writeFile(in, destination);
                     file = Optional.of(destination);
                 } catch (CascEntryNotFoundException e) {
                     file = Optional.empty();
@@ -128,6 +130,26 @@ public class CascFileExtractor {
         return file;
     }
 
+    /**
+     * Write the data of a reader to a file, creating the parent directories when needed.
+     *
+     * @param in          The reader.
+     * @param destination The file to write the data to.
+     *
+     * @throws IOException When writing the file failed.
+     */
+    private static void writeFile(DataReader in, Path destination) throws IOException {
+        Files.createDirectories(destination.getParent());
+        try (OutputStream out = Files.newOutputStream(destination, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (in.hasRemaining()) {
+                int chunkSize = (int) Math.min(CHUNK_SIZE, in.remaining());
+                byte[] chunk = in.readNext(DataTypeFactory.getByteArray(chunkSize));
+                out.write(chunk);
+            }
+            out.flush();
+        }
+    }
+
     private boolean isWritableFile(Path file) {
         return Files.notExists(file) || (Files.isRegularFile(file) && Files.isWritable(file));
     }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.hash.Hashes;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BlteDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.BlteDataReader
+ */
+public class BlteDataReaderTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private ExecutorService executorService;
+    private AtomicInteger tasks;
+    private Executor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(2);
+        tasks = new AtomicInteger();
+        executor = task -> {
+            tasks.incrementAndGet();
+            executorService.execute(task);
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldDecodeLargeMultiChunkFileInParallel() throws Exception {
+        byte[] data = createData((int) BlteDataReader.PARALLEL_THRESHOLD * 2);
+        byte[] blte = BlteFileDataReaderTest.createMultiChunkBlte(data, CHUNK_SIZE);
+        ContentChecksum checksum = new ContentChecksum(Hashes.MD5.hash(data));
+
+        try (DataReader reader = new BlteDataReader(() -> new ByteArrayDataReader(blte), blte.length, checksum, executor)) {
+            assertArrayEquals(data, reader.readNext(DataTypeFactory.getByteArray(data.length)));
+            assertFalse(reader.hasRemaining());
+        }
+        assertTrue(tasks.get() > 0);
+    }
+
+    @Test
+    public void shouldDecodeSmallMultiChunkFileSequentially() throws Exception {
+        byte[] data = createData((int) BlteDataReader.PARALLEL_THRESHOLD / 2);
+        byte[] blte = BlteFileDataReaderTest.createMultiChunkBlte(data, CHUNK_SIZE);
+
+        try (DataReader reader = new BlteDataReader(() -> new ByteArrayDataReader(blte), blte.length, null, executor)) {
+            assertArrayEquals(data, reader.readNext(DataTypeFactory.getByteArray(data.length)));
+        }
+        assertEquals(0, tasks.get());
+    }
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + (i >> 8));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.hash.Hashes;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.DataReadingException;
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BlteFileDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.BlteFileDataReader
+ */
+public class BlteFileDataReaderTest {
+    private static final int CHUNK_SIZE = 10;
+    private static final int CHUNK_COUNT = 7;
+    private byte[] data;
+    private BlteFile blteFile;
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[CHUNK_SIZE * CHUNK_COUNT];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        byte[] blte = createMultiChunkBlte(data, CHUNK_SIZE);
+        blteFile = new BlteFileParser().parse(new ByteArrayDataReader(blte), blte.length);
+    }
+
+    @Test
+    public void shouldReadAllData() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile)) {
+            assertEquals(data.length, reader.size());
+            assertTrue(reader.isRandomAccessSupported());
+            assertArrayEquals(data, reader.readNext(DataTypeFactory.getByteArray(data.length)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test
+    public void shouldReadAcrossChunkBoundaries() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile)) {
+            int value = reader.read(DataTypeFactory.getInteger(), CHUNK_SIZE - 2, ByteOrder.BIG_ENDIAN);
+
+            assertEquals(ByteBuffer.wrap(data, CHUNK_SIZE - 2, 4).getInt(), value);
+            assertEquals(CHUNK_SIZE + 2, reader.position());
+        }
+    }
+
+    @Test
+    public void shouldSeekBackwardsAndForwards() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile)) {
+            for (int position : new int[] {65, 3, 42, 11, 69, 0, 27}) {
+                reader.position(position);
+                assertEquals(data[position], (byte) reader.readNext(DataTypeFactory.getByte()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadPartOfData() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile, 15, 30)) {
+            assertEquals(30, reader.size());
+            assertArrayEquals(Arrays.copyOfRange(data, 15, 45), reader.readNext(DataTypeFactory.getByteArray(30)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test
+    public void shouldReadSingleChunkFile() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("BLTE".getBytes("US-ASCII"));
+        out.write(new byte[4]);
+        out.write(createChunk(data, true));
+        byte[] blte = out.toByteArray();
+        BlteFile file = new BlteFileParser().parse(new ByteArrayDataReader(blte), blte.length - 8);
+
+        try (DataReader reader = new BlteFileDataReader(file)) {
+            assertEquals(data.length, reader.size());
+            assertArrayEquals(data, reader.readNext(DataTypeFactory.getByteArray(data.length)));
+        }
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldNotReadBeyondData() throws Exception {
+        new BlteFileDataReader(blteFile, 60, 20);
+    }
+
+    @Test
+    public void shouldValidateChecksumWhileReading() throws Exception {
+        ContentChecksum checksum = new ContentChecksum(Hashes.MD5.hash(data));
+
+        try (DataReader reader = new BlteFileDataReader(blteFile, checksum)) {
+            reader.position(35);
+            assertArrayEquals(Arrays.copyOfRange(data, 35, data.length), reader.readNext(DataTypeFactory.getByteArray(data.length - 35)));
+        }
+    }
+
+    @Test
+    public void shouldNotFailOnInvalidChecksumBeforeEndIsReached() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile, new ContentChecksum(new byte[16]))) {
+            assertArrayEquals(Arrays.copyOfRange(data, 0, 20), reader.readNext(DataTypeFactory.getByteArray(20)));
+        }
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldFailOnInvalidChecksumWhenEndIsReached() throws Exception {
+        try (DataReader reader = new BlteFileDataReader(blteFile, 0, 20, new ContentChecksum(new byte[16]))) {
+            reader.readNext(DataTypeFactory.getByteArray(20));
+        }
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldFailOnInvalidChecksumForSingleChunkFile() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("BLTE".getBytes("US-ASCII"));
+        out.write(new byte[4]);
+        out.write(createChunk(data, false));
+        byte[] blte = out.toByteArray();
+        BlteFile file = new BlteFileParser().parse(new ByteArrayDataReader(blte), blte.length - 8);
+
+        new BlteFileDataReader(file, new ContentChecksum(new byte[16]));
+    }
+
+    /**
+     * Create a multi-chunk BLTE file, alternating between zlib and uncompressed chunks.
+     */
+    static byte[] createMultiChunkBlte(byte[] data, int chunkSize) throws Exception {
+        int chunkCount = (data.length + chunkSize - 1) / chunkSize;
+        ByteArrayOutputStream headers = new ByteArrayOutputStream();
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int i = 0; i < chunkCount; i++) {
+            byte[] chunkData = Arrays.copyOfRange(data, i * chunkSize, Math.min(data.length, (i + 1) * chunkSize));
+            byte[] chunk = createChunk(chunkData, i % 2 == 0);
+            headers.write(ByteBuffer.allocate(8).putInt(chunk.length).putInt(chunkData.length).array());
+            headers.write(Hashes.MD5.hash(chunk));
+            chunks.write(chunk);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("BLTE".getBytes("US-ASCII"));
+        out.write(ByteBuffer.allocate(4).putInt(12 + headers.size()).array());
+        out.write(new byte[] {0x0F, (byte) (chunkCount >> 16), (byte) (chunkCount >> 8), (byte) chunkCount});
+        out.write(headers.toByteArray());
+        out.write(chunks.toByteArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * Create a BLTE chunk with its compression type.
+     */
+    static byte[] createChunk(byte[] data, boolean compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (compressed) {
+            out.write('Z');
+            Deflater deflater = new Deflater();
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            deflater.end();
+        } else {
+            out.write('N');
+            out.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link BlteFile}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.BlteFile
+ */
+public class BlteFileTest {
+    private static final int CHUNK_SIZE = 1000;
+    private byte[] data;
+    private byte[] blte;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[CHUNK_SIZE * 9 + 123];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        blte = BlteFileDataReaderTest.createMultiChunkBlte(data, CHUNK_SIZE);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldDecompressSequentially() {
+        BlteFile file = new BlteFileParser().parse(new ByteArrayDataReader(blte), blte.length);
+
+        assertEquals(10, file.getChunkCount());
+        assertEquals(data.length, file.getDecompressedSize());
+        assertArrayEquals(data, file.decompress());
+    }
+
+    @Test
+    public void shouldDecompressInParallel() {
+        BlteFile file = new BlteFileParser(executor).parse(new ByteArrayDataReader(blte), blte.length);
+
+        assertArrayEquals(data, file.decompress());
+        assertArrayEquals(data, file.decompress());
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldVerifyChunksWhileParsing() {
+        blte[blte.length - 1] ^= 0x01;
+
+        new BlteFileParser().parse(new ByteArrayDataReader(blte), blte.length);
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldVerifyChunksWhenDecompressingInParallel() {
+        blte[blte.length - 1] ^= 0x01;
+        BlteFile file = new BlteFileParser(executor).parse(new ByteArrayDataReader(blte), blte.length);
+
+        file.decompress();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.EncodingEntry;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.RootEntry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CascSnapshot}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.CascSnapshot
+ */
+public class CascSnapshotTest {
+    private static final String KEY = "6.2.3.20886|buildkey|cdnkey";
+    private static final FileKey FILE_KEY = new FileKey(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+    private static final ContentChecksum CONTENT_CHECKSUM = new ContentChecksum(new byte[] {16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1});
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path file;
+    private CascSnapshot snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.getRoot().toPath().resolve("snapshots").resolve("test.snapshot");
+        Index index = new Index(Arrays.asList(new CascIndexEntry(FILE_KEY, 3, 1024, 0xFFFFFFFFL)));
+        EncodingFile encoding = new EncodingFile(Arrays.asList(new CascEncodingEntry(2048, CONTENT_CHECKSUM, Arrays.asList(FILE_KEY))));
+        Map<Long, List<RootEntry>> rootEntries = new HashMap<>();
+        rootEntries.put(42L, Arrays.asList(new CascRootEntry(42L, CONTENT_CHECKSUM, 0x2L, 7L, 8L), new CascRootEntry(42L, CONTENT_CHECKSUM, 0x4L)));
+        snapshot = new CascSnapshot(KEY, index, encoding, new RootFile(rootEntries));
+    }
+
+    @Test
+    public void shouldReadWrittenSnapshot() throws Exception {
+        snapshot.write(file);
+
+        CascSnapshot read = CascSnapshot.read(file, KEY).get();
+
+        IndexEntry indexEntry = read.getIndex().getEntry(FILE_KEY).get();
+        assertEquals(3, indexEntry.getFileNumber());
+        assertEquals(1024, indexEntry.getDataFileOffset());
+        assertEquals(0xFFFFFFFFL, indexEntry.getFileSize());
+        EncodingEntry encodingEntry = read.getEncoding().get().getEncodingEntry(CONTENT_CHECKSUM).get();
+        assertEquals(2048, encodingEntry.getFileSize());
+        assertEquals(Arrays.asList(FILE_KEY), encodingEntry.getFileKeys());
+        assertEquals(16, encodingEntry.getFirstFileKey().length());
+        List<RootEntry> rootEntries = read.getRootFile().getEntries(42L);
+        assertEquals(2, rootEntries.size());
+        assertEquals(0x2L, rootEntries.get(0).getFlags());
+        assertEquals(7L, ((CascRootEntry) rootEntries.get(0)).getBlockUnknown());
+        assertEquals(8L, ((CascRootEntry) rootEntries.get(0)).getEntryUnknown());
+        assertEquals(CONTENT_CHECKSUM, rootEntries.get(1).getContentChecksum());
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotWithDifferentKey() throws Exception {
+        snapshot.write(file);
+
+        assertFalse(CascSnapshot.read(file, "6.2.3.20887|buildkey|cdnkey").isPresent());
+    }
+
+    @Test
+    public void shouldIgnoreMissingSnapshot() {
+        assertFalse(CascSnapshot.read(file, KEY).isPresent());
+    }
+
+    @Test
+    public void shouldIgnoreTruncatedSnapshot() throws Exception {
+        snapshot.write(file);
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 4));
+
+        assertFalse(CascSnapshot.read(file, KEY).isPresent());
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotWithElementCountExceedingData() throws Exception {
+        snapshot.write(file);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        int indexCountPosition = 2 * Integer.BYTES + Integer.BYTES + KEY.length();
+        data.putInt(indexCountPosition, (data.capacity() - indexCountPosition) / 2);
+        Files.write(file, data.array());
+
+        assertFalse(CascSnapshot.read(file, KEY).isPresent());
+    }
+
+    @Test
+    public void shouldSkipEncodingSection() throws Exception {
+        snapshot.write(file);
+
+        CascSnapshot read = CascSnapshot.read(file, KEY, false).get();
+
+        assertFalse(read.getEncoding().isPresent());
+        assertTrue(read.getIndex().getEntry(FILE_KEY).isPresent());
+        assertEquals(2, read.getRootFile().getEntries(42L).size());
+    }
+
+    @Test
+    public void shouldReplaceExistingSnapshot() throws Exception {
+        snapshot.write(file);
+        new CascSnapshot("other", snapshot.getIndex(), snapshot.getEncoding().get(), snapshot.getRootFile()).write(file);
+
+        assertTrue(CascSnapshot.read(file, "other").isPresent());
+        assertFalse(CascSnapshot.read(file, KEY).isPresent());
+        assertEquals(1, folder.getRoot().toPath().resolve("snapshots").toFile().list().length);
+    }
+}
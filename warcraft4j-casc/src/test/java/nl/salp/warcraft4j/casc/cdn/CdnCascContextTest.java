@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.Locale;
+import nl.salp.warcraft4j.casc.CascLocale;
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.RootEntry;
+import nl.salp.warcraft4j.config.Warcraft4jConfig;
+import nl.salp.warcraft4j.io.DataReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CdnCascContext}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.CdnCascContext
+ */
+public class CdnCascContextTest {
+    private static final int THREADS = 8;
+    private static final String SNAPSHOT_KEY = "6.2.3.20886|buildkey|cdnkey|encoding|root";
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private Warcraft4jConfig config;
+
+    @Before
+    public void setUp() {
+        config = mock(Warcraft4jConfig.class);
+        when(config.isCaching()).thenReturn(false);
+    }
+
+    @Test
+    public void shouldParseFilesOnceForConcurrentCallers() throws Exception {
+        TestContext context = new TestContext(config, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<RootFile>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return context.getRootFile();
+                }));
+            }
+            start.countDown();
+            RootFile rootFile = results.get(0).get();
+            for (Future<RootFile> result : results) {
+                assertSame(rootFile, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, context.indexParses.get());
+        assertEquals(1, context.encodingParses.get());
+        assertEquals(1, context.rootParses.get());
+    }
+
+    @Test
+    public void shouldRetryFailedParsing() {
+        TestContext context = new TestContext(config, 1);
+        try {
+            context.getIndex();
+            fail("Expected the first index parse to fail.");
+        } catch (CascParsingException e) {
+            assertEquals("index", e.getMessage());
+        }
+
+        context.getIndex();
+
+        assertEquals(2, context.indexParses.get());
+    }
+
+    @Test
+    public void shouldWaitForNestedTasksOnSingleThreadedExecutor() throws Exception {
+        ForkJoinPool executor = new ForkJoinPool(1);
+        try {
+            TestContext context = new TestContext(config, 0, executor);
+
+            assertEquals(1, context.getRootFile().getHashCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotParseLazyEncodingFileFullyDuringInitialisation() {
+        when(config.isLazyEncoding()).thenReturn(true);
+        TestContext context = new TestContext(config, 0);
+
+        context.getRootFile();
+
+        assertEquals(1, context.encodingParses.get());
+        assertEquals(0, context.fullEncodingParses.get());
+    }
+
+    @Test
+    public void shouldSkipSnapshotEncodingForLazyEncodingFile() throws Exception {
+        Path snapshotFile = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        new CascSnapshot(SNAPSHOT_KEY, new Index(Collections.<IndexEntry>emptyList()), new EncodingFile(Collections.emptyList()),
+                new TestContext(config, 0).parseRoot()).write(snapshotFile);
+        when(config.isLazyEncoding()).thenReturn(true);
+        TestContext context = new TestContext(config, 0);
+        context.snapshotFile = snapshotFile;
+
+        assertEquals(1, context.getRootFile().getHashCount());
+        assertTrue(context.getEncoding() instanceof LazyEncodingFile);
+
+        assertEquals(0, context.indexParses.get());
+        assertEquals(1, context.encodingParses.get());
+        assertEquals(0, context.rootParses.get());
+        assertEquals(0, context.fullEncodingParses.get());
+    }
+
+    @Test
+    public void shouldOnlyKeepRootEntriesForConfiguredLocale() {
+        when(config.getLocale()).thenReturn(Locale.DE_DE);
+        TestContext context = new TestContext(config, 0);
+
+        assertEquals(1, context.getRootFile().getEntryCount());
+        assertEquals(CascLocale.DE_DE, context.getRootEntries(2L).get(0).getLocale().get());
+        assertTrue(context.getRootEntries(1L).isEmpty());
+    }
+
+    @Test
+    public void shouldOnlyExposeConfiguredLocaleThroughContext() {
+        when(config.getLocale()).thenReturn(Locale.DE_DE);
+        TestContext context = new TestContext(config, 0);
+
+        assertEquals(Collections.singleton(2L), context.getHashes());
+        assertEquals(1, context.getRootEntries().size());
+        assertEquals(1, context.getContentChecksums(2L).size());
+        assertTrue(context.getContentChecksums(1L).isEmpty());
+        assertEquals(1, context.getContentChecksums(2L, CascLocale.DE_DE).size());
+        assertFalse(context.isRegistered(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOtherLocalesWhenLocaleIsConfigured() {
+        when(config.getLocale()).thenReturn(Locale.DE_DE);
+        TestContext context = new TestContext(config, 0);
+
+        context.getContentChecksums(2L, CascLocale.EN_US);
+    }
+
+    @Test
+    public void shouldKeepAllLocalesWithoutConfiguredLocale() {
+        TestContext context = new TestContext(config, 0);
+
+        assertEquals(1, context.getContentChecksums(1L).size());
+        assertEquals(1, context.getContentChecksums(1L, CascLocale.NONE).size());
+        assertTrue(context.getContentChecksums(1L, CascLocale.EN_US).isEmpty());
+    }
+
+    private static class TestContext extends CdnCascContext {
+        private final AtomicInteger indexParses = new AtomicInteger();
+        private final AtomicInteger encodingParses = new AtomicInteger();
+        private final AtomicInteger fullEncodingParses = new AtomicInteger();
+        private final AtomicInteger rootParses = new AtomicInteger();
+        private final int indexFailures;
+        private final ForkJoinPool executor;
+        private Path snapshotFile;
+
+        public TestContext(Warcraft4jConfig warcraft4jConfig, int indexFailures) {
+            this(warcraft4jConfig, indexFailures, null);
+        }
+
+        public TestContext(Warcraft4jConfig warcraft4jConfig, int indexFailures, ForkJoinPool executor) {
+            super(warcraft4jConfig);
+            this.indexFailures = indexFailures;
+            this.executor = executor;
+        }
+
+        @Override
+        protected ForkJoinPool getExecutor() {
+            return executor == null ? super.getExecutor() : executor;
+        }
+
+        @Override
+        protected Index parseIndex() throws CascParsingException {
+            if (indexParses.incrementAndGet() <= indexFailures) {
+                throw new CascParsingException("index");
+            }
+            List<CompletableFuture<Void>> segments = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                segments.add(CompletableFuture.runAsync(TestContext::pause, getExecutor()));
+            }
+            segments.forEach(CompletableFuture::join);
+            return new Index(Collections.<IndexEntry>emptyList());
+        }
+
+        @Override
+        protected EncodingFile parseEncoding() throws CascParsingException {
+            encodingParses.incrementAndGet();
+            pause();
+            if (getWarcraft4jConfig().isLazyEncoding()) {
+                return new LazyEncodingFile(new long[0], segment -> new EncodingFile(Collections.emptyList()), () -> {
+                    fullEncodingParses.incrementAndGet();
+                    return new EncodingFile(Collections.emptyList());
+                }, 1);
+            }
+            return new EncodingFile(Collections.emptyList());
+        }
+
+        @Override
+        protected RootFile parseRoot() throws CascParsingException {
+            rootParses.incrementAndGet();
+            Map<Long, List<RootEntry>> entries = new HashMap<>();
+            entries.put(1L, Arrays.asList(new CascRootEntry(1L, new ContentChecksum(new byte[16]), 0)));
+            if (getWarcraft4jConfig().getLocale() != null) {
+                entries.put(2L, Arrays.asList(new CascRootEntry(2L, new ContentChecksum(new byte[16]), CascLocale.DE_DE.getFlag())));
+            }
+            return new RootFile(entries);
+        }
+
+        @Override
+        protected Optional<Path> getSnapshotFile() {
+            return Optional.ofNullable(snapshotFile);
+        }
+
+        @Override
+        protected String getSnapshotKey() throws CascParsingException {
+            return SNAPSHOT_KEY;
+        }
+
+        @Override
+        public CdnCascConfig getCdnCascConfig() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Supplier<DataReader> getEncodingReader() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected DataReaderProvider getDataReaderProvider() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Optional<String> getDataFileUri(IndexEntry entry) {
+            return Optional.empty();
+        }
+
+        private static void pause() {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link EncodingFileParser}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.EncodingFileParser
+ */
+public class EncodingFileParserTest {
+    /** The size of an entry segment. */
+    private static final int SEGMENT_SIZE = 0x1000;
+    /** The number of entries per segment (with a single file key each). */
+    private static final int ENTRIES_PER_SEGMENT = 100;
+    /** The number of segments, spanning multiple parsing tasks. */
+    private static final int SEGMENT_COUNT = 150;
+    /** The string block. */
+    private static final byte[] STRINGS = "b:{*=z}\0".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void shouldParseAllSegments() {
+        byte[] data = createEncodingFile();
+
+        EncodingFile encodingFile = new EncodingFileParser(Runnable::run).parse(new ByteArrayDataReader(data), data.length);
+
+        assertEquals(SEGMENT_COUNT * ENTRIES_PER_SEGMENT, encodingFile.getEntryCount());
+        for (int i = 0; i < SEGMENT_COUNT * ENTRIES_PER_SEGMENT; i++) {
+            ContentChecksum contentChecksum = new ContentChecksum(contentKey(i));
+            assertEquals(new FileKey(fileKey(i)), encodingFile.getFileKey(contentChecksum).get());
+            assertEquals((long) i, (long) encodingFile.getFileSize(contentChecksum).get());
+        }
+    }
+
+    @Test
+    public void shouldParseAllSegmentsConcurrently() {
+        byte[] data = createEncodingFile();
+
+        EncodingFile encodingFile = new EncodingFileParser().parse(new ByteArrayDataReader(data), data.length);
+
+        assertEquals(new EncodingFileParser(Runnable::run).parse(new ByteArrayDataReader(data), data.length), encodingFile);
+    }
+
+    @Test
+    public void shouldEndAfterTheSegments() {
+        byte[] data = createEncodingFile();
+        DataReader reader = new ByteArrayDataReader(data);
+
+        new EncodingFileParser().parse(reader, data.length);
+
+        assertEquals(data.length, reader.position());
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForInvalidSegment() {
+        byte[] data = createEncodingFile();
+        data[data.length - SEGMENT_SIZE * 3 + 10] ^= 0x01;
+
+        new EncodingFileParser().parse(new ByteArrayDataReader(data), data.length);
+    }
+
+    @Test
+    public void shouldOnlyParseRequestedSegmentsLazily() {
+        byte[] data = createEncodingFile();
+        AtomicInteger readers = new AtomicInteger();
+
+        LazyEncodingFile encodingFile = new EncodingFileParser().parseLazily(() -> {
+            readers.incrementAndGet();
+            return new ByteArrayDataReader(data);
+        }, data.length, 2);
+
+        assertEquals(SEGMENT_COUNT, encodingFile.getSegmentCount());
+        assertEquals(new FileKey(fileKey(250)), encodingFile.getFileKey(new ContentChecksum(contentKey(250))).get());
+        assertEquals(new FileKey(fileKey(299)), encodingFile.getFileKey(new ContentChecksum(contentKey(299))).get());
+        assertEquals(2, readers.get());
+        assertEquals(1, encodingFile.getCachedSegmentCount());
+        assertEquals(0L, (long) encodingFile.getFileSize(new ContentChecksum(contentKey(0))).get());
+        assertEquals(4242L, (long) encodingFile.getFileSize(new ContentChecksum(contentKey(4242))).get());
+        assertEquals(2, encodingFile.getCachedSegmentCount());
+        assertEquals(4, readers.get());
+        assertFalse(encodingFile.getFileKey(new ContentChecksum(contentKey(SEGMENT_COUNT * ENTRIES_PER_SEGMENT))).isPresent());
+        assertFalse(encodingFile.getFileKey(new ContentChecksum(new byte[16])).isPresent());
+    }
+
+    @Test
+    public void shouldParseAllEntriesLazilyWhenRequested() {
+        byte[] data = createEncodingFile();
+
+        LazyEncodingFile encodingFile = new EncodingFileParser().parseLazily(() -> new ByteArrayDataReader(data), data.length);
+
+        assertEquals(SEGMENT_COUNT * ENTRIES_PER_SEGMENT, encodingFile.getEntryCount());
+        assertEquals(new FileKey(fileKey(10)), encodingFile.getFirstFileKey(encodingFile.indexOf(new ContentChecksum(contentKey(10)))));
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForInvalidLazySegment() {
+        byte[] data = createEncodingFile();
+        int invalidSegment = SEGMENT_COUNT - 3;
+        data[data.length - SEGMENT_SIZE * 3 + 10] ^= 0x01;
+        LazyEncodingFile encodingFile = new EncodingFileParser().parseLazily(() -> new ByteArrayDataReader(data), data.length);
+        encodingFile.getFileKey(new ContentChecksum(contentKey(0)));
+
+        encodingFile.getFileKey(new ContentChecksum(contentKey(invalidSegment * ENTRIES_PER_SEGMENT + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForMissingExecutor() {
+        new EncodingFileParser(null);
+    }
+
+    private static byte[] contentKey(int entry) {
+        byte[] key = new byte[16];
+        ByteBuffer.wrap(key).putInt(entry).putInt(0xCAFEBABE);
+        return key;
+    }
+
+    private static byte[] fileKey(int entry) {
+        byte[] key = new byte[16];
+        ByteBuffer.wrap(key).putInt(0xDEADBEEF).putInt(entry);
+        return key;
+    }
+
+    private static byte[] createEncodingFile() {
+        ByteBuffer checksums = ByteBuffer.allocate(SEGMENT_COUNT * 32);
+        ByteBuffer segments = ByteBuffer.allocate(SEGMENT_COUNT * SEGMENT_SIZE);
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            byte[] segmentData = new byte[SEGMENT_SIZE];
+            ByteBuffer segmentBuffer = ByteBuffer.wrap(segmentData);
+            for (int i = 0; i < ENTRIES_PER_SEGMENT; i++) {
+                int entry = segment * ENTRIES_PER_SEGMENT + i;
+                segmentBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) 1);
+                segmentBuffer.order(ByteOrder.BIG_ENDIAN).putInt(entry);
+                segmentBuffer.put(contentKey(entry));
+                segmentBuffer.put(fileKey(entry));
+            }
+            checksums.put(contentKey(segment * ENTRIES_PER_SEGMENT));
+            checksums.put(DigestUtils.md5(segmentData));
+            segments.put(segmentData);
+        }
+        ByteBuffer data = ByteBuffer.allocate(22 + STRINGS.length + checksums.capacity() + segments.capacity());
+        data.put("EN".getBytes(StandardCharsets.US_ASCII));
+        data.put(new byte[]{1, 16, 16});
+        data.order(ByteOrder.LITTLE_ENDIAN).putShort((short) 4).putShort((short) 4);
+        data.order(ByteOrder.BIG_ENDIAN).putInt(SEGMENT_COUNT).putInt(0);
+        data.put((byte) 0);
+        data.putInt(STRINGS.length);
+        data.put(STRINGS);
+        data.put(checksums.array());
+        data.put(segments.array());
+        return data.array();
+    }
+}
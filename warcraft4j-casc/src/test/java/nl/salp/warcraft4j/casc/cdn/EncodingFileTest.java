@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.EncodingEntry;
+import nl.salp.warcraft4j.casc.FileKey;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EncodingFile} and {@link EncodingFileBuilder}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.EncodingFile
+ */
+public class EncodingFileTest {
+    private static final ContentChecksum CONTENT_LOW = new ContentChecksum(key(0x01, 0x10));
+    private static final ContentChecksum CONTENT_HIGH = new ContentChecksum(key(0xF0, 0x20));
+    private static final ContentChecksum CONTENT_MISSING = new ContentChecksum(key(0x01, 0x11));
+    private static final FileKey FILE_KEY_1 = new FileKey(key(0x30, 0x31));
+    private static final FileKey FILE_KEY_2 = new FileKey(key(0x40, 0x41));
+    private static final FileKey FILE_KEY_3 = new FileKey(key(0x50, 0x51));
+
+    private static byte[] key(int first, int last) {
+        byte[] key = new byte[16];
+        Arrays.fill(key, (byte) 0x7F);
+        key[0] = (byte) first;
+        key[15] = (byte) last;
+        return key;
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForNullEntries() {
+        new EncodingFile(null);
+    }
+
+    @Test
+    public void shouldFindEntries() {
+        EncodingFile encodingFile = new EncodingFile(Arrays.asList(
+                new CascEncodingEntry(0xFFFFFFFFL, CONTENT_HIGH, Arrays.asList(FILE_KEY_2)),
+                new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_1))));
+
+        assertEquals(2, encodingFile.getEntryCount());
+        assertEquals(FILE_KEY_1, encodingFile.getFileKey(CONTENT_LOW).get());
+        assertEquals(1024L, (long) encodingFile.getFileSize(CONTENT_LOW).get());
+        assertEquals(FILE_KEY_2, encodingFile.getFileKey(CONTENT_HIGH).get());
+        assertEquals(0xFFFFFFFFL, (long) encodingFile.getFileSize(CONTENT_HIGH).get());
+        assertEquals(CONTENT_LOW, encodingFile.getEntries().iterator().next().getContentChecksum());
+    }
+
+    @Test
+    public void shouldNotFindMissingEntries() {
+        EncodingFile encodingFile = new EncodingFile(Arrays.asList(new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_1))));
+
+        assertFalse(encodingFile.getFileKey(CONTENT_MISSING).isPresent());
+        assertEquals(-1, encodingFile.indexOf((ContentChecksum) null));
+    }
+
+    @Test
+    public void shouldKeepAllKeysOfMultiKeyEntries() {
+        EncodingFile encodingFile = new EncodingFile(Arrays.asList(
+                new CascEncodingEntry(2048, CONTENT_HIGH, Arrays.asList(FILE_KEY_1, FILE_KEY_2, FILE_KEY_3)),
+                new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_1))));
+
+        EncodingEntry entry = encodingFile.getEncodingEntry(CONTENT_HIGH).get();
+
+        assertEquals(Arrays.asList(FILE_KEY_1, FILE_KEY_2, FILE_KEY_3), entry.getFileKeys());
+        assertEquals(FILE_KEY_1, encodingFile.getFileKey(CONTENT_HIGH).get());
+        assertEquals(Arrays.asList(FILE_KEY_1), encodingFile.getEncodingEntry(CONTENT_LOW).get().getFileKeys());
+    }
+
+    @Test
+    public void shouldKeepFirstEntryForDuplicateContentChecksums() {
+        EncodingFile encodingFile = new EncodingFile(Arrays.asList(
+                new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_1)),
+                new CascEncodingEntry(2048, CONTENT_LOW, Arrays.asList(FILE_KEY_2, FILE_KEY_3))));
+
+        assertEquals(1, encodingFile.getEntryCount());
+        assertEquals(Arrays.asList(FILE_KEY_1), encodingFile.getEncodingEntry(CONTENT_LOW).get().getFileKeys());
+    }
+
+    @Test
+    public void shouldBuildOffHeapEncodingFile() {
+        List<EncodingEntry> entries = new ArrayList<>();
+        EncodingFileBuilder builder = new EncodingFileBuilder();
+        for (int i = 0; i < 100; i++) {
+            EncodingEntry entry = new CascEncodingEntry(i, new ContentChecksum(key(0xFF - i, i)), Arrays.asList(new FileKey(key(i, i))));
+            entries.add(entry);
+            builder.add(entry);
+        }
+
+        EncodingFile encodingFile = builder.build(true);
+
+        assertEquals(entries.size(), encodingFile.getEntryCount());
+        for (EncodingEntry entry : entries) {
+            assertEquals(entry, encodingFile.getEncodingEntry(entry.getContentChecksum()).get());
+        }
+    }
+
+    @Test
+    public void shouldKeepMultiKeyEntriesWhenCombiningBuilders() {
+        EncodingFileBuilder first = new EncodingFileBuilder()
+                .add(new CascEncodingEntry(2048, CONTENT_HIGH, Arrays.asList(FILE_KEY_2, FILE_KEY_3)));
+        EncodingFileBuilder second = new EncodingFileBuilder()
+                .add(new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_1, FILE_KEY_3)))
+                .add(new CascEncodingEntry(512, CONTENT_MISSING, Arrays.asList(FILE_KEY_2)));
+
+        EncodingFile encodingFile = first.addAll(second).build(true);
+
+        assertEquals(3, encodingFile.getEntryCount());
+        assertEquals(Arrays.asList(FILE_KEY_1, FILE_KEY_3), encodingFile.getEncodingEntry(CONTENT_LOW).get().getFileKeys());
+        assertEquals(Arrays.asList(FILE_KEY_2), encodingFile.getEncodingEntry(CONTENT_MISSING).get().getFileKeys());
+        assertEquals(Arrays.asList(FILE_KEY_2, FILE_KEY_3), encodingFile.getEncodingEntry(CONTENT_HIGH).get().getFileKeys());
+    }
+
+    @Test
+    public void shouldCopyEncodingFileOffHeap() {
+        EncodingFile encodingFile = new EncodingFile(Arrays.asList(
+                new CascEncodingEntry(2048, CONTENT_HIGH, Arrays.asList(FILE_KEY_1, FILE_KEY_2)),
+                new CascEncodingEntry(1024, CONTENT_LOW, Arrays.asList(FILE_KEY_3))));
+
+        EncodingFile offHeap = encodingFile.toOffHeap();
+
+        assertTrue(offHeap.getKeys().isDirect());
+        assertSame(offHeap, offHeap.toOffHeap());
+        assertEquals(encodingFile.getEntries(), offHeap.getEntries());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.hash.JenkinsHash;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link FilenameHasher}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.FilenameHasher
+ */
+public class FilenameHasherTest {
+    private static final List<String> FILENAMES = Arrays.asList("Interface/Glues/Models/UI_MainMenu/UI_MainMenu.m2", "DBFilesClient\\Spell.db2",
+            "world/maps/azeroth/azeroth.wdt", "Sound/Music/ZoneMusic/DMF_L70ETC01.mp3", "a", "", "Fonts/FRIZQT__.TTF", "Café/ßtraße.blp");
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static long expectedHash(String filename) {
+        if (filename.isEmpty()) {
+            return 0;
+        }
+        byte[] data = filename.replace('/', '\\').toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        return JenkinsHash.hashLittle2(data, data.length);
+    }
+
+    private static long[] expectedHashes(List<String> filenames) {
+        return filenames.stream().mapToLong(FilenameHasherTest::expectedHash).toArray();
+    }
+
+    private static List<String> createFilenames(int count) {
+        List<String> filenames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            filenames.add(FILENAMES.get(i % FILENAMES.size()).replace(".", "_" + i + "."));
+        }
+        return filenames;
+    }
+
+    @Test
+    public void shouldHashLikeTheContext() {
+        FilenameHasher hasher = new FilenameHasher();
+        for (String filename : FILENAMES) {
+            assertEquals(filename, expectedHash(filename), hasher.hash(filename));
+            assertEquals(filename, expectedHash(filename), CdnCascContext.hashFilename(filename));
+        }
+        assertEquals(0, hasher.hash((String) null));
+    }
+
+    @Test
+    public void shouldHashLongFilenames() {
+        char[] name = new char[1000];
+        Arrays.fill(name, 'x');
+        String filename = new String(name);
+
+        assertEquals(expectedHash(filename), new FilenameHasher().hash(filename));
+    }
+
+    @Test
+    public void shouldHashListInParallel() {
+        List<String> filenames = createFilenames(20_000);
+        long[] expected = expectedHashes(filenames);
+
+        assertArrayEquals(expected, new FilenameHasher().hash(filenames));
+        assertArrayEquals(expected, FilenameHasher.hashAll(filenames, executor));
+    }
+
+    @Test
+    public void shouldHashListFile() throws Exception {
+        List<String> filenames = createFilenames(10_000);
+        StringBuilder listFile = new StringBuilder();
+        for (int i = 0; i < filenames.size(); i++) {
+            String filename = filenames.get(i);
+            if (filename.isEmpty() || filename.chars().anyMatch(c -> c >= 0x80)) {
+                continue;
+            }
+            listFile.append(i % 3 == 0 ? "  " : "").append(filename).append(i % 2 == 0 ? "\r\n" : "\n").append(i % 5 == 0 ? "\n \n" : "");
+        }
+        Path file = Files.createTempFile("listfile", ".txt");
+        try {
+            Files.write(file, listFile.toString().getBytes(StandardCharsets.US_ASCII));
+
+            FilenameHashes hashes = FilenameHasher.hashListFile(file, executor);
+
+            List<String> expectedFilenames = new ArrayList<>();
+            for (String line : listFile.toString().split("[\r\n]")) {
+                if (!line.trim().isEmpty()) {
+                    expectedFilenames.add(line.trim());
+                }
+            }
+            assertEquals(expectedFilenames, hashes.getFilenames());
+            assertArrayEquals(expectedHashes(expectedFilenames), hashes.getHashes());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldTreatNonAsciiListFileBytesAsUnmappable() {
+        byte[] data = "x/café.blp".getBytes(StandardCharsets.ISO_8859_1);
+
+        long hash = new FilenameHasher().hash(data, 0, data.length);
+
+        assertEquals(expectedHash(new String(data, StandardCharsets.US_ASCII)), hash);
+    }
+
+    @Test
+    public void shouldUpperCaseNonAsciiFilenamesIndependentOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+
+            long hash = new FilenameHasher().hash("interface/café.blp");
+
+            assertEquals(expectedHash("INTERFACE\\CAF?.BLP"), hash);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidRange() {
+        new FilenameHasher().hash(new byte[4], 3, 2);
+    }
+}
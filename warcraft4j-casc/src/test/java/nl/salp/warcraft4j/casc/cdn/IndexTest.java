@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link Index}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.Index
+ */
+public class IndexTest {
+    private static final FileKey KEY_LOW = new FileKey(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09});
+    private static final FileKey KEY_HIGH = new FileKey(new byte[] {(byte) 0xF1, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, (byte) 0xFF});
+    private static final FileKey KEY_MISSING = new FileKey(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x0A});
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForNullEntries() {
+        new Index(null);
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForEntriesWithoutDataFileReference() {
+        IndexEntry entry = mock(IndexEntry.class);
+        when(entry.getFileKey()).thenReturn(KEY_LOW);
+
+        new Index(Arrays.asList(entry));
+    }
+
+    @Test
+    public void shouldFindEntries() {
+        Index index = new Index(Arrays.asList(
+                new CascIndexEntry(KEY_HIGH, 2, 300, 4000L),
+                new CascIndexEntry(KEY_LOW, 1, 100, 0xFFFFFFFFL)));
+
+        assertEquals(2, index.getEntryCount());
+        assertEquals(1, (int) index.getDataFileNumber(KEY_LOW).get());
+        assertEquals(100, (int) index.getDataOffset(KEY_LOW).get());
+        assertEquals(0xFFFFFFFFL, (long) index.getDataSize(KEY_LOW).get());
+        assertEquals(new CascIndexEntry(KEY_HIGH, 2, 300, 4000L), index.getEntry(KEY_HIGH).get());
+        assertEquals(300, index.getEntry(KEY_HIGH).get().getDataFileOffset());
+    }
+
+    @Test
+    public void shouldNotFindMissingEntries() {
+        Index index = new Index(Arrays.asList(new CascIndexEntry(KEY_LOW, 1, 100, 1000L)));
+
+        assertFalse(index.getEntry(KEY_MISSING).isPresent());
+        assertEquals(-1, index.indexOf(KEY_MISSING));
+        assertEquals(-1, index.indexOf((FileKey) null));
+    }
+
+    @Test
+    public void shouldKeepFirstEntryForDuplicateKeys() {
+        Index index = new Index(Arrays.asList(
+                new CascIndexEntry(KEY_LOW, 1, 100, 1000L),
+                new CascIndexEntry(KEY_LOW, 5, 500, 5000L)));
+
+        assertEquals(1, index.getEntryCount());
+        assertEquals(1, (int) index.getDataFileNumber(KEY_LOW).get());
+    }
+
+    @Test
+    public void shouldFindEntriesForFullChecksums() {
+        FileKey fullKey = new FileKey(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x10, 0x11, 0x12, 0x13, 0x14, 0x15, 0x16});
+        Index index = new Index(Arrays.asList(new CascIndexEntry(fullKey, 1, 100, 1000L)));
+
+        assertTrue(index.getEntry(KEY_LOW).isPresent());
+        assertEquals(KEY_LOW, index.getFileKeys().iterator().next());
+    }
+
+    @Test
+    public void shouldSortEntriesByFileKey() {
+        Index index = new Index(Arrays.asList(
+                new CascIndexEntry(KEY_HIGH, 2, 300, 4000L),
+                new CascIndexEntry(KEY_LOW, 1, 100, 1000L)));
+
+        IndexEntry[] entries = index.getEntries().toArray(new IndexEntry[0]);
+        assertEquals(KEY_LOW, entries[0].getFileKey());
+        assertEquals(KEY_HIGH, entries[1].getFileKey());
+        assertEquals(1, index.indexOf(KEY_HIGH));
+    }
+}
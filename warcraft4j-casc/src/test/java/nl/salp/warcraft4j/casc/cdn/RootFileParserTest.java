@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascLocale;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataParsingException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link RootFileParser}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFileParser
+ */
+public class RootFileParserTest {
+    private static final long[] HASHES = {0x1122334455667788L, -1L, 42L};
+    private static final long[] FLAGS = {CascLocale.EN_US.getFlag(), CascLocale.EN_US.getFlag(), CascLocale.DE_DE.getFlag()};
+
+    private static byte[] checksum(int entry) {
+        byte[] checksum = new byte[ContentChecksum.CHECKSUM_LENGTH];
+        Arrays.fill(checksum, (byte) (entry + 1));
+        return checksum;
+    }
+
+    private static byte[] createRootFile() {
+        ByteBuffer data = ByteBuffer.allocate(2 * 12 + 3 * 4 + 3 * 24).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(2).putInt(7).putInt((int) FLAGS[0]);
+        data.putInt(100).putInt(200);
+        data.put(checksum(0)).putLong(HASHES[0]);
+        data.put(checksum(1)).putLong(HASHES[1]);
+        data.putInt(1).putInt(8).putInt((int) FLAGS[2]);
+        data.putInt(300);
+        data.put(checksum(2)).putLong(HASHES[2]);
+        return data.array();
+    }
+
+    @Test
+    public void shouldVisitAllEntries() {
+        List<Long> hashes = new ArrayList<>();
+        List<ContentChecksum> checksums = new ArrayList<>();
+        List<Long> flags = new ArrayList<>();
+        List<Long> entryUnknowns = new ArrayList<>();
+        byte[][] buffer = new byte[1][];
+
+        new RootFileParser().parse(new ByteArrayDataReader(createRootFile()), (hash, checksum, offset, entryFlags, blockUnknown, entryUnknown) -> {
+            if (buffer[0] != null) {
+                assertSame(buffer[0], checksum);
+            }
+            buffer[0] = checksum;
+            hashes.add(hash);
+            checksums.add(new ContentChecksum(Arrays.copyOfRange(checksum, offset, offset + ContentChecksum.CHECKSUM_LENGTH)));
+            flags.add(entryFlags);
+            entryUnknowns.add(entryUnknown);
+        });
+
+        assertEquals(Arrays.asList(HASHES[0], HASHES[1], HASHES[2]), hashes);
+        assertEquals(Arrays.asList(new ContentChecksum(checksum(0)), new ContentChecksum(checksum(1)), new ContentChecksum(checksum(2))), checksums);
+        assertEquals(Arrays.asList(FLAGS[0], FLAGS[1], FLAGS[2]), flags);
+        assertEquals(Arrays.asList(100L, 200L, 300L), entryUnknowns);
+    }
+
+    @Test
+    public void shouldParseRootFile() {
+        RootFile rootFile = new RootFileParser().parse(new ByteArrayDataReader(createRootFile()));
+
+        assertEquals(3, rootFile.getEntryCount());
+        assertEquals(new CascRootEntry(HASHES[1], new ContentChecksum(checksum(1)), FLAGS[1], 7L, 200L), rootFile.getEntries(HASHES[1]).get(0));
+        assertEquals(new CascRootEntry(HASHES[2], new ContentChecksum(checksum(2)), FLAGS[2], 8L, 300L), rootFile.getEntries(HASHES[2]).get(0));
+    }
+
+    @Test(expected = DataParsingException.class)
+    public void shouldThrowExceptionForEntryCountExceedingData() {
+        byte[] rootFile = createRootFile();
+        ByteBuffer.wrap(rootFile).order(ByteOrder.LITTLE_ENDIAN).putInt(0, Integer.MAX_VALUE);
+
+        new RootFileParser().parse(new ByteArrayDataReader(rootFile));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForMissingVisitor() {
+        new RootFileParser().parse(new ByteArrayDataReader(createRootFile()), null);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascLocale;
+import nl.salp.warcraft4j.casc.ContentChecksum;
+import nl.salp.warcraft4j.casc.RootEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RootFile} and {@link RootFileBuilder}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.RootFile
+ */
+public class RootFileTest {
+    private static final ContentChecksum CHECKSUM_EN = checksum(1);
+    private static final ContentChecksum CHECKSUM_DE = checksum(2);
+    private static final ContentChecksum CHECKSUM_ALL = checksum(3);
+    private static final long HASH_LOCALISED = 0x8000000000000001L;
+    private static final long HASH_SHARED = 42L;
+    private RootFile rootFile;
+
+    private static ContentChecksum checksum(int value) {
+        byte[] checksum = new byte[16];
+        checksum[0] = (byte) 0xFF;
+        checksum[15] = (byte) value;
+        return new ContentChecksum(checksum);
+    }
+
+    @Before
+    public void setUp() {
+        rootFile = new RootFileBuilder()
+                .add(new CascRootEntry(HASH_SHARED, CHECKSUM_ALL, CascLocale.EN_US.getFlag() | CascLocale.DE_DE.getFlag(), 7L, 0xFFFFFFFFL))
+                .add(new CascRootEntry(HASH_LOCALISED, CHECKSUM_EN, CascLocale.EN_US.getFlag()))
+                .add(new CascRootEntry(HASH_LOCALISED, CHECKSUM_DE, CascLocale.DE_DE.getFlag()))
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForEmptyEntries() {
+        new RootFile(Collections.emptyMap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForFlagsExceeding32Bits() {
+        new RootFileBuilder().add(new CascRootEntry(HASH_SHARED, CHECKSUM_ALL, 0x100000000L));
+    }
+
+    @Test
+    public void shouldFindEntries() {
+        assertEquals(2, rootFile.getHashCount());
+        assertEquals(3, rootFile.getEntryCount());
+        assertTrue(rootFile.isEntryAvailable(HASH_LOCALISED));
+        assertFalse(rootFile.isEntryAvailable(HASH_LOCALISED + 1));
+        assertEquals(Arrays.asList(CHECKSUM_EN, CHECKSUM_DE), rootFile.getContentChecksums(HASH_LOCALISED));
+        assertTrue(rootFile.getContentChecksums(1L).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(HASH_SHARED, HASH_LOCALISED)), new HashSet<>(rootFile.getHashes()));
+        assertTrue(rootFile.getHashes().contains(HASH_SHARED));
+    }
+
+    @Test
+    public void shouldKeepEntryData() {
+        RootEntry entry = rootFile.getEntries(HASH_SHARED).get(0);
+
+        assertEquals(new CascRootEntry(HASH_SHARED, CHECKSUM_ALL, CascLocale.EN_US.getFlag() | CascLocale.DE_DE.getFlag(), 7L, 0xFFFFFFFFL), entry);
+        assertEquals(3, rootFile.getEntries().size());
+        assertEquals(new HashSet<>(Arrays.asList(CHECKSUM_EN, CHECKSUM_DE, CHECKSUM_ALL)),
+                rootFile.getEntries().stream().map(RootEntry::getContentChecksum).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void shouldFindManyEntries() {
+        Map<Long, List<RootEntry>> entries = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long hash = random.nextLong();
+            entries.put(hash, Collections.singletonList(new CascRootEntry(hash, checksum(i), 0)));
+        }
+
+        RootFile manyEntries = new RootFile(entries);
+
+        assertEquals(entries.size(), manyEntries.getHashCount());
+        for (Map.Entry<Long, List<RootEntry>> entry : entries.entrySet()) {
+            assertEquals(entry.getValue(), manyEntries.getEntries(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void shouldOnlyContainLocaleEntriesInLocaleView() {
+        RootFile view = rootFile.getLocaleView(CascLocale.DE_DE);
+
+        assertEquals(2, view.getEntryCount());
+        assertEquals(Arrays.asList(CHECKSUM_DE), view.getContentChecksums(HASH_LOCALISED));
+        assertEquals(Arrays.asList(CHECKSUM_ALL), view.getContentChecksums(HASH_SHARED));
+        assertSame(view, rootFile.getLocaleView(CascLocale.DE_DE));
+        assertSame(rootFile, rootFile.getLocaleView(CascLocale.ALL));
+        assertEquals(0, rootFile.getLocaleView(CascLocale.KO_KR).getHashCount());
+        assertFalse(rootFile.getLocaleView(CascLocale.KO_KR).isEntryAvailable(HASH_SHARED));
+    }
+}
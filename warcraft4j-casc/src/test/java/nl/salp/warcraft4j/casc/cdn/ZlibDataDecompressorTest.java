@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link ZlibDataDecompressor}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.ZlibDataDecompressor
+ */
+public class ZlibDataDecompressorTest {
+    private byte[] data;
+    private byte[] compressed;
+    private ZlibDataDecompressor decompressor;
+
+    @Before
+    public void setUp() {
+        data = new byte[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        compressed = compress(data);
+        decompressor = new ZlibDataDecompressor();
+    }
+
+    @Test
+    public void shouldDecompressToKnownSize() {
+        assertArrayEquals(data, decompressor.decompress(compressed, 0, compressed.length, data.length));
+        assertArrayEquals(data, decompressor.decompress(compressed, 0, compressed.length, data.length));
+    }
+
+    @Test
+    public void shouldDecompressToVariableSize() {
+        assertArrayEquals(data, decompressor.decompress(compressed, compressed.length, BlteChunk.VARIABLE_SIZE));
+    }
+
+    @Test
+    public void shouldDecompressFromOffset() {
+        byte[] input = new byte[compressed.length + 3];
+        System.arraycopy(compressed, 0, input, 3, compressed.length);
+
+        assertArrayEquals(data, decompressor.decompress(input, 3, compressed.length, data.length));
+    }
+
+    @Test
+    public void shouldDecompressIntoBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 10);
+        buffer.position(5);
+
+        assertEquals(data.length, decompressor.decompress(compressed, 0, compressed.length, buffer));
+        assertEquals(data.length + 5, buffer.position());
+        assertArrayEquals(data, Arrays.copyOfRange(buffer.array(), 5, data.length + 5));
+    }
+
+    @Test
+    public void shouldDecompressIntoDirectBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+
+        assertEquals(data.length, decompressor.decompress(compressed, 0, compressed.length, buffer));
+        byte[] result = new byte[data.length];
+        ((ByteBuffer) buffer.flip()).get(result);
+        assertArrayEquals(data, result);
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldNotDecompressToSmallerSize() {
+        decompressor.decompress(compressed, 0, compressed.length, data.length - 1);
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldNotDecompressToLargerSize() {
+        decompressor.decompress(compressed, 0, compressed.length, data.length + 1);
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldNotDecompressIntoTooSmallBuffer() {
+        decompressor.decompress(compressed, 0, compressed.length, ByteBuffer.allocateDirect(data.length - 1));
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldNotDecompressIncompleteData() {
+        decompressor.decompress(compressed, 0, compressed.length / 2, data.length);
+    }
+
+    private static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.local;
+
+import nl.salp.warcraft4j.config.Warcraft4jConfig;
+import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.DataReadingException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link LocalCdnCascContext}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.local.LocalCdnCascContext
+ */
+public class LocalCdnCascContextTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path dataFile;
+    private Warcraft4jConfig config;
+
+    @Before
+    public void setUp() throws Exception {
+        dataFile = folder.newFile("data.000").toPath();
+        Files.write(dataFile, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        config = mock(Warcraft4jConfig.class);
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldCloseDataFilesOnClose() throws Exception {
+        LocalCdnCascContext context = new LocalCdnCascContext(config);
+        DataReader reader = context.getDataReaderProvider().getDataReader(dataFile.toString()).get();
+
+        context.close();
+
+        reader.readByte();
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldCloseMappedDataFilesOnClose() throws Exception {
+        when(config.isMemoryMapping()).thenReturn(true);
+        LocalCdnCascContext context = new LocalCdnCascContext(config);
+        DataReader reader = context.getDataReaderProvider().getDataReader(dataFile.toString()).get();
+
+        context.close();
+
+        reader.readByte();
+    }
+}
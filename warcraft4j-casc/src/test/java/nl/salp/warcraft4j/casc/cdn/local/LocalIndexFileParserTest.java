@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.local;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.cdn.Index;
+import nl.salp.warcraft4j.casc.cdn.IndexBuilder;
+import nl.salp.warcraft4j.hash.JenkinsHash;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link LocalIndexFileParser}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.local.LocalIndexFileParser
+ */
+public class LocalIndexFileParserTest {
+    private static final byte[] KEY_1 = {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    private static final byte[] KEY_2 = {(byte) 0xA1, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, (byte) 0xF9};
+    private LocalIndexFileParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new LocalIndexFileParser(Paths.get("0000000001.idx"), p -> 0, p -> 1);
+    }
+
+    @Test
+    public void shouldParseEntries() {
+        IndexBuilder builder = new IndexBuilder();
+
+        int count = parser.parse(createIndexFile(), builder);
+        Index index = builder.build();
+
+        assertEquals(2, count);
+        IndexEntry entry1 = index.getEntry(new FileKey(KEY_1)).get();
+        assertEquals(1, entry1.getFileNumber());
+        assertEquals(0x12345678, entry1.getDataFileOffset());
+        assertEquals(1000L, entry1.getFileSize());
+        IndexEntry entry2 = index.getEntry(new FileKey(KEY_2)).get();
+        assertEquals(0x2F2, entry2.getFileNumber());
+        assertEquals(0x3FFFFFFF, entry2.getDataFileOffset());
+        assertEquals(0xFFFFFFF0L, entry2.getFileSize());
+    }
+
+    @Test
+    public void shouldParseEntriesFromBufferPosition() {
+        ByteBuffer data = createIndexFile();
+        ByteBuffer shifted = ByteBuffer.allocate(data.capacity() + 5);
+        shifted.position(5);
+        shifted.put(data);
+        shifted.position(5);
+        IndexBuilder builder = new IndexBuilder();
+
+        parser.parse(shifted, builder);
+
+        assertEquals(5, shifted.position());
+        assertEquals(2, builder.build().getEntryCount());
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForTruncatedData() {
+        ByteBuffer data = createIndexFile();
+        data.limit(data.limit() - 1);
+
+        parser.parse(data, new IndexBuilder());
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldThrowExceptionForInvalidHeaderHash() {
+        ByteBuffer data = createIndexFile();
+        data.put(4, (byte) (data.get(4) + 1));
+
+        parser.parse(data, new IndexBuilder());
+    }
+
+    private static ByteBuffer createIndexFile() {
+        ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        header.putShort((short) 0x07).put((byte) 0).put((byte) 0).put((byte) 4).put((byte) 5).put((byte) 9).put((byte) 30);
+        header.order(ByteOrder.BIG_ENDIAN).putLong(0x4000000000L);
+        byte[] headerData = header.array();
+
+        ByteBuffer data = ByteBuffer.allocate(40 + 2 * LocalIndexFileParser.ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(headerData.length).putInt(JenkinsHash.hashLittle2b(headerData, headerData.length)).put(headerData);
+        data.position(32);
+        data.putInt(2 * LocalIndexFileParser.ENTRY_SIZE).putInt(0);
+        putEntry(data, KEY_1, (byte) 0x00, 0x52345678, 1000);
+        putEntry(data, KEY_2, (byte) 0xBC, 0xBFFFFFFF, 0xFFFFFFF0);
+        data.flip();
+        return data;
+    }
+
+    private static void putEntry(ByteBuffer data, byte[] key, byte indexInfoHigh, int indexInfoLow, int fileSize) {
+        data.put(key).put(indexInfoHigh);
+        data.order(ByteOrder.BIG_ENDIAN).putInt(indexInfoLow);
+        data.order(ByteOrder.LITTLE_ENDIAN).putInt(fileSize);
+    }
+}
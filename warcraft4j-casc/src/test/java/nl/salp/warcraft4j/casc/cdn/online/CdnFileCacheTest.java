@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.online;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link CdnFileCache}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.online.CdnFileCache
+ */
+public class CdnFileCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("cdn").toPath();
+    }
+
+    @Test
+    public void shouldCacheFileOnlyOnce() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        Path file = cache.get("data/0a/1b/0a1b", out -> {
+            loads.incrementAndGet();
+            out.write(data(10, 1));
+        });
+        Path cached = cache.get("data/0a/1b/0a1b", out -> loads.incrementAndGet());
+
+        assertEquals(1, loads.get());
+        assertEquals(file, cached);
+        assertEquals(directory.resolve("data/0a/1b/0a1b"), file);
+        assertArrayEquals(data(10, 1), Files.readAllBytes(file));
+        assertEquals(10, cache.getSize());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedFiles() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 25);
+        cache.put("a", out -> out.write(data(10, 1)));
+        cache.put("b", out -> out.write(data(10, 2)));
+        cache.get("a");
+
+        cache.put("c", out -> out.write(data(10, 3)));
+
+        assertTrue(cache.get("a").isPresent());
+        assertFalse(cache.get("b").isPresent());
+        assertTrue(cache.get("c").isPresent());
+        assertTrue(Files.notExists(directory.resolve("b")));
+        assertEquals(20, cache.getSize());
+    }
+
+    @Test
+    public void shouldNotEvictPinnedFilesUntilClosed() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 15);
+        CdnFileCache.CachedFile pinned = cache.open("a", out -> out.write(data(10, 1)));
+
+        cache.put("b", out -> out.write(data(10, 2)));
+
+        assertTrue(Files.exists(directory.resolve("a")));
+        assertTrue(Files.exists(directory.resolve("b")));
+        assertEquals(1, cache.getPinnedCount());
+        assertEquals(20, cache.getSize());
+
+        pinned.close();
+
+        assertEquals(0, cache.getPinnedCount());
+        assertFalse(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isPresent());
+        assertTrue(Files.notExists(directory.resolve("a")));
+        assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    public void shouldDeleteRemovedPinnedFileAfterLastClose() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 0);
+        CdnFileCache.CachedFile first = cache.open("a", out -> out.write(data(10, 1)));
+        CdnFileCache.CachedFile second = cache.open("a").get();
+
+        assertTrue(cache.remove("a"));
+        first.close();
+        first.close();
+        assertTrue(Files.exists(directory.resolve("a")));
+        second.close();
+
+        assertFalse(cache.get("a").isPresent());
+        assertTrue(Files.notExists(directory.resolve("a")));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void shouldKeepFileCachedAgainAfterRemovingWhilePinned() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 0);
+        CdnFileCache.CachedFile pinned = cache.open("a", out -> out.write(data(10, 1)));
+        cache.remove("a");
+
+        cache.put("a", out -> out.write(data(10, 2)));
+        pinned.close();
+
+        assertTrue(cache.get("a").isPresent());
+        assertArrayEquals(data(10, 2), Files.readAllBytes(directory.resolve("a")));
+    }
+
+    @Test
+    public void shouldOnlyUpdateModificationTimeWhenReleasingLastPin() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 0);
+        cache.put("a", out -> out.write(data(10, 1)));
+        Files.setLastModifiedTime(directory.resolve("a"), FileTime.fromMillis(1000));
+
+        cache.get("a");
+        CdnFileCache.CachedFile first = cache.open("a").get();
+        CdnFileCache.CachedFile second = cache.open("a").get();
+        first.close();
+
+        assertEquals(1000, Files.getLastModifiedTime(directory.resolve("a")).toMillis());
+        second.close();
+        assertTrue(Files.getLastModifiedTime(directory.resolve("a")).toMillis() > 1000);
+    }
+
+    @Test
+    public void shouldNotKeepFailedWrites() throws Exception {
+        CdnFileCache cache = new CdnFileCache(directory, 0);
+        try {
+            cache.put("data/00/00/0000", out -> {
+                out.write(data(5, 1));
+                throw new IOException("Connection reset");
+            });
+            fail("Expected the failed write to be rethrown.");
+        } catch (IOException e) {
+            assertEquals("Connection reset", e.getMessage());
+        }
+
+        assertFalse(cache.get("data/00/00/0000").isPresent());
+        try (Stream<Path> files = Files.list(directory.resolve("data/00/00"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void shouldIndexExistingFilesAndRemoveIncompleteFiles() throws Exception {
+        Files.createDirectories(directory.resolve("data/0a/1b"));
+        Files.write(directory.resolve("data/0a/1b/old"), data(10, 1));
+        Files.write(directory.resolve("data/0a/1b/new"), data(10, 2));
+        Files.write(directory.resolve("data/0a/1b/new.123.part"), data(4, 3));
+        Files.setLastModifiedTime(directory.resolve("data/0a/1b/old"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("data/0a/1b/new"), FileTime.fromMillis(2000));
+
+        CdnFileCache cache = new CdnFileCache(directory, 15);
+
+        assertEquals(1, cache.getEntryCount());
+        assertTrue(cache.get("data/0a/1b/new").isPresent());
+        assertTrue(Files.notExists(directory.resolve("data/0a/1b/old")));
+        assertTrue(Files.notExists(directory.resolve("data/0a/1b/new.123.part")));
+    }
+
+    @Test
+    public void shouldShareCachePerDirectory() {
+        assertTrue(CdnFileCache.getInstance(directory, 0) == CdnFileCache.getInstance(directory.resolve("x").resolve(".."), 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotShareCacheWithDifferentMaximumSize() {
+        CdnFileCache.getInstance(directory, 100);
+
+        CdnFileCache.getInstance(directory, 200);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptKeysOutsideOfCacheDirectory() {
+        new CdnFileCache(directory, 0).get("../outside");
+    }
+
+    private static byte[] data(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.online;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import nl.salp.warcraft4j.io.DataReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link OnlineDataReaderProvider}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.online.OnlineDataReaderProvider
+ */
+public class OnlineDataReaderProviderTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private byte[] data;
+    private HttpServer server;
+    private List<String> ranges;
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 17);
+        }
+        ranges = new CopyOnWriteArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/archive", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/archive";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Matcher matcher = RANGE.matcher(String.valueOf(exchange.getRequestHeaders().getFirst("Range")));
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (matcher.matches()) {
+                int start = Integer.parseInt(matcher.group(1));
+                int end = Integer.parseInt(matcher.group(2));
+                ranges.add(start + "-" + end);
+                exchange.getResponseHeaders().add("Content-Range", String.format("bytes %d-%d/%d", start, end, data.length));
+                exchange.sendResponseHeaders(206, end - start + 1);
+                out.write(data, start, end - start + 1);
+            } else {
+                exchange.sendResponseHeaders(200, data.length);
+                out.write(data);
+            }
+        }
+    }
+
+    private void assertSegment(Supplier<DataReader> supplier, int offset, int length) throws Exception {
+        try (DataReader reader = supplier.get()) {
+            byte[] segment = new byte[(int) reader.size()];
+            reader.readBytes(segment, 0, segment.length);
+            assertArrayEquals(Arrays.copyOfRange(data, offset, offset + length), segment);
+        }
+    }
+
+    @Test
+    public void shouldReadSegmentWithRangeRequest() throws Exception {
+        assertSegment(new OnlineDataReaderProvider().getDataReader(url, 300, 200), 300, 200);
+
+        assertEquals(Arrays.asList("300-499"), ranges);
+    }
+
+    @Test
+    public void shouldCoalesceAdjacentSegments() throws Exception {
+        long[] offsets = {1100, 1000, 5000, 1050, 1300};
+        long[] lengths = {200, 100, 10, 100, 50};
+
+        List<Supplier<DataReader>> readers = new OnlineDataReaderProvider().getDataReaders(url, offsets, lengths);
+        for (int i = 0; i < offsets.length; i++) {
+            assertSegment(readers.get(i), (int) offsets[i], (int) lengths[i]);
+        }
+
+        assertEquals(2, ranges.size());
+        assertEquals(Arrays.asList("1000-1349", "5000-5009"), ranges.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldReadCoalescedRangeAgainAfterAllSegmentsWereOpened() throws Exception {
+        List<Supplier<DataReader>> readers = new OnlineDataReaderProvider().getDataReaders(url, new long[]{0, 100}, new long[]{100, 100});
+        assertSegment(readers.get(0), 0, 100);
+        assertSegment(readers.get(1), 100, 100);
+        assertSegment(readers.get(1), 100, 100);
+
+        assertEquals(Arrays.asList("0-199", "0-199"), ranges);
+    }
+
+    @Test
+    public void shouldKeepCoalescedRangeWhenReopeningSegmentBeforeOthers() throws Exception {
+        List<Supplier<DataReader>> readers = new OnlineDataReaderProvider().getDataReaders(url, new long[]{0, 100, 200}, new long[]{100, 100, 100});
+        assertSegment(readers.get(0), 0, 100);
+        assertSegment(readers.get(0), 0, 100);
+        assertSegment(readers.get(1), 100, 100);
+
+        assertEquals(Arrays.asList("0-299"), ranges);
+
+        assertSegment(readers.get(2), 200, 100);
+
+        assertEquals(Arrays.asList("0-299"), ranges);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.online;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.casc.cdn.CdnCascConfig;
+import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
+import nl.salp.warcraft4j.casc.cdn.Index;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link OnlineIndexParser}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.online.OnlineIndexParser
+ */
+public class OnlineIndexParserTest {
+    private static final int ARCHIVES = 12;
+    private static final int ENTRIES = 100;
+    private CdnCascConfig config;
+    private TestDataReaderProvider provider;
+
+    @Before
+    public void setUp() {
+        List<FileKey> archives = new ArrayList<>();
+        for (int i = 0; i < ARCHIVES; i++) {
+            archives.add(new FileKey(key(0xF0, i)));
+        }
+        config = mock(CdnCascConfig.class);
+        when(config.getArchiveChecksums()).thenReturn(archives);
+        when(config.getCdnUrl()).thenReturn("http://cdn");
+        provider = new TestDataReaderProvider();
+    }
+
+    @Test
+    public void shouldParseAllIndexFiles() {
+        Index index = new OnlineIndexParser(config, provider, Executors.newFixedThreadPool(2), 4).parse();
+
+        assertEquals(ARCHIVES * ENTRIES, index.getEntryCount());
+        assertEquals(Integer.valueOf(5), index.getDataFileNumber(new FileKey(key(5, 7))).get());
+        assertEquals(Integer.valueOf(7 * 16), index.getDataOffset(new FileKey(key(5, 7))).get());
+        assertEquals(Long.valueOf(7 + 1), index.getDataSize(new FileKey(key(5, 7))).get());
+    }
+
+    @Test
+    public void shouldKeepEntryOfLowestArchiveForDuplicateKeys() {
+        provider.duplicate = true;
+
+        Index index = new OnlineIndexParser(config, provider).parse();
+
+        assertEquals(ARCHIVES * (ENTRIES - 1) + 1, index.getEntryCount());
+        assertEquals(Integer.valueOf(0), index.getDataFileNumber(new FileKey(key(0xEE, 0))).get());
+    }
+
+    @Test
+    public void shouldBoundIndexFilesInFlight() {
+        provider.delay = 20;
+
+        new OnlineIndexParser(config, provider, Executors.newFixedThreadPool(8), 3).parse();
+
+        assertEquals(ARCHIVES, provider.requests.get());
+        assertTrue(provider.maxConcurrent.get() <= 3);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldParseWhenRunningOnSingleWorkerForkJoinPool() throws Exception {
+        provider.delay = 5;
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            Index index = pool.submit(() -> new OnlineIndexParser(config, provider, pool, 1).parse()).get();
+
+            assertEquals(ARCHIVES * ENTRIES, index.getEntryCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(expected = CascParsingException.class)
+    public void shouldFailOnDownloadError() {
+        provider.failing = 3;
+
+        new OnlineIndexParser(config, provider).parse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNonPositiveInFlightLimit() {
+        new OnlineIndexParser(config, provider, Executors.newSingleThreadExecutor(), 0);
+    }
+
+    private static byte[] key(int a, int b) {
+        byte[] key = new byte[16];
+        key[0] = (byte) a;
+        key[1] = (byte) b;
+        key[15] = 1;
+        return key;
+    }
+
+    private static byte[] indexFile(int archive, boolean duplicate) {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRIES * 24 + 28).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < ENTRIES; i++) {
+            buffer.put(duplicate && i == 0 ? key(0xEE, 0) : key(archive, i));
+            buffer.putInt(i + 1);
+            buffer.putInt(i * 16);
+        }
+        buffer.position(buffer.capacity() - 12);
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putInt(ENTRIES);
+        return buffer.array();
+    }
+
+    private static class TestDataReaderProvider implements DataReaderProvider {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private volatile boolean duplicate;
+        private volatile long delay;
+        private volatile int failing = -1;
+
+        @Override
+        public Supplier<DataReader> getDataReader(String uri) {
+            return () -> {
+                int current = concurrent.incrementAndGet();
+                maxConcurrent.accumulateAndGet(current, Math::max);
+                try {
+                    int archive = Integer.parseInt(uri.substring(uri.lastIndexOf('/') + 3, uri.lastIndexOf('/') + 5), 16);
+                    requests.incrementAndGet();
+                    if (archive == failing) {
+                        throw new IllegalStateException("Download failed");
+                    }
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    byte[] data = indexFile(archive, duplicate);
+                    return new ByteArrayDataReader(data) {
+                        @Override
+                        public void close() {
+                            concurrent.decrementAndGet();
+                        }
+                    };
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        @Override
+        public Supplier<DataReader> getDataReader(String uri, long offset, long length) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.casc.cdn.util;
+
+import nl.salp.warcraft4j.casc.CascParsingException;
+import nl.salp.warcraft4j.casc.FileKey;
+import nl.salp.warcraft4j.casc.IndexEntry;
+import nl.salp.warcraft4j.casc.cdn.CascIndexEntry;
+import nl.salp.warcraft4j.casc.cdn.CdnCascConfig;
+import nl.salp.warcraft4j.casc.cdn.CdnCascContext;
+import nl.salp.warcraft4j.casc.cdn.DataReaderProvider;
+import nl.salp.warcraft4j.casc.cdn.EncodingFile;
+import nl.salp.warcraft4j.casc.cdn.Index;
+import nl.salp.warcraft4j.casc.cdn.RootFile;
+import nl.salp.warcraft4j.config.Warcraft4jConfig;
+import nl.salp.warcraft4j.hash.Hashes;
+import nl.salp.warcraft4j.io.ByteArrayDataReader;
+import nl.salp.warcraft4j.io.DataReader;
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CascBulkExtractor}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.casc.cdn.util.CascBulkExtractor
+ */
+public class CascBulkExtractorTest {
+    private final Map<Integer, ByteArrayOutputStream> dataFiles = new HashMap<>();
+    private final List<String> reads = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Long, byte[]> expected = new HashMap<>();
+    private final Map<Long, List<IndexEntry>> files = new HashMap<>();
+    private CdnCascContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        Warcraft4jConfig config = mock(Warcraft4jConfig.class);
+        when(config.isCaching()).thenReturn(false);
+        context = new TestContext(config);
+        for (long hash = 1; hash <= 20; hash++) {
+            byte[] data = new byte[(int) hash * 100];
+            Arrays.fill(data, (byte) hash);
+            expected.put(hash, data);
+            files.put(hash, Collections.singletonList(add((int) (hash % 3), data)));
+        }
+        byte[] first = new byte[50];
+        byte[] second = new byte[70];
+        Arrays.fill(first, (byte) 0x21);
+        Arrays.fill(second, (byte) 0x22);
+        files.put(21L, Arrays.asList(add(2, first), add(0, second)));
+        expected.put(21L, ByteBuffer.allocate(120).put(first).put(second).array());
+    }
+
+    @Test
+    public void shouldExtractAllFiles() throws Exception {
+        Map<Long, byte[]> extracted = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        int count;
+        try {
+            count = new CascBulkExtractor(context, executor, 3)
+                    .extract(files, (hash, data) -> extracted.put(hash, data.readNext(DataTypeFactory.getByteArray((int) data.remaining()))));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected.keySet(), extracted.keySet());
+        expected.forEach((hash, data) -> assertArrayEquals(data, extracted.get(hash)));
+    }
+
+    @Test
+    public void shouldReadDataFilesSequentially() throws Exception {
+        new CascBulkExtractor(context).extract(files, (hash, data) -> {
+        });
+
+        List<String> sorted = new ArrayList<>(reads);
+        sorted.sort(Comparator.comparing((String r) -> r.split(":")[0]).thenComparingInt(r -> Integer.parseInt(r.split(":")[1])));
+        assertEquals(sorted, reads);
+    }
+
+    @Test
+    public void shouldReadSegmentsInBatches() throws Exception {
+        int segments = files.values().stream().mapToInt(List::size).sum();
+
+        new CascBulkExtractor(context).extract(files, (hash, data) -> {
+        });
+
+        assertEquals(segments, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.size() < segments);
+    }
+
+    @Test
+    public void shouldLimitDataInFlightByBytes() throws Exception {
+        long maxBytes = 1000;
+        AtomicLong inFlight = new AtomicLong();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicBoolean exceeded = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        int count;
+        try {
+            count = new CascBulkExtractor(context, executor, maxBytes).extract(files, (hash, data) -> {
+                long bytes = inFlight.addAndGet(data.size());
+                if (concurrent.incrementAndGet() > 1 && bytes > maxBytes) {
+                    exceeded.set(true);
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+                inFlight.addAndGet(-data.size());
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(expected.size(), count);
+        assertFalse(exceeded.get());
+    }
+
+    @Test
+    public void shouldSeekBackAcrossSegments() throws Exception {
+        byte[] reread = new byte[60];
+
+        new CascBulkExtractor(context).extract(Collections.singletonMap(21L, files.get(21L)), (hash, data) -> {
+            data.readBytes(new byte[(int) data.size()], 0, (int) data.size());
+            data.position(10);
+            data.readBytes(reread, 0, reread.length);
+        });
+
+        assertArrayEquals(Arrays.copyOfRange(expected.get(21L), 10, 70), reread);
+    }
+
+    @Test
+    public void shouldSkipFilesWithoutData() throws Exception {
+        files.put(30L, Collections.singletonList(new CascIndexEntry(new FileKey(new byte[9]), 9, 0, 10)));
+        Set<Long> extracted = ConcurrentHashMap.newKeySet();
+
+        int count = new CascBulkExtractor(context).extract(files, (hash, data) -> extracted.add(hash));
+
+        assertEquals(expected.size(), count);
+        assertFalse(extracted.contains(30L));
+    }
+
+    @Test(expected = CascExtractionException.class)
+    public void shouldFailOnCorruptData() throws Exception {
+        files.put(31L, Collections.singletonList(add(1, new byte[0], new byte[] {'B', 'L', 'T', 'F'})));
+
+        new CascBulkExtractor(context).extract(files, (hash, data) -> {
+        });
+    }
+
+    private IndexEntry add(int fileNumber, byte[] data) throws Exception {
+        return add(fileNumber, data, createBlte(data));
+    }
+
+    private IndexEntry add(int fileNumber, byte[] data, byte[] blte) {
+        ByteArrayOutputStream dataFile = dataFiles.computeIfAbsent(fileNumber, n -> new ByteArrayOutputStream());
+        int offset = dataFile.size();
+        dataFile.write(blte, 0, blte.length);
+        byte[] key = new byte[9];
+        key[0] = (byte) fileNumber;
+        key[1] = (byte) (offset >> 8);
+        key[2] = (byte) offset;
+        return new CascIndexEntry(new FileKey(key), fileNumber, offset, blte.length);
+    }
+
+    private static byte[] createBlte(byte[] data) throws Exception {
+        byte[] chunk = new byte[data.length + 1];
+        chunk[0] = 'N';
+        System.arraycopy(data, 0, chunk, 1, data.length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("BLTE".getBytes("US-ASCII"));
+        out.write(ByteBuffer.allocate(16).putInt(36).putInt(0x0F000001).putInt(chunk.length).putInt(data.length).array());
+        out.write(Hashes.MD5.hash(chunk));
+        out.write(chunk);
+        return out.toByteArray();
+    }
+
+    private class TestContext extends CdnCascContext {
+        public TestContext(Warcraft4jConfig warcraft4jConfig) {
+            super(warcraft4jConfig);
+        }
+
+        @Override
+        public CdnCascConfig getCdnCascConfig() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Supplier<DataReader> getEncodingReader() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Index parseIndex() throws CascParsingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected EncodingFile parseEncoding() throws CascParsingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected RootFile parseRoot() throws CascParsingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected DataReaderProvider getDataReaderProvider() {
+            return new DataReaderProvider() {
+                @Override
+                public Supplier<DataReader> getDataReader(String uri) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public List<Supplier<DataReader>> getDataReaders(String uri, long[] offsets, long[] lengths) throws CascParsingException {
+                    batches.add(offsets.length);
+                    return DataReaderProvider.super.getDataReaders(uri, offsets, lengths);
+                }
+
+                @Override
+                public Supplier<DataReader> getDataReader(String uri, long offset, long length) {
+                    reads.add(uri + ":" + offset);
+                    byte[] data = dataFiles.get(Integer.parseInt(uri.substring(uri.indexOf('.') + 1))).toByteArray();
+                    return () -> new ByteArrayDataReader(Arrays.copyOfRange(data, (int) offset, (int) (offset + length)));
+                }
+            };
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        protected Optional<String> getDataFileUri(IndexEntry entry) {
+            return Optional.of(entry.getFileNumber())
+                    .filter(dataFiles::containsKey)
+                    .map(n -> String.format("data.%03d", n));
+        }
+    }
+}
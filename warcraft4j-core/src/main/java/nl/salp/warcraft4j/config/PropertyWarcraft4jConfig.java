@@ -53,6 +53,22 @@ public class PropertyWarcraft4jConfig implements Warcraft4jConfig {
     public static final String CACHE_DIR_KEY = "w4j.data.cache.directory";
     /** The default value for {@link Warcraft4jConfig#getCacheDirectory()} ({@code ${USER.HOME}\w4j\data\cache}). */
     public static final String CACHE_DIR_DEFAULT = System.getProperty("user.home") + "\\w4j\\data\\cache";
+    /** The property key for the value of {@link Warcraft4jConfig#getCacheSize()}. */
+    public static final String CACHE_SIZE_KEY = "w4j.data.cache.size";
+    /** The default value for {@link Warcraft4jConfig#getCacheSize()} ({@code 10 GiB}). */
+    public static final long CACHE_SIZE_DEFAULT = 10L * 1024 * 1024 * 1024;
+    /** The property key for the value of {@link Warcraft4jConfig#isMemoryMapping()}. */
+    public static final String MEMORY_MAPPING_KEY = "w4j.data.mmap";
+    /** The default value for {@link Warcraft4jConfig#isMemoryMapping()} ({@code false}). */
+    public static final boolean MEMORY_MAPPING_DEFAULT = false;
+    /** The property key for the value of {@link Warcraft4jConfig#isLazyEncoding()}. */
+    public static final String LAZY_ENCODING_KEY = "w4j.data.encoding.lazy";
+    /** The default value for {@link Warcraft4jConfig#isLazyEncoding()} ({@code false}). */
+    public static final boolean LAZY_ENCODING_DEFAULT = false;
+    /** The property key for the value of {@link Warcraft4jConfig#isOffHeapEncoding()}. */
+    public static final String OFF_HEAP_ENCODING_KEY = "w4j.data.encoding.offheap";
+    /** The default value for {@link Warcraft4jConfig#isOffHeapEncoding()} ({@code false}). */
+    public static final boolean OFF_HEAP_ENCODING_DEFAULT = false;
     /** The property key for the value of {@link Warcraft4jConfig#getLocale()}. */
     public static final String LOCALE_KEY = "w4j.data.locale";
     /** The property key for the value of {@link Warcraft4jConfig#getRegion()}. */
@@ -68,6 +84,14 @@ public class PropertyWarcraft4jConfig implements Warcraft4jConfig {
     private boolean cache;
     /** The path to the directory to cache data if allowed. */
     private Path cacheDir;
+    /** The maximum size of the cached data in bytes. */
+    private long cacheSize;
+    /** Flag indicating if local data files should be memory mapped. */
+    private boolean memoryMapping;
+    /** Flag indicating if the encoding file should only be parsed on demand. */
+    private boolean lazyEncoding;
+    /** Flag indicating if the encoding file should be stored outside of the heap. */
+    private boolean offHeapEncoding;
     /** The preferred locale for World of Warcraft data. */
     private Locale locale;
     /** The preferred region for World of Warcraft data. */
@@ -119,7 +143,11 @@ public class PropertyWarcraft4jConfig implements Warcraft4jConfig {
             } else if (!Files.isReadable(cacheDir) || !Files.isWritable(cacheDir)) {
                 throw new Warcraft4jConfigException(format("Cache directory %s is not accessible.", cacheDir));
             }
+            cacheSize = configuration.getLong(CACHE_SIZE_KEY, CACHE_SIZE_DEFAULT);
         }
+        memoryMapping = configuration.getBoolean(MEMORY_MAPPING_KEY, MEMORY_MAPPING_DEFAULT);
+        lazyEncoding = configuration.getBoolean(LAZY_ENCODING_KEY, LAZY_ENCODING_DEFAULT);
+        offHeapEncoding = configuration.getBoolean(OFF_HEAP_ENCODING_KEY, OFF_HEAP_ENCODING_DEFAULT);
         locale = Locale.getLocale(configuration.getString(LOCALE_KEY))
                 .orElseThrow(() -> new Warcraft4jConfigException(format("Locale %s is not a valid locale.", configuration.getString(LOCALE_KEY))));
         region = Region.getRegion(configuration.getString(REGION_KEY))
@@ -160,6 +188,38 @@ public class PropertyWarcraft4jConfig implements Warcraft4jConfig {
         return cacheDir;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMemoryMapping() {
+        return memoryMapping;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLazyEncoding() {
+        return lazyEncoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOffHeapEncoding() {
+        return offHeapEncoding;
+    }
+
     /**
      * {@inheritDoc}
      */
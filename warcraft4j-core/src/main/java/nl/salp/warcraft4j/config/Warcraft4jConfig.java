@@ -58,6 +58,34 @@ public interface Warcraft4jConfig {
      */
     Path getCacheDirectory();
 
+    /**
+     * Get the maximum size of the cached online files, with the least recently used files being removed from the cache when exceeded.
+     *
+     * @return The maximum size in bytes, {@code 0} or less for an unbounded cache.
+     */
+    long getCacheSize();
+
+    /**
+     * Check if Warcraft4J should memory map local data files.
+     *
+     * @return {@code true} if local data files should be memory mapped.
+     */
+    boolean isMemoryMapping();
+
+    /**
+     * Check if Warcraft4J should only parse the parts of the encoding file that are used instead of the full encoding file.
+     *
+     * @return {@code true} if the encoding file should be parsed on demand.
+     */
+    boolean isLazyEncoding();
+
+    /**
+     * Check if Warcraft4J should store the parsed encoding file in native memory outside of the heap.
+     *
+     * @return {@code true} if the encoding file should be stored outside of the heap.
+     */
+    boolean isOffHeapEncoding();
+
     /**
      * Get the preferred locale for data.
      *
@@ -41,6 +41,14 @@ public class Warcraft4jConfigBuilder {
     private boolean caching;
     /** The local cache directory. */
     private String cacheDir;
+    /** The maximum size of the local cache. */
+    private long cacheSize = PropertyWarcraft4jConfig.CACHE_SIZE_DEFAULT;
+    /** The memory mapping flag. */
+    private boolean memoryMapping = PropertyWarcraft4jConfig.MEMORY_MAPPING_DEFAULT;
+    /** The lazy encoding flag. */
+    private boolean lazyEncoding = PropertyWarcraft4jConfig.LAZY_ENCODING_DEFAULT;
+    /** The off-heap encoding flag. */
+    private boolean offHeapEncoding = PropertyWarcraft4jConfig.OFF_HEAP_ENCODING_DEFAULT;
     /** The preferred locale. */
     private String locale;
     /** The preferred region. */
@@ -132,6 +140,61 @@ public class Warcraft4jConfigBuilder {
         return this;
     }
 
+    /**
+     * Set the maximum size of the local cache.
+     *
+     * @param cacheSize The maximum size in bytes, {@code 0} or less for an unbounded cache.
+     *
+     * @return The builder instance.
+     *
+     * @see PropertyWarcraft4jConfig#getCacheSize()
+     */
+    public Warcraft4jConfigBuilder withCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * Set the memory mapping flag.
+     *
+     * @param memoryMapping The memory mapping flag.
+     *
+     * @return The builder instance.
+     *
+     * @see PropertyWarcraft4jConfig#isMemoryMapping()
+     */
+    public Warcraft4jConfigBuilder memoryMapping(boolean memoryMapping) {
+        this.memoryMapping = memoryMapping;
+        return this;
+    }
+
+    /**
+     * Set the lazy encoding flag.
+     *
+     * @param lazyEncoding The lazy encoding flag.
+     *
+     * @return The builder instance.
+     *
+     * @see PropertyWarcraft4jConfig#isLazyEncoding()
+     */
+    public Warcraft4jConfigBuilder lazyEncoding(boolean lazyEncoding) {
+        this.lazyEncoding = lazyEncoding;
+        return this;
+    }
+
+    /**
+     * Set the off-heap encoding flag.
+     *
+     * @param offHeapEncoding The off-heap encoding flag.
+     *
+     * @return The builder instance.
+     *
+     * @see PropertyWarcraft4jConfig#isOffHeapEncoding()
+     */
+    public Warcraft4jConfigBuilder offHeapEncoding(boolean offHeapEncoding) {
+        this.offHeapEncoding = offHeapEncoding;
+        return this;
+    }
 
     /**
      * Set the preferred locale.
@@ -230,6 +293,10 @@ public class Warcraft4jConfigBuilder {
         config.addProperty(PropertyWarcraft4jConfig.WOW_DIR_KEY, wowDir);
         config.addProperty(PropertyWarcraft4jConfig.CACHE_KEY, caching);
         config.addProperty(PropertyWarcraft4jConfig.CACHE_DIR_KEY, cacheDir);
+        config.addProperty(PropertyWarcraft4jConfig.CACHE_SIZE_KEY, cacheSize);
+        config.addProperty(PropertyWarcraft4jConfig.MEMORY_MAPPING_KEY, memoryMapping);
+        config.addProperty(PropertyWarcraft4jConfig.LAZY_ENCODING_KEY, lazyEncoding);
+        config.addProperty(PropertyWarcraft4jConfig.OFF_HEAP_ENCODING_KEY, offHeapEncoding);
         config.addProperty(PropertyWarcraft4jConfig.LOCALE_KEY, locale);
         config.addProperty(PropertyWarcraft4jConfig.REGION_KEY, region);
         config.addProperty(PropertyWarcraft4jConfig.BRANCH_KEY, branch);
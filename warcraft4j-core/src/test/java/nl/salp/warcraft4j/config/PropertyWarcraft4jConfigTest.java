@@ -47,6 +47,14 @@ public class PropertyWarcraft4jConfigTest {
     private static final boolean ONLINE = true;
     /** The cache value returned by the configuration. */
     private static final boolean CACHE = true;
+    /** The cache size value returned by the configuration. */
+    private static final long CACHE_SIZE = 512L * 1024 * 1024;
+    /** The memory mapping value returned by the configuration. */
+    private static final boolean MEMORY_MAPPING = true;
+    /** The lazy encoding value returned by the configuration. */
+    private static final boolean LAZY_ENCODING = true;
+    /** The off-heap encoding value returned by the configuration. */
+    private static final boolean OFF_HEAP_ENCODING = true;
     /** The locale value returned by the configuration. */
     private static final Locale LOCALE = Locale.EN_TW;
     /** The region value returned by the configuration. */
@@ -109,6 +117,10 @@ public class PropertyWarcraft4jConfigTest {
         when(configuration.getString(eq(PropertyWarcraft4jConfig.WOW_DIR_KEY), anyString())).thenReturn(String.valueOf(wowDir));
         when(configuration.getBoolean(eq(PropertyWarcraft4jConfig.CACHE_KEY), anyBoolean())).thenReturn(CACHE);
         when(configuration.getString(eq(PropertyWarcraft4jConfig.CACHE_DIR_KEY), anyString())).thenReturn(String.valueOf(cacheDir));
+        when(configuration.getLong(eq(PropertyWarcraft4jConfig.CACHE_SIZE_KEY), anyLong())).thenReturn(CACHE_SIZE);
+        when(configuration.getBoolean(eq(PropertyWarcraft4jConfig.MEMORY_MAPPING_KEY), anyBoolean())).thenReturn(MEMORY_MAPPING);
+        when(configuration.getBoolean(eq(PropertyWarcraft4jConfig.LAZY_ENCODING_KEY), anyBoolean())).thenReturn(LAZY_ENCODING);
+        when(configuration.getBoolean(eq(PropertyWarcraft4jConfig.OFF_HEAP_ENCODING_KEY), anyBoolean())).thenReturn(OFF_HEAP_ENCODING);
         when(configuration.getString(eq(PropertyWarcraft4jConfig.LOCALE_KEY))).thenReturn(String.valueOf(LOCALE));
         when(configuration.getString(eq(PropertyWarcraft4jConfig.REGION_KEY))).thenReturn(String.valueOf(REGION));
         when(configuration.getString(eq(PropertyWarcraft4jConfig.BRANCH_KEY))).thenReturn(String.valueOf(BRANCH));
@@ -134,6 +146,39 @@ public class PropertyWarcraft4jConfigTest {
         assertEquals(wowDir, config.getWowInstallationDirectory());
         assertEquals(CACHE, config.isCaching());
         assertEquals(cacheDir, config.getCacheDirectory());
+        assertEquals(CACHE_SIZE, config.getCacheSize());
+        assertEquals(MEMORY_MAPPING, config.isMemoryMapping());
+        assertEquals(LAZY_ENCODING, config.isLazyEncoding());
+        assertEquals(OFF_HEAP_ENCODING, config.isOffHeapEncoding());
+        assertEquals(LOCALE, config.getLocale());
+        assertEquals(REGION, config.getRegion());
+        assertEquals(BRANCH, config.getBranch());
+    }
+
+    @Test
+    public void shouldBuildConfigWithAllSettings() {
+        PropertyWarcraft4jConfig config = new Warcraft4jConfigBuilder()
+                .online(ONLINE)
+                .withWowDir(wowDir)
+                .caching(CACHE)
+                .withCacheDir(cacheDir)
+                .withCacheSize(CACHE_SIZE)
+                .memoryMapping(MEMORY_MAPPING)
+                .lazyEncoding(LAZY_ENCODING)
+                .offHeapEncoding(OFF_HEAP_ENCODING)
+                .withLocale(LOCALE)
+                .withRegion(REGION)
+                .withBranch(BRANCH)
+                .build();
+
+        assertEquals(ONLINE, config.isOnline());
+        assertEquals(wowDir, config.getWowInstallationDirectory());
+        assertEquals(CACHE, config.isCaching());
+        assertEquals(cacheDir, config.getCacheDirectory());
+        assertEquals(CACHE_SIZE, config.getCacheSize());
+        assertEquals(MEMORY_MAPPING, config.isMemoryMapping());
+        assertEquals(LAZY_ENCODING, config.isLazyEncoding());
+        assertEquals(OFF_HEAP_ENCODING, config.isOffHeapEncoding());
         assertEquals(LOCALE, config.getLocale());
         assertEquals(REGION, config.getRegion());
         assertEquals(BRANCH, config.getBranch());
@@ -59,6 +59,14 @@ public class DevToolsConfig implements Warcraft4jConfig {
     private static final boolean CDN_CACHE_DEFAULT = false;
     private static final String CDN_CACHE_PATH = "w4j.data.cdn.cache.path";
     private static final String CDN_CACHE_PATH_DEFAULT = "${w4j.path}/data/cdncache";
+    private static final String CDN_CACHE_SIZE = "w4j.data.cdn.cache.size";
+    private static final long CDN_CACHE_SIZE_DEFAULT = 10L * 1024 * 1024 * 1024;
+    private static final String MEMORY_MAPPING = "w4j.data.mmap";
+    private static final boolean MEMORY_MAPPING_DEFAULT = false;
+    private static final String LAZY_ENCODING = "w4j.data.encoding.lazy";
+    private static final boolean LAZY_ENCODING_DEFAULT = false;
+    private static final String OFF_HEAP_ENCODING = "w4j.data.encoding.offheap";
+    private static final boolean OFF_HEAP_ENCODING_DEFAULT = false;
     private static final String NEO4J_DATA_PATH = "w4j.data.neo4j.data.path";
     private static final String NEO4J_EXT_URI = "w4j.data.neo4j.ext.uri";
     private static final String NEO4J_EXT_USER = "w4j.data.neo4j.ext.uri";
@@ -71,6 +79,10 @@ public class DevToolsConfig implements Warcraft4jConfig {
     private Path wowDir;
     private boolean cache;
     private Path cacheDir;
+    private long cacheSize;
+    private boolean memoryMapping;
+    private boolean lazyEncoding;
+    private boolean offHeapEncoding;
     private Locale locale;
     private Region region;
     private Branch branch;
@@ -142,7 +154,11 @@ public class DevToolsConfig implements Warcraft4jConfig {
             } else if (!Files.isDirectory(cacheDir) || !Files.isReadable(cacheDir) || !Files.isWritable(cacheDir)) {
                 throw new Warcraft4jConfigException(format("Cache directory %s is either not a directory or not accessible.", cacheDir));
             }
+            cacheSize = configuration.getLong(CDN_CACHE_SIZE, CDN_CACHE_SIZE_DEFAULT);
         }
+        memoryMapping = configuration.getBoolean(MEMORY_MAPPING, MEMORY_MAPPING_DEFAULT);
+        lazyEncoding = configuration.getBoolean(LAZY_ENCODING, LAZY_ENCODING_DEFAULT);
+        offHeapEncoding = configuration.getBoolean(OFF_HEAP_ENCODING, OFF_HEAP_ENCODING_DEFAULT);
         locale = Locale.getLocale(resolve(configuration.getString(WOW_LOCALE, valueOf(WOW_LOCALE_DEFAULT)), configuration))
                 .orElseThrow(() -> new Warcraft4jConfigException(format("Locale %s is not a valid locale.", resolve(configuration.getString(WOW_LOCALE), configuration))));
         region = Region.getRegion(resolve(configuration.getString(WOW_REGION, valueOf(WOW_REGION_DEFAULT)), configuration))
@@ -211,6 +227,26 @@ public class DevToolsConfig implements Warcraft4jConfig {
         return cacheDir;
     }
 
+    @Override
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    @Override
+    public boolean isMemoryMapping() {
+        return memoryMapping;
+    }
+
+    @Override
+    public boolean isLazyEncoding() {
+        return lazyEncoding;
+    }
+
+    @Override
+    public boolean isOffHeapEncoding() {
+        return offHeapEncoding;
+    }
+
     @Override
     public Locale getLocale() {
         return locale;
@@ -19,6 +19,7 @@
 package nl.salp.warcraft4j.dev.casc;
 
 import nl.salp.warcraft4j.casc.cdn.CdnCascContext;
+import nl.salp.warcraft4j.casc.cdn.FilenameHasher;
 import nl.salp.warcraft4j.dev.casc.model.CascEntry;
 import nl.salp.warcraft4j.dev.casc.model.FileHeader;
 import nl.salp.warcraft4j.dev.casc.model.ListFile;
@@ -59,11 +60,16 @@ public class EntryStore {
     }
 
     public void populate(ListFile listFile, CdnCascContext cascContext) {
-        listFile.getFilenames().stream()
+        List<String> filenames = listFile.getFilenames().stream()
                 .map(EntryStore::cleanFilename)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
-                .forEach(filename -> populate(filename, cascContext));
+                .filter(StringUtils::isNotEmpty)
+                .collect(Collectors.toList());
+        long[] hashes = FilenameHasher.hashAll(filenames);
+        for (int i = 0; i < hashes.length; i++) {
+            populate(new CascEntry(hashes[i], filenames.get(i), cascContext));
+        }
     }
 
     public void populate(long hashcode, CdnCascContext cascContext) {
@@ -222,7 +228,7 @@ public class EntryStore {
                 .filter(StringUtils::isNotEmpty)
                 .map(String::trim)
                 .map(f -> f.replace('/', '\\'))
-                .map(String::toUpperCase);
+                .map(f -> f.toUpperCase(Locale.ROOT));
     }
 
     public static Optional<String> getExtension(String filename) {
@@ -72,6 +72,11 @@ public class CascEntry {
         this.filename = EntryStore.cleanFilename(filename).orElse(null);
     }
 
+    public CascEntry(long hashCode, String filename, CdnCascContext cascContext) throws IllegalArgumentException {
+        this(hashCode, cascContext);
+        this.filename = EntryStore.cleanFilename(filename).orElse(null);
+    }
+
     protected CdnCascContext getCascContext() throws IllegalStateException {
         return cascContext;
     }
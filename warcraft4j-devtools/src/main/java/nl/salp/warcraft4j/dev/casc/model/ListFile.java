@@ -18,21 +18,17 @@
  */
 package nl.salp.warcraft4j.dev.casc.model;
 
-import nl.salp.warcraft4j.hash.JenkinsHash;
-import nl.salp.warcraft4j.io.DataReader;
-import nl.salp.warcraft4j.io.FileDataReader;
-import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import nl.salp.warcraft4j.casc.cdn.CdnCascContext;
+import nl.salp.warcraft4j.casc.cdn.FilenameHasher;
+import nl.salp.warcraft4j.casc.cdn.FilenameHashes;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static org.apache.commons.lang3.StringUtils.isNotEmpty;
-
 /**
  * TODO Add description.
  *
@@ -60,8 +56,7 @@ public class ListFile {
         return Optional.ofNullable(filename)
                 .filter(StringUtils::isNotEmpty)
                 .map(f -> files.getOrDefault(f, ((Supplier<Long>) () -> {
-                    byte[] data = f.replace('/', '\\').toUpperCase().getBytes(StandardCharsets.US_ASCII);
-                    long hash = JenkinsHash.hashLittle2(data, data.length);
+                    long hash = CdnCascContext.hashFilename(f);
                     files.put(f, hash);
                     hashes.put(hash, f);
                     calculated.add(hash);
@@ -109,15 +104,9 @@ public class ListFile {
 
     private static Map<String, Long> parseFile(Path listFile) throws IOException {
         Map<String, Long> listfile = new HashMap<>();
-        try (DataReader reader = new FileDataReader(listFile)) {
-            while (reader.hasRemaining()) {
-                String line = reader.readNext(DataTypeFactory.getStringLine()).trim();
-                if (isNotEmpty(line)) {
-                    byte[] data = line.replace('/', '\\').toUpperCase().getBytes(StandardCharsets.US_ASCII);
-                    long hash = JenkinsHash.hashLittle2(data, data.length);
-                    listfile.put(line, hash);
-                }
-            }
+        FilenameHashes filenameHashes = FilenameHasher.hashListFile(listFile);
+        for (int i = 0; i < filenameHashes.size(); i++) {
+            listfile.put(filenameHashes.getFilename(i), filenameHashes.getHash(i));
         }
         return listfile;
     }
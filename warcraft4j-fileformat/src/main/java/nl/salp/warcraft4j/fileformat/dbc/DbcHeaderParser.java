@@ -25,7 +25,6 @@ import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
 
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static nl.salp.warcraft4j.fileformat.dbc.DbcHeader.*;
-import static org.apache.commons.lang3.ArrayUtils.toPrimitive;
 
 /**
  * Parser for reading and parsing an {@link DbcHeader} instance.
@@ -51,33 +50,43 @@ class DbcHeaderParser {
         String magicString = reader.readNext(DataTypeFactory.getFixedLengthString(MAGIC_STRING_LENGTH));
         int headerSize = DBC_HEADER_SIZE;
         builder.withMagicString(magicString);
-        builder.withEntryCount(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
-        builder.withEntryFieldCount(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
-        builder.withSingleEntrySize(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
-        builder.withStringTableBlockSize(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
+        builder.withEntryCount(reader.readInt(LITTLE_ENDIAN));
+        builder.withEntryFieldCount(reader.readInt(LITTLE_ENDIAN));
+        builder.withSingleEntrySize(reader.readInt(LITTLE_ENDIAN));
+        builder.withStringTableBlockSize(reader.readInt(LITTLE_ENDIAN));
         // DB2 parsing.
         if (DB2_MAGICSTRING.equals(magicString) || ADB_MAGICSTRING.equals(magicString)) {
             headerSize = DB2_HEADER_SIZE;
-            builder.withStringTableBlockHash(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
-            int buildNumber = reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN);
+            builder.withStringTableBlockHash(reader.readInt(LITTLE_ENDIAN));
+            int buildNumber = reader.readInt(LITTLE_ENDIAN);
             builder.withBuildNumber(buildNumber);
-            builder.withTimestampLastWritten(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
+            builder.withTimestampLastWritten(reader.readInt(LITTLE_ENDIAN));
 
             if (buildNumber > DB2_LASTBUILD_BEFORE_EXTENSION) {
                 headerSize = DB2_EXTENDED_HEADER_SIZE_BASE;
-                int minEntryId = reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN);
+                int minEntryId = reader.readInt(LITTLE_ENDIAN);
                 builder.withMinEntryId(minEntryId);
-                int maxEntryId = reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN);
+                int maxEntryId = reader.readInt(LITTLE_ENDIAN);
                 builder.withMaxEntryId(maxEntryId);
-                builder.withLocaleId(reader.readNext(DataTypeFactory.getInteger(), LITTLE_ENDIAN));
-                builder.withUnknownDataBlock(reader.readNext(DataTypeFactory.getByteArray(4)));
+                builder.withLocaleId(reader.readInt(LITTLE_ENDIAN));
+                byte[] unknownDataBlock = new byte[4];
+                reader.readBytes(unknownDataBlock, 0, unknownDataBlock.length);
+                builder.withUnknownDataBlock(unknownDataBlock);
                 if (maxEntryId > 0) {
                     int entryCount = maxEntryId - minEntryId + 1;
-                    builder.withRowIndexes(toPrimitive(reader.readNext(DataTypeFactory.getInteger().asArrayType(entryCount), LITTLE_ENDIAN)));
-                    builder.withRowStringLength(toPrimitive(reader.readNext(DataTypeFactory.getShort().asArrayType(entryCount), LITTLE_ENDIAN)));
+                    int[] rowIndexes = new int[entryCount];
+                    for (int i = 0; i < entryCount; i++) {
+                        rowIndexes[i] = reader.readInt(LITTLE_ENDIAN);
+                    }
+                    builder.withRowIndexes(rowIndexes);
+                    short[] rowStringLength = new short[entryCount];
+                    for (int i = 0; i < entryCount; i++) {
+                        rowStringLength[i] = reader.readShort(LITTLE_ENDIAN);
+                    }
+                    builder.withRowStringLength(rowStringLength);
 
-                    headerSize += (entryCount * DataTypeFactory.getInteger().getLength());
-                    headerSize += (entryCount * DataTypeFactory.getShort().getLength());
+                    headerSize += (entryCount * Integer.BYTES);
+                    headerSize += (entryCount * Short.BYTES);
                 }
             }
         }
@@ -8,6 +8,8 @@ import nl.salp.warcraft4j.util.DataTypeUtil;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
+import static java.lang.String.format;
+
 /**
  * This is an implementation of Bob Jenkins' hash. It can produce both 32-bit
  * and 64-bit hash values.
@@ -39,7 +41,7 @@ public class JenkinsHash {
         int pc = 0;
         int pb = 0;
 
-        return (int) hash(input, length, pc, pb, true);
+        return (int) hash(input, 0, length, pc, pb, true);
     }
 
     /**
@@ -48,7 +50,7 @@ public class JenkinsHash {
      * @return 32-bit hash value
      */
     public static int hashLittle(byte[] input, int length, int pc) {
-        return (int) hash(input, length, pc, 0, true);
+        return (int) hash(input, 0, length, pc, 0, true);
     }
 
     /**
@@ -60,7 +62,7 @@ public class JenkinsHash {
         int pc = 0;
         int pb = 0;
 
-        return hash(input, length, pc, pb, false);
+        return hash(input, 0, length, pc, pb, false);
     }
 
     /**
@@ -69,7 +71,25 @@ public class JenkinsHash {
      * @return 64-bit hash value
      */
     public static long hashLittle2(byte[] input, int length, int pc, int pb) {
-        return hash(input, length, pc, pb, false);
+        return hash(input, 0, length, pc, pb, false);
+    }
+
+    /**
+     * Returns a 64-bit hash value for a part of an array without copying the data.
+     *
+     * @param input  The array containing the data to hash.
+     * @param offset The offset of the data in the array.
+     * @param length The length of the data.
+     *
+     * @return 64-bit hash value
+     *
+     * @throws IllegalArgumentException When the offset and length are outside the array.
+     */
+    public static long hashLittle2(byte[] input, int offset, int length) throws IllegalArgumentException {
+        if (input == null || offset < 0 || length < 0 || offset > input.length - length) {
+            throw new IllegalArgumentException(format("Unable to hash %d bytes at offset %d.", length, offset));
+        }
+        return hash(input, offset, length, 0, 0, false);
     }
 
     public static int hashLittle2a(byte[] input, int length, int pc, int pb) {
@@ -121,6 +141,7 @@ public class JenkinsHash {
      * Hash algorithm.
      *
      * @param k           message on which hash is computed
+     * @param offset      offset of the message in the array
      * @param length      message size
      * @param pc          primary init value
      * @param pb          secondary init value
@@ -128,13 +149,12 @@ public class JenkinsHash {
      *
      * @return
      */
-    private static long hash(byte[] k, int length, int pc, int pb, boolean is32BitHash) {
+    private static long hash(byte[] k, int offset, int length, int pc, int pb, boolean is32BitHash) {
         int a, b, c;
 
         a = b = c = 0xdeadbeef + length + pc;
         c += pb;
 
-        int offset = 0;
         while (length > 12) {
             a += k[offset + 0];
             a += k[offset + 1] << 8;
@@ -34,6 +34,9 @@ import static java.lang.String.format;
  * @see nl.salp.warcraft4j.io.DataReader
  */
 public abstract class BaseDataReader implements DataReader {
+    /** The reusable buffer for reading primitive values and small fixed length data types. */
+    private final ByteBuffer primitiveBuffer = ByteBuffer.allocate(Long.BYTES);
+
     /**
      * {@inheritDoc}
      */
@@ -127,9 +130,14 @@ public abstract class BaseDataReader implements DataReader {
         ByteBuffer buffer;
         if (dataType.isVariableLength()) {
             buffer = getVarLenBuffer(dataType);
+        } else if (dataType.getLength() <= primitiveBuffer.capacity()) {
+            buffer = primitiveBuffer;
+            buffer.clear();
+            buffer.limit(dataType.getLength());
+            fill(buffer);
         } else {
             buffer = ByteBuffer.allocate(dataType.getLength());
-            readData(buffer);
+            fill(buffer);
         }
         buffer.rewind();
         return dataType.readNext(buffer, byteOrder);
@@ -149,9 +157,10 @@ public abstract class BaseDataReader implements DataReader {
         try (ByteArrayOutputStream byteOut = new ByteArrayOutputStream()) {
             boolean done = false;
             while (!done) {
-                ByteBuffer buffer = ByteBuffer.wrap(new byte[1]);
-                if (readData(buffer) > 0) {
-                    byte value = buffer.get(0);
+                primitiveBuffer.clear();
+                primitiveBuffer.limit(1);
+                if (readData(primitiveBuffer) > 0) {
+                    byte value = primitiveBuffer.get(0);
                     byteOut.write(value);
                     done = dataType.isVariableLengthTerminator(value);
                 } else {
@@ -164,8 +173,107 @@ public abstract class BaseDataReader implements DataReader {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte readByte() throws DataReadingException {
+        return readPrimitive(Byte.BYTES, ByteOrder.BIG_ENDIAN).get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readShort(ByteOrder byteOrder) throws DataReadingException {
+        return readPrimitive(Short.BYTES, byteOrder).getShort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readInt(ByteOrder byteOrder) throws DataReadingException {
+        return readPrimitive(Integer.BYTES, byteOrder).getInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readUnsignedInt(ByteOrder byteOrder) throws DataReadingException {
+        return readInt(byteOrder) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong(ByteOrder byteOrder) throws DataReadingException {
+        return readPrimitive(Long.BYTES, byteOrder).getLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readBytes(byte[] target, int offset, int length) throws DataReadingException, IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset + length > target.length) {
+            throw new IndexOutOfBoundsException(format("Unable to read %d bytes into a %d byte array from offset %d.", length, target.length, offset));
+        }
+        readFully(ByteBuffer.wrap(target, offset, length));
+    }
+
+    /**
+     * Read the data for a primitive value into the reusable primitive buffer.
+     *
+     * @param length    The length of the primitive value in bytes.
+     * @param byteOrder The byte order of the value.
+     *
+     * @return The primitive buffer, containing the data from position {@code 0} in the provided byte order.
+     *
+     * @throws DataReadingException When reading the data failed or not enough data is remaining.
+     */
+    private ByteBuffer readPrimitive(int length, ByteOrder byteOrder) throws DataReadingException {
+        primitiveBuffer.clear();
+        primitiveBuffer.limit(length);
+        readFully(primitiveBuffer);
+        primitiveBuffer.flip();
+        return primitiveBuffer.order(byteOrder);
+    }
+
+    /**
+     * Read data from the underlying data until the buffer is full or no more data is available.
+     *
+     * @param buffer The buffer to read the data into.
+     *
+     * @throws DataReadingException When reading the data failed.
+     */
+    private void fill(ByteBuffer buffer) throws DataReadingException {
+        while (buffer.hasRemaining() && readData(buffer) > 0) {
+            // Keep reading until the buffer is full.
+        }
+    }
+
+    /**
+     * Read data from the underlying data until the buffer is full.
+     *
+     * @param buffer The buffer to read the data into.
+     *
+     * @throws DataReadingException When reading the data failed or the end of the data was reached before the buffer was full.
+     */
+    protected final void readFully(ByteBuffer buffer) throws DataReadingException {
+        while (buffer.hasRemaining()) {
+            if (readData(buffer) <= 0) {
+                throw new DataReadingException(format("Unable to read %d more bytes, the end of the data has been reached.", buffer.remaining()));
+            }
+        }
+    }
+
     /**
      * Read the data from the underlying data into a byte buffer.
+     * <p>
+     * The data is read from the position of the buffer, up to the limit of the buffer.
      *
      * @param buffer The buffer to read the data into.
      *
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * {@link DataReader} decorator that reads the data of another reader ahead in a window, serving small reads from memory.
+ * <p>
+ * Repositioning within the window only moves the position in the window, repositioning outside the window discards the window and the next read
+ * fills a new window from the new position. Reads that are larger than the window bypass the window and are read directly from the decorated
+ * reader. The decorated reader should not be used directly while it is being decorated.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.DataReader
+ */
+public class BufferedDataReader extends BaseDataReader {
+    /** The default size of the read-ahead window (64KB). */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+    /** The decorated reader. */
+    private final DataReader reader;
+    /** The maximum size of the read-ahead window. */
+    private final int windowSize;
+    /** The read-ahead window, created on the first read. */
+    private byte[] window;
+    /** The read-ahead window wrapped as a buffer for reading primitive values. */
+    private ByteBuffer windowBuffer;
+    /** The position in the decorated reader of the first byte in the window. */
+    private long windowStart;
+    /** The number of bytes in the window. */
+    private int windowLength;
+    /** The position in the window. */
+    private int windowPosition;
+
+    /**
+     * Create a new instance with the default window size.
+     *
+     * @param reader The reader to decorate.
+     *
+     * @throws IllegalArgumentException When the reader is {@code null}.
+     * @throws DataReadingException     When the position of the reader could not be determined.
+     */
+    public BufferedDataReader(DataReader reader) throws IllegalArgumentException, DataReadingException {
+        this(reader, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param reader     The reader to decorate.
+     * @param windowSize The maximum size of the read-ahead window in bytes.
+     *
+     * @throws IllegalArgumentException When the reader is {@code null} or the window size is not positive.
+     * @throws DataReadingException     When the position of the reader could not be determined.
+     */
+    public BufferedDataReader(DataReader reader, int windowSize) throws IllegalArgumentException, DataReadingException {
+        this.reader = Optional.ofNullable(reader)
+                .orElseThrow(() -> new IllegalArgumentException("Can't create a buffered data reader for a null reader."));
+        if (windowSize < 1) {
+            throw new IllegalArgumentException(format("Can't create a buffered data reader with a window of %d bytes.", windowSize));
+        }
+        this.windowSize = windowSize;
+        this.windowStart = reader.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long position() {
+        return windowStart + windowPosition;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setPosition(long position) {
+        if (position >= windowStart && position <= windowStart + windowLength) {
+            windowPosition = (int) (position - windowStart);
+        } else {
+            windowStart = position;
+            windowLength = 0;
+            windowPosition = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRandomAccessSupported() {
+        return reader.isRandomAccessSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() throws DataReadingException {
+        return reader.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int readData(ByteBuffer buffer) throws DataReadingException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            if (windowPosition == windowLength) {
+                if (buffer.remaining() >= windowSize && buffer.hasArray()) {
+                    int count = readDirect(buffer);
+                    if (count <= 0) {
+                        break;
+                    }
+                    read += count;
+                    continue;
+                }
+                if (!fillWindow()) {
+                    break;
+                }
+            }
+            int count = Math.min(buffer.remaining(), windowLength - windowPosition);
+            buffer.put(window, windowPosition, count);
+            windowPosition += count;
+            read += count;
+        }
+        return read == 0 && buffer.hasRemaining() ? -1 : read;
+    }
+
+    /**
+     * Read data directly from the decorated reader into a buffer, bypassing the window.
+     *
+     * @param buffer The buffer, backed by an array.
+     *
+     * @return The number of bytes read, {@code -1} if no data is remaining.
+     *
+     * @throws DataReadingException When reading the data failed.
+     */
+    private int readDirect(ByteBuffer buffer) throws DataReadingException {
+        long start = position();
+        moveReader(start);
+        int count = (int) Math.min(buffer.remaining(), reader.remaining());
+        if (count <= 0) {
+            return -1;
+        }
+        reader.readBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+        buffer.position(buffer.position() + count);
+        windowStart = start + count;
+        windowLength = 0;
+        windowPosition = 0;
+        return count;
+    }
+
+    /**
+     * Fill the window with data from the current position.
+     *
+     * @return {@code true} if the window contains data, {@code false} if no data is remaining.
+     *
+     * @throws DataReadingException When reading the data failed.
+     */
+    private boolean fillWindow() throws DataReadingException {
+        long start = position();
+        moveReader(start);
+        if (window == null) {
+            long size = reader.size();
+            window = new byte[size < 0 ? windowSize : (int) Math.max(1, Math.min(windowSize, size))];
+            windowBuffer = ByteBuffer.wrap(window);
+        }
+        int count = (int) Math.min(window.length, reader.remaining());
+        windowStart = start;
+        windowPosition = 0;
+        windowLength = 0;
+        if (count <= 0) {
+            return false;
+        }
+        reader.readBytes(window, 0, count);
+        windowLength = count;
+        return true;
+    }
+
+    /**
+     * Move the decorated reader to a position if it isn't at that position yet.
+     *
+     * @param position The position.
+     *
+     * @throws DataReadingException When the position could not be set.
+     */
+    private void moveReader(long position) throws DataReadingException {
+        if (reader.position() != position) {
+            reader.position(position);
+        }
+    }
+
+    /**
+     * Get the window buffer for reading a primitive value if the value is completely available in the window.
+     *
+     * @param length    The length of the primitive value in bytes.
+     * @param byteOrder The byte order of the value.
+     *
+     * @return The window buffer or {@code null} when the value is not completely available in the window.
+     */
+    private ByteBuffer getWindowBuffer(int length, ByteOrder byteOrder) {
+        if (windowLength - windowPosition < length) {
+            return null;
+        }
+        return windowBuffer.order(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readShort(ByteOrder byteOrder) throws DataReadingException {
+        ByteBuffer buffer = getWindowBuffer(Short.BYTES, byteOrder);
+        if (buffer == null) {
+            return super.readShort(byteOrder);
+        }
+        short value = buffer.getShort(windowPosition);
+        windowPosition += Short.BYTES;
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readInt(ByteOrder byteOrder) throws DataReadingException {
+        ByteBuffer buffer = getWindowBuffer(Integer.BYTES, byteOrder);
+        if (buffer == null) {
+            return super.readInt(byteOrder);
+        }
+        int value = buffer.getInt(windowPosition);
+        windowPosition += Integer.BYTES;
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong(ByteOrder byteOrder) throws DataReadingException {
+        ByteBuffer buffer = getWindowBuffer(Long.BYTES, byteOrder);
+        if (buffer == null) {
+            return super.readLong(byteOrder);
+        }
+        long value = buffer.getLong(windowPosition);
+        windowPosition += Long.BYTES;
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
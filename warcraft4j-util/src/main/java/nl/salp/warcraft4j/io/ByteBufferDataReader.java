@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * {@link DataReader} implementation for reading the data of a {@link ByteBuffer}, without copying the data of the buffer.
+ * <p>
+ * The reader covers the data between the position and the limit of the buffer at the time the reader was created, with the positions of the
+ * reader being relative to the position of the buffer. The reader uses its own view on the buffer and does not modify the provided buffer, making
+ * it possible to create multiple readers for (slices of) the same buffer, such as a memory mapped file. Primitive values are read directly from
+ * the buffer.
+ *
+ * @author Barre Dijkstra
+ */
+public class ByteBufferDataReader extends BaseDataReader {
+    /** The view on the buffer being read. */
+    private final ByteBuffer data;
+
+    /**
+     * Create a new instance.
+     *
+     * @param data The buffer to read.
+     *
+     * @throws IllegalArgumentException When the buffer is {@code null}.
+     */
+    public ByteBufferDataReader(ByteBuffer data) throws IllegalArgumentException {
+        this.data = Optional.ofNullable(data)
+                .map(ByteBuffer::slice)
+                .orElseThrow(() -> new IllegalArgumentException("Can't create a data reader for a null buffer."));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long position() {
+        return data.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setPosition(long position) {
+        data.position((int) position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int readData(ByteBuffer buffer) throws DataReadingException {
+        if (!data.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(buffer.remaining(), data.remaining());
+        int limit = data.limit();
+        data.limit(data.position() + count);
+        buffer.put(data);
+        data.limit(limit);
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte readByte() throws DataReadingException {
+        return require(Byte.BYTES, ByteOrder.BIG_ENDIAN).get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readShort(ByteOrder byteOrder) throws DataReadingException {
+        return require(Short.BYTES, byteOrder).getShort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readInt(ByteOrder byteOrder) throws DataReadingException {
+        return require(Integer.BYTES, byteOrder).getInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong(ByteOrder byteOrder) throws DataReadingException {
+        return require(Long.BYTES, byteOrder).getLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readBytes(byte[] target, int offset, int length) throws DataReadingException, IndexOutOfBoundsException {
+        require(length, ByteOrder.BIG_ENDIAN).get(target, offset, length);
+    }
+
+    /**
+     * Make sure that a number of bytes is remaining.
+     *
+     * @param length    The number of bytes that are required.
+     * @param byteOrder The byte order to read the data in.
+     *
+     * @return The buffer, using the byte order.
+     *
+     * @throws DataReadingException When less bytes are remaining.
+     */
+    private ByteBuffer require(int length, ByteOrder byteOrder) throws DataReadingException {
+        if (data.remaining() < length) {
+            throw new DataReadingException(format("Unable to read %d bytes, only %d bytes are remaining.", length, data.remaining()));
+        }
+        return data.order(byteOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRandomAccessSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasRemaining() {
+        return data.hasRemaining();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long remaining() {
+        return data.remaining();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return data.limit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        // no-op
+    }
+}
@@ -18,26 +18,35 @@
  */
 package nl.salp.warcraft4j.io;
 
-import org.apache.commons.lang3.ArrayUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.Optional;
 
 import static java.lang.String.format;
 
 /**
  * {@link DataReader} implementation that (pre-) reads all data from a HTTP-based online file before providing it as a data reader.
+ * <p>
+ * Segments of a file are read with HTTP range requests, only transferring the data of the segment when the server supports them.
  *
  * @author Barre Dijkstra
  */
 public class CachedHttpDataReader extends ByteArrayDataReader {
+    /** The unit prefix of a byte content range. */
+    private static final String BYTES_UNIT = "bytes ";
+
     /**
      * Create a new instance.
      *
@@ -46,7 +55,19 @@ public class CachedHttpDataReader extends ByteArrayDataReader {
      * @throws DataReadingException When the file could not be read.
      */
     public CachedHttpDataReader(String url) throws DataReadingException {
-        super(getData(url));
+        this(url, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param url        The URL of the file to read.
+     * @param httpClient The HTTP client to read the file with.
+     *
+     * @throws DataReadingException When the file could not be read.
+     */
+    public CachedHttpDataReader(String url, PooledHttpClient httpClient) throws DataReadingException {
+        super(getData(url, httpClient));
     }
 
     /**
@@ -59,21 +80,35 @@ public class CachedHttpDataReader extends ByteArrayDataReader {
      * @throws DataReadingException When the file could not be read.
      */
     public CachedHttpDataReader(String url, long offset, long length) throws DataReadingException {
-        super(getData(url, offset, length));
+        this(url, offset, length, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new instance reading a segment of data.
+     *
+     * @param url        The URL of the file to read.
+     * @param offset     The file offset to start reading from.
+     * @param length     The length of the data segment to read.
+     * @param httpClient The HTTP client to read the file with.
+     *
+     * @throws DataReadingException When the file could not be read.
+     */
+    public CachedHttpDataReader(String url, long offset, long length, PooledHttpClient httpClient) throws DataReadingException {
+        super(getData(url, offset, length, httpClient));
     }
 
     /**
      * Read the data from a file (direct blocking http read).
      *
-     * @param url The URL of the file to read.
+     * @param url        The URL of the file to read.
+     * @param httpClient The HTTP client to read the file with.
      *
      * @return The file contents.
      *
      * @throws DataReadingException When reading the file failed.
      */
-    private static byte[] getData(String url) throws DataReadingException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault();
-             CloseableHttpResponse response = httpClient.execute(new HttpGet(URI.create(url)))) {
+    private static byte[] getData(String url, PooledHttpClient httpClient) throws DataReadingException {
+        try (CloseableHttpResponse response = getClient(httpClient).execute(new HttpGet(URI.create(url)))) {
             StatusLine statusLine = response.getStatusLine();
             if (statusLine.getStatusCode() > 300) {
                 throw new DataReadingException(String.format("Error opening HTTP data reader for %s: error %d: %s", url, statusLine.getStatusCode(), statusLine.getReasonPhrase()));
@@ -93,29 +128,139 @@ public class CachedHttpDataReader extends ByteArrayDataReader {
     /**
      * Read a segment of the data from a file (direct blocking http read).
      * <p>
-     * FIXME Currently reads the whole file and passes it with the offset/length to the {@link ByteArrayDataReader}, change to to only read wanted data.
+     * The segment is requested with a HTTP range request. When the server ignores the range and returns the complete file, the data before the
+     * segment is skipped and the connection is closed once the segment has been read, without reading the rest of the file.
      * </p>
      *
-     * @param url    The URL of the file to read.
-     * @param offset The file offset to start reading from.
-     * @param length The length of the data segment to read.
+     * @param url        The URL of the file to read.
+     * @param offset     The file offset to start reading from.
+     * @param length     The length of the data segment to read.
+     * @param httpClient The HTTP client to read the file with.
      *
      * @return The data segment.
      *
      * @throws DataReadingException When reading the file failed or the data segment is out of bounds.
      */
-    private static byte[] getData(String url, long offset, long length) throws DataReadingException {
+    private static byte[] getData(String url, long offset, long length, PooledHttpClient httpClient) throws DataReadingException {
         if (offset < 0) {
             throw new DataReadingException(format("Can't create a http reader for %s with negative data block offset %d.", url, offset));
         }
-        if (length < 0) {
-            throw new DataReadingException(format("Can't create a http reader for %s with negative data block length %d.", url, length));
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new DataReadingException(format("Can't create a http reader for %s with invalid data block length %d.", url, length));
+        }
+        CloseableHttpClient client = getClient(httpClient);
+        if (length == 0) {
+            return new byte[0];
+        }
+        HttpGet request = new HttpGet(URI.create(url));
+        request.setHeader(HttpHeaders.RANGE, format("bytes=%d-%d", offset, offset + length - 1));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() > 300) {
+                throw new DataReadingException(String.format("Error opening HTTP data reader for %s: error %d: %s", url, statusLine.getStatusCode(), statusLine.getReasonPhrase()));
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new DataReadingException(format("HTTP data reader received no response from for %s", url));
+            }
+            boolean partial = statusLine.getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT;
+            long skip = partial ? offset - getRangeStart(url, response) : offset;
+            InputStream in = entity.getContent();
+            try {
+                return readSegment(url, in, skip, (int) length, offset);
+            } finally {
+                if (partial) {
+                    in.close();
+                } else {
+                    // Abort instead of consuming the rest of the file, discarding the connection.
+                    request.abort();
+                }
+            }
+        } catch (IOException e) {
+            throw new DataReadingException(e);
+        }
+    }
+
+    /**
+     * Get the client of a pooled HTTP client.
+     *
+     * @param httpClient The pooled HTTP client.
+     *
+     * @return The client.
+     *
+     * @throws DataReadingException When the pooled HTTP client is {@code null}.
+     */
+    private static CloseableHttpClient getClient(PooledHttpClient httpClient) throws DataReadingException {
+        return Optional.ofNullable(httpClient)
+                .map(PooledHttpClient::getClient)
+                .orElseThrow(() -> new DataReadingException("Unable to read HTTP data without an HTTP client."));
+    }
+
+    /**
+     * Get the offset of the first byte of the data in a partial content response.
+     *
+     * @param url      The URL of the file.
+     * @param response The response.
+     *
+     * @return The offset of the first byte.
+     *
+     * @throws DataReadingException When the response doesn't contain a valid content range.
+     */
+    private static long getRangeStart(String url, HttpResponse response) throws DataReadingException {
+        Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        String value = contentRange == null ? null : contentRange.getValue();
+        if (value == null || !value.startsWith(BYTES_UNIT) || value.indexOf('-') < 0) {
+            throw new DataReadingException(format("HTTP data reader received an invalid content range %s for %s", value, url));
+        }
+        try {
+            return Long.parseLong(value.substring(BYTES_UNIT.length(), value.indexOf('-')).trim());
+        } catch (NumberFormatException e) {
+            throw new DataReadingException(format("HTTP data reader received an invalid content range %s for %s", value, url), e);
+        }
+    }
+
+    /**
+     * Read a segment of data from a stream.
+     *
+     * @param url    The URL of the file being read.
+     * @param in     The stream.
+     * @param skip   The number of bytes before the segment in the stream.
+     * @param length The length of the segment.
+     * @param offset The offset of the segment in the file.
+     *
+     * @return The segment.
+     *
+     * @throws IOException          When reading the stream failed.
+     * @throws DataReadingException When the stream doesn't contain the segment.
+     */
+    private static byte[] readSegment(String url, InputStream in, long skip, int length, long offset) throws IOException, DataReadingException {
+        if (skip < 0) {
+            throw new DataReadingException(format("HTTP data reader received data starting after offset %d for %s", offset, url));
+        }
+        long skipped = 0;
+        while (skipped < skip) {
+            long count = in.skip(skip - skipped);
+            if (count <= 0) {
+                if (in.read() < 0) {
+                    break;
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+        byte[] data = new byte[length];
+        int read = 0;
+        while (skipped == skip && read < length) {
+            int count = in.read(data, read, length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
         }
-        byte[] data = getData(url);
-        if (offset + length > data.length) {
+        if (read < length) {
             throw new DataReadingException(format("Can't create a http reader for %s with %d bytes of data from offset %d with length %d.",
-                    url, data.length, offset, length));
+                    url, skipped + read, offset, length));
         }
-        return ArrayUtils.subarray(data, (int) offset, (int) length);
+        return data;
     }
 }
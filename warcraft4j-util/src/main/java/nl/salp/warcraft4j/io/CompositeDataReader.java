@@ -18,167 +18,330 @@
  */
 package nl.salp.warcraft4j.io;
 
-import nl.salp.warcraft4j.io.datatype.DataType;
-import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
-
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
+import static java.lang.String.format;
+
 /**
- * TODO Add description.
+ * {@link DataReader} that reads the data of multiple readers as one continuous stream of data.
+ * <p>
+ * Only the reader for the part of the data at the current position is opened, the other readers are only opened when the position moves into
+ * their data. When the sizes of the readers are not provided, they are determined the first time a reader is needed, so reading from the start
+ * only opens the readers that are actually read. Reader lookups for a position use a binary search on the offsets of the readers.
  *
  * @author Barre Dijkstra
  */
 public class CompositeDataReader extends BaseDataReader {
+    /** The size of the buffer used for readers without an accessible backing array. */
     private static final int CHUNK_SIZE = 1024;
-    private final ByteArrayDataReader reader;
+    /** The suppliers of the readers for the parts of the data. */
+    private final List<Supplier<? extends DataReader>> readers;
+    /** The offsets of the parts in the combined data, with the offset of the end of the last part as last entry. */
+    private final long[] offsets;
+    /** The offset of the data of this reader in the combined data. */
+    private final long offset;
+    /** The maximum length of the data of this reader. */
+    private final long limit;
+    /** The number of parts for which the size is known. */
+    private int resolved;
+    /** The position in the data of this reader. */
+    private long position;
+    /** The index of the currently opened part, {@code -1} if none. */
+    private int currentIndex;
+    /** The reader for the currently opened part. */
+    private DataReader current;
 
+    /**
+     * Create a new reader for the complete data of all readers, determining their sizes when needed.
+     *
+     * @param readers The suppliers of the readers.
+     *
+     * @throws DataReadingException When no readers are provided.
+     */
     public CompositeDataReader(List<Supplier<? extends DataReader>> readers) throws DataReadingException {
         this(readers, 0, 0);
     }
 
+    /**
+     * Create a new reader for a part of the combined data of all readers, determining their sizes when needed.
+     *
+     * @param readers The suppliers of the readers.
+     * @param offset  The offset of the data in the combined data.
+     * @param length  The length of the data, or {@code 0} for all data from the offset.
+     *
+     * @throws DataReadingException When no readers are provided or the offset or length are negative.
+     */
     public CompositeDataReader(List<Supplier<? extends DataReader>> readers, long offset, long length) throws DataReadingException {
-        this.reader = new ByteArrayDataReader(readAllData(readers, offset, length));
-    }
-
-    private static byte[] readAllData(List<Supplier<? extends DataReader>> readers, long offset, long length) throws DataReadingException {
-        ByteArrayOutputStream data = new ByteArrayOutputStream();
-        long position = 0;
-        for (Supplier<? extends DataReader> readerSupplier : readers) {
-            try (DataReader reader = readerSupplier.get()) {
-                if (offset > 0 && reader.hasRemaining() && position < offset) {
-                    long skipped = Math.min(reader.remaining(), offset - position);
-                    reader.skip(skipped);
-                    position += skipped;
-                } else {
-                    while (reader.hasRemaining() && (length < 1 || position < offset + length)) {
-                        int chunkSize = (int) Math.min(CHUNK_SIZE, reader.remaining());
-                        data.write(reader.readNext(DataTypeFactory.getByteArray(chunkSize)));
-                        position += chunkSize;
-                    }
+        this(readers, null, offset, length);
+    }
+
+    /**
+     * Create a new reader for the complete data of all readers with known sizes.
+     *
+     * @param readers The suppliers of the readers.
+     * @param sizes   The sizes of the data of the readers.
+     *
+     * @throws DataReadingException When no readers are provided, the number of sizes doesn't match the readers or a size is negative.
+     */
+    public CompositeDataReader(List<Supplier<? extends DataReader>> readers, long[] sizes) throws DataReadingException {
+        this(readers, Optional.ofNullable(sizes).orElseThrow(() -> new DataReadingException("Unable to create a composite reader without sizes.")), 0, 0);
+    }
+
+    /**
+     * Create a new reader.
+     *
+     * @param readers The suppliers of the readers.
+     * @param sizes   The sizes of the data of the readers, or {@code null} if they need to be determined.
+     * @param offset  The offset of the data in the combined data.
+     * @param length  The length of the data, or {@code 0} for all data from the offset.
+     *
+     * @throws DataReadingException When the provided values are invalid.
+     */
+    private CompositeDataReader(List<Supplier<? extends DataReader>> readers, long[] sizes, long offset, long length) throws DataReadingException {
+        if (readers == null || readers.contains(null)) {
+            throw new DataReadingException("Unable to create a composite reader without readers.");
+        }
+        if (offset < 0 || length < 0) {
+            throw new DataReadingException(format("Unable to create a composite reader for %d bytes from offset %d.", length, offset));
+        }
+        this.readers = new ArrayList<>(readers);
+        this.offsets = new long[readers.size() + 1];
+        if (sizes != null) {
+            if (sizes.length != readers.size()) {
+                throw new DataReadingException(format("Unable to create a composite reader for %d readers with %d sizes.", readers.size(), sizes.length));
+            }
+            for (int i = 0; i < sizes.length; i++) {
+                if (sizes[i] < 0) {
+                    throw new DataReadingException(format("Unable to create a composite reader with a reader of %d bytes.", sizes[i]));
                 }
-            } catch (IOException e) {
-                throw new DataReadingException(e);
+                offsets[i + 1] = offsets[i] + sizes[i];
             }
+            this.resolved = sizes.length;
         }
-        return data.toByteArray();
+        this.offset = offset;
+        this.limit = length > 0 ? length : Long.MAX_VALUE;
+        this.currentIndex = -1;
     }
 
     /**
-     * {@inheritDoc}
+     * Get the number of readers that are combined.
+     *
+     * @return The number of readers.
      */
-    @Override
-    public long position() {
-        return reader.position();
+    public int getReaderCount() {
+        return readers.size();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean hasRemaining() {
-        return reader.hasRemaining();
+    public long position() {
+        return position;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Only the sizes of the readers up to the new position are determined.
      */
     @Override
-    public long remaining() {
-        return reader.remaining();
+    public void position(long position) throws DataReadingException {
+        if (position < 0) {
+            throw new DataReadingException(format("Error setting the reader position to %d, position is before the start of the data.", position));
+        }
+        if (position > limit || !isAvailable(offset + position)) {
+            throw new DataReadingException(format("Error setting the reader position to %d, position is after the end of the available data.", position));
+        }
+        setPosition(position);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public long size() {
-        return reader.size();
+    protected void setPosition(long position) {
+        this.position = position;
     }
 
-
     /**
      * {@inheritDoc}
+     * <p>
+     * Only the sizes of the readers up to the current position are determined.
      */
     @Override
-    protected void setPosition(long position) throws DataReadingException {
-        reader.setPosition(position);
+    public boolean hasRemaining() throws DataReadingException {
+        return position < limit && isAvailable(offset + position + 1);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Determines the sizes of all readers when they are not known yet.
      */
     @Override
-    public boolean isRandomAccessSupported() {
-        return reader.isRandomAccessSupported();
+    public long size() throws DataReadingException {
+        while (resolved < readers.size()) {
+            resolveNext();
+        }
+        return Math.min(limit, Math.max(0, offsets[resolved] - offset));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void skip(long bytes) {
-        reader.skip(bytes);
+    public boolean isRandomAccessSupported() {
+        return true;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public <T> T peek(DataType<T> dataType) throws DataReadingException, DataParsingException, UnsupportedOperationException {
-        return reader.peek(dataType);
+    protected int readData(ByteBuffer buffer) throws DataReadingException {
+        int read = 0;
+        while (buffer.hasRemaining() && position < limit) {
+            long dataPosition = offset + position;
+            int index = getReaderIndex(dataPosition);
+            if (index < 0) {
+                break;
+            }
+            DataReader reader = getReader(index, dataPosition - offsets[index]);
+            int count = (int) Math.min(buffer.remaining(), Math.min(offsets[index + 1] - dataPosition, limit - position));
+            if (buffer.hasArray()) {
+                reader.readBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+                buffer.position(buffer.position() + count);
+            } else {
+                byte[] chunk = new byte[Math.min(count, CHUNK_SIZE)];
+                reader.readBytes(chunk, 0, chunk.length);
+                buffer.put(chunk);
+                count = chunk.length;
+            }
+            position += count;
+            read += count;
+        }
+        return read > 0 ? read : -1;
     }
 
     /**
-     * {@inheritDoc}
+     * Check if the combined data is available up to a position, determining the sizes of the readers up to the position if needed.
+     *
+     * @param dataPosition The position in the combined data.
+     *
+     * @return {@code true} if the combined data contains at least {@code dataPosition} bytes.
+     *
+     * @throws DataReadingException When the size of a reader could not be determined.
      */
-    @Override
-    public <T> T peek(DataType<T> dataType, ByteOrder byteOrder) throws DataReadingException, DataParsingException, UnsupportedOperationException {
-        return reader.peek(dataType, byteOrder);
+    private boolean isAvailable(long dataPosition) throws DataReadingException {
+        while (resolved < readers.size() && offsets[resolved] < dataPosition) {
+            resolveNext();
+        }
+        return dataPosition <= offsets[resolved];
     }
 
     /**
-     * {@inheritDoc}
+     * Get the index of the reader containing the data at a position, determining the sizes of the readers up to the position if needed.
+     *
+     * @param dataPosition The position in the combined data.
+     *
+     * @return The index of the reader or {@code -1} if the position is after the end of the data.
+     *
+     * @throws DataReadingException When the size of a reader could not be determined.
      */
-    @Override
-    public <T> T readNext(DataType<T> dataType) throws DataReadingException, DataParsingException {
-        return reader.readNext(dataType);
+    private int getReaderIndex(long dataPosition) throws DataReadingException {
+        if (currentIndex >= 0 && currentIndex < resolved && dataPosition >= offsets[currentIndex] && dataPosition < offsets[currentIndex + 1]) {
+            return currentIndex;
+        }
+        if (!isAvailable(dataPosition + 1)) {
+            return -1;
+        }
+        int low = 0;
+        int high = resolved - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= dataPosition) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
     }
 
     /**
-     * {@inheritDoc}
+     * Determine the size of the next reader with an unknown size by opening it, keeping it open as the current reader.
+     *
+     * @throws DataReadingException When the reader could not be opened.
      */
-    @Override
-    public <T> T readNext(DataType<T> dataType, ByteOrder byteOrder) throws DataReadingException, DataParsingException {
-        return reader.readNext(dataType, byteOrder);
+    private void resolveNext() throws DataReadingException {
+        DataReader reader = open(resolved);
+        offsets[resolved + 1] = offsets[resolved] + reader.size();
+        resolved++;
     }
 
     /**
-     * {@inheritDoc}
+     * Get the reader for a part, positioned at a position in the part.
+     *
+     * @param index          The index of the part.
+     * @param readerPosition The position in the part.
+     *
+     * @return The reader.
+     *
+     * @throws DataReadingException When the reader could not be opened or positioned.
      */
-    @Override
-    public <T> T read(DataType<T> dataType, long position) throws DataReadingException, DataParsingException, UnsupportedOperationException {
-        return reader.read(dataType, position);
+    private DataReader getReader(int index, long readerPosition) throws DataReadingException {
+        DataReader reader = index == currentIndex ? current : open(index);
+        if (reader.position() != readerPosition) {
+            if (readerPosition < reader.position() && !reader.isRandomAccessSupported()) {
+                reader = open(index);
+            }
+            reader.position(readerPosition);
+        }
+        return reader;
     }
 
     /**
-     * {@inheritDoc}
+     * Open the reader for a part, closing the currently opened reader.
+     *
+     * @param index The index of the part.
+     *
+     * @return The opened reader.
+     *
+     * @throws DataReadingException When the reader could not be opened.
      */
-    @Override
-    public <T> T read(DataType<T> dataType, long position, ByteOrder byteOrder) throws DataReadingException, DataParsingException, UnsupportedOperationException {
-        return reader.read(dataType, position, byteOrder);
+    private DataReader open(int index) throws DataReadingException {
+        closeCurrent();
+        DataReader reader = readers.get(index).get();
+        if (reader == null) {
+            throw new DataReadingException(format("No reader provided for part %d of the composite reader.", index));
+        }
+        current = reader;
+        currentIndex = index;
+        return reader;
     }
 
     /**
-     * {@inheritDoc}
+     * Close the currently opened reader.
+     *
+     * @throws DataReadingException When closing the reader failed.
      */
-    @Override
-    protected int readData(ByteBuffer buffer) throws DataReadingException {
-        return reader.readData(buffer);
+    private void closeCurrent() throws DataReadingException {
+        if (current != null) {
+            DataReader reader = current;
+            current = null;
+            currentIndex = -1;
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new DataReadingException(e);
+            }
+        }
     }
 
     /**
@@ -186,6 +349,6 @@ public class CompositeDataReader extends BaseDataReader {
      */
     @Override
     public void close() throws IOException {
-        reader.close();
+        closeCurrent();
     }
 }
@@ -189,4 +189,69 @@ public interface DataReader extends Closeable, AutoCloseable {
      * @see #isRandomAccessSupported()
      */
     <T> T read(DataType<T> dataType, long position, ByteOrder byteOrder) throws DataReadingException, DataParsingException, UnsupportedOperationException;
-}
\ No newline at end of file
+
+    /**
+     * Read the next byte.
+     *
+     * @return The byte.
+     *
+     * @throws DataReadingException When reading the data failed or no data is remaining.
+     */
+    byte readByte() throws DataReadingException;
+
+    /**
+     * Read the next 16-bit short.
+     *
+     * @param byteOrder The byte order of the data.
+     *
+     * @return The short.
+     *
+     * @throws DataReadingException When reading the data failed or not enough data is remaining.
+     */
+    short readShort(ByteOrder byteOrder) throws DataReadingException;
+
+    /**
+     * Read the next 32-bit signed int.
+     *
+     * @param byteOrder The byte order of the data.
+     *
+     * @return The int.
+     *
+     * @throws DataReadingException When reading the data failed or not enough data is remaining.
+     */
+    int readInt(ByteOrder byteOrder) throws DataReadingException;
+
+    /**
+     * Read the next 32-bit unsigned int.
+     *
+     * @param byteOrder The byte order of the data.
+     *
+     * @return The unsigned int as a long.
+     *
+     * @throws DataReadingException When reading the data failed or not enough data is remaining.
+     */
+    long readUnsignedInt(ByteOrder byteOrder) throws DataReadingException;
+
+    /**
+     * Read the next 64-bit long.
+     *
+     * @param byteOrder The byte order of the data.
+     *
+     * @return The long.
+     *
+     * @throws DataReadingException When reading the data failed or not enough data is remaining.
+     */
+    long readLong(ByteOrder byteOrder) throws DataReadingException;
+
+    /**
+     * Read a number of bytes into an existing array.
+     *
+     * @param target The array to read the data into.
+     * @param offset The offset in the array to store the first byte.
+     * @param length The number of bytes to read.
+     *
+     * @throws DataReadingException      When reading the data failed or not enough data is remaining.
+     * @throws IndexOutOfBoundsException When the offset and length are not within the array.
+     */
+    void readBytes(byte[] target, int offset, int length) throws DataReadingException, IndexOutOfBoundsException;
+}
@@ -75,6 +75,47 @@ public class FileDataReader extends BaseDataReader {
      * @throws IllegalArgumentException When invalid data was provided.
      */
     public FileDataReader(Path file, long offset, long maxLength) throws DataReadingException, IllegalArgumentException {
+        this(open(file), offset, maxLength);
+    }
+
+    /**
+     * Create a new FileDataReader instance for an opened file channel, starting at the given offset.
+     * <p>
+     * The channel is used as is, without checking the file it was opened for, and is closed when the reader is closed.
+     * </p>
+     *
+     * @param channel   The channel, opened for reading.
+     * @param offset    The file offset to start at.
+     * @param maxLength The maximum number of bytes to be available.
+     *
+     * @throws DataReadingException     When the channel could not be positioned at the offset.
+     * @throws IllegalArgumentException When no channel was provided.
+     */
+    public FileDataReader(FileChannel channel, long offset, long maxLength) throws DataReadingException, IllegalArgumentException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Can't create a random access file data reader for a null channel.");
+        }
+        this.channel = channel;
+        if (offset > 0) {
+            this.offset = offset;
+            position(offset);
+        } else {
+            this.offset = offset;
+        }
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Open a file for reading.
+     *
+     * @param file The file.
+     *
+     * @return The channel for the file.
+     *
+     * @throws DataReadingException     When the file could not be opened for reading.
+     * @throws IllegalArgumentException When the file does not exist or is not readable.
+     */
+    private static FileChannel open(Path file) throws DataReadingException, IllegalArgumentException {
         if (file == null) {
             throw new IllegalArgumentException("Can't create a random access file data reader for a null file.");
         }
@@ -85,17 +126,10 @@ public class FileDataReader extends BaseDataReader {
             throw new IllegalArgumentException(format("Can't create a random access file data reader for non readable file %s", file));
         }
         try {
-            channel = FileChannel.open(file, READ);
+            return FileChannel.open(file, READ);
         } catch (IOException e) {
             throw new DataReadingException(format("Error creating FileDataReader instance for file %s", file), e);
         }
-        if (offset > 0) {
-            this.offset = offset;
-            position(offset);
-        } else {
-            this.offset = offset;
-        }
-        this.maxLength = maxLength;
     }
 
     /**
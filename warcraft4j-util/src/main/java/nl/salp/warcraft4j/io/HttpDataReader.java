@@ -22,8 +22,6 @@ import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,16 +36,30 @@ import static java.lang.String.format;
  * @author Barre Dijkstra
  */
 public class HttpDataReader extends BaseDataReader {
-    private CloseableHttpClient httpClient;
+    private HttpGet request;
     private CloseableHttpResponse response;
     private InputStream responseStream;
     private long position;
     private long length;
+    /** Flag indicating that the end of the response stream was reached. */
+    private boolean endOfStream;
 
     public HttpDataReader(String url) throws DataParsingException {
+        this(url, PooledHttpClient.getDefault());
+    }
+
+    /**
+     * Create a new reader, streaming the data of a URL.
+     *
+     * @param url        The URL.
+     * @param httpClient The HTTP client to read the data with.
+     *
+     * @throws DataParsingException When the URL could not be opened.
+     */
+    public HttpDataReader(String url, PooledHttpClient httpClient) throws DataParsingException {
         try {
-            httpClient = HttpClients.createDefault();
-            response = httpClient.execute(new HttpGet(URI.create(url)));
+            request = new HttpGet(URI.create(url));
+            response = httpClient.getClient().execute(request);
             responseStream = getResponseStream(url, response);
         } catch (Exception e) {
             try {
@@ -134,14 +146,23 @@ public class HttpDataReader extends BaseDataReader {
     @Override
     protected int readData(ByteBuffer buffer) throws DataReadingException {
         try {
-            int read = 0;
-            byte[] dataArray;
+            int read;
             if (buffer.hasArray()) {
-                read = responseStream.read(buffer.array());
+                read = responseStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (read > 0) {
+                    buffer.position(buffer.position() + read);
+                }
             } else {
-                byte[] data = new byte[buffer.capacity()];
+                byte[] data = new byte[buffer.remaining()];
                 read = responseStream.read(data);
-                buffer.put(data);
+                if (read > 0) {
+                    buffer.put(data, 0, read);
+                }
+            }
+            if (read > 0) {
+                position += read;
+            } else if (read < 0) {
+                endOfStream = true;
             }
             return read;
         } catch (IOException e) {
@@ -154,7 +175,10 @@ public class HttpDataReader extends BaseDataReader {
      */
     @Override
     public void close() throws IOException {
-        if (this.responseStream != null) {
+        if (this.request != null && this.responseStream != null && !endOfStream && (length < 0 || position < length)) {
+            // Abort instead of consuming the remaining data, discarding the connection.
+            this.request.abort();
+        } else if (this.responseStream != null) {
             try {
                 this.responseStream.close();
             } catch (IOException e) {
@@ -168,12 +192,5 @@ public class HttpDataReader extends BaseDataReader {
                 // Ignore.
             }
         }
-        if (this.httpClient != null) {
-            try {
-                this.httpClient.close();
-            } catch (IOException e) {
-                // Ignore.
-            }
-        }
     }
 }
\ No newline at end of file
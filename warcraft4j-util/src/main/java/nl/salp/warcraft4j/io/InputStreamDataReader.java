@@ -116,14 +116,21 @@ public class InputStreamDataReader extends BaseDataReader {
     @Override
     protected int readData(ByteBuffer buffer) throws DataReadingException {
         try {
-            int read = 0;
-            byte[] dataArray;
+            int read;
             if (buffer.hasArray()) {
-                read = stream.read(buffer.array());
+                read = stream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (read > 0) {
+                    buffer.position(buffer.position() + read);
+                }
             } else {
-                byte[] data = new byte[buffer.capacity()];
+                byte[] data = new byte[buffer.remaining()];
                 read = stream.read(data);
-                buffer.put(data);
+                if (read > 0) {
+                    buffer.put(data, 0, read);
+                }
+            }
+            if (read > 0) {
+                position += read;
             }
             return read;
         } catch (IOException e) {
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Read-only memory mapped file, providing zero-copy slices of the file data.
+ * <p>
+ * Since a single mapping can't exceed 2GB, the file is mapped in windows that start every {@link #WINDOW_STRIDE} bytes and extend (up to) 2GB
+ * from there. The windows overlap, so every region of up to {@link #MAX_SLICE_SIZE} bytes is contained in a single window and can be provided as a
+ * slice of that window without copying any data. Windows are mapped on first use and kept for the lifetime of the instance.
+ * <p>
+ * The mapped file is thread-safe, the returned slices are not.
+ *
+ * @author Barre Dijkstra
+ */
+public class MappedFile implements Closeable {
+    /** The distance between the start of two consecutive windows (1GB). */
+    public static final long WINDOW_STRIDE = 1L << 30;
+    /** The maximum size of a slice. */
+    public static final long MAX_SLICE_SIZE = Integer.MAX_VALUE - WINDOW_STRIDE;
+    /** The mapped file. */
+    private final Path file;
+    /** The size of the file at the time it was mapped. */
+    private final long size;
+    /** The channel used for mapping the windows. */
+    private final FileChannel channel;
+    /** The mapped windows, {@code null} when not mapped yet. */
+    private final AtomicReferenceArray<MappedByteBuffer> windows;
+
+    /**
+     * Create a new instance, mapping the file.
+     *
+     * @param file The file to map.
+     *
+     * @throws IllegalArgumentException When the file is {@code null}.
+     * @throws DataReadingException     When the file could not be opened.
+     */
+    public MappedFile(Path file) throws IllegalArgumentException, DataReadingException {
+        this.file = Optional.ofNullable(file)
+                .orElseThrow(() -> new IllegalArgumentException("Can't memory map a null file."));
+        try {
+            this.channel = FileChannel.open(file, READ);
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new DataReadingException(format("Error opening file %s for memory mapping", file), e);
+        }
+        this.windows = new AtomicReferenceArray<>((int) Math.max(1, (size + WINDOW_STRIDE - 1) / WINDOW_STRIDE));
+    }
+
+    /**
+     * Get the mapped file.
+     *
+     * @return The file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the size of the mapped file.
+     *
+     * @return The size in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get a slice of the mapped file data.
+     *
+     * @param offset The offset of the slice in the file.
+     * @param length The length of the slice.
+     *
+     * @return The slice, with its position at {@code 0} and its limit at the length.
+     *
+     * @throws DataReadingException When the slice is not within the file, is larger than {@link #MAX_SLICE_SIZE} or the file could not be mapped.
+     */
+    public ByteBuffer slice(long offset, long length) throws DataReadingException {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new DataReadingException(format("Unable to get %d bytes from offset %d of %d byte file %s.", length, offset, size, file));
+        }
+        if (length > MAX_SLICE_SIZE) {
+            throw new DataReadingException(format("Unable to get a %d byte slice of file %s, slices are limited to %d bytes.", length, file, MAX_SLICE_SIZE));
+        }
+        int window = (int) (offset / WINDOW_STRIDE);
+        ByteBuffer slice = getWindow(window).duplicate();
+        int position = (int) (offset - window * WINDOW_STRIDE);
+        slice.position(position);
+        slice.limit(position + (int) length);
+        return slice.slice();
+    }
+
+    /**
+     * Get a mapped window, mapping the window if it isn't mapped yet.
+     *
+     * @param window The index of the window.
+     *
+     * @return The window.
+     *
+     * @throws DataReadingException When the window could not be mapped.
+     */
+    private MappedByteBuffer getWindow(int window) throws DataReadingException {
+        MappedByteBuffer buffer = windows.get(window);
+        if (buffer == null) {
+            synchronized (windows) {
+                buffer = windows.get(window);
+                if (buffer == null) {
+                    long start = window * WINDOW_STRIDE;
+                    try {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Integer.MAX_VALUE, size - start));
+                    } catch (IOException e) {
+                        throw new DataReadingException(format("Error memory mapping %s from offset %d", file, start), e);
+                    }
+                    windows.set(window, buffer);
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Release the memory of a mapped buffer immediately instead of when the buffer is garbage collected.
+     * <p>
+     * The buffer and all its slices and duplicates must not be accessed after unmapping it, since this crashes the JVM. Unmapping is done on a best
+     * effort basis, relying on the internal cleaner of the buffer, and is skipped when not supported by the JVM.
+     *
+     * @param buffer The buffer as returned by {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+     *
+     * @return {@code true} if the buffer was unmapped.
+     */
+    public static boolean unmap(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return unmapWithCleaner(buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Release the memory of a mapped buffer using its cleaner, as supported up to Java 8.
+     *
+     * @param buffer The buffer.
+     *
+     * @return {@code true} if the buffer was unmapped.
+     */
+    private static boolean unmapWithCleaner(ByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner == null) {
+                return false;
+            }
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Close the file, releasing the references to the mapped windows.
+     * <p>
+     * The mapped memory is released once all slices are garbage collected.
+     *
+     * @throws IOException When closing the file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (windows) {
+            for (int i = 0; i < windows.length(); i++) {
+                windows.set(i, null);
+            }
+            channel.close();
+        }
+    }
+}
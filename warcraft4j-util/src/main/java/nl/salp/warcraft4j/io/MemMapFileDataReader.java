@@ -19,37 +19,28 @@
 package nl.salp.warcraft4j.io;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.READ;
 
 /**
  * {@link DataReader} that reads a file as a memory mapped file.
+ * <p>
+ * The positions of the reader are relative to the offset in the file. Since a single mapping is limited to 2GB, larger files should be read
+ * using slices of a {@link MappedFile}.
  *
  * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.MappedFile
  */
-public class MemMapFileDataReader extends BaseDataReader {
+public class MemMapFileDataReader extends ByteBufferDataReader {
     /** The default maximum length. */
     private static final long DEFAULT_MAX_LENGTH = -1;
     /** The default offset. */
     private static final long DEFAULT_OFFSET = 0;
-    /** The file channel for the file. */
-    private final FileChannel channel;
-    /** The memory mapped buffer for the file. */
-    private final MappedByteBuffer mappedBuffer;
-    /** The maximum amount of bytes to have available for the stream. */
-    private final long maxLength;
-    /** The offset. */
-    private final long offset;
-    /** The lock for loading the buffer. */
-    private final Lock loadLock;
 
     /**
      * Create a new FileDataReader instance for the given file.
@@ -85,6 +76,24 @@ public class MemMapFileDataReader extends BaseDataReader {
      * @throws IllegalArgumentException When invalid data was provided.
      */
     public MemMapFileDataReader(Path file, long offset, long maxLength) throws DataReadingException, IllegalArgumentException {
+        super(map(file, offset, maxLength));
+    }
+
+    /**
+     * Memory map (a part of) a file.
+     * <p>
+     * The channel used for mapping the file is closed directly, since the mapping stays valid until it is garbage collected.
+     *
+     * @param file      The file.
+     * @param offset    The file offset to start at.
+     * @param maxLength The maximum number of bytes to map, mapping the remainder of the file when smaller than {@code 1}.
+     *
+     * @return The mapped buffer.
+     *
+     * @throws DataReadingException     When the file could not be memory mapped.
+     * @throws IllegalArgumentException When invalid data was provided.
+     */
+    private static MappedByteBuffer map(Path file, long offset, long maxLength) throws DataReadingException, IllegalArgumentException {
         if (file == null) {
             throw new IllegalArgumentException("Can't create a memory mapped file data reader for a null file.");
         }
@@ -94,118 +103,15 @@ public class MemMapFileDataReader extends BaseDataReader {
         if (!Files.isReadable(file)) {
             throw new IllegalArgumentException(format("Can't create a memory mapped file data reader for non readable file %s", file));
         }
-        try {
-            this.channel = FileChannel.open(file, READ);
-            this.offset = offset > 0 ? offset : 0;
-            this.maxLength = maxLength < 1 ? Files.size(file) - this.offset : maxLength;
-            this.mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, this.offset, this.maxLength);
-        } catch (IOException e) {
-            throw new DataReadingException(format("Error creating memory mapped FileDataReader instance for file %s", file), e);
-        }
-        this.loadLock = new ReentrantLock();
-    }
-
-    /**
-     * Get a memory mapped byte buffer.
-     *
-     * @return The mapped byte buffer.
-     *
-     * @throws DataParsingException When the mapped buffer could not be retrieved.
-     */
-    private MappedByteBuffer getMappedBuffer() throws DataParsingException {
-        if (!channel.isOpen()) {
-            throw new DataParsingException("Tried to get the memory mapped buffer for a closed file channel.");
-        }
-        if (!mappedBuffer.isLoaded()) {
-            if (loadLock.tryLock()) {
-                try {
-                    mappedBuffer.load();
-                } finally {
-                    loadLock.unlock();
-                }
-            } else {
-                while (!mappedBuffer.isLoaded()) {
-                    try {
-                        Thread.currentThread().wait(1);
-                    } catch (InterruptedException e) {
-                        // Ignore.
-                    }
-                }
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long start = offset > 0 ? offset : 0;
+            long length = Math.min(channel.size() - start, maxLength < 1 ? Long.MAX_VALUE : maxLength);
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(format("Can't memory map %d bytes from offset %d of file %s", length, start, file));
             }
-        }
-        return mappedBuffer;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final long position() {
-        // FIXME Determine whether MappedByteBuffer#position() counts from the channel start or from offset.
-        return getMappedBuffer().position() + offset;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean hasRemaining() {
-        return getMappedBuffer().hasRemaining();
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public long remaining() {
-        return getMappedBuffer().remaining();
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public long size() {
-        return getMappedBuffer().position() + getMappedBuffer().remaining();
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected int readData(ByteBuffer buffer) throws DataReadingException {
-        getMappedBuffer().get(buffer.array());
-        return buffer.capacity();
-
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected void setPosition(long position) throws DataReadingException {
-        try {
-            channel.position(position);
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
         } catch (IOException e) {
-            throw new DataReadingException(e);
-        }
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean isRandomAccessSupported() {
-        return true;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final void close() throws IOException {
-        if (channel != null && channel.isOpen()) {
-            channel.close();
+            throw new DataReadingException(format("Error creating memory mapped FileDataReader instance for file %s", file), e);
         }
     }
 }
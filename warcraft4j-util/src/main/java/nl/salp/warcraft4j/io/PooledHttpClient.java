@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * HTTP client with a pool of keep-alive connections, to be shared by all components performing HTTP requests.
+ * <p>
+ * Connections are reused between requests to the same host, limiting the number of concurrent connections per host (route). Idle connections are
+ * kept open for at most {@link #IDLE_TIMEOUT} milliseconds. The client is thread-safe; responses should always be consumed or closed to release
+ * their connection to the pool.
+ *
+ * @author Barre Dijkstra
+ */
+public class PooledHttpClient implements Closeable {
+    /** The default maximum number of connections. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 64;
+    /** The default maximum number of connections per route. */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 16;
+    /** The default timeout in milliseconds for connecting, waiting for data and waiting for a pooled connection. */
+    public static final int DEFAULT_TIMEOUT = 30_000;
+    /** The time in milliseconds an idle connection is kept open. */
+    public static final long IDLE_TIMEOUT = 60_000;
+    /** The connection pool. */
+    private final PoolingHttpClientConnectionManager connectionManager;
+    /** The HTTP client using the connection pool. */
+    private final CloseableHttpClient client;
+    /** Flag indicating if the client is the shared default client that can't be closed. */
+    private final boolean shared;
+
+    /**
+     * Create a new client with the default limits and timeouts.
+     */
+    public PooledHttpClient() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Create a new client.
+     *
+     * @param maxConnections         The maximum number of connections.
+     * @param maxConnectionsPerRoute The maximum number of connections per route.
+     * @param timeout                The timeout in milliseconds for connecting, waiting for data and waiting for a pooled connection.
+     *
+     * @throws IllegalArgumentException When a limit is not positive or the timeout is negative.
+     */
+    public PooledHttpClient(int maxConnections, int maxConnectionsPerRoute, int timeout) throws IllegalArgumentException {
+        this(maxConnections, maxConnectionsPerRoute, timeout, false);
+    }
+
+    /**
+     * Create a new client.
+     *
+     * @param maxConnections         The maximum number of connections.
+     * @param maxConnectionsPerRoute The maximum number of connections per route.
+     * @param timeout                The timeout in milliseconds for connecting, waiting for data and waiting for a pooled connection.
+     * @param shared                 {@code true} if the client is the shared default client.
+     *
+     * @throws IllegalArgumentException When a limit is not positive or the timeout is negative.
+     */
+    private PooledHttpClient(int maxConnections, int maxConnectionsPerRoute, int timeout, boolean shared) throws IllegalArgumentException {
+        if (maxConnections < 1 || maxConnectionsPerRoute < 1 || timeout < 0) {
+            throw new IllegalArgumentException(format("Unable to create an HTTP client with %d connections, %d connections per route and timeout %d.",
+                    maxConnections, maxConnectionsPerRoute, timeout));
+        }
+        this.connectionManager = new PoolingHttpClientConnectionManager(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .build();
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive < 0 ? IDLE_TIMEOUT : Math.min(keepAlive, IDLE_TIMEOUT);
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_TIMEOUT, TimeUnit.MILLISECONDS)
+                .build();
+        this.shared = shared;
+    }
+
+    /**
+     * Get the HTTP client.
+     * <p>
+     * The client is owned by this instance and should not be closed by its users.
+     *
+     * @return The HTTP client.
+     */
+    public CloseableHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Get the maximum number of connections.
+     *
+     * @return The maximum number of connections.
+     */
+    public int getMaxConnections() {
+        return connectionManager.getMaxTotal();
+    }
+
+    /**
+     * Get the maximum number of connections per route.
+     *
+     * @return The maximum number of connections per route.
+     */
+    public int getMaxConnectionsPerRoute() {
+        return connectionManager.getDefaultMaxPerRoute();
+    }
+
+    /**
+     * Get the number of open connections that are idle in the pool.
+     *
+     * @return The number of idle connections.
+     */
+    public int getIdleConnectionCount() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    /**
+     * Get the shared default client, which stays open for the lifetime of the application.
+     *
+     * @return The default client.
+     */
+    public static PooledHttpClient getDefault() {
+        return DefaultClientHolder.INSTANCE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closing the default client has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!shared) {
+            client.close();
+        }
+    }
+
+    /**
+     * Holder for the lazily created default client.
+     */
+    private static class DefaultClientHolder {
+        /** The default client. */
+        private static final PooledHttpClient INSTANCE = new PooledHttpClient(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_TIMEOUT, true);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Long-lived read-only {@link FileChannel} for a file that is shared between readers.
+ * <p>
+ * All reads are positional, so the channel can be used by any number of threads concurrently without synchronisation. Since a {@link FileChannel}
+ * is closed for all users when a thread is interrupted during a read, the channel is transparently reopened for other readers when that happens.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.SharedFileDataReader
+ */
+public class SharedFileChannel implements Closeable {
+    /** The file. */
+    private final Path file;
+    /** The current channel for the file. */
+    private volatile FileChannel channel;
+    /** Flag indicating that the channel was closed deliberately. */
+    private volatile boolean closed;
+
+    /**
+     * Open a shared channel for a file.
+     *
+     * @param file The file.
+     *
+     * @throws IllegalArgumentException When the file is {@code null}.
+     * @throws DataReadingException     When the file could not be opened.
+     */
+    public SharedFileChannel(Path file) throws IllegalArgumentException, DataReadingException {
+        this.file = Optional.ofNullable(file)
+                .orElseThrow(() -> new IllegalArgumentException("Can't create a shared file channel for a null file."));
+        this.channel = open(file);
+    }
+
+    /**
+     * Open a channel for a file.
+     *
+     * @param file The file.
+     *
+     * @return The channel.
+     *
+     * @throws DataReadingException When the file could not be opened.
+     */
+    private static FileChannel open(Path file) throws DataReadingException {
+        try {
+            return FileChannel.open(file, READ);
+        } catch (IOException e) {
+            throw new DataReadingException(format("Error opening file %s for reading", file), e);
+        }
+    }
+
+    /**
+     * Get the file.
+     *
+     * @return The file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the current size of the file.
+     *
+     * @return The size in bytes.
+     *
+     * @throws DataReadingException When the size could not be determined.
+     */
+    public long size() throws DataReadingException {
+        try {
+            FileChannel fileChannel = getChannel();
+            try {
+                return fileChannel.size();
+            } catch (ClosedChannelException e) {
+                return reopen(e).size();
+            }
+        } catch (IOException e) {
+            throw new DataReadingException(format("Error getting the size of file %s", file), e);
+        }
+    }
+
+    /**
+     * Read data from a position in the file into a buffer, without changing the position of the channel.
+     *
+     * @param buffer   The buffer to read the data into, from its position up to its limit.
+     * @param position The position in the file to read from.
+     *
+     * @return The number of bytes read, possibly {@code 0}, or {@code -1} if the position is at or after the end of the file.
+     *
+     * @throws DataReadingException When reading the data failed.
+     */
+    public int read(ByteBuffer buffer, long position) throws DataReadingException {
+        try {
+            return getChannel().read(buffer, position);
+        } catch (ClosedByInterruptException e) {
+            reopen(e);
+            throw new DataReadingException(format("Reading from file %s was interrupted", file), e);
+        } catch (ClosedChannelException e) {
+            return readReopened(e, buffer, position);
+        } catch (IOException e) {
+            throw new DataReadingException(format("Error reading from file %s at position %d", file, position), e);
+        }
+    }
+
+    /**
+     * Retry a read on the reopened channel after the channel was closed by another thread.
+     *
+     * @param cause    The exception that was caused by the closed channel.
+     * @param buffer   The buffer to read the data into.
+     * @param position The position in the file to read from.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws DataReadingException When the channel could not be reopened or reading the data failed.
+     */
+    private int readReopened(ClosedChannelException cause, ByteBuffer buffer, long position) throws DataReadingException {
+        try {
+            return reopen(cause).read(buffer, position);
+        } catch (IOException e) {
+            throw new DataReadingException(format("Error reading from file %s at position %d", file, position), e);
+        }
+    }
+
+    /**
+     * Get the current channel.
+     *
+     * @return The channel.
+     *
+     * @throws DataReadingException When the shared channel was closed.
+     */
+    private FileChannel getChannel() throws DataReadingException {
+        if (closed) {
+            throw new DataReadingException(format("Unable to read from closed file %s", file));
+        }
+        return channel;
+    }
+
+    /**
+     * Reopen the channel after it was closed because of an interrupt of another thread, unless the channel was closed deliberately.
+     *
+     * @param cause The exception that was caused by the closed channel.
+     *
+     * @return The reopened channel.
+     *
+     * @throws DataReadingException When the channel was closed deliberately or could not be reopened.
+     */
+    private synchronized FileChannel reopen(ClosedChannelException cause) throws DataReadingException {
+        if (closed) {
+            throw new DataReadingException(format("Unable to read from closed file %s", file), cause);
+        }
+        if (!channel.isOpen()) {
+            channel = open(file);
+        }
+        return channel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
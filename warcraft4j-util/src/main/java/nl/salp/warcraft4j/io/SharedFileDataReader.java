@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * {@link DataReader} for a region of a file, reading from a {@link SharedFileChannel} with positional reads.
+ * <p>
+ * The positions of the reader are relative to the start of the region. Multiple readers can share the same channel, where closing the reader
+ * leaves the shared channel open.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.SharedFileChannel
+ */
+public class SharedFileDataReader extends BaseDataReader {
+    /** The shared channel for the file. */
+    private final SharedFileChannel channel;
+    /** The offset of the region in the file. */
+    private final long offset;
+    /** The length of the region. */
+    private final long length;
+    /** The position in the region. */
+    private long position;
+
+    /**
+     * Create a new reader for the complete file.
+     *
+     * @param channel The shared channel for the file.
+     *
+     * @throws IllegalArgumentException When the channel is {@code null}.
+     * @throws DataReadingException     When the size of the file could not be determined.
+     */
+    public SharedFileDataReader(SharedFileChannel channel) throws IllegalArgumentException, DataReadingException {
+        this(channel, 0, Optional.ofNullable(channel).map(SharedFileChannel::size).orElse(0L));
+    }
+
+    /**
+     * Create a new reader for a region of a file.
+     *
+     * @param channel The shared channel for the file.
+     * @param offset  The offset of the region in the file.
+     * @param length  The length of the region.
+     *
+     * @throws IllegalArgumentException When the channel is {@code null} or the offset or length are negative.
+     */
+    public SharedFileDataReader(SharedFileChannel channel, long offset, long length) throws IllegalArgumentException {
+        this.channel = Optional.ofNullable(channel)
+                .orElseThrow(() -> new IllegalArgumentException("Can't create a file data reader for a null channel."));
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException(format("Can't create a file data reader for %d bytes from offset %d of %s.", length, offset, channel.getFile()));
+        }
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long position() {
+        return position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setPosition(long position) {
+        this.position = position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int readData(ByteBuffer buffer) throws DataReadingException {
+        if (position >= length) {
+            return -1;
+        }
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + (int) Math.min(buffer.remaining(), length - position));
+        int read = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                int count = channel.read(buffer, offset + position);
+                if (count < 0) {
+                    break;
+                }
+                position += count;
+                read += count;
+            }
+        } finally {
+            buffer.limit(limit);
+        }
+        if (read == 0 && buffer.hasRemaining()) {
+            throw new DataReadingException(format("Unexpected end of file %s at offset %d.", channel.getFile(), offset + position));
+        }
+        return read;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRandomAccessSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        // The channel is shared with other readers and is closed by its owner.
+    }
+}
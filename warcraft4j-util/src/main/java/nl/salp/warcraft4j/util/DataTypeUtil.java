@@ -222,6 +222,24 @@ public final class DataTypeUtil {
         return ((((long) b) << 32) | ((long) a & 0xFFFFFFFFL));
     }
 
+    /**
+     * Convert 8 bytes of an array, starting at an offset, to a big endian long without copying the data.
+     *
+     * @param value  The byte array.
+     * @param offset The offset of the first byte.
+     *
+     * @return The long represented by the 8 bytes from the offset.
+     *
+     * @throws ArrayIndexOutOfBoundsException When the array has less than 8 bytes from the offset.
+     */
+    public static long toLong(byte[] value, int offset) throws ArrayIndexOutOfBoundsException {
+        long val = 0;
+        for (int i = 0; i < 8; i++) {
+            val = (val << 8) | (value[offset + i] & 0xFF);
+        }
+        return val;
+    }
+
     /**
      * Convert the first 4 bytes of an array to a int.
      *
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.util;
+
+import java.util.function.IntBinaryOperator;
+
+import static java.lang.String.format;
+
+/**
+ * Utility methods for sorting data that is stored in (parallel) primitive arrays without boxing the values.
+ *
+ * @author Barre Dijkstra
+ */
+public final class SortUtil {
+    /** The range size below which insertion sort is used. */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SortUtil() {
+    }
+
+    /**
+     * Create a sorted permutation for a number of indexed elements.
+     * <p>
+     * The comparator is called with the indices of the elements to compare. Elements that are equal according to the comparator keep their original
+     * order, allowing the first occurrence of a duplicate to be detected by the caller.
+     *
+     * @param size       The number of elements.
+     * @param comparator The comparator for two element indices.
+     *
+     * @return The element indices in sorted order.
+     *
+     * @throws IllegalArgumentException When the size is negative or the comparator is {@code null}.
+     */
+    public static int[] sortedPermutation(int size, IntBinaryOperator comparator) throws IllegalArgumentException {
+        if (size < 0) {
+            throw new IllegalArgumentException(format("Unable to sort %d elements.", size));
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Unable to sort elements with a null comparator.");
+        }
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        IntBinaryOperator stableComparator = (a, b) -> {
+            int cmp = comparator.applyAsInt(a, b);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        };
+        sort(permutation, 0, size - 1, stableComparator);
+        return permutation;
+    }
+
+    /**
+     * Sort a range of indices using a quicksort with a median-of-three pivot, falling back to an insertion sort for small ranges.
+     *
+     * @param indices    The indices to sort.
+     * @param low        The first index of the range (inclusive).
+     * @param high       The last index of the range (inclusive).
+     * @param comparator The comparator.
+     */
+    private static void sort(int[] indices, int low, int high, IntBinaryOperator comparator) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            int mid = (low + high) >>> 1;
+            if (comparator.applyAsInt(indices[mid], indices[low]) < 0) {
+                swap(indices, mid, low);
+            }
+            if (comparator.applyAsInt(indices[high], indices[low]) < 0) {
+                swap(indices, high, low);
+            }
+            if (comparator.applyAsInt(indices[high], indices[mid]) < 0) {
+                swap(indices, high, mid);
+            }
+            int pivot = indices[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (comparator.applyAsInt(indices[i], pivot) < 0) {
+                    i++;
+                }
+                while (comparator.applyAsInt(indices[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(indices, i++, j--);
+                }
+            }
+            // Recurse into the smaller partition to bound the stack depth.
+            if (j - low < high - i) {
+                sort(indices, low, j, comparator);
+                low = i;
+            } else {
+                sort(indices, i, high, comparator);
+                high = j;
+            }
+        }
+        insertionSort(indices, low, high, comparator);
+    }
+
+    /**
+     * Sort a range of indices using insertion sort.
+     *
+     * @param indices    The indices to sort.
+     * @param low        The first index of the range (inclusive).
+     * @param high       The last index of the range (inclusive).
+     * @param comparator The comparator.
+     */
+    private static void insertionSort(int[] indices, int low, int high, IntBinaryOperator comparator) {
+        for (int i = low + 1; i <= high; i++) {
+            int value = indices[i];
+            int j = i - 1;
+            while (j >= low && comparator.applyAsInt(indices[j], value) > 0) {
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            indices[j + 1] = value;
+        }
+    }
+
+    /**
+     * Swap two values in an array.
+     *
+     * @param indices The array.
+     * @param a       The index of the first value.
+     * @param b       The index of the second value.
+     */
+    private static void swap(int[] indices, int a, int b) {
+        int tmp = indices[a];
+        indices[a] = indices[b];
+        indices[b] = tmp;
+    }
+}
@@ -94,6 +94,24 @@ public class NativeMemorySegment implements AutoCloseable {
         return unsafeHelper.getBytes(getAddress(offset, size), size);
     }
 
+    /**
+     * Copy data from the memory segment into an existing byte[].
+     *
+     * @param offset       The offset from the start of the segment.
+     * @param target       The array to copy the data into.
+     * @param targetOffset The offset in the array to copy the first byte to.
+     * @param size         The size of the data to copy in bytes.
+     *
+     * @throws IllegalArgumentException When the offset and/or size are invalid.
+     * @throws IllegalStateException    When the memory segment has been closed.
+     */
+    public void get(long offset, byte[] target, int targetOffset, int size) throws IllegalArgumentException, IllegalStateException {
+        if (target == null || targetOffset < 0 || size < 0 || targetOffset + size > target.length) {
+            throw new IllegalArgumentException(format("Unable to copy %d bytes to offset %d of the target array.", size, targetOffset));
+        }
+        unsafeHelper.getBytes(getAddress(offset, size), target, targetOffset, size);
+    }
+
     /**
      * Store a byte[] in the memory segment.
      *
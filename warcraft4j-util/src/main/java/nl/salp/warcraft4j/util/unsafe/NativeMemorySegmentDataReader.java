@@ -91,8 +91,17 @@ public class NativeMemorySegmentDataReader extends BaseDataReader {
      */
     @Override
     protected int readData(ByteBuffer buffer) throws DataReadingException {
-        int length = buffer.capacity();
-        buffer.put(segment.get(offset, buffer.capacity()));
+        int length = (int) Math.min(buffer.remaining(), segment.getSize() - offset);
+        if (length <= 0) {
+            return -1;
+        }
+        if (buffer.hasArray()) {
+            segment.get(offset, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        } else {
+            buffer.put(segment.get(offset, length));
+        }
+        offset += length;
         return length;
     }
 
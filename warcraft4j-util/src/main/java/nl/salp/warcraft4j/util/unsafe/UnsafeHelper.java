@@ -358,6 +358,18 @@ public final class UnsafeHelper {
         return data;
     }
 
+    /**
+     * Copy data from a memory address into an existing byte[].
+     *
+     * @param address      The absolute memory address.
+     * @param target       The array to copy the data into.
+     * @param targetOffset The offset in the array to copy the first byte to.
+     * @param size         The number of bytes to copy.
+     */
+    public void getBytes(long address, byte[] target, int targetOffset, int size) {
+        unsafe.copyMemory(null, address, target, byteArrayOffset + targetOffset, size);
+    }
+
     /**
      * Store a byte[] at a memory address relative to the address of an object.
      *
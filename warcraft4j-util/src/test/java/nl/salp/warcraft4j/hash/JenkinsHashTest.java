@@ -60,6 +60,17 @@ public class JenkinsHashTest {
         testJenkinsHashLittle2(0xcd628161_6cbea4b3L, "Four score and seven years ago", 1, 0);
     }
 
+    @Test
+    public void testJenkinsHashLittle2WithValueAtArrayOffset() {
+        byte[] data = "..Four score and seven years ago.".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x17770551_ce7226e6L, JenkinsHash.hashLittle2(data, 2, data.length - 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJenkinsHashLittle2WithInvalidArrayOffset() {
+        JenkinsHash.hashLittle2(new byte[4], 2, 3);
+    }
+
     @Test
     public void testJenkinsHashLittleWithEmptyValue() {
         testJenkinsHashLittle(JenkinsHash.HASH_EMPTY_VALUE_HASHLITTLE, "", 0);
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link BufferedDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.BufferedDataReader
+ */
+public class BufferedDataReaderTest {
+    private static final int WINDOW_SIZE = 64;
+    private byte[] data;
+    private CountingDataReader source;
+
+    @Before
+    public void setUp() {
+        data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 11);
+        }
+        source = new CountingDataReader(data);
+    }
+
+    @Test
+    public void shouldServeSmallReadsFromWindow() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            ByteBuffer expected = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < 16; i++) {
+                assertEquals(expected.getInt(), reader.readInt(ByteOrder.LITTLE_ENDIAN));
+            }
+            assertEquals(64, reader.position());
+            assertEquals(1, source.reads);
+        }
+    }
+
+    @Test
+    public void shouldReadValuesSpanningWindows() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            reader.position(60);
+
+            assertEquals(ByteBuffer.wrap(data, 60, 8).getLong(), reader.readLong(ByteOrder.BIG_ENDIAN));
+            assertArrayEquals(Arrays.copyOfRange(data, 68, 200), reader.readNext(DataTypeFactory.getByteArray(132)));
+            assertEquals(200, reader.position());
+        }
+    }
+
+    @Test
+    public void shouldRepositionWithinAndOutsideWindow() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            reader.readByte();
+            reader.position(40);
+            assertEquals(data[40], reader.readByte());
+            reader.skip(-41);
+            assertEquals(data[0], reader.readByte());
+            assertEquals(1, source.reads);
+
+            reader.position(900);
+            assertEquals(data[900], reader.readByte());
+            reader.skip(20);
+            assertEquals(data[921], reader.readByte());
+            assertEquals(2, source.reads);
+        }
+    }
+
+    @Test
+    public void shouldBypassWindowForLargeReads() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            reader.position(10);
+            byte[] target = new byte[500];
+
+            reader.readBytes(target, 0, target.length);
+
+            assertArrayEquals(Arrays.copyOfRange(data, 10, 510), target);
+            assertEquals(1, source.reads);
+            assertEquals(data[510], reader.readByte());
+        }
+    }
+
+    @Test
+    public void shouldReadUntilEnd() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            reader.position(990);
+
+            assertArrayEquals(Arrays.copyOfRange(data, 990, 1000), reader.readNext(DataTypeFactory.getByteArray(10)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldThrowExceptionForReadAfterEnd() throws Exception {
+        try (DataReader reader = new BufferedDataReader(source, WINDOW_SIZE)) {
+            reader.position(998);
+            reader.readInt(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    /**
+     * Byte array reader counting the number of reads on the underlying data.
+     */
+    private static class CountingDataReader extends ByteArrayDataReader {
+        private int reads;
+
+        public CountingDataReader(byte[] data) {
+            super(data);
+        }
+
+        @Override
+        public void readBytes(byte[] target, int offset, int length) throws DataReadingException {
+            reads++;
+            super.readBytes(target, offset, length);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link CachedHttpDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.CachedHttpDataReader
+ */
+public class CachedHttpDataReaderTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private byte[] data;
+    private HttpServer server;
+    private volatile boolean rangesSupported;
+    private List<String> ranges;
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[256 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 13);
+        }
+        rangesSupported = true;
+        ranges = new CopyOnWriteArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/data";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(String.valueOf(range));
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (rangesSupported && matcher != null && matcher.matches()) {
+                int start = Integer.parseInt(matcher.group(1));
+                int end = Math.min(data.length - 1, Integer.parseInt(matcher.group(2)));
+                exchange.getResponseHeaders().add("Content-Range", String.format("bytes %d-%d/%d", start, end, data.length));
+                exchange.sendResponseHeaders(206, end - start + 1);
+                out.write(data, start, end - start + 1);
+            } else {
+                exchange.sendResponseHeaders(200, data.length);
+                out.write(data);
+            }
+        }
+    }
+
+    private static byte[] readAll(DataReader reader) {
+        byte[] result = new byte[(int) reader.size()];
+        reader.readBytes(result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void shouldReadCompleteFile() throws Exception {
+        try (DataReader reader = new CachedHttpDataReader(url)) {
+            assertArrayEquals(data, readAll(reader));
+        }
+        assertEquals(Arrays.asList("null"), ranges);
+    }
+
+    @Test
+    public void shouldRequestRange() throws Exception {
+        try (DataReader reader = new CachedHttpDataReader(url, 1000, 500)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 1500), readAll(reader));
+        }
+        assertEquals(Arrays.asList("bytes=1000-1499"), ranges);
+    }
+
+    @Test
+    public void shouldFallBackWhenRangeIsIgnored() throws Exception {
+        rangesSupported = false;
+        try (DataReader reader = new CachedHttpDataReader(url, 70000, 1234)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 70000, 71234), readAll(reader));
+        }
+    }
+
+    @Test
+    public void shouldReadEmptyRangeWithoutRequest() throws Exception {
+        try (DataReader reader = new CachedHttpDataReader(url, 10, 0)) {
+            assertEquals(0, reader.size());
+        }
+        assertEquals(0, ranges.size());
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldFailForRangeAfterEndOfFile() throws Exception {
+        rangesSupported = false;
+        new CachedHttpDataReader(url, data.length - 10, 20).close();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CompositeDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.CompositeDataReader
+ */
+public class CompositeDataReaderTest {
+    private static final int[] PART_SIZES = {100, 0, 37, 1, 250, 12};
+    private byte[] data;
+    private long[] sizes;
+    private AtomicInteger[] opened;
+    private List<Supplier<? extends DataReader>> readers;
+
+    @Before
+    public void setUp() {
+        int total = Arrays.stream(PART_SIZES).sum();
+        data = new byte[total];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        sizes = new long[PART_SIZES.length];
+        opened = new AtomicInteger[PART_SIZES.length];
+        readers = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; i < PART_SIZES.length; i++) {
+            byte[] part = Arrays.copyOfRange(data, offset, offset + PART_SIZES[i]);
+            AtomicInteger counter = new AtomicInteger();
+            sizes[i] = part.length;
+            opened[i] = counter;
+            readers.add(() -> {
+                counter.incrementAndGet();
+                return new ByteArrayDataReader(part);
+            });
+            offset += PART_SIZES[i];
+        }
+    }
+
+    private static byte[] readAll(DataReader reader) {
+        List<Byte> bytes = new ArrayList<>();
+        while (reader.hasRemaining()) {
+            bytes.add(reader.readByte());
+        }
+        byte[] result = new byte[bytes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bytes.get(i);
+        }
+        return result;
+    }
+
+    @Test
+    public void shouldNotOpenReadersOnCreation() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers)) {
+            assertEquals(PART_SIZES.length, reader.getReaderCount());
+        }
+
+        assertTrue(Arrays.stream(opened).allMatch(c -> c.get() == 0));
+    }
+
+    @Test
+    public void shouldReadAcrossReaders() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers)) {
+            assertArrayEquals(data, readAll(reader));
+            assertEquals(data.length, reader.size());
+        }
+
+        assertTrue(Arrays.stream(opened).allMatch(c -> c.get() == 1));
+    }
+
+    @Test
+    public void shouldOnlyOpenReadersUpToPosition() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers)) {
+            byte[] target = new byte[120];
+            reader.readBytes(target, 0, target.length);
+
+            assertArrayEquals(Arrays.copyOfRange(data, 0, 120), target);
+        }
+
+        assertEquals(1, opened[2].get());
+        assertEquals(0, opened[3].get());
+        assertEquals(0, opened[4].get());
+    }
+
+    @Test
+    public void shouldSeekAcrossReadersWithKnownSizes() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers, sizes)) {
+            reader.position(390);
+            assertEquals(data[390], reader.readByte());
+            reader.position(136);
+            assertEquals(data[136], reader.readByte());
+            assertEquals(data[137], reader.readByte());
+            reader.position(98);
+            assertEquals((short) (((data[98] & 0xFF) << 8) | (data[99] & 0xFF)), reader.readShort(ByteOrder.BIG_ENDIAN));
+            assertEquals(data.length, reader.size());
+        }
+
+        assertEquals(1, opened[0].get());
+        assertEquals(0, opened[1].get());
+        assertEquals(0, opened[4].get());
+    }
+
+    @Test
+    public void shouldReadRangeOfCombinedData() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers, 90, 60)) {
+            assertEquals(60, reader.size());
+            assertArrayEquals(Arrays.copyOfRange(data, 90, 150), readAll(reader));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldNotPositionAfterEnd() throws Exception {
+        try (CompositeDataReader reader = new CompositeDataReader(readers)) {
+            reader.position(data.length + 1);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contract tests for {@link DataReader} implementations, verifying the primitive reads and the reading of the underlying data into buffers.
+ * <p>
+ * Implementations are tested by extending this class and providing a reader for the data to read.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.DataReader
+ * @see nl.salp.warcraft4j.io.BaseDataReader
+ */
+public abstract class DataReaderContractTest {
+    /** The size of the data to read. */
+    private static final int DATA_SIZE = 24;
+
+    /**
+     * Create a reader for data, positioned at the start of the data.
+     *
+     * @param data The data.
+     *
+     * @return The reader.
+     *
+     * @throws Exception When the reader could not be created.
+     */
+    protected abstract BaseDataReader createReader(byte[] data) throws Exception;
+
+    /**
+     * Create the data to read.
+     *
+     * @return The data.
+     */
+    private static byte[] createData() {
+        byte[] data = new byte[DATA_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 29 + 3);
+        }
+        return data;
+    }
+
+    @Test
+    public void shouldReadPrimitives() throws Exception {
+        byte[] data = createData();
+        try (DataReader reader = createReader(data)) {
+            ByteBuffer expected = ByteBuffer.wrap(data);
+            byte[] bytes = new byte[6];
+
+            assertEquals(expected.get(), reader.readByte());
+            assertEquals(expected.order(ByteOrder.LITTLE_ENDIAN).getShort(), reader.readShort(ByteOrder.LITTLE_ENDIAN));
+            assertEquals(expected.order(ByteOrder.BIG_ENDIAN).getInt(), reader.readInt(ByteOrder.BIG_ENDIAN));
+            assertEquals(expected.order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL, reader.readUnsignedInt(ByteOrder.LITTLE_ENDIAN));
+            assertEquals(expected.order(ByteOrder.LITTLE_ENDIAN).getLong(), reader.readLong(ByteOrder.LITTLE_ENDIAN));
+            reader.readBytes(bytes, 1, 5);
+            assertArrayEquals(new byte[]{0, data[19], data[20], data[21], data[22], data[23]}, bytes);
+            assertEquals(DATA_SIZE, reader.position());
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldThrowExceptionForPrimitiveAfterEnd() throws Exception {
+        try (DataReader reader = createReader(createData())) {
+            reader.skip(DATA_SIZE - 2);
+            reader.readInt(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    @Test
+    public void shouldReadDataIntoRemainingPartOfHeapBuffer() throws Exception {
+        assertReadDataIntoRemainingPart(ByteBuffer.allocate(DATA_SIZE + 8));
+    }
+
+    @Test
+    public void shouldReadDataIntoRemainingPartOfDirectBuffer() throws Exception {
+        assertReadDataIntoRemainingPart(ByteBuffer.allocateDirect(DATA_SIZE + 8));
+    }
+
+    @Test
+    public void shouldReadDataIntoRemainingPartOfSlicedBuffer() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[DATA_SIZE + 16], 8, DATA_SIZE + 8).slice();
+
+        assertReadDataIntoRemainingPart(buffer);
+    }
+
+    /**
+     * Read the data into the remaining part of a buffer, verifying that only the remaining part is filled and that the positions of the buffer
+     * and reader are advanced.
+     *
+     * @param buffer The buffer to read into, with 8 bytes more capacity than the data size.
+     *
+     * @throws Exception When the reader could not be created.
+     */
+    private void assertReadDataIntoRemainingPart(ByteBuffer buffer) throws Exception {
+        byte[] data = createData();
+        buffer.position(3);
+        buffer.limit(DATA_SIZE - 5);
+        try (BaseDataReader reader = createReader(data)) {
+            while (buffer.hasRemaining()) {
+                int position = buffer.position();
+                int read = reader.readData(buffer);
+
+                assertTrue(read > 0);
+                assertEquals(position + read, buffer.position());
+            }
+            assertEquals(DATA_SIZE - 8, reader.position());
+        }
+        assertEquals(DATA_SIZE - 5, buffer.limit());
+        byte[] result = new byte[buffer.capacity()];
+        buffer.clear();
+        buffer.get(result);
+        byte[] expected = new byte[buffer.capacity()];
+        System.arraycopy(data, 0, expected, 3, DATA_SIZE - 8);
+        assertArrayEquals(expected, result);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link HttpDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.HttpDataReader
+ */
+public class HttpDataReaderTest extends DataReaderContractTest {
+    private volatile byte[] data;
+    private volatile boolean chunked;
+    private HttpServer server;
+    private PooledHttpClient httpClient;
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/data";
+        httpClient = new PooledHttpClient();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, chunked ? 0 : data.length);
+            out.write(data);
+        }
+    }
+
+    @Test
+    public void shouldKeepConnectionWhenClosingAfterEndOfChunkedResponse() throws Exception {
+        data = new byte[100];
+        chunked = true;
+        ByteBuffer buffer = ByteBuffer.allocate(200);
+
+        try (HttpDataReader reader = new HttpDataReader(url, httpClient)) {
+            while (reader.readData(buffer) >= 0) {
+                // Read until the end of the response.
+            }
+        }
+
+        assertEquals(data.length, buffer.position());
+        assertEquals(1, httpClient.getIdleConnectionCount());
+    }
+
+    @Override
+    protected BaseDataReader createReader(byte[] data) throws Exception {
+        this.data = data;
+        return new HttpDataReader(url, httpClient);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MappedFile} and {@link ByteBufferDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.MappedFile
+ */
+public class MappedFileTest extends DataReaderContractTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private byte[] data;
+    private MappedFile mappedFile;
+    private final List<MappedFile> contractFiles = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[16 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 13);
+        }
+        Path file = folder.newFile("data.000").toPath();
+        Files.write(file, data);
+        mappedFile = new MappedFile(file);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mappedFile.close();
+        for (MappedFile contractFile : contractFiles) {
+            contractFile.close();
+        }
+    }
+
+    @Override
+    protected BaseDataReader createReader(byte[] contractData) throws Exception {
+        byte[] fileData = new byte[contractData.length + 100];
+        System.arraycopy(contractData, 0, fileData, 100, contractData.length);
+        Path file = folder.newFile().toPath();
+        Files.write(file, fileData);
+        MappedFile contractFile = new MappedFile(file);
+        contractFiles.add(contractFile);
+        return new ByteBufferDataReader(contractFile.slice(100, contractData.length));
+    }
+
+    @Test
+    public void shouldProvideSlice() throws Exception {
+        ByteBuffer slice = mappedFile.slice(100, 200);
+
+        assertEquals(0, slice.position());
+        assertEquals(200, slice.limit());
+        assertEquals(data[100], slice.get(0));
+        assertEquals(data[299], slice.get(199));
+    }
+
+    @Test
+    public void shouldReadSliceWithRelativePositions() throws Exception {
+        try (DataReader reader = new ByteBufferDataReader(mappedFile.slice(1000, 100))) {
+            assertEquals(100, reader.size());
+            assertEquals(ByteBuffer.wrap(data, 1050, 4).order(ByteOrder.LITTLE_ENDIAN).getInt(),
+                    (int) reader.read(DataTypeFactory.getInteger(), 50, ByteOrder.LITTLE_ENDIAN));
+            assertEquals(54, reader.position());
+            reader.position(0);
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 1100), reader.readNext(DataTypeFactory.getByteArray(100)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test
+    public void shouldReadSlicesIndependently() throws Exception {
+        ByteBuffer slice = mappedFile.slice(0, 10);
+        try (DataReader first = new ByteBufferDataReader(slice); DataReader second = new ByteBufferDataReader(slice)) {
+            first.skip(5);
+
+            assertEquals(5, first.remaining());
+            assertEquals(10, second.remaining());
+            assertEquals(0, slice.position());
+        }
+    }
+
+    @Test
+    public void shouldUnmapMappedBuffer() throws Exception {
+        try (FileChannel channel = FileChannel.open(mappedFile.getFile())) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            assertEquals(data[10], buffer.get(10));
+
+            assertTrue(MappedFile.unmap(buffer));
+        }
+    }
+
+    @Test
+    public void shouldNotUnmapHeapBuffer() {
+        assertFalse(MappedFile.unmap(ByteBuffer.wrap(data)));
+        assertFalse(MappedFile.unmap(null));
+    }
+
+    @Test(expected = DataReadingException.class)
+    public void shouldThrowExceptionForSliceOutsideFile() throws Exception {
+        mappedFile.slice(data.length - 10, 11);
+    }
+
+    @Test
+    public void shouldReadMemoryMappedFileRegion() throws Exception {
+        try (DataReader reader = new MemMapFileDataReader(mappedFile.getFile(), 2000, 100)) {
+            assertEquals(100, reader.size());
+            assertEquals(0, reader.position());
+            reader.position(10);
+            assertArrayEquals(Arrays.copyOfRange(data, 2010, 2100), reader.readNext(DataTypeFactory.getByteArray(90)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link PooledHttpClient}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.PooledHttpClient
+ */
+public class PooledHttpClientTest {
+    private static final byte[] DATA = "pooled data".getBytes(StandardCharsets.US_ASCII);
+    private HttpServer server;
+    private Set<Integer> clientPorts;
+    private String url;
+    private PooledHttpClient httpClient;
+
+    @Before
+    public void setUp() throws Exception {
+        clientPorts = ConcurrentHashMap.newKeySet();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/data";
+        httpClient = new PooledHttpClient(4, 2, 5000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, DATA.length);
+            out.write(DATA);
+        }
+    }
+
+    @Test
+    public void shouldReuseConnections() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            try (DataReader reader = new CachedHttpDataReader(url, httpClient)) {
+                byte[] data = new byte[(int) reader.size()];
+                reader.readBytes(data, 0, data.length);
+                assertArrayEquals(DATA, data);
+            }
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, httpClient.getIdleConnectionCount());
+    }
+
+    @Test
+    public void shouldApplyLimits() {
+        assertEquals(4, httpClient.getMaxConnections());
+        assertEquals(2, httpClient.getMaxConnectionsPerRoute());
+    }
+
+    @Test
+    public void shouldShareDefaultClient() throws Exception {
+        PooledHttpClient defaultClient = PooledHttpClient.getDefault();
+        defaultClient.close();
+
+        assertSame(defaultClient, PooledHttpClient.getDefault());
+        try (DataReader reader = new CachedHttpDataReader(url)) {
+            assertEquals(DATA.length, reader.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidLimits() {
+        new PooledHttpClient(0, 1, 1000);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.io;
+
+import nl.salp.warcraft4j.io.datatype.DataTypeFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link SharedFileDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.io.SharedFileDataReader
+ */
+public class SharedFileDataReaderTest extends DataReaderContractTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private byte[] data;
+    private SharedFileChannel channel;
+    private final List<SharedFileChannel> contractChannels = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 7);
+        }
+        Path file = folder.newFile("data.000").toPath();
+        Files.write(file, data);
+        channel = new SharedFileChannel(file);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channel.close();
+        for (SharedFileChannel contractChannel : contractChannels) {
+            contractChannel.close();
+        }
+    }
+
+    @Override
+    protected BaseDataReader createReader(byte[] contractData) throws Exception {
+        byte[] fileData = new byte[contractData.length + 100];
+        System.arraycopy(contractData, 0, fileData, 100, contractData.length);
+        Path file = folder.newFile().toPath();
+        Files.write(file, fileData);
+        SharedFileChannel contractChannel = new SharedFileChannel(file);
+        contractChannels.add(contractChannel);
+        return new SharedFileDataReader(contractChannel, 100, contractData.length);
+    }
+
+    @Test
+    public void shouldReadCompleteFile() throws Exception {
+        try (DataReader reader = new SharedFileDataReader(channel)) {
+            assertEquals(data.length, reader.size());
+            assertArrayEquals(data, reader.readNext(DataTypeFactory.getByteArray(data.length)));
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test
+    public void shouldReadRegionWithRelativePositions() throws Exception {
+        try (DataReader reader = new SharedFileDataReader(channel, 1000, 100)) {
+            assertEquals(100, reader.size());
+            assertEquals(ByteBuffer.wrap(data, 1050, 4).order(ByteOrder.LITTLE_ENDIAN).getInt(),
+                    (int) reader.read(DataTypeFactory.getInteger(), 50, ByteOrder.LITTLE_ENDIAN));
+            reader.position(0);
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 1100), reader.readNext(DataTypeFactory.getByteArray(100)));
+        }
+    }
+
+    @Test
+    public void shouldKeepChannelOpenWhenReaderIsClosed() throws Exception {
+        new SharedFileDataReader(channel, 0, 10).close();
+
+        try (DataReader reader = new SharedFileDataReader(channel, 10, 10)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 10, 20), reader.readNext(DataTypeFactory.getByteArray(10)));
+        }
+    }
+
+    @Test
+    public void shouldReadConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                int offset = i * 1024;
+                results.add(executor.submit(() -> {
+                    try (DataReader reader = new SharedFileDataReader(channel, offset, 1024)) {
+                        return reader.readNext(DataTypeFactory.getByteArray(1024));
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(Arrays.copyOfRange(data, i * 1024, (i + 1) * 1024), results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReopenChannelAfterInterruptedRead() throws Exception {
+        Thread.currentThread().interrupt();
+        try (DataReader reader = new SharedFileDataReader(channel, 0, 10)) {
+            reader.readNext(DataTypeFactory.getByteArray(10));
+        } catch (DataReadingException e) {
+            // Expected, the interrupted read closes the channel.
+        } finally {
+            Thread.interrupted();
+        }
+
+        try (DataReader reader = new SharedFileDataReader(channel, 10, 10)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 10, 20), reader.readNext(DataTypeFactory.getByteArray(10)));
+        }
+    }
+}
@@ -80,4 +80,13 @@ public class DataTypeUtilTest {
         ByteBuffer.wrap(longArray).asLongBuffer().put(value);
         assertArrayEquals(longArray, DataTypeUtil.toByteArray(value));
     }
-}
+
+    @Test
+    public void shouldReadLongFromOffset() {
+        long value = 0x8000000000000010L;
+        byte[] longArray = new byte[Long.BYTES + 3];
+        ByteBuffer.wrap(longArray, 3, Long.BYTES).putLong(value);
+
+        assertEquals(value, DataTypeUtil.toLong(longArray, 3));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Warcraft4J Project under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Warcraft4J Project licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package nl.salp.warcraft4j.util.unsafe;
+
+import nl.salp.warcraft4j.io.BaseDataReader;
+import nl.salp.warcraft4j.io.DataReaderContractTest;
+import org.junit.After;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link NativeMemorySegmentDataReader}.
+ *
+ * @author Barre Dijkstra
+ * @see nl.salp.warcraft4j.util.unsafe.NativeMemorySegmentDataReader
+ */
+public class NativeMemorySegmentDataReaderTest extends DataReaderContractTest {
+    private final List<NativeMemorySegment> segments = new ArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        for (NativeMemorySegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    @Override
+    protected BaseDataReader createReader(byte[] data) throws Exception {
+        NativeMemorySegment segment = new NativeMemorySegment(data.length);
+        segments.add(segment);
+        segment.put(0, data);
+        return new NativeMemorySegmentDataReader(segment);
+    }
+}